@@ -6,9 +6,10 @@
 
 // Import Redux action creators for withdrawal operations
 import {
-  getAllWithdrawalRequest,  // Fetches all withdrawal requests
+  getAllWithdrawalRequest,  // Fetches a page of pending withdrawal requests
   getWithdrawalHistory,     // Fetches withdrawal history (not used in this component)
   proceedWithdrawal,        // Processes a withdrawal request (approve/decline)
+  subscribeWithdrawalQueue, // Follows new and settled withdrawal requests
 } from "@/Redux/Withdrawal/Action";
 
 // Utility function to format timestamps into human-readable format
@@ -47,12 +48,19 @@ const WithdrawalAdmin = () => {
   // Extract withdrawal data from Redux store
   const { withdrawal } = useSelector((store) => store);
 
-  // useEffect hook to fetch withdrawal requests when component mounts
+  // useEffect hook to fetch withdrawal requests and follow the queue while the component is mounted
   useEffect(() => {
-    // Dispatch action to fetch all withdrawal requests, passing JWT for authentication
+    // Dispatch action to fetch the first page of withdrawal requests, passing JWT for authentication
     dispatch(getAllWithdrawalRequest(localStorage.getItem("jwt")));
+    // Keep the list current as withdrawals are requested and settled; the stream closes on unmount
+    return dispatch(subscribeWithdrawalQueue(localStorage.getItem("jwt")));
   }, []); // Empty dependency array means this runs once on component mount
 
+  // Handler function to load the next page of withdrawal requests
+  const handleLoadMore = () => {
+    dispatch(getAllWithdrawalRequest(localStorage.getItem("jwt"), withdrawal.requestsCursor));
+  };
+
   // Handler function to process withdrawal requests (approve or decline)
   const handleProceedWithdrawal = (id, accept) => {
     dispatch(
@@ -68,7 +76,7 @@ const WithdrawalAdmin = () => {
     // Main container with horizontal padding
     <div className="px-20 ">
       {/* Page title */}
-      <h1 className="text-3xl font-bold py-10">All Withdrawal Requests</h1>
+      <h1 className="text-3xl font-bold py-10">Pending Withdrawal Requests</h1>
       <div>
         {/* Table to display withdrawal requests */}
         <Table>
@@ -157,6 +165,15 @@ const WithdrawalAdmin = () => {
             ))}
           </TableBody>
         </Table>
+
+        {/* Load the next page while the server has more pending requests */}
+        {withdrawal.requestsCursor && (
+          <div className="flex justify-center py-5">
+            <Button variant="outline" disabled={withdrawal.loading} onClick={handleLoadMore}>
+              Load more
+            </Button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -22,13 +22,69 @@ const api = axios.create({
   baseURL: API_BASE_URL,
 });
 
-// Get authentication token from local storage
-// Note: This runs only once when the file is imported
-// For dynamic token updates, consider using interceptors
-const token = localStorage.getItem('jwt');
+/**
+ * Stores the tokens of a sign-in or refresh response
+ * Access tokens live 15 minutes; the refresh token renews them and is replaced on every use
+ *
+ * @param {Object} auth - Auth response with jwt and refreshToken
+ */
+export const storeTokens = (auth) => {
+  if (auth?.jwt) localStorage.setItem('jwt', auth.jwt);
+  if (auth?.refreshToken) localStorage.setItem('refreshToken', auth.refreshToken);
+};
+
+// Refresh in progress, shared by every request that failed with 401 while it runs
+let refreshing = null;
+
+/**
+ * Exchanges the stored refresh token for a new access token
+ * Concurrent callers share one request, as a refresh token can only be used once
+ *
+ * @returns {Promise<string>} - The new access token
+ */
+export const refreshAccessToken = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshing = (refreshToken
+      ? axios.post(`${API_BASE_URL}/auth/refresh`, { refreshToken }).then((response) => {
+          storeTokens(response.data);
+          return response.data.jwt;
+        })
+      : Promise.reject(new Error('No refresh token'))
+    ).finally(() => {
+      refreshing = null;
+    });
+  }
+  return refreshing;
+};
+
+// Sends the current access token with every request, so a token stored after this file was loaded is used
+api.interceptors.request.use((config) => {
+  const token = localStorage.getItem('jwt');
+  if (token) config.headers['Authorization'] = `Bearer ${token}`;
+  return config;
+});
 
-// Set authorization header with JWT token
-api.defaults.headers.common['Authorization'] = `Bearer ${token}`;
+// Renews an expired access token once and retries the request; when the refresh fails the session is over
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const request = error.config;
+    if (error.response?.status !== 401 || !request || request._retried) {
+      return Promise.reject(error);
+    }
+    request._retried = true;
+    try {
+      const token = await refreshAccessToken();
+      request.headers['Authorization'] = `Bearer ${token}`;
+      return api(request);
+    } catch (refreshError) {
+      localStorage.removeItem('jwt');
+      localStorage.removeItem('refreshToken');
+      return Promise.reject(error);
+    }
+  }
+);
 
 // Set default content type for POST requests
 api.defaults.headers.post['Content-Type'] = 'application/json';
@@ -3,7 +3,7 @@
 
 import axios from "axios";
 import * as actionTypes from "./ActionTypes";
-import api, { API_BASE_URL } from "@/Api/api";
+import api, { API_BASE_URL, storeTokens } from "@/Api/api";
 
 /**
  * Action creator for user registration
@@ -19,8 +19,8 @@ export const register = (userData) => async (dispatch) => {
     const response = await axios.post(`${API_BASE_URL}/auth/signup`, userData);
     const user = response.data;
     
-    // Save JWT token to localStorage if present
-    if (user.jwt) localStorage.setItem("jwt", user.jwt);
+    // Save the access and refresh tokens to localStorage if present
+    storeTokens(user);
     console.log("registerr :- ", user);
     
     // Navigate to home page after successful registration
@@ -58,9 +58,9 @@ export const login = (userData) => async (dispatch) => {
       userData.navigate(`/two-factor-auth/${user.session}`);
     }
     
-    // If JWT is present, save to localStorage and navigate to home page
+    // If JWT is present, save the tokens to localStorage and navigate to home page
     if (user.jwt) {
-      localStorage.setItem("jwt", user.jwt);
+      storeTokens(user);
       console.log("login ", user);
       userData.navigate("/");
     }
@@ -100,9 +100,9 @@ export const twoStepVerification =
       );
       const user = response.data;
 
-      // If JWT is present, save to localStorage and navigate to home page
+      // If JWT is present, save the tokens to localStorage and navigate to home page
       if (user.jwt) {
-        localStorage.setItem("jwt", user.jwt);
+        storeTokens(user);
         console.log("login ", user);
         navigate("/");
       }
@@ -132,7 +132,8 @@ export const getUser = (token) => {
     dispatch({ type: actionTypes.GET_USER_REQUEST });
     try {
       // Make API request to get user profile with authentication header
-      const response = await axios.get(`${API_BASE_URL}/api/users/profile`, {
+      // Goes through the api instance so an expired access token is refreshed
+      const response = await api.get(`/api/users/profile`, {
         headers: {
           Authorization: `Bearer ${token}`,
         },
@@ -373,15 +374,32 @@ export const verifyResetPassowrdOTP = ({
 
 /**
  * Action creator for user logout
+ * Revokes the access token and the refresh token on the server, so neither can be used after sign-out
  * 
  * @returns {Function} - Thunk function that handles logout
  */
 export const logout = () => {
   return async (dispatch) => {
+    const jwt = localStorage.getItem("jwt");
+    const refreshToken = localStorage.getItem("refreshToken");
+
     // Dispatch logout action
     dispatch({ type: actionTypes.LOGOUT });
     
     // Clear all items from localStorage
     localStorage.clear();
+
+    try {
+      await axios.post(
+        `${API_BASE_URL}/auth/logout`,
+        { refreshToken },
+        jwt ? { headers: { Authorization: `Bearer ${jwt}` } } : undefined
+      );
+    } catch (error) {
+      // An expired access token is rejected; the refresh token is still revoked without it
+      await axios
+        .post(`${API_BASE_URL}/auth/logout`, { refreshToken })
+        .catch((retryError) => console.log("logout error ", retryError));
+    }
   };
 }; 
@@ -76,43 +76,70 @@ export const getWalletTransactions =
     }
   };
 
+// Time between two looks at a deposit's payment order, and how many looks before giving up
+const DEPOSIT_POLL_MILLIS = 2000;
+const DEPOSIT_POLL_ATTEMPTS = 15;
+
 /**
  * Action creator to process a deposit into the user's wallet
+ * The server queues the payment for confirmation and answers 202 with the payment order; the order is
+ * followed until it is settled, then the credited wallet is fetched
  * 
  * @param {Object} params - Parameters for deposit operation
  * @param {string} params.jwt - JWT token for authentication
  * @param {string} params.orderId - ID of the order associated with the deposit
  * @param {string} params.paymentId - ID of the payment associated with the deposit
- * @param {Function} params.navigate - Navigation function to redirect after successful deposit
+ * @param {Function} params.navigate - Navigation function to redirect after the deposit
+ * @param {number} [params.pollMillis] - Time between two looks at the payment order
  * @returns {Function} - Thunk function that processes the deposit
  */
 export const depositMoney =
-  ({ jwt, orderId, paymentId, navigate }) =>
+  ({ jwt, orderId, paymentId, navigate, pollMillis = DEPOSIT_POLL_MILLIS }) =>
   async (dispatch) => {
     // Dispatch action to indicate deposit process has started
     dispatch({ type: types.DEPOSIT_MONEY_REQUEST });
 
+    const headers = { Authorization: `Bearer ${jwt}` };
     try {
-      // Make authenticated API request to process deposit
+      // Make authenticated API request to queue the deposit
       const response = await api.put(`/api/wallet/deposit`, null, {
         params: {
           order_id: orderId,
           payment_id: paymentId,
         },
-        headers: {
-          Authorization: `Bearer ${jwt}`,
-        },
+        headers,
       });
 
-      // Dispatch success action with deposit response
-      dispatch({
-        type: types.DEPOSIT_MONEY_SUCCESS,
-        payload: response.data,
-      });
-      
-      // Navigate to wallet page after successful deposit
+      // Follow the payment order while its payment is being confirmed
+      let order = response.data;
+      for (let attempt = 0; order.status === "PENDING" && attempt < DEPOSIT_POLL_ATTEMPTS; attempt++) {
+        await new Promise((resolve) => setTimeout(resolve, pollMillis));
+        order = (await api.get(`/api/payment/order/${orderId}`, { headers })).data;
+      }
+
+      if (order.status === "FAILED") {
+        throw new Error("payment failed");
+      }
+      if (order.status === "PENDING") {
+        // Still unconfirmed; the wallet is credited when the provider confirms the payment
+        dispatch({
+          type: types.DEPOSIT_MONEY_PENDING,
+          payload: order,
+        });
+      } else {
+        // Fetch the credited wallet
+        const wallet = await api.get("/api/wallet", { headers });
+
+        // Dispatch success action with the updated wallet
+        dispatch({
+          type: types.DEPOSIT_MONEY_SUCCESS,
+          payload: wallet.data,
+        });
+      }
+
+      // Navigate to wallet page once the deposit is settled or left pending
       navigate("/wallet")
-      console.log(response.data);
+      console.log(order);
     } catch (error) {
       console.error(error);
       
@@ -18,6 +18,7 @@ export const GET_WALLET_TRANSACTION_FAILURE = 'GET_WALLET_TRANSACTION_FAILURE';
 export const DEPOSIT_MONEY_REQUEST = 'DEPOSIT_MONEY_REQUEST';  // Dispatched when deposit process starts
 export const DEPOSIT_MONEY_SUCCESS = 'DEPOSIT_MONEY_SUCCESS';  // Dispatched when deposit is successful
 export const DEPOSIT_MONEY_FAILURE = 'DEPOSIT_MONEY_FAILURE';  // Dispatched when deposit fails
+export const DEPOSIT_MONEY_PENDING = 'DEPOSIT_MONEY_PENDING';  // Dispatched when the payment is still being confirmed
 
 // ========== MONEY TRANSFER ACTION TYPES ==========
 // Action types for transferring money from the wallet
@@ -69,6 +69,15 @@ const walletReducer = (state = initialState, action) => {
         loading: false,             // Reset loading state
         error: null,                // Clear any errors
       };
+
+    // ========== DEPOSIT PENDING ==========
+    // Handle a deposit whose payment is still being confirmed; the wallet keeps its balance until then
+    case types.DEPOSIT_MONEY_PENDING:
+      return {
+        ...state,
+        loading: false,             // Reset loading state
+        error: null,                // Clear any errors
+      };
       
     // ========== FAILURE ACTIONS ==========
     // Handle failures for all wallet operations
@@ -2,7 +2,7 @@
 
 // This file contains Redux action creators for withdrawal-related operations
 
-import api from '@/Api/api';
+import api, { API_BASE_URL } from '@/Api/api';
 import {
   WITHDRAWAL_REQUEST,
   WITHDRAWAL_SUCCESS,
@@ -21,7 +21,9 @@ import {
   GET_PAYMENT_DETAILS_FAILURE,
   GET_WITHDRAWAL_REQUEST_SUCCESS,
   GET_WITHDRAWAL_REQUEST_FAILURE,
-  GET_WITHDRAWAL_REQUEST_REQUEST
+  GET_WITHDRAWAL_REQUEST_REQUEST,
+  WITHDRAWAL_QUEUE_PENDING,
+  WITHDRAWAL_QUEUE_SETTLED
 } from './ActionTypes';
 
 /**
@@ -125,26 +127,30 @@ export const getWithdrawalHistory = jwt => async dispatch => {
 };
 
 /**
- * Action creator for admin to fetch all pending withdrawal requests
+ * Action creator for admin to fetch a page of pending withdrawal requests, oldest first
  * 
  * @param {string} jwt - JWT token for authentication
- * @returns {Function} - Thunk function that fetches all withdrawal requests
+ * @param {Object} [cursor] - Cursor of the last loaded page; omit it to load the first page
+ * @param {string} cursor.afterDate - Date of the last loaded withdrawal
+ * @param {number} cursor.afterId - ID of the last loaded withdrawal
+ * @returns {Function} - Thunk function that fetches the page of withdrawal requests
  */
-export const getAllWithdrawalRequest = jwt => async dispatch => {
+export const getAllWithdrawalRequest = (jwt, cursor) => async dispatch => {
   // Dispatch action to indicate withdrawal requests fetch has started
   dispatch({ type: GET_WITHDRAWAL_REQUEST_REQUEST });
   try {
-    // Make authenticated API request to get all withdrawal requests
+    // Make authenticated API request to get the page after the cursor
     const response = await api.get('/api/admin/withdrawal', {
-      headers: { Authorization: `Bearer ${jwt}` }
+      headers: { Authorization: `Bearer ${jwt}` },
+      params: cursor ? { afterDate: cursor.afterDate, afterId: cursor.afterId } : undefined
     });
 
     console.log("get withdrawal requests ---- ", response.data);
     
-    // Dispatch success action with withdrawal requests data
+    // Dispatch success action with the page; later pages are appended to the loaded ones
     dispatch({
       type: GET_WITHDRAWAL_REQUEST_SUCCESS,
-      payload: response.data
+      payload: { ...response.data, append: Boolean(cursor) }
     });
   } catch (error) {
     console.log("error ", error);
@@ -157,6 +163,79 @@ export const getAllWithdrawalRequest = jwt => async dispatch => {
   }
 };
 
+/**
+ * Action creator for admin to follow the withdrawal queue as withdrawals are requested and settled
+ * Reads the server-sent events with fetch, as EventSource cannot send the Authorization header.
+ * When the stream ends it reconnects and reloads the first page, since events sent meanwhile are lost
+ * 
+ * @param {string} jwt - JWT token for authentication
+ * @returns {Function} - Thunk function that opens the stream and returns a function that closes it
+ */
+export const subscribeWithdrawalQueue = jwt => dispatch => {
+  const controller = new AbortController();
+
+  // Dispatches one event block ("event: name" and "data: json" lines)
+  const handleEvent = (block) => {
+    let event = 'message';
+    const data = [];
+    block.split('\n').forEach((line) => {
+      if (line.startsWith('event:')) event = line.slice(6).trim();
+      else if (line.startsWith('data:')) data.push(line.slice(5).replace(/^ /, ''));
+    });
+    if (data.length === 0) return;
+
+    const payload = JSON.parse(data.join('\n'));
+    if (event === 'withdrawal-pending') {
+      dispatch({ type: WITHDRAWAL_QUEUE_PENDING, payload });
+    } else if (event === 'withdrawal-settled') {
+      dispatch({ type: WITHDRAWAL_QUEUE_SETTLED, payload });
+    }
+  };
+
+  // Reads the stream until the server closes it
+  const read = async (token) => {
+    const response = await fetch(`${API_BASE_URL}/api/admin/withdrawal/stream`, {
+      headers: { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' },
+      signal: controller.signal
+    });
+    if (!response.ok) throw new Error(`withdrawal stream failed with ${response.status}`);
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) return;
+      buffer += decoder.decode(value, { stream: true });
+      let end;
+      while ((end = buffer.indexOf('\n\n')) >= 0) {
+        handleEvent(buffer.slice(0, end));
+        buffer = buffer.slice(end + 2);
+      }
+    }
+  };
+
+  const follow = async () => {
+    let token = jwt;
+    while (!controller.signal.aborted) {
+      try {
+        await read(token);
+      } catch (error) {
+        if (controller.signal.aborted) return;
+        console.log("withdrawal stream error ", error);
+      }
+      // Waits before reconnecting, then catches up on what was missed with the current access token
+      await new Promise((resolve) => setTimeout(resolve, 5000));
+      if (controller.signal.aborted) return;
+      token = localStorage.getItem("jwt") || token;
+      dispatch(getAllWithdrawalRequest(token));
+    }
+  };
+  follow();
+
+  return () => controller.abort();
+};
+
 /**
  * Action creator to add or update user's payment details for withdrawals
  * 
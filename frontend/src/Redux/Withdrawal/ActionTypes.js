@@ -25,6 +25,11 @@ export const GET_WITHDRAWAL_REQUEST_REQUEST = 'GET_WITHDRAWAL_REQUEST_REQUEST';
 export const GET_WITHDRAWAL_REQUEST_SUCCESS = 'GET_WITHDRAWAL_REQUEST_SUCCESS';  // Dispatched when all withdrawal requests are successfully retrieved
 export const GET_WITHDRAWAL_REQUEST_FAILURE = 'GET_WITHDRAWAL_REQUEST_FAILURE';  // Dispatched when all withdrawal requests fetch fails
 
+// ========== WITHDRAWAL QUEUE STREAM ACTION TYPES ==========
+// Action types for events of the admin withdrawal queue stream
+export const WITHDRAWAL_QUEUE_PENDING = 'WITHDRAWAL_QUEUE_PENDING';  // Dispatched when a user requests a withdrawal
+export const WITHDRAWAL_QUEUE_SETTLED = 'WITHDRAWAL_QUEUE_SETTLED';  // Dispatched when an admin settles withdrawals
+
 // ========== PAYMENT DETAILS ADD/UPDATE ACTION TYPES ==========
 // Action types for adding or updating payment details for withdrawals
 export const ADD_PAYMENT_DETAILS_REQUEST = 'ADD_PAYMENT_DETAILS_REQUEST';  // Dispatched when payment details update starts
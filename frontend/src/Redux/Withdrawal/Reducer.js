@@ -17,6 +17,8 @@ import {
   GET_WITHDRAWAL_REQUEST_SUCCESS,
   GET_WITHDRAWAL_REQUEST_FAILURE,
   GET_WITHDRAWAL_REQUEST_REQUEST,
+  WITHDRAWAL_QUEUE_PENDING,
+  WITHDRAWAL_QUEUE_SETTLED,
 } from "./ActionTypes";
 
 /**
@@ -27,7 +29,8 @@ import {
  * @property {boolean} loading - Indicates if a withdrawal API request is in progress
  * @property {Object|null} error - Error information if a request fails
  * @property {Object|null} PaymentDetails - User's payment details for withdrawals
- * @property {Array} requests - List of all withdrawal requests (for admin)
+ * @property {Array} requests - Loaded pending withdrawal requests, oldest first (for admin)
+ * @property {Object|null} requestsCursor - Cursor of the next page of requests; null when all are loaded
  */
 const initialState = {
   withdrawal: null,      // Stores current withdrawal request information
@@ -35,7 +38,8 @@ const initialState = {
   loading: false,        // Tracks loading state during withdrawal operations
   error: null,           // Stores error messages from failed operations
   PaymentDetails: null,  // Stores user's payment details (bank account, PayPal, etc.)
-  requests: []           // Stores all withdrawal requests (admin view)
+  requests: [],          // Stores the loaded pending withdrawal requests (admin view)
+  requestsCursor: null   // Stores the cursor ({ afterDate, afterId }) of the next page, if any
 };
 
 /**
@@ -104,14 +108,41 @@ const withdrawalReducer = (state = initialState, action) => {
       };
 
     // ========== ALL WITHDRAWAL REQUESTS SUCCESS ==========
-    // Handle successful fetch of all withdrawal requests (admin)
+    // Handle successful fetch of a page of withdrawal requests (admin)
     case GET_WITHDRAWAL_REQUEST_SUCCESS:
       return {
         ...state,
-        requests: action.payload,  // Store all withdrawal requests
+        // Replace the list with the first page, or append a later one
+        requests: action.payload.append
+          ? [...state.requests, ...action.payload.items]
+          : action.payload.items,
+        // Keep the cursor of the next page; the server sends none on the last page
+        requestsCursor: action.payload.nextAfterId == null
+          ? null
+          : { afterDate: action.payload.nextAfterDate, afterId: action.payload.nextAfterId },
         loading: false,
         error: null,
       };
+
+    // ========== WITHDRAWAL QUEUE STREAM EVENTS ==========
+    // Handle a new withdrawal request; it is the newest, so it only belongs in the list once every page is loaded
+    case WITHDRAWAL_QUEUE_PENDING:
+      if (state.requestsCursor || state.requests.some((item) => item.id === action.payload.id)) {
+        return state;
+      }
+      return {
+        ...state,
+        requests: [...state.requests, action.payload],
+      };
+
+    // Handle settled withdrawals (by any admin); they leave the pending queue
+    case WITHDRAWAL_QUEUE_SETTLED: {
+      const settled = new Set(action.payload.map((result) => result.withdrawalId));
+      return {
+        ...state,
+        requests: state.requests.filter((item) => !settled.has(item.id)),
+      };
+    }
       
     // ========== FAILURE ACTIONS ==========
     // Handle failures for all withdrawal operations
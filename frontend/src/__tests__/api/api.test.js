@@ -0,0 +1,64 @@
+// File: src/__tests__/api/api.test.js
+// This file contains unit tests for the access token refresh in the axios API instance
+
+import axios from 'axios';
+import MockAdapter from 'axios-mock-adapter';
+import api, { API_BASE_URL } from '../../Api/api';
+
+describe('API token refresh', () => {
+  let apiMock;
+  let axiosMock;
+  let storage;
+
+  // Set up before each test
+  beforeEach(() => {
+    // Mock HTTP for the API instance and for the plain axios used by the refresh call
+    apiMock = new MockAdapter(api);
+    axiosMock = new MockAdapter(axios);
+
+    // Back the localStorage mock with a map so stored tokens can be read back
+    storage = { jwt: 'expired-jwt', refreshToken: 'refresh-1' };
+    global.localStorage = {
+      getItem: jest.fn((key) => storage[key] ?? null),
+      setItem: jest.fn((key, value) => { storage[key] = value; }),
+      removeItem: jest.fn((key) => { delete storage[key]; }),
+      clear: jest.fn(() => { storage = {}; })
+    };
+  });
+
+  afterEach(() => {
+    apiMock.restore();
+    axiosMock.restore();
+  });
+
+  // Test 1: an expired access token is refreshed once and the request retried with the new one
+  it('refreshes the access token on 401 and retries the request', async () => {
+    // Reject the expired token, accept the new one
+    apiMock.onGet('/api/wallet').reply((config) =>
+      config.headers.Authorization === 'Bearer new-jwt' ? [200, { balance: 10 }] : [401]
+    );
+    axiosMock.onPost(`${API_BASE_URL}/auth/refresh`, { refreshToken: 'refresh-1' })
+      .reply(200, { jwt: 'new-jwt', refreshToken: 'refresh-2' });
+
+    // Send two requests at once
+    const [first, second] = await Promise.all([api.get('/api/wallet'), api.get('/api/wallet')]);
+
+    // Both succeed after a single refresh, and the rotated tokens are stored
+    expect(first.data).toEqual({ balance: 10 });
+    expect(second.data).toEqual({ balance: 10 });
+    expect(axiosMock.history.post.length).toBe(1);
+    expect(storage).toEqual({ jwt: 'new-jwt', refreshToken: 'refresh-2' });
+  });
+
+  // Test 2: a failed refresh ends the session and surfaces the original 401
+  it('clears the tokens when the refresh fails', async () => {
+    apiMock.onGet('/api/wallet').reply(401);
+    axiosMock.onPost(`${API_BASE_URL}/auth/refresh`).reply(401);
+
+    // The original error is rethrown
+    await expect(api.get('/api/wallet')).rejects.toMatchObject({ response: { status: 401 } });
+
+    // Both tokens are dropped
+    expect(storage).toEqual({});
+  });
+});
@@ -33,14 +33,16 @@ jest.mock('../../../Api/api', () => {
       }
     },
     // Mock the API base URL constant
-    API_BASE_URL: 'http://localhost:8080'
+    API_BASE_URL: 'http://localhost:8080',
+    // Mock the token storage helper
+    storeTokens: jest.fn()
   };
 });
 
 // Import modules after mocking - this ensures our mocks are used
 import axios from 'axios';
 import * as actions from '../../../Redux/Auth/Action';
-import { API_BASE_URL } from '../../../Api/api';
+import api, { API_BASE_URL } from '../../../Api/api';
 
 // Configure Redux mock store to test async action creators
 const mockStore = configureStore();
@@ -95,8 +97,8 @@ describe('Auth Actions', () => {
       fullName: 'Test User' 
     };
     
-    // Configure axios mock to return our test user data
-    axios.get.mockResolvedValue({ data: mockUser });
+    // Configure API mock to return our test user data
+    api.get.mockResolvedValue({ data: mockUser });
     
     // Define the sequence of actions we expect to be dispatched
     const expectedActions = [
@@ -114,8 +116,8 @@ describe('Auth Actions', () => {
 
   // Test 3: Verify failed user profile fetch
   it('creates GET_USER_FAILURE when fetching user profile fails', () => {
-    // Configure axios mock to simulate a network error
-    axios.get.mockRejectedValue(new Error('Network Error'));
+    // Configure API mock to simulate a network error
+    api.get.mockRejectedValue(new Error('Network Error'));
     
     // Define the sequence of actions we expect to be dispatched
     // Note that the error payload is null as per the implementation
@@ -132,6 +134,23 @@ describe('Auth Actions', () => {
       });
   });
   
+  // Test 4: Verify logout revokes the stored tokens on the server
+  it('posts both tokens to /auth/logout when logging out', async () => {
+    // Mock stored tokens
+    localStorage.getItem = jest.fn((key) => (key === 'refreshToken' ? 'fake-refresh' : 'fake-jwt'));
+
+    // Dispatch the logout action and wait for the server call
+    await actions.logout()(store.dispatch);
+
+    // Verify the refresh token is sent in the body and the access token in the header
+    expect(axios.post).toHaveBeenCalledWith(
+      `${API_BASE_URL}/auth/logout`,
+      { refreshToken: 'fake-refresh' },
+      { headers: { Authorization: 'Bearer fake-jwt' } }
+    );
+    expect(localStorage.clear).toHaveBeenCalled();
+  });
+
   // Additional tests that could be added:
   // - Test registration action creator
   // - Test login action creator
@@ -120,10 +120,13 @@ describe('Wallet Actions', () => {
   });
 
   // Test 4: Depositing money successfully
-  it('creates DEPOSIT_MONEY_SUCCESS when deposit is successful', () => {
-    // Setup mock response data with updated wallet balance
-    const mockResponse = { id: 1, balance: 1500 };
-    api.put.mockResolvedValue({ data: mockResponse });
+  it('creates DEPOSIT_MONEY_SUCCESS once the queued payment is confirmed', () => {
+    // The deposit is queued (202 with the pending order), confirmed on the next look, and the wallet credited
+    const mockWallet = { id: 1, balance: 1500 };
+    api.put.mockResolvedValue({ status: 202, data: { id: 'order123', status: 'PENDING' } });
+    api.get
+      .mockResolvedValueOnce({ data: { id: 'order123', status: 'SUCCESS' } })  // Payment order lookup
+      .mockResolvedValueOnce({ data: mockWallet });                            // Wallet fetch
     
     // Create a mock for the navigate function (used for redirection after deposit)
     const navigateMock = jest.fn();
@@ -131,15 +134,16 @@ describe('Wallet Actions', () => {
     // Define the sequence of actions we expect to be dispatched
     const expectedActions = [
       { type: types.DEPOSIT_MONEY_REQUEST },                // First action: request started
-      { type: types.DEPOSIT_MONEY_SUCCESS, payload: mockResponse }  // Second action: request successful
+      { type: types.DEPOSIT_MONEY_SUCCESS, payload: mockWallet }  // Second action: wallet credited
     ];
     
-    // Prepare deposit data with JWT, order ID, payment ID, and navigation function
+    // Prepare deposit data with JWT, order ID, payment ID, navigation function and no delay between looks
     const depositData = {
       jwt: 'fake-jwt',             // Authentication token
       orderId: 'order123',         // Order identifier
       paymentId: 'payment456',     // Payment transaction identifier
-      navigate: navigateMock       // Navigation function for redirection
+      navigate: navigateMock,      // Navigation function for redirection
+      pollMillis: 0                // Look at the order again immediately
     };
     
     // Dispatch the depositMoney action and return the promise
@@ -147,10 +151,32 @@ describe('Wallet Actions', () => {
       .then(() => {
         // Verify that all expected actions were dispatched in the correct order
         expect(store.getActions()).toEqual(expectedActions);
+        // Verify the order was followed before the wallet was fetched
+        expect(api.get).toHaveBeenNthCalledWith(1, '/api/payment/order/order123', expect.anything());
+        expect(api.get).toHaveBeenNthCalledWith(2, '/api/wallet', expect.anything());
         // Verify that navigation to wallet page was triggered
         expect(navigateMock).toHaveBeenCalledWith('/wallet');
       });
   });
+
+  // Test 5: Depositing money with a failed payment
+  it('creates DEPOSIT_MONEY_FAILURE when the queued payment fails', () => {
+    api.put.mockResolvedValue({ status: 202, data: { id: 'order123', status: 'PENDING' } });
+    api.get.mockResolvedValueOnce({ data: { id: 'order123', status: 'FAILED' } });
+    const navigateMock = jest.fn();
+
+    return actions.depositMoney({
+      jwt: 'fake-jwt', orderId: 'order123', paymentId: 'payment456', navigate: navigateMock, pollMillis: 0
+    })(store.dispatch)
+      .then(() => {
+        // The wallet is not fetched and the user stays on the page
+        expect(store.getActions()).toEqual([
+          { type: types.DEPOSIT_MONEY_REQUEST },
+          { type: types.DEPOSIT_MONEY_FAILURE, error: 'payment failed' }
+        ]);
+        expect(navigateMock).not.toHaveBeenCalled();
+      });
+  });
   
   // Additional tests that could be added:
   // - Test the transferMoney action
@@ -78,8 +78,29 @@ describe('Wallet Reducer', () => {
     });
   });
   
+  // Test 5: Verify DEPOSIT_MONEY_PENDING keeps the wallet and resets loading
+  it('should handle DEPOSIT_MONEY_PENDING', () => {
+    // A wallet loaded before the deposit, with a deposit in progress
+    const mockWallet = { id: 1, balance: 500 };
+    const state = { ...initialState, userWallet: mockWallet, loading: true };
+
+    // When the deposit is left pending with its payment order
+    const newState = reducer(state, {
+      type: types.DEPOSIT_MONEY_PENDING,
+      payload: { id: 7, status: 'PENDING' },
+    });
+
+    // The wallet is not replaced by the order and loading is reset
+    expect(newState).toEqual({
+      ...initialState,
+      userWallet: mockWallet,
+      loading: false,
+      error: null,
+    });
+  });
+
   // Additional tests that could be added:
   // - Test for GET_WALLET_TRANSACTION_REQUEST, GET_WALLET_TRANSACTION_SUCCESS, GET_WALLET_TRANSACTION_FAILURE
-  // - Test for DEPOSIT_MONEY actions
+  // - Test for DEPOSIT_MONEY_REQUEST and DEPOSIT_MONEY_FAILURE actions
   // - Test for TRANSFER_MONEY actions
 }); 
@@ -0,0 +1,64 @@
+// File: src/__tests__/redux/reducers/withdrawal.reducer.test.js
+// This file contains unit tests for the admin withdrawal queue in the withdrawal reducer
+
+import reducer from '../../../Redux/Withdrawal/Reducer';
+import * as types from '../../../Redux/Withdrawal/ActionTypes';
+
+describe('Withdrawal Reducer', () => {
+  // Sample pending withdrawals, oldest first
+  const first = { id: 1, amount: 100, status: 'PENDING' };
+  const second = { id: 2, amount: 200, status: 'PENDING' };
+  const third = { id: 3, amount: 300, status: 'PENDING' };
+
+  // Test 1: Verify the first page replaces the list and keeps the cursor of the next page
+  it('should store the first page and its cursor', () => {
+    const newState = reducer(reducer(undefined, {}), {
+      type: types.GET_WITHDRAWAL_REQUEST_SUCCESS,
+      payload: { items: [first], nextAfterDate: '2026-01-01T10:00:00', nextAfterId: 1, append: false },
+    });
+
+    // The page is stored and the cursor points after its last item
+    expect(newState.requests).toEqual([first]);
+    expect(newState.requestsCursor).toEqual({ afterDate: '2026-01-01T10:00:00', afterId: 1 });
+    expect(newState.loading).toBe(false);
+  });
+
+  // Test 2: Verify a later page is appended and the last page clears the cursor
+  it('should append a later page and clear the cursor on the last page', () => {
+    const state = { ...reducer(undefined, {}), requests: [first], requestsCursor: { afterDate: 'd', afterId: 1 } };
+
+    const newState = reducer(state, {
+      type: types.GET_WITHDRAWAL_REQUEST_SUCCESS,
+      payload: { items: [second], nextAfterDate: null, nextAfterId: null, append: true },
+    });
+
+    expect(newState.requests).toEqual([first, second]);
+    expect(newState.requestsCursor).toBeNull();
+  });
+
+  // Test 3: Verify a new withdrawal from the stream is added only when every page is loaded
+  it('should add a streamed pending withdrawal once all pages are loaded', () => {
+    const loaded = { ...reducer(undefined, {}), requests: [first, second] };
+    const paged = { ...loaded, requestsCursor: { afterDate: 'd', afterId: 2 } };
+    const action = { type: types.WITHDRAWAL_QUEUE_PENDING, payload: third };
+
+    // Appended at the end of a fully loaded queue, ignored when later pages will bring it
+    expect(reducer(loaded, action).requests).toEqual([first, second, third]);
+    expect(reducer(paged, action)).toBe(paged);
+  });
+
+  // Test 4: Verify settled withdrawals from the stream leave the queue
+  it('should remove streamed settled withdrawals', () => {
+    const state = { ...reducer(undefined, {}), requests: [first, second, third] };
+
+    const newState = reducer(state, {
+      type: types.WITHDRAWAL_QUEUE_SETTLED,
+      payload: [
+        { withdrawalId: 1, applied: true, status: 'SUCCESS', message: null },
+        { withdrawalId: 3, applied: true, status: 'DECLINE', message: null },
+      ],
+    });
+
+    expect(newState.requests).toEqual([second]);
+  });
+});
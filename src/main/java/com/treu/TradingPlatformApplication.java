@@ -2,9 +2,12 @@ package com.treu;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // Marks this class as the main Spring Boot application with auto-configuration
 @SpringBootApplication
+// Enables @Scheduled background jobs (end-of-day wallet snapshots)
+@EnableScheduling
 public class TradingPlatformApplication {
 
 	// Entry point for the Spring Boot application
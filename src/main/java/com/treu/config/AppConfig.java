@@ -1,11 +1,17 @@
 package com.treu.config;
 
 import com.treu.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.Authentication;
@@ -16,9 +22,11 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -28,7 +36,8 @@ public class AppConfig {
 
     // Defines the security configuration for the application
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity http, VerifiedTokenCache tokenCache, RateLimiter rateLimiter,
+                                            RateLimitProperties rateLimitProperties) throws Exception {
 
         // Configures the app to be stateless (no server-side sessions, suitable for JWT)
         http.sessionManagement(management -> management.sessionCreationPolicy(
@@ -39,6 +48,8 @@ public class AppConfig {
 //	                	.requestMatchers("/api/admin/**").hasRole("ADMIN")
                                 // Requires authentication for all /api/** endpoints
                                 .requestMatchers("/api/**").authenticated()
+                                // Requires authentication for streamed chatbot answers, each of which holds a model call open
+                                .requestMatchers(HttpMethod.POST, "/chat/bot/stream").authenticated()
                                 // Allows all other requests without authentication
                                 .anyRequest().permitAll()
                 )
@@ -87,7 +98,9 @@ public class AppConfig {
                     });
                 })
                 // Adds a custom JWT validation filter before BasicAuthenticationFilter
-                .addFilterBefore(new JwtTokenValidator(), BasicAuthenticationFilter.class)
+                .addFilterBefore(new JwtTokenValidator(tokenCache), BasicAuthenticationFilter.class)
+                // Throttles configured routes per user or client IP once the JWT has been validated
+                .addFilterAfter(new RateLimitFilter(rateLimiter, rateLimitProperties), JwtTokenValidator.class)
                 // Disables CSRF protection (common for stateless APIs)
                 .csrf(csrf -> csrf.disable())
                 // Enables CORS with a custom configuration source
@@ -127,9 +140,29 @@ public class AppConfig {
         };
     }
 
-    // Defines a BCrypt password encoder bean for hashing passwords
+    // Defines a BCrypt password encoder bean for hashing passwords, run on a bounded executor off the
+    // request threads; hashes with a lower cost than bcrypt-strength are upgraded on the next sign-in
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength,
+                                    @Value("${security.password.hash-threads:0}") int threads,
+                                    @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                                    @Value("${security.password.max-wait-ms:5000}") long maxWaitMillis,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        // Defaults to half the cores so hashing never takes all the CPU from trading requests
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity,
+                maxWaitMillis, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    // CoinGecko client with bounded connect and read waits; the scheduled price refresh and the
+    // market data endpoints share it, so a hung upstream fails the call instead of the thread
+    @Bean
+    RestTemplate coinGeckoRestTemplate(RestTemplateBuilder builder,
+                                       @Value("${coingecko.connect-timeout-ms:3000}") long connectTimeoutMillis,
+                                       @Value("${coingecko.read-timeout-ms:10000}") long readTimeoutMillis) {
+        return builder
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .readTimeout(Duration.ofMillis(readTimeoutMillis))
+                .build();
     }
 }
@@ -0,0 +1,117 @@
+package com.treu.config;
+
+import com.treu.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// PasswordEncoder running the delegate's CPU-bound hashing on a small dedicated pool, so a burst of sign-ins
+// cannot occupy every request thread's CPU time. Admission control: when the queue is full, or a task waits
+// longer than maxWaitMillis, the call fails fast with PasswordHashingBusyException (HTTP 503)
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    // Encoder doing the actual hashing
+    private final PasswordEncoder delegate;
+
+    // Fixed pool with a bounded queue; rejects instead of growing
+    private final ThreadPoolExecutor executor;
+
+    // Longest a caller waits for its hash, queueing included
+    private final long maxWaitMillis;
+
+    // Time tasks spend queued before a thread picks them up
+    private final Timer queueTimer;
+
+    // Calls shed because the pool was saturated
+    private final Counter rejected;
+
+    // Creates an encoder hashing on the given number of threads with at most queueCapacity waiting tasks
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMillis,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWaitMillis = maxWaitMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.queueTimer = Timer.builder("auth.password.queue.time")
+                .description("Time password hashing tasks wait for a thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashing calls shed because the executor was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Only parses the stored hash's cost factor, so it runs on the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // Stops the hashing threads when the context closes
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Runs a hashing task on the pool and waits for it, shedding the call when the pool is saturated
+    private <T> T call(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("too many sign-in requests, try again shortly");
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Removes the task if it is still queued; a running hash cannot be interrupted and just finishes
+            future.cancel(false);
+            rejected.increment();
+            throw new PasswordHashingBusyException("too many sign-in requests, try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("password hashing failed", e.getCause());
+        }
+    }
+}
@@ -6,6 +6,18 @@ public class JwtConstant {
     // Secret key used for signing and verifying JWTs (should be securely stored, not hardcoded)
     public static final String SECRET_KEY = "fsdfsdkfsdfsfjiuy7r6ftydrxfcgvhbjny78t65rdrtjkpnvdfvjkzfjfdfnsjk";
 
+    // Lifetime of an access token (15 minutes); clients renew it with their refresh token
+    public static final long ACCESS_TOKEN_VALIDITY_MS = 15 * 60 * 1000L;
+
     // HTTP header name where the JWT is expected to be included in requests
     public static final String JWT_HEADER = "Authorization";
+
+    // Request attribute holding the token verified by JwtTokenValidator
+    public static final String JWT_TOKEN_ATTRIBUTE = JwtConstant.class.getName() + ".token";
+
+    // Request attribute holding the claims of that token, so the request never parses it twice
+    public static final String JWT_CLAIMS_ATTRIBUTE = JwtConstant.class.getName() + ".claims";
+
+    // Request attribute holding the principal built from those claims, absent for tokens without a user id
+    public static final String JWT_PRINCIPAL_ATTRIBUTE = JwtConstant.class.getName() + ".principal";
 }
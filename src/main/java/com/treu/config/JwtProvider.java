@@ -1,26 +1,44 @@
 package com.treu.config;
 
+import com.treu.domain.USER_ROLE;
+import com.treu.model.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.Setter;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.crypto.SecretKey;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 // Utility class for generating and parsing JWTs (JSON Web Tokens)
 public class JwtProvider {
 
-    // Method to set the key for testing purposes
-    // Replace the default key with the injected key
+    // Claims describing the principal, so requests can be served without loading the user
+    static final String USER_ID_CLAIM = "uid";
+    static final String VERIFIED_CLAIM = "verified";
+    static final String TWO_FACTOR_CLAIM = "two_factor";
+
     // Secret key initialized using the SECRET_KEY from JwtConstant, converted to HMAC-SHA key
-    @Setter
-    private static SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
+    private static volatile SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
+
+    // Parser built once for the key; JwtParser is immutable and safe to share between request threads
+    private static volatile JwtParser parser = buildParser(key);
+
+    // Replaces the signing key (used by tests) and rebuilds the shared parser for it
+    public static void setKey(SecretKey newKey) {
+        key = newKey;
+        parser = buildParser(newKey);
+    }
 
     // Generates a JWT based on the provided Authentication object
     public static String generateToken(Authentication auth) {
@@ -29,40 +47,91 @@ public class JwtProvider {
         // Converts authorities into a comma-separated string
         String roles = populateAuthorities(authorities);
 
-        // Builds and signs the JWT
-        String jwt = Jwts.builder()
+        // Builds the JWT
+        JwtBuilder builder = Jwts.builder()
                 // Sets the issuance time to the current date/time
                 .setIssuedAt(new Date())
-                // Sets expiration to 24 hours (86400000 ms) from now
-                .setExpiration(new Date(new Date().getTime() + 86400000))
+                // Sets a unique token id (jti), the handle used to revoke this token
+                .setId(UUID.randomUUID().toString())
+                // Sets a short expiration; the refresh token is used to get a new access token
+                .setExpiration(new Date(new Date().getTime() + JwtConstant.ACCESS_TOKEN_VALIDITY_MS))
                 // Adds the user's email (auth.getName()) as a custom claim
                 .claim("email", auth.getName())
                 // Adds the user's roles/authorities as a custom claim
-                .claim("authorities", roles)
-                // Signs the token with the secret key
-                .signWith(key)
-                // Compacts the token into a URL-safe string
-                .compact();
+                .claim("authorities", roles);
+
+        // Adds the principal's id and flags when the caller authenticated with one
+        if (auth.getPrincipal() instanceof AuthenticatedUser) {
+            AuthenticatedUser principal = (AuthenticatedUser) auth.getPrincipal();
+            builder.claim(USER_ID_CLAIM, principal.getUserId())
+                    .claim(VERIFIED_CLAIM, principal.isVerified())
+                    .claim(TWO_FACTOR_CLAIM, principal.isTwoFactorEnabled());
+        }
+
+        // Signs the token with the secret key and compacts it into a URL-safe string
+        String jwt = builder.signWith(key).compact();
         return jwt;
     }
 
+    // Verifies a token (without the "Bearer " prefix) and returns its claims; throws JwtException if invalid
+    public static Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     // Extracts the email from a JWT string
     public static String getEmailFromJwtToken(String jwt) {
         // Removes the "Bearer " prefix (first 7 characters) from the token
         jwt = jwt.substring(7);
 
-        // Parses the JWT and retrieves its claims using the secret key
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(jwt)
-                .getBody();
+        // Reuses the claims JwtTokenValidator verified for this request, parsing only when called outside one
+        Claims claims = claimsVerifiedForRequest(jwt);
+        if (claims == null) {
+            claims = parseClaims(jwt);
+        }
         // Extracts the email claim and converts it to a String
         String email = String.valueOf(claims.get("email"));
 
         return email;
     }
 
+    // Returns the principal of a JWT string, or null if the token predates the principal claims
+    public static AuthenticatedUser getPrincipalFromJwtToken(String jwt) {
+        // Removes the "Bearer " prefix (first 7 characters) from the token
+        jwt = jwt.substring(7);
+
+        // Reuses the principal JwtTokenValidator built for this request, parsing only when called outside one
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && jwt.equals(
+                attributes.getAttribute(JwtConstant.JWT_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            Object principal = attributes.getAttribute(JwtConstant.JWT_PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (principal instanceof AuthenticatedUser) {
+                return (AuthenticatedUser) principal;
+            }
+        }
+        Claims claims = claimsVerifiedForRequest(jwt);
+        if (claims == null) {
+            claims = parseClaims(jwt);
+        }
+        return toPrincipal(claims);
+    }
+
+    // Builds the principal described by verified claims, or null if they carry no user id
+    public static AuthenticatedUser toPrincipal(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        String authorities = String.valueOf(claims.get("authorities"));
+        USER_ROLE role = Arrays.asList(authorities.split(",")).contains(USER_ROLE.ROLE_ADMIN.name())
+                ? USER_ROLE.ROLE_ADMIN : USER_ROLE.ROLE_USER;
+        return new AuthenticatedUser(
+                userId.longValue(),
+                String.valueOf(claims.get("email")),
+                role,
+                Boolean.TRUE.equals(claims.get(VERIFIED_CLAIM, Boolean.class)),
+                Boolean.TRUE.equals(claims.get(TWO_FACTOR_CLAIM, Boolean.class)));
+    }
+
     // Converts a collection of authorities into a comma-separated string
     public static String populateAuthorities(Collection<? extends GrantedAuthority> collection) {
         // Creates a HashSet to store unique authority strings
@@ -75,4 +144,22 @@ public class JwtProvider {
         // Joins the authorities with commas into a single string
         return String.join(",", auths);
     }
+
+    // Returns the claims stored on the current request if they belong to the given token
+    private static Claims claimsVerifiedForRequest(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object verified = attributes.getAttribute(JwtConstant.JWT_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (!token.equals(verified)) {
+            return null;
+        }
+        return (Claims) attributes.getAttribute(JwtConstant.JWT_CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    // Builds a parser verifying signatures with the given key
+    private static JwtParser buildParser(SecretKey signingKey) {
+        return Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 }
@@ -1,26 +1,27 @@
 package com.treu.config;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.util.List;
 
 // Custom filter to validate JWTs and set authentication in the security context
 public class JwtTokenValidator extends OncePerRequestFilter {
 
+    // Tokens verified on earlier requests
+    private final VerifiedTokenCache tokenCache;
+
+    // Creates the filter around the shared verified-token cache
+    public JwtTokenValidator(VerifiedTokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
     // Filters each HTTP request to validate the JWT and authenticate the user
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -34,37 +35,34 @@ public class JwtTokenValidator extends OncePerRequestFilter {
             jwt = jwt.substring(7);
 
             try {
-                // Creates the secret key from the hardcoded SECRET_KEY in JwtConstant
-                SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
-
-                // Parses the JWT and extracts its claims using the secret key
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(key)
-                        .build()
-                        .parseClaimsJws(jwt)
-                        .getBody();
-
-                // Extracts the email claim from the token
-                String email = String.valueOf(claims.get("email"));
-
-                // Extracts the authorities (roles) claim from the token
-                String authorities = String.valueOf(claims.get("authorities"));
+                // Verifies the JWT, parsing it only the first time this token is seen
+                VerifiedTokenCache.Entry verified = tokenCache.verify(jwt);
 
-                // Logs the authorities for debugging (consider using a logger instead)
-                System.out.println("authorities -------- " + authorities);
+                // Keeps the verified claims on the request so JwtProvider does not parse the token again
+                request.setAttribute(JwtConstant.JWT_TOKEN_ATTRIBUTE, jwt);
+                request.setAttribute(JwtConstant.JWT_CLAIMS_ATTRIBUTE, verified.getClaims());
 
-                // Converts the comma-separated authorities string into a list of GrantedAuthority objects
-                List<GrantedAuthority> auths = AuthorityUtils.commaSeparatedStringToAuthorityList(authorities);
+                // Uses the cached immutable principal; tokens issued without one fall back to the email
+                Object principal = verified.getEmail();
+                if (verified.getPrincipal() != null) {
+                    principal = verified.getPrincipal();
+                    request.setAttribute(JwtConstant.JWT_PRINCIPAL_ATTRIBUTE, principal);
+                }
 
-                // Creates an Authentication object with the email and authorities (no password needed)
-                Authentication authentication = new UsernamePasswordAuthenticationToken(email, null, auths);
+                // Creates an Authentication object with the principal and authorities (no password needed)
+                Authentication authentication = new UsernamePasswordAuthenticationToken(
+                        principal, null, verified.getAuthorities());
 
                 // Sets the authentication in the Spring Security context
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
             } catch (Exception e) {
-                // Throws a runtime exception if the token is invalid (e.g., malformed, expired, or tampered)
-                throw new RuntimeException("invalid token...");
+                // Answers 401 if the token is invalid (e.g., malformed, expired, or tampered), so the client can
+                // renew an expired access token with its refresh token and retry
+                SecurityContextHolder.clearContext();
+                response.setHeader("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
             }
         }
         // Continues the filter chain to process the request
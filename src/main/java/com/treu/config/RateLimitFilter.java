@@ -0,0 +1,179 @@
+package com.treu.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Throttles the routes configured under rate-limit.rules. Runs after JwtTokenValidator so signed-in requests
+// are counted per user (admins with their own limit) and anonymous ones per client IP. The client IP is the
+// connection's address unless that is a trusted proxy, in which case it is read from the proxy's forwarding header.
+// A rejected request gets a bodiless 429 with Retry-After and never reaches the controllers or the database
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Role granted the admin limits
+    private static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
+    // Rule with its limits converted to emission intervals
+    private static final class Route {
+        final String method;            // Method to match, or null for any
+        final String path;              // Exact path or prefix
+        final boolean prefix;           // Whether path is a prefix (pattern ended in /**)
+        final String keyPrefix;         // Distinguishes the buckets of different rules
+        final long intervalNanos;       // Refill time of one token for users and anonymous clients
+        final long burst;               // Bucket size for users and anonymous clients
+        final long adminIntervalNanos;  // Refill time of one token for admins
+        final long adminBurst;          // Bucket size for admins
+
+        Route(int index, RateLimitProperties.Rule rule) {
+            this.method = rule.getMethod();
+            this.prefix = rule.getPath().endsWith("/**");
+            this.path = prefix ? rule.getPath().substring(0, rule.getPath().length() - 3) : rule.getPath();
+            this.keyPrefix = index + ":";
+            long periodNanos = TimeUnit.MILLISECONDS.toNanos(rule.getPeriodMs());
+            int adminLimit = rule.getAdminLimit() > 0 ? rule.getAdminLimit() : rule.getLimit();
+            this.intervalNanos = periodNanos / rule.getLimit();
+            this.burst = rule.getBurst() > 0 ? rule.getBurst() : rule.getLimit();
+            this.adminIntervalNanos = periodNanos / adminLimit;
+            this.adminBurst = rule.getBurst() > 0 ? (long) rule.getBurst() * adminLimit / rule.getLimit() : adminLimit;
+        }
+
+        boolean matches(String requestMethod, String requestPath) {
+            if (method != null && !method.equalsIgnoreCase(requestMethod)) {
+                return false;
+            }
+            return prefix ? requestPath.startsWith(path) : requestPath.equals(path);
+        }
+    }
+
+    // Buckets shared by all routes
+    private final RateLimiter limiter;
+
+    // Configured routes in order
+    private final Route[] routes;
+
+    // Whether limiting is on
+    private final boolean enabled;
+
+    // Proxies whose forwarding header is believed
+    private final IpAddressMatcher[] trustedProxies;
+
+    // Header carrying the client address behind a trusted proxy
+    private final String clientAddressHeader;
+
+    // Creates the filter for the configured rules
+    public RateLimitFilter(RateLimiter limiter, RateLimitProperties properties) {
+        this.limiter = limiter;
+        this.enabled = properties.isEnabled();
+        List<RateLimitProperties.Rule> rules = properties.getRules();
+        this.routes = new Route[rules.size()];
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = new Route(i, rules.get(i));
+        }
+        this.trustedProxies = properties.getTrustedProxies().stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toArray(IpAddressMatcher[]::new);
+        this.clientAddressHeader = properties.getClientAddressHeader();
+    }
+
+    // Charges the request to its bucket and rejects it when the bucket is empty
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = enabled ? route(request) : null;
+        if (route != null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            boolean user = authentication != null && !(authentication instanceof AnonymousAuthenticationToken);
+            boolean admin = user && isAdmin(authentication);
+            String key = user
+                    ? route.keyPrefix + "u:" + authentication.getName()
+                    : route.keyPrefix + "ip:" + clientAddress(request);
+
+            long waitNanos = admin
+                    ? limiter.tryAcquire(key, route.adminIntervalNanos, route.adminBurst)
+                    : limiter.tryAcquire(key, route.intervalNanos, route.burst);
+            if (waitNanos > 0) {
+                response.setStatus(429);
+                response.setHeader("Retry-After", Long.toString(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Returns the first route matching the request, or null. Rules are matched against the decoded path
+    // within the application, the path the handler mapping sees, so "/auth/%73ignin" is still "/auth/signin"
+    private Route route(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        for (Route route : routes) {
+            if (route.matches(method, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    // Returns the address of the client. Behind trusted proxies it is the last hop of the forwarding header that
+    // is not itself a trusted proxy: every hop to its right was appended by a proxy we trust, anything to its left
+    // was sent by the client and could be forged
+    String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (trustedProxies.length == 0 || !isTrustedProxy(address)) {
+            return address;
+        }
+        String forwarded = request.getHeader(clientAddressHeader);
+        if (forwarded == null) {
+            return address;
+        }
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                continue;
+            }
+            if (!isTrustedProxy(hop)) {
+                return hop;
+            }
+            address = hop;
+        }
+        return address;
+    }
+
+    // Returns true if the address belongs to a trusted proxy; anything that is not an IP address does not
+    private boolean isTrustedProxy(String address) {
+        try {
+            for (IpAddressMatcher proxy : trustedProxies) {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not an IP address
+        }
+        return false;
+    }
+
+    // Returns true if the authentication carries the admin role
+    private static boolean isAdmin(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (ADMIN_AUTHORITY.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package com.treu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rate limits per route, bound from the rate-limit.* properties
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    // Turns the limiter off entirely
+    private boolean enabled = true;
+
+    // Number of bucket map shards; rounded up to a power of two
+    private int shards = 16;
+
+    // Buckets kept per shard; when all of them are live, new keys are refused until one refills
+    private int maxKeysPerShard = 10000;
+
+    // Addresses or CIDR ranges of the reverse proxies in front of the app. Only when a request comes from one of
+    // them is its client taken from clientAddressHeader; empty uses the connection's address
+    private List<String> trustedProxies = new ArrayList<>();
+
+    // Header the trusted proxies append the client address to
+    private String clientAddressHeader = "X-Forwarded-For";
+
+    // Routes to limit; the first matching rule applies
+    private List<Rule> rules = new ArrayList<>();
+
+    // Limit of one route. Requests are counted per user when authenticated, otherwise per client IP
+    @Data
+    public static class Rule {
+
+        // HTTP method to match, or null for any
+        private String method;
+
+        // Exact path, or a prefix when ending in /**
+        private String path;
+
+        // Requests allowed per period
+        private int limit;
+
+        // Requests allowed per period for ROLE_ADMIN users; 0 uses limit
+        private int adminLimit;
+
+        // Period the limits refer to
+        private long periodMs = 60000;
+
+        // Requests that may arrive back to back before the rate applies; 0 allows the whole limit at once
+        private int burst;
+    }
+}
@@ -0,0 +1,111 @@
+package com.treu.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free token buckets in a sharded map. Each bucket is a single AtomicLong holding its theoretical
+// arrival time (GCRA, equivalent to a token bucket): a request is allowed if moving that time forward by one
+// emission interval keeps it within the burst window, and the move is one compare-and-set.
+// A bucket whose arrival time has passed is full again, so dropping it loses nothing; that is how keys expire.
+// Only such buckets are ever dropped: a shard that is full of live buckets turns new keys away instead of
+// evicting one, so a client rotating keys cannot reset the limits of the others
+@Component
+public class RateLimiter {
+
+    // Bucket maps; a key's shard is picked from its hash
+    private final ConcurrentHashMap<String, AtomicLong>[] shards;
+
+    // Shard index mask (shard count is a power of two)
+    private final int mask;
+
+    // Minimum time between two scans of a full shard for full buckets
+    private static final long TRIM_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Buckets per shard before new keys are turned away
+    private final int maxKeysPerShard;
+
+    // Earliest time each shard may be scanned again when full, so a flood of new keys costs one scan per interval
+    private final AtomicLongArray nextTrim;
+
+    // Creates the shards configured in the properties
+    @SuppressWarnings("unchecked")
+    public RateLimiter(RateLimitProperties properties) {
+        int count = Integer.highestOneBit(Math.max(1, properties.getShards() * 2 - 1));
+        this.shards = new ConcurrentHashMap[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.mask = count - 1;
+        this.maxKeysPerShard = properties.getMaxKeysPerShard();
+        this.nextTrim = new AtomicLongArray(count);
+    }
+
+    // Takes one token from the key's bucket. Returns 0 if the request is allowed, otherwise the nanoseconds
+    // until it would be. intervalNanos is the time one token takes to refill, burst the bucket size. A new key
+    // is refused for one interval while its shard is full of live buckets
+    public long tryAcquire(String key, long intervalNanos, long burst) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(key, now);
+        if (bucket == null) {
+            return intervalNanos;
+        }
+        long window = intervalNanos * burst;
+        while (true) {
+            long tat = bucket.get();
+            long next = (tat - now > 0 ? tat : now) + intervalNanos;   // nanoTime values compare by difference
+            long excess = next - now - window;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Number of live buckets
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    // Drops full buckets once a minute
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> shard : shards) {
+            shard.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+
+    // Returns the key's bucket, creating it on first use, or null if its shard is full of live buckets
+    private AtomicLong bucket(String key, long now) {
+        int h = key.hashCode();
+        int index = (h ^ (h >>> 16)) & mask;
+        ConcurrentHashMap<String, AtomicLong> shard = shards[index];
+        AtomicLong bucket = shard.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (shard.size() >= maxKeysPerShard) {
+            // Full buckets are as good as new ones; live ones are kept
+            long next = nextTrim.get(index);
+            if (next - now <= 0 && nextTrim.compareAndSet(index, next, now + TRIM_INTERVAL_NANOS)) {
+                shard.values().removeIf(full -> full.get() - now <= 0);
+            }
+            if (shard.size() >= maxKeysPerShard) {
+                return null;
+            }
+        }
+        // A new bucket starts full: an arrival time not after now
+        return shard.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+}
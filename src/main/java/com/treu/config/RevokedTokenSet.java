@@ -0,0 +1,125 @@
+package com.treu.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ids of revoked access tokens, held only until the tokens expire. Lookups go through a Bloom filter first,
+// so the common case (a token that was never revoked) is a few bit reads without touching the exact map.
+// Expired ids are purged periodically and the filter is rebuilt from the ids that are left
+@Component
+public class RevokedTokenSet {
+
+    // Bits set per id
+    private static final int HASHES = 5;
+
+    // Bloom filter over the revoked ids; replaced as a whole when rebuilt
+    private static final class BloomFilter {
+        final AtomicLongArray words;   // Bit array
+        final int mask;                // Bit index mask (bit count is a power of two)
+
+        BloomFilter(int bits) {
+            this.words = new AtomicLongArray(bits >>> 6);
+            this.mask = bits - 1;
+        }
+
+        void add(String id) {
+            long hash = hash(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long flag = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & flag) == 0 && !words.compareAndSet(word, current, current | flag));
+            }
+        }
+
+        boolean mightContain(String id) {
+            long hash = hash(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit mix of the id's characters (FNV-1a followed by a murmur finaliser)
+        private static long hash(String id) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < id.length(); i++) {
+                h ^= id.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+
+    // Revoked ids and the expiry of their tokens
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    // Filter size in bits
+    private final int bits;
+
+    // Current filter
+    private volatile BloomFilter filter;
+
+    // Held by revokes and by the rebuild, so an id revoked while the filter is rebuilt is never left out of it
+    private final Object filterLock = new Object();
+
+    // Creates the set with a filter of about the given number of bits (rounded up to a power of two)
+    public RevokedTokenSet(@Value("${jwt.revocation.bloom-bits:1048576}") int bits) {
+        this.bits = Integer.highestOneBit(Math.max(64, bits) * 2 - 1);
+        this.filter = new BloomFilter(this.bits);
+    }
+
+    // Revokes a token id until the token expires
+    public void revoke(String tokenId, long expiresAtMillis) {
+        synchronized (filterLock) {
+            revoked.merge(tokenId, expiresAtMillis, Math::max);
+            filter.add(tokenId);
+        }
+    }
+
+    // Returns true if the token id was revoked and the token has not expired yet
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    // Number of revoked ids held
+    public int size() {
+        return revoked.size();
+    }
+
+    // Drops ids of expired tokens in place and rebuilds the filter without them; lookups keep using the old
+    // filter, a superset of the ids left, until the new one is swapped in
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            return;
+        }
+        synchronized (filterLock) {
+            BloomFilter rebuilt = new BloomFilter(bits);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.treu.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Logs the request execution mode at startup. Spring Boot silently keeps platform threads when virtual
+// threads are requested on a runtime older than Java 21, so that case is reported as a warning
+@Slf4j
+@Component
+public class ThreadingModeLogger {
+
+    public ThreadingModeLogger(@Value("${spring.threads.virtual.enabled:false}") boolean virtualRequested) {
+        int runtime = Runtime.version().feature();
+        if (!virtualRequested) {
+            log.info("Serving requests on platform threads");
+        } else if (runtime >= 21) {
+            log.info("Serving requests on virtual threads");
+        } else {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "serving requests on platform threads", runtime);
+        }
+    }
+}
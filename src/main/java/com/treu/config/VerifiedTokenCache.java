@@ -0,0 +1,208 @@
+package com.treu.config;
+
+import com.treu.model.AuthenticatedUser;
+import com.treu.utils.BoundedMaps;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cache of tokens JwtTokenValidator has already verified, so a client repeating its bearer token skips the
+// base64 decode, HMAC check and JSON parse. Keyed by the token's SHA-256 digest so raw tokens are never held.
+// Every lookup, cached or not, is checked against the in-memory RevokedTokenSet, so revocation needs no database
+@Component
+public class VerifiedTokenCache {
+
+    // Prototype digest; cloning it is cheaper than a provider lookup and clones are never shared between threads
+    private static final MessageDigest SHA_256;
+
+    static {
+        try {
+            SHA_256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Verified token: the principal, email, authorities and claims, valid until the token's exp
+    public static final class Entry {
+        private final String tokenId;                        // jti claim, or the digest for tokens without one
+        private final String email;                          // Email claim
+        private final AuthenticatedUser principal;           // Built once per token; null without a user id claim
+        private final List<GrantedAuthority> authorities;    // Parsed authorities claim, immutable
+        private final Claims claims;                         // Claims of the token, to be treated as read-only
+        private final long expiresAtMillis;                  // Token exp in epoch milliseconds
+
+        Entry(String tokenId, String email, AuthenticatedUser principal, List<GrantedAuthority> authorities,
+              Claims claims, long expiresAtMillis) {
+            this.tokenId = tokenId;
+            this.email = email;
+            this.principal = principal;
+            this.authorities = authorities;
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getTokenId() {
+            return tokenId;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public AuthenticatedUser getPrincipal() {
+            return principal;
+        }
+
+        public List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        public Claims getClaims() {
+            return claims;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+
+    // Verified tokens by digest
+    private final ConcurrentHashMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+
+    // Ids of revoked tokens, kept until their exp since the signature alone would still verify
+    private final RevokedTokenSet revokedTokens;
+
+    // Maximum number of cached tokens; 0 disables caching (revocation still applies)
+    private final int maxSize;
+
+    // Creates a cache holding at most maxSize verified tokens, with its own revocation set
+    public VerifiedTokenCache(int maxSize) {
+        this(maxSize, new RevokedTokenSet(1 << 16));
+    }
+
+    // Creates a cache holding at most maxSize verified tokens and checking the shared revocation set
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.token-cache.max-size:10000}") int maxSize, RevokedTokenSet revokedTokens) {
+        this.maxSize = maxSize;
+        this.revokedTokens = revokedTokens;
+    }
+
+    // Returns the verified entry of a token (without "Bearer "), or null if it is not cached or has expired
+    public Entry get(String token) {
+        return get(digest(token), System.currentTimeMillis());
+    }
+
+    // Verifies a token through the cache: a hit skips parsing, a miss parses with JwtProvider and caches
+    // the result. Throws JwtException for invalid tokens and IllegalStateException for revoked ones
+    public Entry verify(String token) {
+        ByteBuffer key = digest(token);
+        long now = System.currentTimeMillis();
+        Entry entry = get(key, now);
+        if (entry == null) {
+            entry = parse(token, key);
+            put(key, entry, now);
+        }
+        if (revokedTokens.isRevoked(entry.tokenId)) {
+            entries.remove(key, entry);
+            throw new IllegalStateException("token has been revoked");
+        }
+        return entry;
+    }
+
+    // Revocation hook: drops a token (without "Bearer ") and rejects it until it expires.
+    // Tokens that no longer verify (expired or forged) are already rejected and are ignored
+    public void revoke(String token) {
+        ByteBuffer key = digest(token);
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            try {
+                entry = parse(token, key);
+            } catch (JwtException e) {
+                return;
+            }
+        }
+        revokedTokens.revoke(entry.tokenId, entry.expiresAtMillis);
+    }
+
+    // Returns true if the token (without "Bearer ") was revoked and has not expired yet
+    public boolean isRevoked(String token) {
+        ByteBuffer key = digest(token);
+        Entry entry = get(key, System.currentTimeMillis());
+        if (entry == null) {
+            try {
+                entry = parse(token, key);
+            } catch (JwtException e) {
+                return false;
+            }
+        }
+        return revokedTokens.isRevoked(entry.tokenId);
+    }
+
+    // Number of cached tokens
+    public int size() {
+        return entries.size();
+    }
+
+    // Drops expired entries once a minute
+    @Scheduled(fixedDelayString = "${jwt.token-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+    }
+
+    // Verifies a token with JwtProvider and builds its entry; throws JwtException if invalid
+    private static Entry parse(String token, ByteBuffer key) {
+        Claims claims = JwtProvider.parseClaims(token);
+        String authorities = String.valueOf(claims.get("authorities"));
+        String tokenId = claims.getId() != null ? claims.getId() : "sha256:" + HexFormat.of().formatHex(key.array());
+        return new Entry(tokenId, String.valueOf(claims.get("email")), JwtProvider.toPrincipal(claims),
+                List.copyOf(AuthorityUtils.commaSeparatedStringToAuthorityList(authorities)),
+                claims,
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE);
+    }
+
+    // Returns a live entry, dropping it if it has expired
+    private Entry get(ByteBuffer key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAtMillis <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    // Caches an entry, making room first when the cache is full
+    private void put(ByteBuffer key, Entry entry, long now) {
+        if (maxSize <= 0 || entry.expiresAtMillis <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            BoundedMaps.trim(entries, maxSize, e -> e.expiresAtMillis <= now);
+        }
+        entries.put(key, entry);
+    }
+
+    // SHA-256 digest of a token wrapped for content-based equals and hashCode
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest digest = (MessageDigest) SHA_256.clone();
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+}
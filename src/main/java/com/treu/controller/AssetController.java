@@ -2,8 +2,10 @@ package com.treu.controller;
 
 import com.treu.exception.UserException;
 import com.treu.model.Asset;
-import com.treu.model.User;
+import com.treu.model.AuthenticatedUser;
+import com.treu.response.PortfolioResponse;
 import com.treu.service.AssetService;
+import com.treu.service.PortfolioService;
 import com.treu.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,10 @@ public class AssetController {
     @Autowired
     private UserService userService;
 
+    // Service keeping users' portfolios valued as prices and fills arrive, injected via @Autowired
+    @Autowired
+    private PortfolioService portfolioService;
+
     // Constructor injection for AssetService (preferred over field injection)
     @Autowired
     public AssetController(AssetService assetService) {
@@ -44,9 +50,9 @@ public class AssetController {
             @RequestHeader("Authorization") String jwt // JWT from the Authorization header
     ) throws Exception {
         // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         // Fetches the asset for the user and coin ID
-        Asset asset = assetService.findAssetByUserIdAndCoinId(user.getId(), coinId);
+        Asset asset = assetService.findAssetByUserIdAndCoinId(user.getUserId(), coinId);
         // Returns the asset in the response body with HTTP 200 (OK)
         return ResponseEntity.ok().body(asset);
     }
@@ -57,10 +63,23 @@ public class AssetController {
             @RequestHeader("Authorization") String jwt // JWT from the Authorization header
     ) throws UserException {
         // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         // Fetches the list of assets for the user
-        List<Asset> assets = assetService.getUsersAssets(user.getId());
+        List<Asset> assets = assetService.getUsersAssets(user.getUserId());
         // Returns the list of assets in the response body with HTTP 200 (OK)
         return ResponseEntity.ok().body(assets);
     }
+
+    // Handles GET requests to retrieve the valued portfolio (market value, unrealised P&L, weights) of the user
+    @GetMapping("/portfolio")
+    public ResponseEntity<PortfolioResponse> getPortfolio(
+            @RequestHeader("Authorization") String jwt // JWT from the Authorization header
+    ) throws UserException {
+        // Retrieves the user associated with the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        // Reads the incrementally maintained valuation
+        PortfolioResponse portfolio = portfolioService.getPortfolio(user.getUserId());
+        // Returns the portfolio in the response body with HTTP 200 (OK)
+        return ResponseEntity.ok().body(portfolio);
+    }
 }
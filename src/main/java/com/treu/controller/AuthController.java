@@ -1,11 +1,15 @@
 package com.treu.controller;
 
 import com.treu.config.JwtProvider;
+import com.treu.config.VerifiedTokenCache;
 import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
 import com.treu.model.TwoFactorOTP;
 import com.treu.model.User;
 import com.treu.repository.UserRepository;
 import com.treu.request.LoginRequest;
+import com.treu.request.RefreshTokenRequest;
+import com.treu.response.ApiResponse;
 import com.treu.response.AuthResponse;
 import com.treu.service.*;
 import com.treu.utils.OtpUtils;
@@ -18,6 +22,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -25,6 +30,7 @@ import org.springframework.security.oauth2.client.authentication.OAuth2Authentic
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.util.List;
 
 // Marks this class as a REST controller, handling authentication-related requests under /auth
 @RestController
@@ -40,6 +46,8 @@ public class AuthController {
     @Autowired private VerificationService verificationService;// Service for verification logic
     @Autowired private TwoFactorOtpService twoFactorOtpService;// Service for two-factor OTP management
     @Autowired private EmailService emailService;              // Service for sending emails
+    @Autowired private RefreshTokenService refreshTokenService;// Service for refresh token rotation
+    @Autowired private VerifiedTokenCache tokenCache;          // Verified tokens and their revocation
 
     // Handles POST requests to register a new user
     @PostMapping("/signup")
@@ -69,8 +77,9 @@ public class AuthController {
         watchlistService.createWatchList(savedUser);
 //		walletService.createWallet(user);
 
-        // Sets up authentication for the new user
-        Authentication authentication = new UsernamePasswordAuthenticationToken(email, password);
+        // Sets up authentication for the new user; the principal's id and flags go into the token
+        Authentication authentication = new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(savedUser), null,
+                List.of(new SimpleGrantedAuthority(savedUser.getRole().name())));
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         // Generates a JWT for the user
@@ -79,6 +88,7 @@ public class AuthController {
         // Builds the response with the JWT and success message
         AuthResponse authResponse = new AuthResponse();
         authResponse.setJwt(token);
+        authResponse.setRefreshToken(refreshTokenService.createRefreshToken(savedUser));
         authResponse.setMessage("Register Success");
 
         return new ResponseEntity<>(authResponse, HttpStatus.OK);
@@ -99,6 +109,15 @@ public class AuthController {
         // Retrieves the user by email
         User user = userService.findUserByEmail(username);
 
+        // Rehashes the password while it is at hand if it was stored with an outdated cost factor
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            userService.updatePassword(user, password);
+        }
+
+        // Replaces the UserDetails principal with the user's immutable principal, whose id and flags go into the token
+        authentication = new UsernamePasswordAuthenticationToken(
+                AuthenticatedUser.of(user), null, authentication.getAuthorities());
+
         // Sets the authentication in the security context
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
@@ -114,13 +133,7 @@ public class AuthController {
             // Generates a one-time password (OTP)
             String otp = OtpUtils.generateOTP();
 
-            // Deletes any existing OTP for the user
-            TwoFactorOTP oldTwoFactorOTP = twoFactorOtpService.findByUser(user.getId());
-            if (oldTwoFactorOTP != null) {
-                twoFactorOtpService.deleteTwoFactorOtp(oldTwoFactorOTP);
-            }
-
-            // Creates a new OTP entry with the JWT
+            // Creates a new OTP session with the JWT, replacing any previous one of the user
             TwoFactorOTP twoFactorOTP = twoFactorOtpService.createTwoFactorOtp(user, otp, token);
 
             // Sends the OTP to the user's email
@@ -135,6 +148,7 @@ public class AuthController {
         AuthResponse authResponse = new AuthResponse();
         authResponse.setMessage("Login Success");
         authResponse.setJwt(token);
+        authResponse.setRefreshToken(refreshTokenService.createRefreshToken(user));
 
         return new ResponseEntity<>(authResponse, HttpStatus.OK);
     }
@@ -198,13 +212,39 @@ public class AuthController {
 
         // Verifies the OTP; if valid, returns a success response with the JWT
         if (twoFactorOtpService.verifyTwoFactorOtp(twoFactorOTP, otp)) {
+            // Consumes the session so the OTP cannot be replayed
+            twoFactorOtpService.deleteTwoFactorOtp(twoFactorOTP);
             AuthResponse authResponse = new AuthResponse();
             authResponse.setMessage("Two factor authentication verified");
             authResponse.setTwoFactorAuthEnabled(true);
             authResponse.setJwt(twoFactorOTP.getJwt());
+            authResponse.setRefreshToken(refreshTokenService.createRefreshToken(twoFactorOTP.getUser()));
             return new ResponseEntity<>(authResponse, HttpStatus.OK);
         }
         // Throws an exception if the OTP is invalid
         throw new Exception("invalid otp");
     }
+
+    // Exchanges a refresh token for a new access token and refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refreshToken(@RequestBody RefreshTokenRequest req) throws UserException {
+        return new ResponseEntity<>(refreshTokenService.refresh(req.getRefreshToken()), HttpStatus.OK);
+    }
+
+    // Logs out: revokes the access token in memory and the refresh token's family in the database
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(
+            @RequestHeader(value = "Authorization", required = false) String jwt,
+            @RequestBody(required = false) RefreshTokenRequest req
+    ) {
+        if (jwt != null && jwt.startsWith("Bearer ")) {
+            tokenCache.revoke(jwt.substring(7));
+        }
+        if (req != null) {
+            refreshTokenService.revoke(req.getRefreshToken());
+        }
+        ApiResponse apiResponse = new ApiResponse();
+        apiResponse.setMessage("Logged out");
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
 }
@@ -4,10 +4,13 @@ import com.treu.model.CoinDTO;
 import com.treu.request.PromptBody;
 import com.treu.response.ApiResponse;
 import com.treu.service.ChatBotService;
+import com.treu.service.ChatStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 // Marks this class as a REST controller, handling chatbot-related requests under /chat
 @RestController()
@@ -18,6 +21,10 @@ public class ChatBotController {
     @Autowired
     private ChatBotService chatBotService;
 
+    // Service relaying streamed chatbot answers, injected via @Autowired
+    @Autowired
+    private ChatStreamService chatStreamService;
+
     // Handles GET requests to retrieve details of a specific coin by name
     @GetMapping("/coin/{coinName}")
     public ResponseEntity<CoinDTO> getCoinDetails(@PathVariable String coinName) {
@@ -44,4 +51,11 @@ public class ChatBotController {
         // Returns the API response with HTTP 200 (OK)
         return new ResponseEntity<>(res, HttpStatus.OK);
     }
+
+    // Handles POST requests for a chatbot answer streamed as server-sent events while it is generated
+    @PostMapping(value = "/bot/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChat(@RequestBody PromptBody promptBody) {
+        // Returns the stream right away; the answer is relayed without holding this request thread
+        return chatStreamService.streamChat(promptBody.getPrompt());
+    }
 }
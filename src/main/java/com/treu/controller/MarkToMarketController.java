@@ -0,0 +1,64 @@
+package com.treu.controller;
+
+import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
+import com.treu.model.MarkToMarketRun;
+import com.treu.model.UserEquitySnapshot;
+import com.treu.service.MarkToMarketService;
+import com.treu.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Marks this class as a REST controller, handling mark-to-market requests (admin endpoints)
+@RestController
+@RequestMapping("/api/admin/mark-to-market")
+public class MarkToMarketController {
+
+    @Autowired private MarkToMarketService markToMarketService; // Service valuing all holdings
+    @Autowired private UserService userService;                 // Service for user operations
+
+    // Handles POST requests to value all holdings now
+    @PostMapping
+    public ResponseEntity<MarkToMarketRun> runMarkToMarket(@RequestHeader("Authorization") String jwt) throws Exception {
+        // Only administrators may run the job
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        MarkToMarketRun run = markToMarketService.runNow();
+        return new ResponseEntity<>(run, HttpStatus.OK);
+    }
+
+    // Handles GET requests to retrieve total AUM of the latest run
+    @GetMapping
+    public ResponseEntity<MarkToMarketRun> getLatestRun(@RequestHeader("Authorization") String jwt) throws Exception {
+        // Only administrators may read the report
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        MarkToMarketRun run = markToMarketService.getLatestRun();
+        // Returns HTTP 404 (Not Found) if no run has finished
+        if (run == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(run, HttpStatus.OK);
+    }
+
+    // Handles GET requests to retrieve a page of per-user equity of the latest run
+    @GetMapping("/users")
+    public ResponseEntity<List<UserEquitySnapshot>> getLatestEquity(
+            @RequestHeader("Authorization") String jwt,
+            @RequestParam(defaultValue = "0") int page,   // Zero-based page number
+            @RequestParam(defaultValue = "100") int size  // Rows per page
+    ) throws Exception {
+        // Only administrators may read the report
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        return new ResponseEntity<>(markToMarketService.getLatestEquity(page, size), HttpStatus.OK);
+    }
+
+    // Rejects non-admin users
+    private void requireAdmin(AuthenticatedUser user) throws UserException {
+        if (!user.isAdmin()) {
+            throw new UserException("admin access required");
+        }
+    }
+}
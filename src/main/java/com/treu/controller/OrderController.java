@@ -1,5 +1,6 @@
 package com.treu.controller;
 
+import com.treu.model.AuthenticatedUser;
 import com.treu.model.Coin;
 import com.treu.model.Order;
 import com.treu.model.User;
@@ -47,7 +48,7 @@ public class OrderController {
             @RequestHeader("Authorization") String jwt,      // JWT from the Authorization header
             @RequestBody CreateOrderRequest req              // Order request details (coinId, quantity, orderType)
     ) throws Exception {
-        // Retrieves the user associated with the JWT
+        // Loads the user entity, which the new order is linked to
         User user = userSerivce.findUserProfileByJwt(jwt);
         // Fetches the coin by its ID from the request
         Coin coin = coinService.findById(req.getCoinId());
@@ -67,12 +68,12 @@ public class OrderController {
         if (jwtToken == null) {
             throw new Exception("token missing...");
         }
-        // Retrieves the user associated with the JWT
-        User user = userSerivce.findUserProfileByJwt(jwtToken);
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userSerivce.findPrincipalByJwt(jwtToken);
         // Fetches the order by its ID
         Order order = orderService.getOrderById(orderId);
         // Verifies the order belongs to the authenticated user
-        if (order.getUser().getId().equals(user.getId())) {
+        if (order.getUser().getId().equals(user.getUserId())) {
             // Returns the order with HTTP 200 (OK) if the user owns it
             return ResponseEntity.ok(order);
         } else {
@@ -93,7 +94,7 @@ public class OrderController {
             throw new Exception("token missing...");
         }
         // Retrieves the user's ID from the JWT
-        Long userId = userSerivce.findUserProfileByJwt(jwtToken).getId();
+        Long userId = userSerivce.findPrincipalByJwt(jwtToken).getUserId();
         // Fetches all orders for the user, optionally filtered by order type and asset symbol
         List<Order> userOrders = orderService.getAllOrdersForUser(userId, order_type, asset_symbol);
         // Returns the list of orders with HTTP 200 (OK)
@@ -4,6 +4,7 @@ import com.razorpay.RazorpayException;
 import com.stripe.exception.StripeException;
 import com.treu.domain.PaymentMethod;
 import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
 import com.treu.model.PaymentOrder;
 import com.treu.model.User;
 import com.treu.response.PaymentResponse;
@@ -12,6 +13,7 @@ import com.treu.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -57,4 +59,20 @@ public class PaymentController {
         // Returns the payment response with HTTP 201 (Created)
         return new ResponseEntity<>(paymentResponse, HttpStatus.CREATED);
     }
+
+    // Handles GET requests to follow a deposit: the order stays PENDING until its payment is confirmed
+    @GetMapping("/api/payment/order/{orderId}")
+    public ResponseEntity<PaymentOrder> getPaymentOrder(
+            @PathVariable Long orderId,                     // Payment order ID from the URL
+            @RequestHeader("Authorization") String jwt      // JWT from the Authorization header
+    ) throws Exception {
+        // Retrieves the caller's principal and the order, which must be theirs
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        PaymentOrder order = paymentService.getPaymentOrderById(orderId);
+        if (!order.getUser().getId().equals(user.getUserId())) {
+            throw new Exception("payment order not found with id " + orderId);
+        }
+        // Returns the order with HTTP 200 (OK)
+        return new ResponseEntity<>(order, HttpStatus.OK);
+    }
 }
@@ -1,6 +1,7 @@
 package com.treu.controller;
 
 import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
 import com.treu.model.PaymentDetails;
 import com.treu.model.User;
 import com.treu.service.PaymentDetailsService;
@@ -49,11 +50,11 @@ public class PaymentDetailsController {
     public ResponseEntity<PaymentDetails> getUsersPaymentDetails(
             @RequestHeader("Authorization") String jwt // JWT from the Authorization header
     ) throws UserException {
-        // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
 
         // Fetches the user's payment details using the service
-        PaymentDetails paymentDetails = paymentDetailsService.getUsersPaymentDetails(user);
+        PaymentDetails paymentDetails = paymentDetailsService.getUsersPaymentDetails(user.getUserId());
         // Returns the payment details with HTTP 201 (Created) - likely should be 200 (OK)
         return new ResponseEntity<>(paymentDetails, HttpStatus.CREATED);
     }
@@ -0,0 +1,52 @@
+package com.treu.controller;
+
+import com.treu.domain.PaymentMethod;
+import com.treu.domain.PaymentWebhookOutcome;
+import com.treu.service.PaymentWebhookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+// Marks this class as a REST controller, receiving payment provider webhooks.
+// The endpoints live outside /api since providers authenticate by signature, not by JWT
+@RestController
+public class PaymentWebhookController {
+
+    // Service verifying and queueing webhook events, injected via @Autowired
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    // Handles Razorpay webhooks, signed with an HMAC of the raw body
+    @PostMapping("/webhooks/razorpay")
+    public ResponseEntity<Void> razorpayWebhook(
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature, // Body signature
+            @RequestBody String payload                     // Raw body, exactly as signed
+    ) {
+        return respond(paymentWebhookService.receive(PaymentMethod.RAZORPAY, payload, signature));
+    }
+
+    // Handles Stripe webhooks, signed with a timestamped HMAC of the raw body
+    @PostMapping("/webhooks/stripe")
+    public ResponseEntity<Void> stripeWebhook(
+            @RequestHeader(value = "Stripe-Signature", required = false) String signature, // Timestamp and signature
+            @RequestBody String payload                     // Raw body, exactly as signed
+    ) {
+        return respond(paymentWebhookService.receive(PaymentMethod.STRIPE, payload, signature));
+    }
+
+    // Rejects unsigned deliveries and asks for a redelivery of those that could not be stored yet; anything else
+    // is acknowledged so the provider stops redelivering it
+    private static ResponseEntity<Void> respond(PaymentWebhookOutcome outcome) {
+        if (outcome == PaymentWebhookOutcome.INVALID_SIGNATURE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (outcome == PaymentWebhookOutcome.RETRY) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+}
@@ -0,0 +1,79 @@
+package com.treu.controller;
+
+import com.treu.model.AuthenticatedUser;
+import com.treu.model.PriceAlert;
+import com.treu.request.CreatePriceAlertRequest;
+import com.treu.service.PriceAlertService;
+import com.treu.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+// Marks this class as a REST controller, handling price alert requests under /api/alerts
+@RestController
+@RequestMapping("/api/alerts")
+public class PriceAlertController {
+
+    // Service for handling price alerts, injected via constructor
+    private final PriceAlertService priceAlertService;
+
+    // Service for handling user operations, injected via constructor
+    private final UserService userService;
+
+    // Constructor injection for PriceAlertService and UserService
+    @Autowired
+    public PriceAlertController(PriceAlertService priceAlertService, UserService userService) {
+        this.priceAlertService = priceAlertService;
+        this.userService = userService;
+    }
+
+    // Handles POST requests to create an alert on a coin of the user's watchlist
+    @PostMapping
+    public ResponseEntity<PriceAlert> createAlert(
+            @RequestHeader("Authorization") String jwt,
+            @RequestBody CreatePriceAlertRequest req) throws Exception {
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        // Creates the alert and indexes it for the next price tick
+        PriceAlert alert = priceAlertService.createAlert(user.getUserId(), req.getCoinId(),
+                req.getDirection(), req.getThreshold(), req.getChannel());
+        // Returns the created alert with HTTP 201 (Created)
+        return ResponseEntity.status(HttpStatus.CREATED).body(alert);
+    }
+
+    // Handles GET requests to list the user's alerts, newest first
+    @GetMapping
+    public ResponseEntity<List<PriceAlert>> getUserAlerts(
+            @RequestHeader("Authorization") String jwt) throws Exception {
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        // Returns the alerts with HTTP 200 (OK)
+        return ResponseEntity.ok(priceAlertService.getUserAlerts(user.getUserId()));
+    }
+
+    // Handles DELETE requests to cancel one of the user's alerts
+    @DeleteMapping("/{alertId}")
+    public ResponseEntity<PriceAlert> cancelAlert(
+            @RequestHeader("Authorization") String jwt,
+            @PathVariable Long alertId) throws Exception {
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        // Deactivates the alert and returns it with HTTP 200 (OK)
+        return ResponseEntity.ok(priceAlertService.cancelAlert(user.getUserId(), alertId));
+    }
+
+    // Handles GET requests to open the stream on which PUSH alerts are delivered
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(
+            @RequestHeader("Authorization") String jwt) throws Exception {
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        // Opens the stream; alerts fired while it is closed go out by email
+        return priceAlertService.subscribe(user.getUserId());
+    }
+}
@@ -0,0 +1,55 @@
+package com.treu.controller;
+
+import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
+import com.treu.response.ReconciliationReport;
+import com.treu.service.LedgerReconciliationService;
+import com.treu.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Marks this class as a REST controller, handling ledger reconciliation requests (admin endpoints)
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+public class ReconciliationController {
+
+    @Autowired private LedgerReconciliationService reconciliationService; // Service running the reconciliation job
+    @Autowired private UserService userService;                          // Service for user operations
+
+    // Handles POST requests to start a reconciliation run, or resume an interrupted one
+    @PostMapping
+    public ResponseEntity<ReconciliationReport> startReconciliation(
+            @RequestHeader("Authorization") String jwt,
+            @RequestParam(defaultValue = "false") boolean resume  // Continue after the last checkpoint
+    ) throws Exception {
+        // Only administrators may run the job
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        // Starts the run in the background and returns its initial state
+        ReconciliationReport report = reconciliationService.startRun(resume);
+        // Returns the report with HTTP 202 (Accepted) since the run continues asynchronously
+        return new ResponseEntity<>(report, HttpStatus.ACCEPTED);
+    }
+
+    // Handles GET requests to retrieve the progress and mismatches of the latest run
+    @GetMapping
+    public ResponseEntity<ReconciliationReport> getLatestReconciliation(
+            @RequestHeader("Authorization") String jwt) throws Exception {
+        // Only administrators may read the report
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        ReconciliationReport report = reconciliationService.getLatestReport();
+        // Returns HTTP 404 (Not Found) if the job never ran
+        if (report == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    // Rejects non-admin users
+    private void requireAdmin(AuthenticatedUser user) throws UserException {
+        if (!user.isAdmin()) {
+            throw new UserException("admin access required");
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.treu.response.ApiResponse;
 import com.treu.response.AuthResponse;
 import com.treu.service.EmailService;
 import com.treu.service.ForgotPasswordService;
+import com.treu.service.RefreshTokenService;
 import com.treu.service.UserService;
 import com.treu.service.VerificationService;
 import com.treu.utils.OtpUtils;
@@ -29,6 +30,7 @@ public class UserController {
     @Autowired private VerificationService verificationService; // Service for verification code management
     @Autowired private ForgotPasswordService forgotPasswordService; // Service for forgot password functionality
     @Autowired private EmailService emailService;           // Service for sending emails
+    @Autowired private RefreshTokenService refreshTokenService; // Service for refresh token revocation
 
     // Handles GET requests to retrieve the authenticated user's profile
     @GetMapping("/api/users/profile")
@@ -101,6 +103,10 @@ public class UserController {
         if (isVerified) {
             // Updates the user's password and returns a success response
             userService.updatePassword(forgotPasswordToken.getUser(), req.getPassword());
+            // Consumes the token so the OTP cannot be reused
+            forgotPasswordService.deleteToken(forgotPasswordToken);
+            // Signs the user out everywhere: sessions holding the old password cannot be refreshed
+            refreshTokenService.revokeAllForUser(forgotPasswordToken.getUser().getId());
             ApiResponse apiResponse = new ApiResponse();
             apiResponse.setMessage("password updated successfully");
             return ResponseEntity.ok(apiResponse);
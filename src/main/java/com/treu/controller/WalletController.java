@@ -3,12 +3,15 @@ package com.treu.controller;
 import com.treu.domain.WalletTransactionType;
 import com.treu.model.*;
 import com.treu.response.PaymentResponse;
+import com.treu.response.WalletBalanceResponse;
 import com.treu.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 // Marks this class as a REST controller, handling wallet-related requests
@@ -20,14 +23,16 @@ public class WalletController {
     @Autowired private OrderService orderService;            // Service for order operations
     @Autowired private WalletTransactionService walletTransactionService; // Service for wallet transaction operations
     @Autowired private PaymentService paymentService;        // Service for payment operations
+    @Autowired private PaymentWebhookService paymentWebhookService; // Service confirming payments in the background
+    @Autowired private BalanceSnapshotService balanceSnapshotService; // Service for point-in-time balances
 
     // Handles GET requests to retrieve the user's wallet
     @GetMapping("/api/wallet")
     public ResponseEntity<?> getUserWallet(@RequestHeader("Authorization") String jwt) throws Exception {
-        // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         // Fetches the user's wallet
-        Wallet wallet = walleteService.getUserWallet(user);
+        Wallet wallet = walleteService.getUserWallet(user.getUserId());
         // Returns the wallet with HTTP 200 (OK)
         return new ResponseEntity<>(wallet, HttpStatus.OK);
     }
@@ -36,57 +41,72 @@ public class WalletController {
     @GetMapping("/api/wallet/transactions")
     public ResponseEntity<List<WalletTransaction>> getWalletTransaction(
             @RequestHeader("Authorization") String jwt) throws Exception {
-        // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         // Fetches the user's wallet
-        Wallet wallet = walleteService.getUserWallet(user);
+        Wallet wallet = walleteService.getUserWallet(user.getUserId());
         // Retrieves transactions for the wallet (no filter applied)
         List<WalletTransaction> transactions = walletTransactionService.getTransactions(wallet, null);
         // Returns the transaction list with HTTP 200 (OK)
         return new ResponseEntity<>(transactions, HttpStatus.OK);
     }
 
+    // Handles GET requests to retrieve the wallet balance at the end of a given day (e.g. for statements)
+    @GetMapping("/api/wallet/balance")
+    public ResponseEntity<WalletBalanceResponse> getWalletBalanceAsOf(
+            @RequestHeader("Authorization") String jwt,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date // Day in yyyy-MM-dd
+    ) throws Exception {
+        // Retrieves the caller's principal and their wallet
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        Wallet wallet = walleteService.getUserWallet(user.getUserId());
+        // Resolves the balance from the nearest snapshot plus a bounded delta scan
+        WalletBalanceResponse res = new WalletBalanceResponse(
+                wallet.getId(), date, balanceSnapshotService.getBalanceAsOf(wallet.getId(), date));
+        // Returns the balance with HTTP 200 (OK)
+        return new ResponseEntity<>(res, HttpStatus.OK);
+    }
+
     // Handles PUT requests to deposit money into the wallet (mock implementation)
     @PutMapping("/api/wallet/deposit/amount/{amount}")
     public ResponseEntity<PaymentResponse> depositMoney(
             @RequestHeader("Authorization") String jwt,
             @PathVariable Long amount                    // Amount to deposit from the URL
     ) throws Exception {
-        // Retrieves the user and their wallet
-        User user = userService.findUserProfileByJwt(jwt);
-        Wallet wallet = walleteService.getUserWallet(user);
+        // Retrieves the caller's principal and their wallet
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        Wallet wallet = walleteService.getUserWallet(user.getUserId());
         // Creates a mock payment response (no actual payment processing)
         PaymentResponse res = new PaymentResponse();
         res.setPayment_url("deposite success"); // Typo: should be "deposit success"
         // Adds the amount to the wallet balance
         walleteService.addBalanceToWallet(wallet, amount);
+        // Records the credit so balance history can be rebuilt from the ledger
+        walletTransactionService.createTransaction(
+                wallet, WalletTransactionType.ADD_MONEY, null, "wallet deposit", amount);
         // Returns the mock response with HTTP 200 (OK)
         return new ResponseEntity<>(res, HttpStatus.OK);
     }
 
-    // Handles PUT requests to deposit money into the wallet using a payment order
+    // Handles PUT requests to deposit money into the wallet using a payment order. The payment is queued for
+    // confirmation with its provider and the order is returned as it stands, PENDING until the background
+    // lookup (or the provider's webhook) credits the wallet; follow it on /api/payment/order/{orderId}
     @PutMapping("/api/wallet/deposit")
-    public ResponseEntity<Wallet> addMoneyToWallet(
+    public ResponseEntity<PaymentOrder> addMoneyToWallet(
             @RequestHeader("Authorization") String jwt,
             @RequestParam(name = "order_id") Long orderId,    // Payment order ID
             @RequestParam(name = "payment_id") String paymentId // Payment ID from payment provider
     ) throws Exception {
-        // Retrieves the user and their wallet
-        User user = userService.findUserProfileByJwt(jwt);
-        Wallet wallet = walleteService.getUserWallet(user);
-        // Fetches the payment order by ID
+        // Retrieves the caller's principal and the payment order, which must be theirs
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         PaymentOrder order = paymentService.getPaymentOrderById(orderId);
-        // Processes the payment order with the payment ID
-        Boolean status = paymentService.ProccedPaymentOrder(order, paymentId); // Typo: should be "ProceedPaymentOrder"
-        // Creates a mock payment response
-        PaymentResponse res = new PaymentResponse();
-        res.setPayment_url("deposite success"); // Typo: should be "deposit success"
-        // Adds the amount to the wallet if payment is successful
-        if (status) {
-            wallet = walleteService.addBalanceToWallet(wallet, order.getAmount());
+        if (!order.getUser().getId().equals(user.getUserId())) {
+            throw new Exception("payment order not found with id " + orderId);
         }
-        // Returns the updated wallet with HTTP 200 (OK)
-        return new ResponseEntity<>(wallet, HttpStatus.OK);
+        // Queues the payment; a repeated request for the same payment is a no-op
+        paymentWebhookService.confirmDeposit(order, paymentId);
+        // Returns the order with HTTP 202 (Accepted)
+        return new ResponseEntity<>(order, HttpStatus.ACCEPTED);
     }
 
     // Commented-out endpoint for withdrawing money (incomplete)
@@ -103,19 +123,12 @@ public class WalletController {
             @PathVariable Long walletId,                 // Recipient wallet ID
             @RequestBody WalletTransaction req           // Transaction details (amount, purpose)
     ) throws Exception {
-        // Retrieves the sender user and recipient wallet
-        User senderUser = userService.findUserProfileByJwt(jwt);
+        // Retrieves the sender's principal and recipient wallet
+        AuthenticatedUser senderUser = userService.findPrincipalByJwt(jwt);
         Wallet reciverWallet = walleteService.findWalletById(walletId); // Typo: should be "receiverWallet"
-        // Performs the wallet-to-wallet transfer
-        Wallet wallet = walleteService.walletToWalletTransfer(senderUser, reciverWallet, req.getAmount());
-        // Creates a transaction record for the transfer
-        WalletTransaction walletTransaction = walletTransactionService.createTransaction(
-                wallet,
-                WalletTransactionType.WALLET_TRANSFER,
-                reciverWallet.getId().toString(),
-                req.getPurpose(),
-                -req.getAmount()                     // Negative amount indicates a debit
-        );
+        // Performs the wallet-to-wallet transfer, booking the debit and the receiver's credit with it
+        Wallet wallet = walleteService.walletToWalletTransfer(
+                senderUser.getUserId(), reciverWallet, req.getAmount(), req.getPurpose());
         // Returns the sender's updated wallet with HTTP 200 (OK)
         return new ResponseEntity<>(wallet, HttpStatus.OK);
     }
@@ -126,12 +139,12 @@ public class WalletController {
             @PathVariable Long orderId,                  // Order ID from the URL
             @RequestHeader("Authorization") String jwt
     ) throws Exception {
-        // Retrieves the user and the order
-        User user = userService.findUserProfileByJwt(jwt);
+        // Retrieves the caller's principal and the order
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         System.out.println("-------- " + orderId); // Debug logging (consider a logging framework)
         Order order = orderService.getOrderById(orderId);
-        // Processes the payment from the wallet
-        Wallet wallet = walleteService.payOrderPayment(order, user);
+        // Processes the payment from the wallet; only the wallet is loaded
+        Wallet wallet = walleteService.payOrderPayment(order, user.getUserId());
         // Returns the updated wallet with HTTP 200 (OK)
         return new ResponseEntity<>(wallet, HttpStatus.OK);
     }
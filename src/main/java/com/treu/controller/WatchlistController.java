@@ -1,9 +1,11 @@
 package com.treu.controller;
 
 import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
 import com.treu.model.Coin;
 import com.treu.model.User;
 import com.treu.model.Watchlist;
+import com.treu.response.WatchlistView;
 import com.treu.service.CoinService;
 import com.treu.service.UserService;
 import com.treu.service.WatchlistService;
@@ -38,14 +40,30 @@ public class WatchlistController {
     @GetMapping("/user")
     public ResponseEntity<Watchlist> getUserWatchlist(
             @RequestHeader("Authorization") String jwt) throws Exception {
-        // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         // Fetches the user's watchlist by their ID
-        Watchlist watchlist = watchlistService.findUserWatchlist(user.getId());
+        Watchlist watchlist = watchlistService.findUserWatchlist(user.getUserId());
         // Returns the watchlist with HTTP 200 (OK)
         return ResponseEntity.ok(watchlist);
     }
 
+    // Handles GET requests to render the user's watchlist with latest prices in one call. Without parameters
+    // every watched coin is returned; with since and membership from an earlier view, only changed prices
+    @GetMapping("/view")
+    public ResponseEntity<WatchlistView> getUserWatchlistView(
+            @RequestHeader("Authorization") String jwt,
+            @RequestParam(required = false) Long since,        // Version of the view the client already has
+            @RequestParam(required = false) Integer membership // Membership fingerprint of that view
+    ) throws Exception {
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
+        // Joins the watched coins with the in-memory price snapshot
+        WatchlistView view = watchlistService.getWatchlistView(user.getUserId(), since, membership);
+        // Returns the view with HTTP 200 (OK)
+        return ResponseEntity.ok(view);
+    }
+
     // Handles POST requests to create a new watchlist for the authenticated user
     @PostMapping("/create")
     public ResponseEntity<Watchlist> createWatchlist(
@@ -73,12 +91,12 @@ public class WatchlistController {
     public ResponseEntity<Coin> addItemToWatchlist(
             @RequestHeader("Authorization") String jwt,
             @PathVariable String coinId) throws Exception {
-        // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         // Fetches the coin by its ID
         Coin coin = coinService.findById(coinId);
-        // Adds the coin to the user's watchlist and returns the added coin
-        Coin addedCoin = watchlistService.addItemToWatchlist(coin, user);
+        // Toggles the coin on the user's watchlist and returns it
+        Coin addedCoin = watchlistService.addItemToWatchlist(coin, user.getUserId());
         // Returns the added coin with HTTP 200 (OK)
         return ResponseEntity.ok(addedCoin);
     }
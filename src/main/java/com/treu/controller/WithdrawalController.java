@@ -1,19 +1,25 @@
 package com.treu.controller;
 
-import com.treu.domain.WalletTransactionType;
+import com.treu.domain.WithdrawalStatus;
+import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
 import com.treu.model.User;
-import com.treu.model.Wallet;
-import com.treu.model.WalletTransaction;
 import com.treu.model.Withdrawal;
+import com.treu.request.WithdrawalBatchRequest;
+import com.treu.response.WithdrawalPage;
+import com.treu.response.WithdrawalResult;
+import com.treu.response.WithdrawalStatusSummary;
 import com.treu.service.UserService;
-import com.treu.service.WalletService;
-import com.treu.service.WalletTransactionService;
 import com.treu.service.WithdrawalService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // Marks this class as a REST controller, handling withdrawal-related requests
@@ -21,9 +27,7 @@ import java.util.List;
 public class WithdrawalController {
 
     @Autowired private WithdrawalService withdrawalService;        // Service for withdrawal operations
-    @Autowired private WalletService walletService;                // Service for wallet operations
     @Autowired private UserService userService;                    // Service for user operations
-    @Autowired private WalletTransactionService walletTransactionService; // Service for wallet transaction operations
 
     // Handles POST requests to initiate a withdrawal request
     @PostMapping("/api/withdrawal/{amount}")
@@ -33,20 +37,8 @@ public class WithdrawalController {
     ) throws Exception {
         // Retrieves the user associated with the JWT
         User user = userService.findUserProfileByJwt(jwt);
-        // Fetches the user's wallet
-        Wallet userWallet = walletService.getUserWallet(user);
-        // Requests a withdrawal for the specified amount
+        // Reserves the amount from the wallet and records the withdrawal and its ledger entry in one transaction
         Withdrawal withdrawal = withdrawalService.requestWithdrawal(amount, user);
-        // Deducts the withdrawal amount from the wallet (negative value)
-        walletService.addBalanceToWallet(userWallet, -withdrawal.getAmount());
-        // Creates a transaction record for the withdrawal
-        WalletTransaction walletTransaction = walletTransactionService.createTransaction(
-                userWallet,
-                WalletTransactionType.WITHDRAWAL,
-                null,                                      // No specific reference ID
-                "bank account withdrawal",                 // Transaction purpose
-                withdrawal.getAmount()                     // Positive amount for the record
-        );
         // Returns the withdrawal details with HTTP 200 (OK)
         return new ResponseEntity<>(withdrawal, HttpStatus.OK);
     }
@@ -58,43 +50,85 @@ public class WithdrawalController {
             @PathVariable boolean accept,                      // Approval status (true = accept, false = reject)
             @RequestHeader("Authorization") String jwt         // JWT from the Authorization header
     ) throws Exception {
-        // Retrieves the user (likely an admin) associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
-        // Processes the withdrawal (approve/reject)
+        // Only administrators may settle withdrawals
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        // Processes the withdrawal; a rejection refunds the withdrawal owner's wallet
         Withdrawal withdrawal = withdrawalService.procedWithdrawal(id, accept); // Typo: should be "proceedWithdrawal"
-        // Fetches the user's wallet
-        Wallet userWallet = walletService.getUserWallet(user);
-        // If rejected, refunds the amount back to the wallet
-        if (!accept) {
-            walletService.addBalanceToWallet(userWallet, withdrawal.getAmount());
-        }
         // Returns the updated withdrawal details with HTTP 200 (OK)
         return new ResponseEntity<>(withdrawal, HttpStatus.OK);
     }
 
+    // Handles PATCH requests to approve or reject many withdrawals at once (admin endpoint)
+    @PatchMapping("/api/admin/withdrawal/proceed")
+    public ResponseEntity<List<WithdrawalResult>> proceedWithdrawals(
+            @RequestBody WithdrawalBatchRequest req,           // Withdrawal IDs and the decision for all of them
+            @RequestHeader("Authorization") String jwt         // JWT from the Authorization header
+    ) throws Exception {
+        // Only administrators may settle withdrawals
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        // Settles the batch in one transaction; withdrawals that are missing or already settled are reported, not failed
+        List<WithdrawalResult> results = withdrawalService.proceedWithdrawals(req.getWithdrawalIds(), req.isAccept());
+        // Returns one result per requested ID with HTTP 200 (OK)
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     // Handles GET requests to retrieve the user's withdrawal history
     @GetMapping("/api/withdrawal")
     public ResponseEntity<List<Withdrawal>> getWithdrawalHistory(
             @RequestHeader("Authorization") String jwt         // JWT from the Authorization header
     ) throws Exception {
-        // Retrieves the user associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
+        // Retrieves the caller's principal from the JWT
+        AuthenticatedUser user = userService.findPrincipalByJwt(jwt);
         // Fetches the user's withdrawal history
-        List<Withdrawal> withdrawal = withdrawalService.getUsersWithdrawalHistory(user);
+        List<Withdrawal> withdrawal = withdrawalService.getUsersWithdrawalHistory(user.getUserId());
         // Returns the withdrawal history with HTTP 200 (OK)
         return new ResponseEntity<>(withdrawal, HttpStatus.OK);
     }
 
-    // Handles GET requests to retrieve all withdrawal requests (admin endpoint)
+    // Handles GET requests to page through the withdrawals of one status, oldest first (admin endpoint)
     @GetMapping("/api/admin/withdrawal")
-    public ResponseEntity<List<Withdrawal>> getAllWithdrawalRequest(
+    public ResponseEntity<WithdrawalPage> getWithdrawalQueue(
+            @RequestHeader("Authorization") String jwt,        // JWT from the Authorization header
+            @RequestParam(defaultValue = "PENDING") WithdrawalStatus status,   // Status to list
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate, // Cursor date of the previous page
+            @RequestParam(required = false) Long afterId,      // Cursor ID of the previous page
+            @RequestParam(defaultValue = "50") int size        // Page size, capped by the service
+    ) throws Exception {
+        // Only administrators may read the queue
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        // Fetches the page after the cursor
+        WithdrawalPage page = withdrawalService.getWithdrawalQueue(status, afterDate, afterId, size);
+        // Returns the page with HTTP 200 (OK)
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    // Handles GET requests to retrieve the count and total amount of every withdrawal status (admin endpoint)
+    @GetMapping("/api/admin/withdrawal/summary")
+    public ResponseEntity<List<WithdrawalStatusSummary>> getWithdrawalSummary(
             @RequestHeader("Authorization") String jwt         // JWT from the Authorization header
     ) throws Exception {
-        // Retrieves the user (likely an admin) associated with the JWT
-        User user = userService.findUserProfileByJwt(jwt);
-        // Fetches all pending withdrawal requests
-        List<Withdrawal> withdrawal = withdrawalService.getAllWithdrawalRequest();
-        // Returns the list of withdrawal requests with HTTP 200 (OK)
-        return new ResponseEntity<>(withdrawal, HttpStatus.OK);
+        // Only administrators may read the totals
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        // Returns the totals with HTTP 200 (OK)
+        return new ResponseEntity<>(withdrawalService.getWithdrawalSummary(), HttpStatus.OK);
+    }
+
+    // Handles GET requests to open a stream of new and settled withdrawals (admin endpoint)
+    @GetMapping(value = "/api/admin/withdrawal/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamWithdrawalQueue(
+            @RequestHeader("Authorization") String jwt         // JWT from the Authorization header
+    ) throws Exception {
+        // Only administrators may follow the queue
+        requireAdmin(userService.findPrincipalByJwt(jwt));
+        // Sends "withdrawal-pending" and "withdrawal-settled" events as they commit
+        return withdrawalService.subscribeToQueue();
+    }
+
+    // Rejects non-admin users
+    private void requireAdmin(AuthenticatedUser user) throws UserException {
+        if (!user.isAdmin()) {
+            throw new UserException("admin access required");
+        }
     }
 }
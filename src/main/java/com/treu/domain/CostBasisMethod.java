@@ -0,0 +1,13 @@
+package com.treu.domain;
+
+// Defines an enumeration for the ways the cost of sold coins is matched against earlier buys
+public enum CostBasisMethod {
+    // Sells consume the oldest lots first
+    FIFO,
+
+    // Sells consume the newest lots first
+    LIFO,
+
+    // Sells are costed at the average price of all coins held
+    AVERAGE
+}
@@ -0,0 +1,16 @@
+package com.treu.domain;
+
+// Defines an enumeration for the delivery states of an outbox email
+public enum EmailOutboxStatus {
+    // Waiting for its next delivery attempt
+    PENDING,
+
+    // Claimed by a dispatcher and being sent
+    SENDING,
+
+    // Accepted by the SMTP server
+    SENT,
+
+    // Given up on after permanent failure or too many attempts
+    DEAD
+}
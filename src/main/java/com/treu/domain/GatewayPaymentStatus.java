@@ -0,0 +1,13 @@
+package com.treu.domain;
+
+// Defines an enumeration for the state of a payment as reported by its provider
+public enum GatewayPaymentStatus {
+    // Money captured; the order can be credited
+    SETTLED,
+
+    // Not captured yet, e.g. authorized or still processing; ask again later
+    PENDING,
+
+    // Failed or cancelled at the provider; nothing will be captured
+    FAILED
+}
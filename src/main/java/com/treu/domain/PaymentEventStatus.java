@@ -0,0 +1,19 @@
+package com.treu.domain;
+
+// Defines an enumeration for the processing states of a received payment webhook event
+public enum PaymentEventStatus {
+    // Waiting to be processed
+    PENDING,
+
+    // Claimed by a processor batch
+    PROCESSING,
+
+    // Credited to the wallet of the payment order's owner
+    PROCESSED,
+
+    // Nothing to credit, e.g. the order was already settled or the amount does not match; see lastError
+    SKIPPED,
+
+    // Given up on after too many failed attempts
+    FAILED
+}
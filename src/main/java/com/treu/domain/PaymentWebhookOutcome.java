@@ -0,0 +1,19 @@
+package com.treu.domain;
+
+// Defines an enumeration for the outcomes of receiving a payment provider webhook
+public enum PaymentWebhookOutcome {
+    // Signature verified and the event was queued for processing
+    ACCEPTED,
+
+    // Signature verified but the payment was already queued, e.g. a retried or replayed delivery
+    DUPLICATE,
+
+    // Signature verified but a client-reported copy of the payment is being looked up; redeliver later
+    RETRY,
+
+    // Signature verified but the event type does not credit a wallet
+    IGNORED,
+
+    // Signature missing or wrong; the event is dropped
+    INVALID_SIGNATURE
+}
@@ -0,0 +1,10 @@
+package com.treu.domain;
+
+// Defines an enumeration for the ways a triggered price alert reaches its user
+public enum PriceAlertChannel {
+    // Sent through the email outbox
+    EMAIL,
+
+    // Pushed to the user's open alert stream; sent by email instead when no stream is open
+    PUSH
+}
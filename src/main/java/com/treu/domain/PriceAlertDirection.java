@@ -0,0 +1,10 @@
+package com.treu.domain;
+
+// Defines an enumeration for the side of its threshold a price alert waits for
+public enum PriceAlertDirection {
+    // Fires once the price is at or above the threshold
+    ABOVE,
+
+    // Fires once the price is at or below the threshold
+    BELOW
+}
@@ -0,0 +1,10 @@
+package com.treu.domain;
+
+// Defines an enumeration for the kinds of discrepancy the ledger reconciliation job reports
+public enum ReconciliationMismatchType {
+    // Wallet balance differs from the signed sum of its wallet transactions
+    BALANCE,
+
+    // Settled buy/sell orders of the wallet owner differ from the order rows in the wallet's ledger
+    ORDER_LEDGER
+}
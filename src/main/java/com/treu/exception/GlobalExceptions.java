@@ -1,5 +1,6 @@
 package com.treu.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -28,6 +29,24 @@ public class GlobalExceptions {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    // Handles PasswordHashingBusyException, returning SERVICE_UNAVAILABLE so clients retry later
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorDetails> passwordHashingBusyHandler(
+            PasswordHashingBusyException ex, // The PasswordHashingBusyException instance thrown
+            WebRequest request          // Details about the web request
+    ) {
+        // Creates an ErrorDetails object with the exception message, request description, and timestamp
+        ErrorDetails error = new ErrorDetails(
+                ex.getMessage(),        // Error message from the exception
+                request.getDescription(false), // Request details (e.g., URI)
+                LocalDateTime.now()     // Current timestamp
+        );
+        // Returns the error details with HTTP 503 (Service Unavailable) and a retry hint
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     // Handles RuntimeException, returning a BAD_REQUEST response
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorDetails> handleRuntimeException(
@@ -0,0 +1,10 @@
+package com.treu.exception;
+
+// Unchecked exception thrown when the password hashing executor is saturated and the request is shed
+public class PasswordHashingBusyException extends RuntimeException {
+
+    // Constructor that accepts an error message
+    public PasswordHashingBusyException(String message) {
+        super(message);             // Passes the provided message to the parent RuntimeException class
+    }
+}
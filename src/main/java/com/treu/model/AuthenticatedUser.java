@@ -0,0 +1,51 @@
+package com.treu.model;
+
+// Custom enum for defining user roles (e.g., ROLE_USER, ROLE_ADMIN)
+import com.treu.domain.USER_ROLE;
+// Lombok annotation to generate an immutable class with getters, equals, hashCode and toString
+import lombok.Value;
+
+import java.security.Principal;   // Lets Authentication.getName() return the email
+
+// Immutable principal of an authenticated request, built by JwtTokenValidator from the access token's claims.
+// Carries what most endpoints need about the caller without loading the User entity; load the entity only
+// where the request changes the user or links a new row to them
+@Value
+public class AuthenticatedUser implements Principal {
+
+    // ID of the user
+    Long userId;
+
+    // Email address of the user
+    String email;
+
+    // Role of the user (e.g., ROLE_USER, ROLE_ADMIN)
+    USER_ROLE role;
+
+    // Whether the user's account is verified
+    boolean verified;
+
+    // Whether two-factor authentication is enabled
+    boolean twoFactorEnabled;
+
+    // Builds the principal of a loaded user
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getEmail(),
+                user.getRole() != null ? user.getRole() : USER_ROLE.ROLE_USER,
+                user.isVerified(),
+                user.getTwoFactorAuth() != null && user.getTwoFactorAuth().isEnabled());
+    }
+
+    // True for administrators
+    public boolean isAdmin() {
+        return role == USER_ROLE.ROLE_ADMIN;
+    }
+
+    // Principal name, the email, as used for rate-limit keys and logs
+    @Override
+    public String getName() {
+        return email;
+    }
+}
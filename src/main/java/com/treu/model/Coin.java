@@ -10,6 +10,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 // Lombok annotation to generate getters, setters, toString, equals, and hashCode
 import lombok.Data;
+// Lombok annotation to restrict equals and hashCode to selected fields
+import lombok.EqualsAndHashCode;
 // Lombok annotation to generate a no-args constructor
 import lombok.NoArgsConstructor;
 
@@ -20,11 +22,13 @@ import java.util.Date;
 @AllArgsConstructor                 // Generates a constructor with all fields
 @NoArgsConstructor                  // Generates a no-args constructor
 @Data                               // Generates getters, setters, toString, equals, and hashCode
+@EqualsAndHashCode(onlyExplicitlyIncluded = true) // Identity is the id; prices change while a coin sits in a set
 @Table(name = "coins")             // Specifies the table name in the database
 public class Coin {
 
     // Primary key field, also mapped to JSON "id" property
     @Id
+    @EqualsAndHashCode.Include
     @JsonProperty("id")
     private String id;
 
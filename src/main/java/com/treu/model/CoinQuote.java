@@ -0,0 +1,44 @@
+package com.treu.model;
+
+// Lombok annotation to generate an immutable class: private final fields, getters and an all-args constructor
+import lombok.Value;
+
+// Immutable market quote for one coin held in the in-memory price snapshot; replaced, never mutated, on each tick
+@Value
+public class CoinQuote {
+    // Unique identifier of the coin (CoinGecko id)
+    String id;
+    // Trading symbol of the coin (e.g., btc)
+    String symbol;
+    // Full name of the coin
+    String name;
+    // URL of the coin's image
+    String image;
+    // Current price in USD
+    double price;
+    // Market capitalization in USD
+    long marketCap;
+    // Trading volume over the last 24 hours
+    long totalVolume;
+    // Highest price in the last 24 hours
+    double high24h;
+    // Lowest price in the last 24 hours
+    double low24h;
+    // Absolute price change over the last 24 hours
+    double priceChange24h;
+    // Percentage price change over the last 24 hours
+    double priceChangePercentage24h;
+    // Snapshot version at which this quote was stored
+    long version;
+    // Epoch milliseconds at which this quote was stored
+    long updatedAt;
+
+    // Builds a quote from a coin fetched from the market data API
+    public static CoinQuote of(Coin coin, long version, long updatedAt) {
+        return new CoinQuote(coin.getId(), coin.getSymbol(), coin.getName(), coin.getImage(),
+                coin.getCurrentPrice(), coin.getMarketCap(), coin.getTotalVolume(),
+                coin.getHigh24h(), coin.getLow24h(),
+                coin.getPriceChange24h(), coin.getPriceChangePercentage24h(),
+                version, updatedAt);
+    }
+}
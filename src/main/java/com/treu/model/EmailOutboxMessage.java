@@ -0,0 +1,74 @@
+package com.treu.model;
+
+// Custom enum for the delivery state of the message
+import com.treu.domain.EmailOutboxStatus;
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;   // Date and time class for scheduling and auditing
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// Dispatchers poll by (status, next attempt) and read back their claim by token
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_claim", columnList = "claim_token")})
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class EmailOutboxMessage {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Recipient email address
+    @Column(nullable = false)
+    private String recipient;
+
+    // Email subject
+    private String subject;
+
+    // Email body (HTML)
+    @Column(length = 4000)
+    private String body;
+
+    // Delivery state, PENDING until a dispatcher claims it
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    // Number of delivery attempts made
+    private int attempts;
+
+    // Earliest time of the next attempt; pushed back exponentially after failures
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Token of the dispatcher batch that claimed the message
+    @Column(name = "claim_token")
+    private String claimToken;
+
+    // Time after which a SENDING claim is considered abandoned and the message is retried
+    private LocalDateTime leaseUntil;
+
+    // Error of the last failed attempt
+    @Column(length = 1000)
+    private String lastError;
+
+    // Time the message was enqueued
+    private LocalDateTime createdAt;
+
+    // Time the SMTP server accepted the message
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,23 @@
+package com.treu.model;
+
+// Custom enum for the state of a payment at its provider
+import com.treu.domain.GatewayPaymentStatus;
+// Lombok annotation to generate an immutable class with getters, equals, hashCode and toString
+import lombok.Value;
+
+// Immutable view of a payment looked up at its provider, reduced to what settling a payment order needs
+@Value
+public class GatewayPayment {
+
+    // Provider's id of the payment
+    String paymentId;
+
+    // State of the payment at the provider
+    GatewayPaymentStatus status;
+
+    // Amount captured in the smallest currency unit (paise, cents)
+    long amount;
+
+    // Payment order named in the payment's notes or metadata, or null if it carries none
+    Long orderId;
+}
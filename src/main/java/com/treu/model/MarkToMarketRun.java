@@ -0,0 +1,56 @@
+package com.treu.model;
+
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;   // Date and time class for run timestamps
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+@Table(name = "mark_to_market_runs")
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class MarkToMarketRun {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Time the run started valuing positions
+    private LocalDateTime startedAt;
+
+    // Time the run wrote its last snapshot row, null while it is still running
+    private LocalDateTime finishedAt;
+
+    // Price snapshot version the run valued against
+    private long priceVersion;
+
+    // Number of users holding at least one position
+    private long userCount;
+
+    // Number of asset rows valued
+    private long positionCount;
+
+    // Total assets under management: sum of every position's quantity times its price
+    private double totalMarketValue;
+
+    // Sum of every position's quantity times its average buy price
+    private double totalCostBasis;
+
+    // Wall-clock duration of the run in milliseconds
+    private long durationMs;
+
+    // Why the run stopped before finishing, null unless it failed; a failed run keeps no equity rows
+    private String failure;
+}
@@ -39,6 +39,9 @@ public class OrderItem {
     // Selling price of the asset for this order item
     private double sellPrice;
 
+    // Realised profit or loss of a sell item against the matched lots' cost; null for buys
+    private Double realizedPnl;
+
     // One-to-one relationship with Order entity, excluded from JSON serialization
     @JsonIgnore
     @OneToOne
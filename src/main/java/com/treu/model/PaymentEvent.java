@@ -0,0 +1,91 @@
+package com.treu.model;
+
+// Custom enum for defining payment methods (e.g., RAZORPAY, STRIPE)
+import com.treu.domain.PaymentMethod;
+// Custom enum for the processing state of the event
+import com.treu.domain.PaymentEventStatus;
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;   // Date and time class for scheduling and auditing
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// One row per provider payment, so a replayed webhook is rejected by the database; processors poll by
+// (status, next attempt) and read back their claim by token
+@Table(name = "payment_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_events_payment",
+                columnNames = {"provider", "provider_payment_id"}),
+        indexes = {
+                @Index(name = "idx_payment_events_status_next", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_payment_events_claim", columnList = "claim_token")})
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class PaymentEvent {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Provider that sent the event
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentMethod provider;
+
+    // Provider's id of the payment; the idempotency key of the credit
+    @Column(name = "provider_payment_id", nullable = false)
+    private String providerPaymentId;
+
+    // Provider's id of the event, for tracing
+    private String providerEventId;
+
+    // Payment order the payment was made for, from the reference attached when the link was created
+    private Long orderId;
+
+    // Amount paid in the smallest currency unit (paise, cents)
+    private long amount;
+
+    // Whether the payment's state came from the provider: true for a signed webhook, false for a payment the
+    // client reported after checkout, which is looked up at the provider before it settles
+    private boolean verified;
+
+    // Processing state, PENDING until a processor claims it
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentEventStatus status = PaymentEventStatus.PENDING;
+
+    // Number of processing attempts made
+    private int attempts;
+
+    // Earliest time of the next attempt; pushed back exponentially after failures
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Token of the processor batch that claimed the event
+    @Column(name = "claim_token")
+    private String claimToken;
+
+    // Time after which a PROCESSING claim is considered abandoned and the event is retried
+    private LocalDateTime leaseUntil;
+
+    // Reason the event was skipped, or error of the last failed attempt
+    @Column(length = 1000)
+    private String lastError;
+
+    // Time the webhook was received
+    private LocalDateTime receivedAt;
+
+    // Time the event was processed or skipped
+    private LocalDateTime processedAt;
+}
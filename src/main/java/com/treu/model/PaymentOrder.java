@@ -15,6 +15,9 @@ import lombok.NoArgsConstructor;
 
 // Marks this class as a JPA entity to be mapped to a database table
 @Entity
+// A provider payment settles at most one order, whichever path (deposit request or webhook) settles it
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_payment_order_provider_payment",
+        columnNames = {"payment_method", "provider_payment_id"}))
 // Generates a constructor with all fields as parameters
 @AllArgsConstructor
 // Generates a default constructor with no parameters
@@ -37,6 +40,10 @@ public class PaymentOrder {
     // Method used for the payment (e.g., CARD, BANK_TRANSFER)
     private PaymentMethod paymentMethod;
 
+    // Provider's id of the payment that settled the order
+    @Column(name = "provider_payment_id")
+    private String providerPaymentId;
+
     // Many-to-one relationship with User entity, linking the payment order to a user
     @ManyToOne
     private User user;
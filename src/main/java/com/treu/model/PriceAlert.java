@@ -0,0 +1,73 @@
+package com.treu.model;
+
+// Jackson annotation to exclude fields from JSON serialization
+import com.fasterxml.jackson.annotation.JsonIgnore;
+// Custom enum for the delivery channel of an alert
+import com.treu.domain.PriceAlertChannel;
+// Custom enum for the side of the threshold an alert waits for
+import com.treu.domain.PriceAlertDirection;
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;   // Date and time class for creation and trigger times
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// Listed per user, and loaded in id order while active to build the in-memory index
+@Table(name = "price_alerts", indexes = {
+        @Index(name = "idx_price_alerts_user", columnList = "user_id"),
+        @Index(name = "idx_price_alerts_active", columnList = "active, id")})
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class PriceAlert {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // User notified when the alert fires
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    // Watched coin the alert is attached to
+    @Column(name = "coin_id", nullable = false)
+    private String coinId;
+
+    // Side of the threshold the alert waits for
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PriceAlertDirection direction;
+
+    // Price in USD the alert compares against
+    private double threshold;
+
+    // How the user is notified
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PriceAlertChannel channel = PriceAlertChannel.EMAIL;
+
+    // True until the alert fires or is cancelled; alerts fire once
+    private boolean active = true;
+
+    // Time the alert was created
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Time the alert fired
+    private LocalDateTime triggeredAt;
+
+    // Price that fired the alert
+    private Double triggeredPrice;
+}
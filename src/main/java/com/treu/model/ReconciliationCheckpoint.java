@@ -0,0 +1,45 @@
+package com.treu.model;
+
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+
+import java.time.LocalDateTime;     // Date and time class for run timestamps
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// Specifies the table name in the database as "reconciliation_checkpoints"
+@Table(name = "reconciliation_checkpoints")
+// Automatically generates getters, setters, and other utility methods
+@Data
+public class ReconciliationCheckpoint {
+
+    // Name of the job owning this checkpoint, one row per job
+    @Id
+    private String jobName;
+
+    // Identifier of the current or last run, shared by its mismatch rows
+    private String runId;
+
+    // Highest wallet id up to which every partition is complete; a resumed run starts after it
+    private Long watermark = 0L;
+
+    // Highest wallet id when the run started, the run ends there
+    private Long maxWalletId;
+
+    // Wallets checked in completed partitions
+    private long walletsChecked;
+
+    // Mismatches found in completed partitions
+    private long mismatchCount;
+
+    // Time the run started
+    private LocalDateTime startedAt;
+
+    // Time the watermark last moved
+    private LocalDateTime updatedAt;
+
+    // Time the run completed, null while it is running or was interrupted
+    private LocalDateTime finishedAt;
+}
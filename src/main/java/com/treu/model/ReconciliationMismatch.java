@@ -0,0 +1,58 @@
+package com.treu.model;
+
+// Custom enum for the kind of discrepancy found
+import com.treu.domain.ReconciliationMismatchType;
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;         // High-precision decimal class for financial values
+import java.time.LocalDateTime;      // Date and time class for detection timestamps
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// Mismatches are always read per run and cleaned up per run and wallet range
+@Table(name = "reconciliation_mismatches",
+        indexes = @Index(name = "idx_mismatch_run_wallet", columnList = "run_id, wallet_id"))
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class ReconciliationMismatch {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Run that detected the mismatch
+    @Column(name = "run_id", nullable = false)
+    private String runId;
+
+    // Wallet being reconciled
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    // Owner of the wallet
+    private Long userId;
+
+    // Kind of discrepancy
+    @Enumerated(EnumType.STRING)
+    private ReconciliationMismatchType type;
+
+    // Value derived from the ledger or orders
+    private BigDecimal expected;
+
+    // Value actually stored
+    private BigDecimal actual;
+
+    // Time the mismatch was detected
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,59 @@
+package com.treu.model;
+
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;   // Date and time class for expiry and auditing
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// Looked up by token hash on refresh, and revoked by family or user
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id")})
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class RefreshToken {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the token handed to the client; the token itself is never stored
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    // Chain of rotations started by one sign-in; reuse of a rotated token revokes the whole family
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    // User the token signs in
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Time the token stops being accepted
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Time the token was exchanged for a new one; it cannot be used again
+    private LocalDateTime usedAt;
+
+    // Time the token was revoked by logout, password reset or reuse detection
+    private LocalDateTime revokedAt;
+
+    // Time the token was issued
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
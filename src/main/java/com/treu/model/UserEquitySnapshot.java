@@ -0,0 +1,50 @@
+package com.treu.model;
+
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// One row per user and run; rows are bulk-inserted by the mark-to-market job, so columns are named explicitly
+@Table(name = "user_equity_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_equity_run_user", columnNames = {"run_id", "user_id"}),
+        indexes = @Index(name = "idx_equity_run_value", columnList = "run_id, market_value"))
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class UserEquitySnapshot {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Id of the mark-to-market run that wrote this row
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    // Id of the user, kept as a plain column so snapshot rows stay compact and never join users
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Sum of the user's positions at the run's prices
+    @Column(name = "market_value", nullable = false)
+    private double marketValue;
+
+    // Sum of the user's positions at their average buy prices
+    @Column(name = "cost_basis", nullable = false)
+    private double costBasis;
+
+    // Number of coins the user holds
+    @Column(name = "position_count", nullable = false)
+    private int positionCount;
+}
@@ -0,0 +1,75 @@
+package com.treu.model;
+
+// Custom enum for defining user roles (e.g., ROLE_USER, ROLE_ADMIN)
+import com.treu.domain.USER_ROLE;
+// Custom enum for the user's account status
+import com.treu.domain.UserStatus;
+// Custom enum for the two-factor verification channel
+import com.treu.domain.VerificationType;
+// Lombok annotation to generate an immutable class with getters, equals, hashCode and toString
+import lombok.Value;
+
+// Immutable snapshot of a user's row, held by UserProfileCache across requests. Being immutable it can be
+// shared by every reader; each reader gets its own detached User entity built from it
+@Value
+public class UserProfile {
+
+    // ID of the user
+    Long id;
+
+    // Full name of the user
+    String fullName;
+
+    // Email address of the user
+    String email;
+
+    // Mobile phone number of the user
+    String mobile;
+
+    // Encoded password of the user
+    String password;
+
+    // Status of the user (e.g., PENDING, ACTIVE)
+    UserStatus status;
+
+    // Whether the user's account is verified
+    boolean verified;
+
+    // Whether two-factor authentication is enabled
+    boolean twoFactorEnabled;
+
+    // Channel two-factor codes are sent to
+    VerificationType twoFactorSendTo;
+
+    // URL or path to the user's profile picture
+    String picture;
+
+    // Role of the user (e.g., ROLE_USER, ROLE_ADMIN)
+    USER_ROLE role;
+
+    // Takes the snapshot of a loaded user
+    public static UserProfile of(User user) {
+        TwoFactorAuth twoFactorAuth = user.getTwoFactorAuth();
+        return new UserProfile(
+                user.getId(),
+                user.getFullName(),
+                user.getEmail(),
+                user.getMobile(),
+                user.getPassword(),
+                user.getStatus(),
+                user.isVerified(),
+                twoFactorAuth != null && twoFactorAuth.isEnabled(),
+                twoFactorAuth != null ? twoFactorAuth.getSendTo() : null,
+                user.getPicture(),
+                user.getRole());
+    }
+
+    // Builds a detached entity the caller may modify and save; the all-args constructor stops compiling when
+    // User gains a field, so a new column cannot be silently dropped from cached users
+    public User toUser() {
+        TwoFactorAuth twoFactorAuth = new TwoFactorAuth();
+        twoFactorAuth.setEnabled(twoFactorEnabled);
+        twoFactorAuth.setSendTo(twoFactorSendTo);
+        return new User(id, fullName, email, mobile, password, status, verified, twoFactorAuth, picture, role);
+    }
+}
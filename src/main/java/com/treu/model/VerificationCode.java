@@ -2,27 +2,21 @@ package com.treu.model;
 
 // Custom enum or class for defining verification types (e.g., EMAIL, SMS)
 import com.treu.domain.VerificationType;
-// JPA annotations for database mapping and entity management
-import jakarta.persistence.*;
 // Lombok annotation to generate getters, setters, toString, equals, and hashCode
 import lombok.Data;
 
-// Marks this class as a JPA entity to be mapped to a database table
-@Entity
 // Automatically generates getters, setters, and other utility methods
 @Data
+// Pending account or 2FA verification, held in the EphemeralTokenStore until it is verified or expires
 public class VerificationCode {
 
-    // Primary key field, auto-incremented by the database using the default strategy
-    @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    // Identifier of the code; a user has at most one pending code, so this is the user's ID
     private Long id;
 
     // One-time password (OTP) for verification
     private String otp;
 
-    // One-to-one relationship with User entity, linking the verification code to a specific user
-    @OneToOne
+    // User the verification code belongs to
     private User user;
 
     // Email address associated with the verification, if applicable
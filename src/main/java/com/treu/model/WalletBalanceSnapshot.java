@@ -0,0 +1,48 @@
+package com.treu.model;
+
+// JPA annotations for database mapping and entity management
+import jakarta.persistence.*;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;         // High-precision decimal class for financial calculations
+import java.time.LocalDate;          // Date class for the business day the snapshot closes
+import java.time.LocalDateTime;      // Date and time class for the creation timestamp
+
+// Marks this class as a JPA entity to be mapped to a database table
+@Entity
+// One closing balance per wallet and day; the unique index doubles as the lookup index for point-in-time queries
+@Table(name = "wallet_balance_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_snapshot_wallet_date", columnNames = {"wallet_id", "snapshot_date"}))
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class WalletBalanceSnapshot {
+
+    // Primary key field, auto-incremented by the database
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Id of the wallet, kept as a plain column so snapshot rows stay compact and never join wallets
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    // Business day whose closing balance this row records
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    // Wallet balance at the end of the snapshot day
+    @Column(nullable = false)
+    private BigDecimal closingBalance;
+
+    // Time the snapshot job wrote this row
+    private LocalDateTime createdAt;
+}
@@ -11,6 +11,8 @@ import java.time.LocalDate;           // Date class for storing transaction date
 
 // Marks this class as a JPA entity to be mapped to a database table
 @Entity
+// Index backing per-wallet date range scans (history listing and point-in-time balance deltas)
+@Table(indexes = @Index(name = "idx_wallet_transaction_wallet_date", columnList = "wallet_id, date"))
 // Automatically generates getters, setters, and other utility methods
 @Data
 public class WalletTransaction {
@@ -36,6 +38,6 @@ public class WalletTransaction {
     // Description or reason for the transaction
     private String purpose;
 
-    // Amount of the transaction
+    // Signed amount of the transaction: credits are positive, debits are negative
     private Long amount;
 }
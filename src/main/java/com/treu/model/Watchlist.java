@@ -6,11 +6,15 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 // Lombok annotation to generate getters, setters, toString, equals, and hashCode
 import lombok.Data;
+// Lombok annotation to leave fields out of equals and hashCode
+import lombok.EqualsAndHashCode;
 // Lombok annotation to generate a no-args constructor
 import lombok.NoArgsConstructor;
+// Lombok annotation to leave fields out of toString
+import lombok.ToString;
 
-import java.util.ArrayList;          // Dynamic array implementation for storing lists
-import java.util.List;             // Interface for ordered collections
+import java.util.LinkedHashSet;      // Insertion-ordered set implementation
+import java.util.Set;                // Interface for collections without duplicates
 
 // Marks this class as a JPA entity to be mapped to a database table
 @Entity
@@ -31,7 +35,14 @@ public class Watchlist {
     @OneToOne
     private User user;
 
-    // Many-to-many relationship with Coin entity, storing a list of watched coins, initialized as an empty ArrayList
-    @ManyToMany
-    private List<Coin> coins = new ArrayList<>();
+    // Watched coins, loaded only when read. The join table is keyed by (watchlist_id, coins_id), so
+    // WatchlistRepository adds and removes a coin with a single-row insert or delete
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "watchlist_coins",
+            joinColumns = @JoinColumn(name = "watchlist_id"),
+            inverseJoinColumns = @JoinColumn(name = "coins_id"),
+            uniqueConstraints = @UniqueConstraint(columnNames = {"watchlist_id", "coins_id"}))
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Set<Coin> coins = new LinkedHashSet<>();
 }
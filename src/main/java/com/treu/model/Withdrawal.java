@@ -11,6 +11,8 @@ import java.time.LocalDateTime;     // Date and time class for timestamp storage
 
 // Marks this class as a JPA entity to be mapped to a database table
 @Entity
+// Index backing the admin queue, which pages through one status in date order, and the per-status totals
+@Table(indexes = @Index(name = "idx_withdrawal_status_date", columnList = "status, date"))
 // Automatically generates getters, setters, and other utility methods
 @Data
 public class Withdrawal {
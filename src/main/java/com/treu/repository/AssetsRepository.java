@@ -4,8 +4,16 @@ package com.treu.repository;
 import com.treu.model.Asset;
 // Spring Data JPAs repository interface providing CRUD operations
 import org.springframework.data.jpa.repository.JpaRepository;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Annotations for passing JDBC hints to a query
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+// Hibernate's JPA hint names
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;             // Interface for ordered collections
+import java.util.stream.Stream;    // Lazily consumed result rows
 
 // Defines a repository interface for Asset entity management
 public interface AssetsRepository extends JpaRepository<Asset, Long> {
@@ -18,6 +26,13 @@ public interface AssetsRepository extends JpaRepository<Asset, Long> {
     // Finds a single asset by asset ID and user ID
     Asset findByIdAndUserId(Long assetId, Long userId);
 
+    // Streams [userId, coinId, quantity, buyPrice, coin currentPrice] of every asset through one cursor,
+    // ordered by user so each user's rows are contiguous; a fetch size of Integer.MIN_VALUE makes
+    // MySQL Connector/J stream rows instead of buffering the whole result. Must be consumed in a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select a.user.id, c.id, a.quantity, a.buyPrice, c.currentPrice from Asset a join a.coin c order by a.user.id")
+    Stream<Object[]> streamAllPositions();
+
 
 //   Optional<Assets> findByUserIdAndSymbolAndPortfolioId(Long userId, String symbol, Long portfolioId);
 }
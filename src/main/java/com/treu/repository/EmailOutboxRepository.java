@@ -0,0 +1,54 @@
+package com.treu.repository;
+
+// Entity class representing an outbox email
+import com.treu.model.EmailOutboxMessage;
+// Spring Data pagination request
+import org.springframework.data.domain.Pageable;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query method as a bulk update/delete
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+// Spring annotation for transactional bulk updates outside a service transaction
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;    // Date and time class for due and lease checks
+import java.util.Collection;       // Interface for id batches
+import java.util.List;             // Interface for ordered collections
+
+// Defines a repository interface for EmailOutboxMessage entity management
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Retrieves ids of pending messages whose next attempt is due, oldest first
+    @Query("select m.id from EmailOutboxMessage m where m.status = com.treu.domain.EmailOutboxStatus.PENDING " +
+            "and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Claims still-pending messages for one batch; rows another dispatcher claimed first are skipped
+    @Modifying
+    @Transactional
+    @Query("update EmailOutboxMessage m set m.status = com.treu.domain.EmailOutboxStatus.SENDING, " +
+            "m.claimToken = :token, m.leaseUntil = :leaseUntil " +
+            "where m.id in :ids and m.status = com.treu.domain.EmailOutboxStatus.PENDING")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Retrieves the messages a batch claimed
+    List<EmailOutboxMessage> findByClaimToken(String claimToken);
+
+    // Returns messages whose dispatcher died mid-send to PENDING
+    @Modifying
+    @Transactional
+    @Query("update EmailOutboxMessage m set m.status = com.treu.domain.EmailOutboxStatus.PENDING, m.claimToken = null " +
+            "where m.status = com.treu.domain.EmailOutboxStatus.SENDING and m.leaseUntil < :now")
+    int releaseExpiredLeases(@Param("now") LocalDateTime now);
+
+    // Removes sent messages older than the cutoff
+    @Modifying
+    @Transactional
+    @Query("delete from EmailOutboxMessage m where m.status = com.treu.domain.EmailOutboxStatus.SENT and m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
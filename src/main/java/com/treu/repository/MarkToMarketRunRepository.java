@@ -0,0 +1,19 @@
+package com.treu.repository;
+
+// Entity class representing a mark-to-market run
+import com.treu.model.MarkToMarketRun;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;    // Date and time class for the retention cutoff
+import java.util.Optional;         // Wrapper for handling nullable values
+
+// Defines a repository interface for MarkToMarketRun entity management
+public interface MarkToMarketRunRepository extends JpaRepository<MarkToMarketRun, Long> {
+
+    // Retrieves the most recent run that finished
+    Optional<MarkToMarketRun> findTopByFinishedAtIsNotNullOrderByIdDesc();
+
+    // Retrieves the most recent run started before the cutoff
+    Optional<MarkToMarketRun> findTopByStartedAtBeforeOrderByIdDesc(LocalDateTime cutoff);
+}
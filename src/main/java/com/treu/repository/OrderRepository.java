@@ -4,7 +4,14 @@ package com.treu.repository;
 import com.treu.model.Order;
 // Spring Data JPA's repository interface providing CRUD operations
 import org.springframework.data.jpa.repository.JpaRepository;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;       // High-precision decimal class for financial sums
+import java.time.LocalDateTime;    // Date and time class for order timestamps
+import java.util.Collection;       // Interface for the user id batch
 import java.util.List;             // Interface for ordered collections
 
 // Defines a repository interface for Order entity management
@@ -12,4 +19,50 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // Retrieves a list of orders for a specific user by their user ID
     public List<Order> findByUserId(Long userId);
+
+    // Returns [userId, orderType, sum(price), count, sum(floor(price))] of orders that moved wallet funds (not
+    // cancelled or failed); the floored sum is what the ledger books, as order payments are booked in whole units
+    @Query("select o.user.id, o.orderType, sum(o.price), count(o), sum(floor(o.price)) from Order o " +
+            "where o.user.id in :userIds " +
+            "and o.status not in (com.treu.domain.OrderStatus.CANCELLED, com.treu.domain.OrderStatus.ERROR) " +
+            "group by o.user.id, o.orderType")
+    List<Object[]> aggregateSettledOrdersByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Returns [walletId, unbooked] for every wallet in an id range whose owner settled orders from the given time on,
+    // where unbooked is what the orders moved the balance by beyond the whole units the ledger booked for them:
+    // minus the part below one unit of each buy, plus that of each sell
+    @Query("select w.id, sum(case when o.orderType = com.treu.domain.OrderType.BUY " +
+            "then floor(o.price) - o.price else o.price - floor(o.price) end) from Order o, Wallet w " +
+            "where w.user = o.user and w.id between :fromId and :toId and o.timestamp >= :from " +
+            "and o.status not in (com.treu.domain.OrderStatus.CANCELLED, com.treu.domain.OrderStatus.ERROR) " +
+            "group by w.id")
+    List<Object[]> sumUnbookedFromByWalletIdRange(@Param("fromId") Long fromId,
+                                                  @Param("toId") Long toId,
+                                                  @Param("from") LocalDateTime from);
+
+    // Same amount for one wallet, over the orders settled from the given time on
+    @Query("select coalesce(sum(case when o.orderType = com.treu.domain.OrderType.BUY " +
+            "then floor(o.price) - o.price else o.price - floor(o.price) end), 0) from Order o, Wallet w " +
+            "where w.user = o.user and w.id = :walletId and o.timestamp >= :from " +
+            "and o.status not in (com.treu.domain.OrderStatus.CANCELLED, com.treu.domain.OrderStatus.ERROR)")
+    BigDecimal sumUnbookedFrom(@Param("walletId") Long walletId, @Param("from") LocalDateTime from);
+
+    // Same amount for one wallet, over the orders settled from 'from' and before 'to'
+    @Query("select coalesce(sum(case when o.orderType = com.treu.domain.OrderType.BUY " +
+            "then floor(o.price) - o.price else o.price - floor(o.price) end), 0) from Order o, Wallet w " +
+            "where w.user = o.user and w.id = :walletId and o.timestamp >= :from and o.timestamp < :to " +
+            "and o.status not in (com.treu.domain.OrderStatus.CANCELLED, com.treu.domain.OrderStatus.ERROR)")
+    BigDecimal sumUnbookedBetween(@Param("walletId") Long walletId,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
+    // Returns [orderType, quantity, buyPrice, sellPrice] of a user's settled fills of one coin in fill order,
+    // leaving out the given (in-flight) order; used to replay tax lots
+    @Query("select o.orderType, i.quantity, i.buyPrice, i.sellPrice from Order o join o.orderItem i " +
+            "where o.user.id = :userId and i.coin.id = :coinId and o.id <> :excludeOrderId " +
+            "and o.status not in (com.treu.domain.OrderStatus.CANCELLED, com.treu.domain.OrderStatus.ERROR) " +
+            "order by o.timestamp, o.id")
+    List<Object[]> findSettledFillsByUserIdAndCoinId(@Param("userId") Long userId,
+                                                     @Param("coinId") String coinId,
+                                                     @Param("excludeOrderId") Long excludeOrderId);
 }
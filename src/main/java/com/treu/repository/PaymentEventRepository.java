@@ -0,0 +1,70 @@
+package com.treu.repository;
+
+// Custom enum for defining payment methods (e.g., RAZORPAY, STRIPE)
+import com.treu.domain.PaymentMethod;
+// Custom enum for the processing states of a payment event
+import com.treu.domain.PaymentEventStatus;
+// Entity class representing a received payment webhook event
+import com.treu.model.PaymentEvent;
+// Spring Data pagination request
+import org.springframework.data.domain.Pageable;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query method as a bulk update/delete
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+// Spring annotation for transactional bulk updates outside a service transaction
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;    // Date and time class for due and lease checks
+import java.util.Collection;       // Interface for id batches
+import java.util.List;             // Interface for ordered collections
+
+// Defines a repository interface for PaymentEvent entity management
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long> {
+
+    // Retrieves ids of pending events whose next attempt is due, oldest first
+    @Query("select e.id from PaymentEvent e where e.status = com.treu.domain.PaymentEventStatus.PENDING " +
+            "and e.nextAttemptAt <= :now order by e.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Claims still-pending events for one batch; rows another processor claimed first are skipped
+    @Modifying
+    @Transactional
+    @Query("update PaymentEvent e set e.status = com.treu.domain.PaymentEventStatus.PROCESSING, " +
+            "e.claimToken = :token, e.leaseUntil = :leaseUntil " +
+            "where e.id in :ids and e.status = com.treu.domain.PaymentEventStatus.PENDING")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Retrieves the events a batch claimed
+    List<PaymentEvent> findByClaimToken(String claimToken);
+
+    // Returns events whose processor died mid-batch to PENDING
+    @Modifying
+    @Transactional
+    @Query("update PaymentEvent e set e.status = com.treu.domain.PaymentEventStatus.PENDING, e.claimToken = null " +
+            "where e.status = com.treu.domain.PaymentEventStatus.PROCESSING and e.leaseUntil < :now")
+    int releaseExpiredLeases(@Param("now") LocalDateTime now);
+
+    // Vouches for a client-reported payment with its signed webhook, making it due at once. The webhook's order
+    // and amount replace whatever the client reported, and a payment the lookup skipped or gave up on is queued
+    // again; one being processed is left to its processor, and a processed one was credited already
+    @Modifying
+    @Transactional
+    @Query("update PaymentEvent e set e.verified = true, e.orderId = :orderId, e.amount = :amount, " +
+            "e.status = com.treu.domain.PaymentEventStatus.PENDING, e.attempts = 0, e.lastError = null, " +
+            "e.processedAt = null, e.nextAttemptAt = :now " +
+            "where e.provider = :provider and e.providerPaymentId = :paymentId and e.verified = false " +
+            "and e.status in (com.treu.domain.PaymentEventStatus.PENDING, " +
+            "com.treu.domain.PaymentEventStatus.SKIPPED, com.treu.domain.PaymentEventStatus.FAILED)")
+    int vouch(@Param("provider") PaymentMethod provider, @Param("paymentId") String paymentId,
+              @Param("orderId") Long orderId, @Param("amount") long amount, @Param("now") LocalDateTime now);
+
+    // True if a client-reported payment is claimed by a processor, which vouch has to leave alone
+    boolean existsByProviderAndProviderPaymentIdAndVerifiedFalseAndStatus(
+            PaymentMethod provider, String providerPaymentId, PaymentEventStatus status);
+}
@@ -4,7 +4,31 @@ package com.treu.repository;
 import com.treu.model.PaymentOrder;
 // Spring Data JPAs repository interface providing CRUD operations
 import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query method as a bulk update/delete
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+// Spring annotation for transactional bulk updates outside a service transaction
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;       // Interface for groups of order ids
+import java.util.List;             // Interface for ordered collections
 
 // Defines a repository interface for PaymentOrder entity management
 public interface PaymentOrderRepository extends JpaRepository<PaymentOrder, Long> {
+
+    // Marks a pending order as paid by the given provider payment; returns 0 if it was already settled, so
+    // a payment confirmed twice (replayed request, webhook after the deposit call) is credited once
+    @Modifying
+    @Transactional
+    @Query("update PaymentOrder o set o.status = com.treu.domain.PaymentOrderStatus.SUCCESS, " +
+            "o.providerPaymentId = :paymentId " +
+            "where o.id = :id and o.status = com.treu.domain.PaymentOrderStatus.PENDING")
+    int markSucceeded(@Param("id") Long id, @Param("paymentId") String paymentId);
+
+    // Returns [orderId, userId, amount, paymentMethod] for the given orders without loading their users
+    @Query("select o.id, o.user.id, o.amount, o.paymentMethod from PaymentOrder o where o.id in :ids")
+    List<Object[]> findSettlementRows(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,47 @@
+package com.treu.repository;
+
+// Entity class representing a price alert
+import com.treu.model.PriceAlert;
+// Page request limiting a query to one batch
+import org.springframework.data.domain.Pageable;
+// Spring Data JPAs repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query as an update or delete statement
+import org.springframework.data.jpa.repository.Modifying;
+// Declares the query of a repository method
+import org.springframework.data.jpa.repository.Query;
+// Binds a method parameter to a named query parameter
+import org.springframework.data.repository.query.Param;
+// Runs each statement in its own transaction when the caller has none
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;    // Date and time class for trigger times
+import java.util.Collection;       // Interface for groups of ids
+import java.util.List;             // Interface for ordered collections
+
+// Defines a repository interface for PriceAlert entity management
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+
+    // Retrieves a user's alerts, newest first
+    List<PriceAlert> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Retrieves one batch of active alerts after the given id, in id order, for building the index
+    List<PriceAlert> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Retrieves alerts with their users, whose email they are delivered to
+    @Query("select a from PriceAlert a join fetch a.user where a.id in :ids")
+    List<PriceAlert> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Marks an active alert as fired; returns 0 if it already fired or was cancelled, e.g. by another instance
+    @Modifying
+    @Transactional
+    @Query("update PriceAlert a set a.active = false, a.triggeredAt = :now, a.triggeredPrice = :price " +
+            "where a.id = :id and a.active = true")
+    int markTriggered(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("price") double price);
+
+    // Deactivates an alert without firing it; returns 0 if it was no longer active
+    @Modifying
+    @Transactional
+    @Query("update PriceAlert a set a.active = false where a.id = :id and a.active = true")
+    int deactivate(@Param("id") Long id);
+}
@@ -0,0 +1,10 @@
+package com.treu.repository;
+
+// Entity class representing a reconciliation job checkpoint
+import com.treu.model.ReconciliationCheckpoint;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// Defines a repository interface for ReconciliationCheckpoint entity management, keyed by job name
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, String> {
+}
@@ -0,0 +1,31 @@
+package com.treu.repository;
+
+// Entity class representing a reconciliation mismatch
+import com.treu.model.ReconciliationMismatch;
+// Spring Data pagination request
+import org.springframework.data.domain.Pageable;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query method as a bulk update/delete
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+// Spring annotation for transactional bulk deletes outside a service transaction
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;             // Interface for ordered collections
+
+// Defines a repository interface for ReconciliationMismatch entity management
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+
+    // Retrieves a page of mismatches found by a run, ordered by wallet
+    List<ReconciliationMismatch> findByRunIdOrderByWalletId(String runId, Pageable pageable);
+
+    // Removes mismatches of partitions past the watermark, which a resumed run re-checks
+    @Modifying
+    @Transactional
+    @Query("delete from ReconciliationMismatch m where m.runId = :runId and m.walletId > :walletId")
+    int deleteByRunIdAndWalletIdGreaterThan(@Param("runId") String runId, @Param("walletId") Long walletId);
+}
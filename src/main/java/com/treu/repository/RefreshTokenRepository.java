@@ -0,0 +1,45 @@
+package com.treu.repository;
+
+// Entity class representing a refresh token
+import com.treu.model.RefreshToken;
+// JPA lock mode for the row being rotated
+import jakarta.persistence.LockModeType;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Locks the row returned by a query
+import org.springframework.data.jpa.repository.Lock;
+// Marks a query method as a bulk update/delete
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;    // Date and time class for revocation and expiry
+
+// Defines a repository interface for RefreshToken entity management
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Retrieves a token by its hash, locking the row so two refreshes cannot rotate it twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from RefreshToken t join fetch t.user where t.tokenHash = :tokenHash")
+    RefreshToken findByTokenHashForUpdate(@Param("tokenHash") String tokenHash);
+
+    // Retrieves a token by its hash
+    RefreshToken findByTokenHash(String tokenHash);
+
+    // Revokes every live token of a rotation family
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :now where t.familyId = :familyId and t.revokedAt is null")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    // Revokes every live token of a user
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :now where t.user.id = :userId and t.revokedAt is null")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Deletes tokens that expired before the cutoff
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,40 @@
+package com.treu.repository;
+
+// Entity class representing a user's equity in one mark-to-market run
+import com.treu.model.UserEquitySnapshot;
+// Spring Data pagination request
+import org.springframework.data.domain.Pageable;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query method as a bulk update/delete
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+// Spring annotation for transactional bulk deletes outside a service transaction
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;             // Interface for ordered collections
+
+// Defines a repository interface for UserEquitySnapshot entity management
+public interface UserEquitySnapshotRepository extends JpaRepository<UserEquitySnapshot, Long> {
+
+    // Retrieves a page of a run's rows, largest equity first
+    List<UserEquitySnapshot> findByRunIdOrderByMarketValueDesc(Long runId, Pageable pageable);
+
+    // Retrieves one user's row of a run
+    UserEquitySnapshot findByRunIdAndUserId(Long runId, Long userId);
+
+    // Removes the rows of every run up to and including the given one
+    @Modifying
+    @Transactional
+    @Query("delete from UserEquitySnapshot e where e.runId <= :runId")
+    int deleteByRunIdLessThanEqual(@Param("runId") Long runId);
+
+    // Removes the rows of one run
+    @Modifying
+    @Transactional
+    @Query("delete from UserEquitySnapshot e where e.runId = :runId")
+    int deleteByRunId(@Param("runId") Long runId);
+}
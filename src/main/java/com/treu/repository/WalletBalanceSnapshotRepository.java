@@ -0,0 +1,30 @@
+package com.treu.repository;
+
+// Entity class representing a wallet's end-of-day balance
+import com.treu.model.WalletBalanceSnapshot;
+// Spring Data JPA's repository interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query method as a bulk update/delete
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;        // Date class for snapshot days
+import java.util.Optional;         // Wrapper for handling nullable values
+
+// Defines a repository interface for WalletBalanceSnapshot entity management
+public interface WalletBalanceSnapshotRepository extends JpaRepository<WalletBalanceSnapshot, Long> {
+
+    // Retrieves the most recent snapshot of a wallet taken on or before the given day
+    Optional<WalletBalanceSnapshot> findTopByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+            Long walletId, LocalDate date);
+
+    // Removes the snapshots of one day for a wallet id range so a partition can be re-run idempotently
+    @Modifying
+    @Query("delete from WalletBalanceSnapshot s where s.snapshotDate = :date and s.walletId between :fromId and :toId")
+    int deleteByDateAndWalletIdRange(@Param("date") LocalDate date,
+                                     @Param("fromId") Long fromId,
+                                     @Param("toId") Long toId);
+}
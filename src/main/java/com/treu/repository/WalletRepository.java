@@ -4,10 +4,51 @@ package com.treu.repository;
 import com.treu.model.Wallet;
 // Spring Data JPA's repository interface providing CRUD operations
 import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query as an update or delete statement
+import org.springframework.data.jpa.repository.Modifying;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
+// Runs each statement in its own transaction when the caller has none
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;       // High-precision decimal class for amounts
+import java.util.Collection;       // Interface for groups of user ids
+import java.util.List;             // Interface for ordered collections
 
 // Defines a repository interface for Wallet entity management
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
     // Retrieves a wallet by the associated user's ID
     public Wallet findByUserId(Long userId);
+
+    // Retrieves the wallets of several users in one query
+    @Query("select w from Wallet w where w.user.id in :userIds")
+    List<Wallet> findByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Debits a wallet only if its balance covers the amount; returns 0 otherwise. The check and the write are
+    // one statement, so concurrent debits can never take the balance below zero
+    @Modifying
+    @Transactional
+    @Query("update Wallet w set w.balance = w.balance - :amount where w.id = :walletId and w.balance >= :amount")
+    int debitIfSufficient(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+
+    // Credits a wallet in place, without reading its balance first
+    @Modifying
+    @Transactional
+    @Query("update Wallet w set w.balance = w.balance + :amount where w.id = :walletId")
+    int credit(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+
+    // Returns the highest wallet id, used to split batch jobs into id-range partitions
+    @Query("select max(w.id) from Wallet w")
+    Long findMaxId();
+
+    // Returns [walletId, balance] pairs for an id range without loading wallet entities or their users
+    @Query("select w.id, w.balance from Wallet w where w.id between :fromId and :toId")
+    List<Object[]> findBalancesByIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Returns [walletId, userId, balance] triples for an id range, used by the ledger reconciliation job
+    @Query("select w.id, w.user.id, w.balance from Wallet w where w.id between :fromId and :toId")
+    List<Object[]> findOwnersAndBalancesByIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
@@ -6,7 +6,12 @@ import com.treu.model.Wallet;
 import com.treu.model.WalletTransaction;
 // Spring Data JPAs repository interface providing CRUD operations
 import org.springframework.data.jpa.repository.JpaRepository;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;        // Date class for transaction days
 import java.util.List;             // Interface for ordered collections
 
 // Defines a repository interface for WalletTransaction entity management
@@ -14,4 +19,36 @@ public interface WalletTransactionRepository extends JpaRepository<WalletTransac
 
     // Retrieves a list of wallet transactions for a specific wallet, ordered by date in descending order
     List<WalletTransaction> findByWalletOrderByDateDesc(Wallet wallet);
+
+    // Sums the signed amounts of one wallet's transactions dated after 'from' and up to and including 'to'
+    @Query("select coalesce(sum(t.amount), 0) from WalletTransaction t " +
+            "where t.wallet.id = :walletId and t.date > :from and t.date <= :to")
+    long sumAmountBetween(@Param("walletId") Long walletId,
+                          @Param("from") LocalDate from,
+                          @Param("to") LocalDate to);
+
+    // Sums the signed amounts of one wallet's transactions dated after the given day
+    @Query("select coalesce(sum(t.amount), 0) from WalletTransaction t " +
+            "where t.wallet.id = :walletId and t.date > :after")
+    long sumAmountAfter(@Param("walletId") Long walletId, @Param("after") LocalDate after);
+
+    // Returns [walletId, sum(amount)] for every wallet in an id range with transactions dated after the given day
+    @Query("select t.wallet.id, sum(t.amount) from WalletTransaction t " +
+            "where t.wallet.id between :fromId and :toId and t.date > :after group by t.wallet.id")
+    List<Object[]> sumAmountAfterByWalletIdRange(@Param("fromId") Long fromId,
+                                                 @Param("toId") Long toId,
+                                                 @Param("after") LocalDate after);
+
+    // Returns [walletId, sum(amount), count] over the whole ledger for every wallet in an id range
+    @Query("select t.wallet.id, sum(t.amount), count(t) from WalletTransaction t " +
+            "where t.wallet.id between :fromId and :toId group by t.wallet.id")
+    List<Object[]> aggregateByWalletIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Same aggregate restricted to rows booked by order payments. Rows are picked by type, never by the free-text
+    // purpose; rows without a type are order payments booked before they were typed, as every other row has one
+    @Query("select t.wallet.id, sum(t.amount), count(t) from WalletTransaction t " +
+            "where t.wallet.id between :fromId and :toId " +
+            "and (t.type in (com.treu.domain.WalletTransactionType.BUY_ASSET, " +
+            "com.treu.domain.WalletTransactionType.SELL_ASSET) or t.type is null) group by t.wallet.id")
+    List<Object[]> aggregateOrderPaymentsByWalletIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
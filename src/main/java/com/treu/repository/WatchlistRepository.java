@@ -4,10 +4,42 @@ package com.treu.repository;
 import com.treu.model.Watchlist;
 // Spring Data JPAs repository interface providing CRUD operations
 import org.springframework.data.jpa.repository.JpaRepository;
+// Marks a query as an update or delete statement
+import org.springframework.data.jpa.repository.Modifying;
+// Declares the query of a repository method
+import org.springframework.data.jpa.repository.Query;
+// Binds a method parameter to a named query parameter
+import org.springframework.data.repository.query.Param;
+// Runs each statement in its own transaction when the caller has none
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;             // Interface for ordered collections
 
 // Defines a repository interface for Watchlist entity management
 public interface WatchlistRepository extends JpaRepository<Watchlist, Long> {
 
     // Retrieves a watchlist by the associated user's ID
     Watchlist findByUserId(Long userId);
+
+    // Retrieves only the ID of a user's watchlist, or null if they have none
+    @Query("SELECT w.id FROM Watchlist w WHERE w.user.id = :userId")
+    Long findIdByUserId(@Param("userId") Long userId);
+
+    // Retrieves the IDs of the coins on a watchlist from the join table, without loading the coins
+    @Query(value = "SELECT coins_id FROM watchlist_coins WHERE watchlist_id = :watchlistId", nativeQuery = true)
+    List<String> findCoinIds(@Param("watchlistId") Long watchlistId);
+
+    // Adds a coin to a watchlist with one insert; fails on the unique key if it is already there
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO watchlist_coins (watchlist_id, coins_id) VALUES (:watchlistId, :coinId)",
+            nativeQuery = true)
+    int addCoin(@Param("watchlistId") Long watchlistId, @Param("coinId") String coinId);
+
+    // Removes a coin from a watchlist with one delete; returns 0 if it was not there
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM watchlist_coins WHERE watchlist_id = :watchlistId AND coins_id = :coinId",
+            nativeQuery = true)
+    int removeCoin(@Param("watchlistId") Long watchlistId, @Param("coinId") String coinId);
 }
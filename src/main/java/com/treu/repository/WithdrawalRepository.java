@@ -1,14 +1,51 @@
 package com.treu.repository;
 
+// Custom enum for defining withdrawal statuses (e.g., PENDING, SUCCESS, DECLINE)
+import com.treu.domain.WithdrawalStatus;
 // Entity class representing a withdrawal in the system
 import com.treu.model.Withdrawal;
+// JPA lock modes for row locking
+import jakarta.persistence.LockModeType;
+// Page request limiting a query to one page
+import org.springframework.data.domain.Pageable;
 // Spring Data JPAs repository interface providing CRUD operations
 import org.springframework.data.jpa.repository.JpaRepository;
+// Requests a row lock for a query
+import org.springframework.data.jpa.repository.Lock;
+// Annotation for declaring custom JPQL queries
+import org.springframework.data.jpa.repository.Query;
+// Binds method parameters to named query parameters
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;    // Date and time class for the page cursor
+import java.util.Collection;       // Interface for groups of withdrawal ids
 import java.util.List;             // Interface for ordered collections
 
 // Defines a repository interface for Withdrawal entity management
 public interface WithdrawalRepository extends JpaRepository<Withdrawal, Long> {
     // Retrieves a list of withdrawals for a specific user by their user ID
     List<Withdrawal> findByUserId(Long userId);
+
+    // Retrieves withdrawals with their users and locks them until the transaction ends, so two admins
+    // settling the same withdrawal queue behind each other instead of both seeing it pending
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Withdrawal w join fetch w.user where w.id in :ids")
+    List<Withdrawal> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Retrieves the first page of withdrawals in a status, oldest first, with their users
+    @Query("select w from Withdrawal w join fetch w.user where w.status = :status order by w.date asc, w.id asc")
+    List<Withdrawal> findQueueFirstPage(@Param("status") WithdrawalStatus status, Pageable pageable);
+
+    // Retrieves the page of withdrawals in a status that follows the given (date, id) cursor. Seeks on the
+    // (status, date) index, so every page costs the same however deep the admin pages
+    @Query("select w from Withdrawal w join fetch w.user where w.status = :status " +
+            "and (w.date > :afterDate or (w.date = :afterDate and w.id > :afterId)) order by w.date asc, w.id asc")
+    List<Withdrawal> findQueuePageAfter(@Param("status") WithdrawalStatus status,
+                                        @Param("afterDate") LocalDateTime afterDate,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    // Returns [status, count, sum(amount)] for every status with withdrawals, computed by the database
+    @Query("select w.status, count(w), coalesce(sum(w.amount), 0) from Withdrawal w group by w.status")
+    List<Object[]> summarizeByStatus();
 }
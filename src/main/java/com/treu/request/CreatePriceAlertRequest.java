@@ -0,0 +1,24 @@
+package com.treu.request;
+
+// Custom enum for the delivery channel of an alert
+import com.treu.domain.PriceAlertChannel;
+// Custom enum for the side of the threshold an alert waits for
+import com.treu.domain.PriceAlertDirection;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+public class CreatePriceAlertRequest {
+    // Identifier of a coin on the user's watchlist
+    private String coinId;
+
+    // Side of the threshold to wait for (ABOVE or BELOW)
+    private PriceAlertDirection direction;
+
+    // Price in USD to compare against
+    private double threshold;
+
+    // Delivery channel; email when not given
+    private PriceAlertChannel channel;
+}
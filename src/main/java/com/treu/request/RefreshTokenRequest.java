@@ -0,0 +1,20 @@
+package com.treu.request;
+
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+public class RefreshTokenRequest {
+
+    // Refresh token issued at sign-in or by the previous refresh
+    private String refreshToken;
+}
@@ -0,0 +1,16 @@
+package com.treu.request;
+
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+
+import java.util.List;             // Interface for ordered collections
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+public class WithdrawalBatchRequest {
+    // IDs of the pending withdrawals to settle
+    private List<Long> withdrawalIds;
+
+    // True to approve them all, false to decline them all and refund their owners
+    private boolean accept;
+}
@@ -18,6 +18,9 @@ public class AuthResponse {
     // JSON Web Token (JWT) for authenticated user session
     private String jwt;
 
+    // Long-lived token for getting a new JWT once it expires; rotated on every use
+    private String refreshToken;
+
     // Boolean indicating the success or failure of the authentication
     private boolean status;
 
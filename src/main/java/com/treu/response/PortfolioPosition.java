@@ -0,0 +1,38 @@
+package com.treu.response;
+
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class PortfolioPosition {
+
+    // Id of the coin held
+    private String coinId;
+
+    // Quantity held
+    private double quantity;
+
+    // Latest known price of the coin
+    private double price;
+
+    // quantity * price
+    private double marketValue;
+
+    // Total amount paid for the quantity held
+    private double costBasis;
+
+    // marketValue - costBasis
+    private double unrealizedPnl;
+
+    // Share of the portfolio's market value, between 0 and 1
+    private double weight;
+}
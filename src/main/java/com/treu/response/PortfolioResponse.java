@@ -0,0 +1,34 @@
+package com.treu.response;
+
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.util.List;               // Interface for ordered collections
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class PortfolioResponse {
+
+    // Sum of the market value of all positions
+    private double marketValue;
+
+    // Sum of the cost basis of all positions
+    private double costBasis;
+
+    // marketValue - costBasis
+    private double unrealizedPnl;
+
+    // unrealizedPnl as a percentage of costBasis
+    private double unrealizedPnlPercentage;
+
+    // Per-coin breakdown with allocation weights
+    private List<PortfolioPosition> positions;
+}
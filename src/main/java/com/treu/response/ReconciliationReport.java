@@ -0,0 +1,41 @@
+package com.treu.response;
+
+// Entity class representing a reconciliation mismatch
+import com.treu.model.ReconciliationMismatch;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+
+import java.time.LocalDateTime;      // Date and time class for run timestamps
+import java.util.List;               // Interface for ordered collections
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+public class ReconciliationReport {
+
+    // Identifier of the run
+    private String runId;
+
+    // True while partitions are still being processed
+    private boolean running;
+
+    // Highest wallet id checked without gaps
+    private Long watermark;
+
+    // Highest wallet id the run will check
+    private Long maxWalletId;
+
+    // Wallets checked so far
+    private long walletsChecked;
+
+    // Mismatches found so far
+    private long mismatchCount;
+
+    // Time the run started
+    private LocalDateTime startedAt;
+
+    // Time the run completed, null while running or interrupted
+    private LocalDateTime finishedAt;
+
+    // First mismatches of the run, ordered by wallet id
+    private List<ReconciliationMismatch> mismatches;
+}
@@ -0,0 +1,29 @@
+package com.treu.response;
+
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;         // High-precision decimal class for financial calculations
+import java.time.LocalDate;          // Date class for the requested day
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class WalletBalanceResponse {
+
+    // Id of the wallet the balance belongs to
+    private Long walletId;
+
+    // Day the balance was requested for
+    private LocalDate date;
+
+    // Balance at the end of that day
+    private BigDecimal balance;
+}
@@ -0,0 +1,41 @@
+package com.treu.response;
+
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class WatchlistQuote {
+
+    // Id of the coin
+    private String id;
+
+    // Trading symbol of the coin (e.g., btc)
+    private String symbol;
+
+    // Full name of the coin
+    private String name;
+
+    // URL of the coin's image
+    private String image;
+
+    // Current price in USD
+    private double price;
+
+    // Absolute price change over the last 24 hours
+    private double priceChange24h;
+
+    // Percentage price change over the last 24 hours
+    private double priceChangePercentage24h;
+
+    // Snapshot version of this quote; 0 when it comes from the stored coin because no tick was seen yet
+    private long version;
+}
@@ -0,0 +1,34 @@
+package com.treu.response;
+
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.util.List;               // Interface for ordered collections
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class WatchlistView {
+
+    // Price snapshot version the view is current to; pass it back as "since" for the next update
+    private long version;
+
+    // Fingerprint of the watched coin ids; pass it back with "since" so a changed watchlist gets a full view
+    private int membership;
+
+    // True if quotes holds every watched coin, false if only those changed since the requested version
+    private boolean full;
+
+    // Ids of every watched coin, sorted
+    private List<String> coinIds;
+
+    // Quotes of all watched coins, or of those changed since the requested version
+    private List<WatchlistQuote> quotes;
+}
@@ -0,0 +1,31 @@
+package com.treu.response;
+
+// Entity class representing a withdrawal
+import com.treu.model.Withdrawal;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;      // Date and time class for the cursor
+import java.util.List;               // Interface for ordered collections
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class WithdrawalPage {
+
+    // Withdrawals of the page, oldest first
+    private List<Withdrawal> items;
+
+    // Date of the last item; pass it back as afterDate for the next page, null on the last page
+    private LocalDateTime nextAfterDate;
+
+    // ID of the last item; pass it back as afterId for the next page, null on the last page
+    private Long nextAfterId;
+}
@@ -0,0 +1,31 @@
+package com.treu.response;
+
+// Custom enum for defining withdrawal statuses (e.g., PENDING, SUCCESS, DECLINE)
+import com.treu.domain.WithdrawalStatus;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class WithdrawalResult {
+
+    // ID of the withdrawal
+    private Long withdrawalId;
+
+    // True if this request settled the withdrawal
+    private boolean applied;
+
+    // Status after the request; null if the withdrawal does not exist
+    private WithdrawalStatus status;
+
+    // Reason the withdrawal was left as it was; null when applied
+    private String message;
+}
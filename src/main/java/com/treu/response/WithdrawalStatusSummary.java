@@ -0,0 +1,28 @@
+package com.treu.response;
+
+// Custom enum for defining withdrawal statuses (e.g., PENDING, SUCCESS, DECLINE)
+import com.treu.domain.WithdrawalStatus;
+// Lombok annotation to generate a constructor with all fields
+import lombok.AllArgsConstructor;
+// Lombok annotation to generate getters, setters, toString, equals, and hashCode
+import lombok.Data;
+// Lombok annotation to generate a no-args constructor
+import lombok.NoArgsConstructor;
+
+// Automatically generates getters, setters, and other utility methods
+@Data
+// Generates a constructor with all fields as parameters
+@AllArgsConstructor
+// Generates a default constructor with no parameters
+@NoArgsConstructor
+public class WithdrawalStatusSummary {
+
+    // Status the totals are for
+    private WithdrawalStatus status;
+
+    // Number of withdrawals in the status
+    private long count;
+
+    // Sum of their amounts
+    private long totalAmount;
+}
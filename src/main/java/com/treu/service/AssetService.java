@@ -26,6 +26,9 @@ public interface AssetService {
     // Updates an existing asset's quantity, throws an exception if the operation fails
     Asset updateAsset(Long assetId, double quantity) throws Exception;
 
+    // Adds a bought quantity to an asset, moving its buy price to the quantity-weighted average cost
+    Asset addToAsset(Long assetId, double quantity, double price) throws Exception;
+
     // Finds an asset by user ID and coin ID, throws an exception if not found or invalid
     Asset findAssetByUserIdAndCoinId(Long userId, String coinId) throws Exception;
 
@@ -72,6 +72,18 @@ public class AssetServiceImpl implements AssetService {
         return assetRepository.save(oldAsset);      // Saves and returns the updated asset
     }
 
+    // Adds a bought quantity to an asset and re-averages its buy price, throws exception if not found
+    @Override
+    public Asset addToAsset(Long assetId, double quantity, double price) throws Exception {
+        Asset oldAsset = getAssetById(assetId);     // Fetches the existing asset
+        double total = oldAsset.getQuantity() + quantity;
+        if (total > 0) {                            // Weighted average of the held and bought cost
+            oldAsset.setBuyPrice((oldAsset.getQuantity() * oldAsset.getBuyPrice() + quantity * price) / total);
+        }
+        oldAsset.setQuantity(total);                // Adds new quantity to existing
+        return assetRepository.save(oldAsset);      // Saves and returns the updated asset
+    }
+
     // Finds an asset by user ID and coin ID, may return null if not found
     @Override
     public Asset findAssetByUserIdAndCoinId(Long userId, String coinId) throws Exception {
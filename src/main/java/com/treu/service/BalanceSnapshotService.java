@@ -0,0 +1,17 @@
+package com.treu.service;
+
+// Custom exception for wallet-related errors
+import com.treu.exception.WalletException;
+
+import java.math.BigDecimal;      // High-precision decimal class for financial calculations
+import java.time.LocalDate;       // Date class for business days
+
+// Defines a service interface for end-of-day wallet snapshots and point-in-time balances
+public interface BalanceSnapshotService {
+
+    // Writes the closing balance of every wallet for the given day, returns the number of snapshots written
+    int snapshotDay(LocalDate date);
+
+    // Returns the balance a wallet had at the end of the given day, throws WalletException if the wallet is unknown
+    BigDecimal getBalanceAsOf(Long walletId, LocalDate date) throws WalletException;
+}
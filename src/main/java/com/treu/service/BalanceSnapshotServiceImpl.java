@@ -0,0 +1,187 @@
+package com.treu.service;
+
+// Custom exception for wallet-related errors
+import com.treu.exception.WalletException;
+// Entity class representing a wallet
+import com.treu.model.Wallet;
+// Entity class representing a wallet's end-of-day balance
+import com.treu.model.WalletBalanceSnapshot;
+// Repository interface for order data access
+import com.treu.repository.OrderRepository;
+// Repository interface for snapshot data access
+import com.treu.repository.WalletBalanceSnapshotRepository;
+// Repository interface for wallet data access
+import com.treu.repository.WalletRepository;
+// Repository interface for wallet transaction data access
+import com.treu.repository.WalletTransactionRepository;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation for cron-triggered methods
+import org.springframework.scheduling.annotation.Scheduled;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Spring abstraction over the JPA transaction manager
+import org.springframework.transaction.PlatformTransactionManager;
+// Programmatic transaction helper, one transaction per partition
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;      // High-precision decimal class for financial calculations
+import java.time.LocalDate;       // Date class for business days
+import java.time.LocalDateTime;   // Date and time class for snapshot timestamps
+import java.util.ArrayList;       // Resizable array implementation of List
+import java.util.HashMap;         // Hash table implementation of Map
+import java.util.List;            // Interface for ordered collections
+import java.util.Map;             // Interface for key-value mappings
+import java.util.Optional;        // Wrapper for handling nullable values
+import java.util.concurrent.ForkJoinPool; // Dedicated pool so the job never occupies the common pool
+import java.util.stream.IntStream; // Stream of partition indexes
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class BalanceSnapshotServiceImpl implements BalanceSnapshotService {
+
+    // Repository for reading wallet balances
+    private final WalletRepository walletRepository;
+
+    // Repository for summing wallet transactions
+    private final WalletTransactionRepository walletTransactionRepository;
+
+    // Repository for the order amounts the ledger books in whole units
+    private final OrderRepository orderRepository;
+
+    // Repository for reading and writing snapshots
+    private final WalletBalanceSnapshotRepository snapshotRepository;
+
+    // Runs each partition in its own transaction so its reads see one consistent view
+    private final TransactionTemplate transactionTemplate;
+
+    // Number of wallet ids handled by one partition
+    @Value("${wallet.snapshot.partition-size:5000}")
+    private long partitionSize = 5000;
+
+    // Number of partitions processed concurrently
+    @Value("${wallet.snapshot.parallelism:4}")
+    private int parallelism = 4;
+
+    // Constructor injection for repositories and the transaction manager
+    public BalanceSnapshotServiceImpl(WalletRepository walletRepository,
+                                      WalletTransactionRepository walletTransactionRepository,
+                                      OrderRepository orderRepository,
+                                      WalletBalanceSnapshotRepository snapshotRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.walletRepository = walletRepository;
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.orderRepository = orderRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Closes the previous business day shortly after midnight
+    @Scheduled(cron = "${wallet.snapshot.cron:0 5 0 * * *}")
+    public void snapshotPreviousDay() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        long started = System.currentTimeMillis();
+        int written = snapshotDay(day);
+        log.info("wallet snapshot for {} wrote {} rows in {} ms", day, written, System.currentTimeMillis() - started);
+    }
+
+    // Splits the wallet id space into ranges and snapshots them in parallel
+    @Override
+    public int snapshotDay(LocalDate date) {
+        Long maxId = walletRepository.findMaxId();
+        if (maxId == null) {                   // No wallets yet
+            return 0;
+        }
+        int partitions = (int) ((maxId + partitionSize - 1) / partitionSize);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // Streams run inside the pool they are submitted to, so parallelism is bounded by 'parallelism'
+            return pool.submit(() -> IntStream.range(0, partitions)
+                    .parallel()
+                    .map(p -> snapshotPartition(date,
+                            p * partitionSize + 1,
+                            Math.min((p + 1) * partitionSize, maxId)))
+                    .sum()).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Computes closing balances for one id range: current balance minus everything booked after the day. Order
+    // payments move the balance by the exact price but are booked in whole units, so the parts below one unit of
+    // the orders placed after the day are taken off as well
+    int snapshotPartition(LocalDate date, long fromId, long toId) {
+        Integer written = transactionTemplate.execute(status -> {
+            List<Object[]> balances = walletRepository.findBalancesByIdRange(fromId, toId);
+            if (balances.isEmpty()) {
+                return 0;
+            }
+
+            // Signed amounts booked after the snapshot day, keyed by wallet id
+            Map<Long, Long> laterDeltas = new HashMap<>();
+            for (Object[] row : walletTransactionRepository.sumAmountAfterByWalletIdRange(fromId, toId, date)) {
+                laterDeltas.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            Map<Long, BigDecimal> laterUnbooked = new HashMap<>();
+            for (Object[] row : orderRepository.sumUnbookedFromByWalletIdRange(fromId, toId, endOf(date))) {
+                laterUnbooked.put((Long) row[0], (BigDecimal) row[1]);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<WalletBalanceSnapshot> snapshots = new ArrayList<>(balances.size());
+            for (Object[] row : balances) {
+                Long walletId = (Long) row[0];
+                BigDecimal balance = row[1] == null ? BigDecimal.ZERO : (BigDecimal) row[1];
+                long laterDelta = laterDeltas.getOrDefault(walletId, 0L);
+                BigDecimal unbooked = laterUnbooked.getOrDefault(walletId, BigDecimal.ZERO);
+                snapshots.add(new WalletBalanceSnapshot(null, walletId, date,
+                        balance.subtract(BigDecimal.valueOf(laterDelta)).subtract(unbooked), now));
+            }
+
+            // Re-running a day replaces its rows instead of failing on the unique index
+            snapshotRepository.deleteByDateAndWalletIdRange(date, fromId, toId);
+            snapshotRepository.saveAll(snapshots);
+            return snapshots.size();
+        });
+        return written == null ? 0 : written;
+    }
+
+    // Nearest snapshot on or before the day plus the transactions in between; falls back to the live balance
+    @Override
+    public BigDecimal getBalanceAsOf(Long walletId, LocalDate date) throws WalletException {
+        if (!date.isBefore(LocalDate.now())) { // Today or later is simply the live balance
+            return findWallet(walletId).getBalance();
+        }
+
+        Optional<WalletBalanceSnapshot> snapshot = snapshotRepository
+                .findTopByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(walletId, date);
+        if (snapshot.isPresent()) {
+            // Delta scan is bounded by the distance to the nearest snapshot, at most one day when the job runs daily
+            LocalDate snapshotDate = snapshot.get().getSnapshotDate();
+            long delta = walletTransactionRepository.sumAmountBetween(walletId, snapshotDate, date);
+            BigDecimal unbooked = orderRepository.sumUnbookedBetween(walletId, endOf(snapshotDate), endOf(date));
+            return snapshot.get().getClosingBalance().add(BigDecimal.valueOf(delta)).add(unbooked);
+        }
+
+        // No snapshot that old: walk back from the live balance instead
+        long laterDelta = walletTransactionRepository.sumAmountAfter(walletId, date);
+        BigDecimal laterUnbooked = orderRepository.sumUnbookedFrom(walletId, endOf(date));
+        return findWallet(walletId).getBalance().subtract(BigDecimal.valueOf(laterDelta)).subtract(laterUnbooked);
+    }
+
+    // First moment after a day; orders placed from then on are booked after it
+    private static LocalDateTime endOf(LocalDate date) {
+        return date.plusDays(1).atStartOfDay();
+    }
+
+    // Loads a wallet or throws WalletException
+    private Wallet findWallet(Long walletId) throws WalletException {
+        return walletRepository.findById(walletId)
+                .orElseThrow(() -> new WalletException("Wallet not found with id " + walletId));
+    }
+}
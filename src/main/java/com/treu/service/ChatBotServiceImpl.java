@@ -6,6 +6,8 @@ import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.ReadContext;
 // Data transfer object for coin details
 import com.treu.model.CoinDTO;
+// Immutable quote from the local price snapshot
+import com.treu.model.CoinQuote;
 // Response object for API interactions
 import com.treu.response.ApiResponse;
 // Custom response object for function call results
@@ -19,6 +21,7 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Locale;
 import java.util.Map;
 
 // Marks this class as a Spring service bean
@@ -29,6 +32,18 @@ public class ChatBotServiceImpl implements ChatBotService{
     @Value("${gemini.api.key}")
     private String API_KEY;
 
+    // Cache of function calls by prompt and of coin quotes answered locally
+    private final ChatResponseCache chatResponseCache;
+
+    // Local router resolving plain coin questions without Gemini
+    private final ChatIntentRouter chatIntentRouter;
+
+    // Constructor injection for the response cache and the intent router
+    public ChatBotServiceImpl(ChatResponseCache chatResponseCache, ChatIntentRouter chatIntentRouter) {
+        this.chatResponseCache = chatResponseCache;
+        this.chatIntentRouter = chatIntentRouter;
+    }
+
     // Converts various numeric types to double, throws exception for unsupported types
     private double convertToDouble(Object value) {
         if (value instanceof Integer) {
@@ -177,11 +192,29 @@ public class ChatBotServiceImpl implements ChatBotService{
         return res; // Returns the FunctionResponse object
     }
 
-    // Fetches coin details by interpreting prompt and integrating CoinGecko data
+    // Fetches coin details by interpreting prompt and integrating CoinGecko data. A plain coin question is
+    // routed locally and a prompt seen before reuses its function call; a coin held in the price snapshot is
+    // then answered from it without any remote call
     @Override
     public ApiResponse getCoinDetails(String prompt) {
-        // Gets function response from Gemini API based on prompt
-        FunctionResponse res=getFunctionResponse(prompt);
+        // Gets function response from the local router, the cache, or from Gemini API based on prompt
+        FunctionResponse res=chatIntentRouter.route(prompt);
+        if (res == null) {
+            res = chatResponseCache.getFunctionCall(prompt);
+        }
+        if (res == null) {
+            long started = System.nanoTime();
+            res = getFunctionResponse(prompt);
+            chatIntentRouter.recordLlmCall(System.nanoTime() - started);
+            chatResponseCache.putFunctionCall(prompt, res);
+        }
+        // Answers a coin lookup from the local price snapshot when it holds a fresh quote
+        if (ChatIntentRouter.COIN_FUNCTION.equals(res.getFunctionName())) {
+            CoinQuote quote = chatResponseCache.findQuote(chatIntentRouter.resolveCoin(res.getCurrencyName()));
+            if (quote != null) {
+                return new ApiResponse(describeQuote(quote, res.getCurrencyData()), true);
+            }
+        }
         // Fetches coin data from CoinGecko and converts to string
         String apiResponse=makeApiRequest(res.getCurrencyName()).toString();
 
@@ -325,6 +358,33 @@ public class ChatBotServiceImpl implements ChatBotService{
         return ans; // Returns the ApiResponse
     }
 
+    // Answer to a coin question built from a snapshot quote: the price and 24-hour change, plus the market cap,
+    // volume or 24-hour range when the function call asked for them
+    static String describeQuote(CoinQuote quote, String currencyData) {
+        StringBuilder text = new StringBuilder()
+                .append(quote.getName()).append(" (").append(quote.getSymbol().toUpperCase(Locale.ROOT)).append(")")
+                .append(" is trading at ").append(usd(quote.getPrice()))
+                .append(String.format(Locale.US, ", %s %.2f%% over the last 24 hours",
+                        quote.getPriceChangePercentage24h() >= 0 ? "up" : "down",
+                        Math.abs(quote.getPriceChangePercentage24h())));
+        String requested = currencyData != null ? currencyData.toLowerCase(Locale.ROOT) : "";
+        if (requested.contains("market_cap") || requested.contains("market cap")) {
+            text.append(". Market cap: ").append(usd(quote.getMarketCap()));
+        }
+        if (requested.contains("volume")) {
+            text.append(". 24h volume: ").append(usd(quote.getTotalVolume()));
+        }
+        if (requested.contains("high") || requested.contains("low")) {
+            text.append(". 24h range: ").append(usd(quote.getLow24h())).append(" - ").append(usd(quote.getHigh24h()));
+        }
+        return text.append('.').toString();
+    }
+
+    // US dollar amount, with more decimals for coins priced below a dollar
+    private static String usd(double amount) {
+        return String.format(Locale.US, amount >= 1 ? "$%,.2f" : "$%.6f", amount);
+    }
+
     // Fetches CoinDTO directly by coin name using makeApiRequest
     @Override
     public CoinDTO getCoinByName(String coinName) {
@@ -0,0 +1,162 @@
+package com.treu.service;
+
+// Custom response object for function call results
+import com.treu.response.FunctionResponse;
+// Micrometer registry, counters and timers for the routing statistics
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+// Spring annotation to mark this class as a component
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;    // Requested data fields, in prompt order
+import java.util.List;             // Interface for ordered collections
+import java.util.Map;              // Interface for key-value mappings
+import java.util.Set;              // Interface for collections without duplicates
+import java.util.concurrent.TimeUnit;   // Units of recorded latencies
+
+// Resolves chatbot prompts to their function call locally, before Gemini is asked. Coin names and symbols are
+// found with the Aho-Corasick index of every coin in the price snapshot, and the remaining words must be filler
+// or intent keywords ("price", "market cap", "volume", ...). A prompt naming exactly one coin and nothing else is
+// routed in microseconds; anything else, e.g. two coins or an unknown word as in "should I buy btc", is left to
+// the LLM. Routed and fallback prompts are counted, and each routed prompt adds the mean Gemini function call
+// latency seen so far to the latency saved
+@Component
+public class ChatIntentRouter {
+
+    // Function the chatbot declares to Gemini for coin questions
+    static final String COIN_FUNCTION = "getCoinDetails";
+
+    // Data field asked for by each intent keyword, in the terms of the function's currencyData argument
+    private static final Map<String, String> INTENT_KEYWORDS = Map.ofEntries(
+            Map.entry("price", "current_price"), Map.entry("prices", "current_price"),
+            Map.entry("worth", "current_price"), Map.entry("cost", "current_price"),
+            Map.entry("costs", "current_price"), Map.entry("trading", "current_price"),
+            Map.entry("value", "current_price"), Map.entry("quote", "current_price"),
+            Map.entry("rate", "current_price"),
+            Map.entry("market", "market_cap"), Map.entry("cap", "market_cap"),
+            Map.entry("mcap", "market_cap"), Map.entry("marketcap", "market_cap"),
+            Map.entry("capitalization", "market_cap"),
+            Map.entry("volume", "total_volume"), Map.entry("vol", "total_volume"),
+            Map.entry("high", "high_24h, low_24h"), Map.entry("low", "high_24h, low_24h"),
+            Map.entry("range", "high_24h, low_24h"),
+            Map.entry("change", "price_change_percentage_24h"), Map.entry("24h", "price_change_percentage_24h"),
+            Map.entry("performance", "price_change_percentage_24h"), Map.entry("up", "price_change_percentage_24h"),
+            Map.entry("down", "price_change_percentage_24h"));
+
+    // Snapshot the coin index is built from
+    private final PriceSnapshotService priceSnapshotService;
+
+    // Index of the current snapshot and the snapshot size it was built for
+    private volatile CoinNameIndex index;
+    private volatile int indexBuiltForSize = -1;
+
+    // Routing statistics
+    private final Counter routed;
+    private final Counter fallbacks;
+    private final Counter latencySaved;
+    private final Timer routingLatency;
+    private final Timer llmLatency;
+
+    // Constructor injection for the price snapshot and the meter registry
+    public ChatIntentRouter(PriceSnapshotService priceSnapshotService, MeterRegistry meterRegistry) {
+        this.priceSnapshotService = priceSnapshotService;
+        this.routed = meterRegistry.counter("chat.router.requests", "result", "routed");
+        this.fallbacks = meterRegistry.counter("chat.router.requests", "result", "fallback");
+        this.latencySaved = Counter.builder("chat.router.latency.saved")
+                .description("Estimated Gemini latency avoided by routing prompts locally")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.routingLatency = Timer.builder("chat.router.latency")
+                .description("Time to route a prompt locally")
+                .register(meterRegistry);
+        this.llmLatency = Timer.builder("chat.llm.latency")
+                .description("Latency of Gemini function call requests")
+                .tag("call", "function_call")
+                .register(meterRegistry);
+    }
+
+    // Function call for a prompt, or null if the LLM must decide
+    public FunctionResponse route(String prompt) {
+        long started = System.nanoTime();
+        FunctionResponse call = classify(prompt);
+        routingLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (call == null) {
+            fallbacks.increment();
+            return null;
+        }
+        routed.increment();
+        latencySaved.increment(llmLatency.mean(TimeUnit.SECONDS));
+        return call;
+    }
+
+    // Coin named exactly by an id, symbol or name in the snapshot, or null
+    public String resolveCoin(String name) {
+        return name != null ? index().resolve(name) : null;
+    }
+
+    // Records the latency of a Gemini function call made for a prompt the router left to the LLM
+    public void recordLlmCall(long nanos) {
+        llmLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Function call for a prompt naming exactly one coin with nothing but filler and intent keywords around it
+    FunctionResponse classify(String prompt) {
+        String text = CoinNameIndex.normalize(prompt);
+        if (text.isEmpty()) {
+            return null;
+        }
+        // Coins named in the prompt; an alias spelling a filler word or keyword ("one", "cap") is that word
+        String coinId = null;
+        boolean[] covered = new boolean[text.length()];
+        List<CoinNameIndex.Match> matches = index().find(text);
+        for (CoinNameIndex.Match match : matches) {
+            if (ChatResponseCache.FILLER_WORDS.contains(match.alias) || INTENT_KEYWORDS.containsKey(match.alias)) {
+                continue;
+            }
+            if (coinId != null && !coinId.equals(match.coinId)) {
+                return null;                        // Several coins, e.g. a comparison
+            }
+            coinId = match.coinId;
+            for (int i = match.start; i < match.end; i++) {
+                covered[i] = true;
+            }
+        }
+        if (coinId == null) {
+            return null;
+        }
+
+        // Every other word must be filler or a keyword; the keywords select the data asked for
+        Set<String> data = new LinkedHashSet<>();
+        int start = 0;
+        for (String word : text.split(" ")) {
+            if (!covered[start]) {
+                String field = INTENT_KEYWORDS.get(word);
+                if (field != null) {
+                    data.add(field);
+                } else if (!ChatResponseCache.FILLER_WORDS.contains(word)) {
+                    return null;                    // Something the rules do not understand
+                }
+            }
+            start += word.length() + 1;
+        }
+
+        FunctionResponse call = new FunctionResponse();
+        call.setFunctionName(COIN_FUNCTION);
+        call.setCurrencyName(coinId);
+        call.setCurrencyData(data.isEmpty() ? "current_price" : String.join(", ", data));
+        return call;
+    }
+
+    // Index of the current snapshot, rebuilt when coins were added to it
+    private CoinNameIndex index() {
+        int size = priceSnapshotService.getQuotes().size();
+        CoinNameIndex current = index;
+        if (current == null || size != indexBuiltForSize) {
+            current = CoinNameIndex.of(priceSnapshotService.getQuotes());
+            index = current;
+            indexBuiltForSize = size;
+        }
+        return current;
+    }
+}
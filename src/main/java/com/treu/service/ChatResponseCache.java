@@ -0,0 +1,136 @@
+package com.treu.service;
+
+// Immutable quote held by the price snapshot
+import com.treu.model.CoinQuote;
+// Custom response object for function call results
+import com.treu.response.FunctionResponse;
+// Size bound shared by the in-memory caches
+import com.treu.utils.BoundedMaps;
+// Micrometer registry for the hit counters
+import io.micrometer.core.instrument.MeterRegistry;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation to mark this class as a component
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;                      // Words of a normalised prompt, in prompt order
+import java.util.List;                           // Interface for ordered collections
+import java.util.Locale;                         // Locale-independent lower-casing
+import java.util.Set;                            // Words that carry no meaning in a prompt
+import java.util.concurrent.ConcurrentHashMap;   // Thread-safe map for the shared entries
+
+// Two-layer cache in front of the chatbot's Gemini and CoinGecko round trips. Layer one maps a normalised prompt
+// to the function call Gemini chose for it, so rephrasings of a question share one entry; layer two serves the
+// coin of a getCoinDetails call from the local price snapshot, so the answer can be built without any remote call
+@Component
+public class ChatResponseCache {
+
+    // Words dropped from prompts before they are compared; they change the phrasing, not the question
+    static final Set<String> FILLER_WORDS = Set.of(
+            "a", "an", "and", "the", "of", "for", "is", "are", "was", "what", "whats", "what's", "s", "how", "much", "me",
+            "tell", "show", "give", "please", "pls", "current", "currently", "today", "now", "right", "coin",
+            "crypto", "token", "in", "usd", "i", "want", "to", "know", "can", "you", "about", "on", "info");
+
+    // Cached function call and the time it stops being served
+    private static final class Entry {
+        final FunctionResponse call;   // Copy never handed out directly
+        final long expiresAtMillis;    // Store time plus TTL
+
+        Entry(FunctionResponse call, long expiresAtMillis) {
+            this.call = call;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // Snapshot the coin quotes are read from
+    private final PriceSnapshotService priceSnapshotService;
+
+    // Registry the hit and miss counters are published to
+    private final MeterRegistry meterRegistry;
+
+    // Function calls by normalised prompt
+    private final ConcurrentHashMap<String, Entry> calls = new ConcurrentHashMap<>();
+
+    // Time a function call is served; the mapping from a question to its call does not go stale with prices
+    @Value("${chat.cache.function-call.ttl-ms:86400000}")
+    private long callTtlMillis = 86400000;
+
+    // Maximum number of cached function calls
+    @Value("${chat.cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    // Oldest quote answered from the snapshot; older ones fall back to a fresh CoinGecko lookup
+    @Value("${chat.cache.snapshot-max-age-ms:300000}")
+    private long snapshotMaxAgeMillis = 300000;
+
+    // Constructor injection for the price snapshot and the meter registry
+    public ChatResponseCache(PriceSnapshotService priceSnapshotService, MeterRegistry meterRegistry) {
+        this.priceSnapshotService = priceSnapshotService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Returns the function call cached for a prompt, or null if Gemini must be asked
+    public FunctionResponse getFunctionCall(String prompt) {
+        String key = normalize(prompt);
+        Entry entry = key.isEmpty() ? null : calls.get(key);
+        if (entry != null && entry.expiresAtMillis <= System.currentTimeMillis()) {
+            calls.remove(key, entry);
+            entry = null;
+        }
+        count("function_call", entry != null);
+        return entry != null ? copy(entry.call) : null;
+    }
+
+    // Caches the function call Gemini chose for a prompt
+    public void putFunctionCall(String prompt, FunctionResponse call) {
+        String key = normalize(prompt);
+        if (key.isEmpty() || call == null || call.getFunctionName() == null || callTtlMillis <= 0) {
+            return;
+        }
+        if (calls.size() >= maxSize) {
+            long now = System.currentTimeMillis();
+            BoundedMaps.trim(calls, maxSize, entry -> entry.expiresAtMillis <= now);
+        }
+        calls.put(key, new Entry(copy(call), System.currentTimeMillis() + callTtlMillis));
+    }
+
+    // Returns the fresh snapshot quote of a coin, or null if it must be fetched
+    public CoinQuote findQuote(String coinId) {
+        CoinQuote quote = coinId != null ? priceSnapshotService.getQuote(coinId) : null;
+        if (quote != null && quote.getUpdatedAt() < System.currentTimeMillis() - snapshotMaxAgeMillis) {
+            quote = null;
+        }
+        count("snapshot", quote != null);
+        return quote;
+    }
+
+    // Lower-cased words of a prompt without punctuation and filler words, in the order they were written, so that
+    // "What is the price of Bitcoin?" and "price of bitcoin please" share a key. The order is kept because it can
+    // change the question: "convert btc to eth" and "convert eth to btc" must not share a call
+    static String normalize(String prompt) {
+        if (prompt == null) {
+            return "";
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : prompt.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}']+")) {
+            if (!word.isEmpty() && !FILLER_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    // Counts a lookup of a layer
+    private void count(String layer, boolean hit) {
+        meterRegistry.counter("chat.cache.requests", "layer", layer, "result", hit ? "hit" : "miss").increment();
+    }
+
+    // Field-by-field copy of a function call
+    private static FunctionResponse copy(FunctionResponse source) {
+        FunctionResponse call = new FunctionResponse();
+        call.setFunctionName(source.getFunctionName());
+        call.setCurrencyName(source.getCurrencyName());
+        call.setCurrencyData(source.getCurrencyData());
+        return call;
+    }
+}
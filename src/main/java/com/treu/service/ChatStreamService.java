@@ -0,0 +1,10 @@
+package com.treu.service;
+
+// Server-sent event stream the answer is relayed on
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Defines a service interface for streamed chatbot answers
+public interface ChatStreamService {
+    // Opens a stream relaying the chatbot's answer to a prompt as its text arrives
+    SseEmitter streamChat(String prompt);
+}
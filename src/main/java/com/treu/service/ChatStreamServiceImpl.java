@@ -0,0 +1,274 @@
+package com.treu.service;
+
+// Jackson streaming parser and generator; no tree is built for a streamed event
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+// Micrometer registry and timers for the stream latencies
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+// Lifecycle callback for the shared HTTP client
+import jakarta.annotation.PostConstruct;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Server-sent event stream the answer is relayed on
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;                          // Failed write to a closed stream, malformed event
+import java.io.StringWriter;                         // Buffer of the generated request body
+import java.io.UncheckedIOException;                 // Failed write inside a text callback
+import java.net.URI;                                 // Address of the streaming endpoint
+import java.net.URLEncoder;                          // Encodes the API key into the query
+import java.net.http.HttpClient;                     // Non-blocking HTTP client
+import java.net.http.HttpRequest;                    // Streaming request
+import java.net.http.HttpResponse;                   // Body handlers and subscribers
+import java.nio.charset.StandardCharsets;            // Encoding of requests and responses
+import java.time.Duration;                           // Client and request timeouts
+import java.util.concurrent.CancellationException;   // Stream abandoned by its client
+import java.util.concurrent.CompletableFuture;       // Completion of a relayed stream
+import java.util.concurrent.Flow;                    // Reactive-streams contract of the body lines
+import java.util.concurrent.TimeUnit;                // Units of timeouts and recorded latencies
+import java.util.concurrent.atomic.AtomicBoolean;    // Marks the first relayed text
+import java.util.function.Consumer;                  // Receiver of relayed text
+
+// Relays Gemini answers as they are generated. The request goes out on a shared java.net.http client with
+// sendAsync, and the server-sent events of streamGenerateContent are consumed line by line as they arrive;
+// each event is read with a Jackson streaming parser and its text forwarded to the caller's SseEmitter. No
+// thread waits for the model: the servlet thread returns with the emitter and the client's threads only run
+// when bytes arrive
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class ChatStreamServiceImpl implements ChatStreamService {
+
+    // Streaming parser and generator factory; thread-safe and reused
+    private static final JsonFactory JSON = new JsonFactory();
+
+    // Prefix of a server-sent event's data line
+    private static final String DATA_PREFIX = "data:";
+
+    // Injects the Gemini API key from application properties
+    @Value("${gemini.api.key}")
+    private String geminiApiKey;
+
+    // Base URL of the generative language API
+    @Value("${chat.stream.base-url:https://generativelanguage.googleapis.com/v1beta}")
+    private String baseUrl = "https://generativelanguage.googleapis.com/v1beta";
+
+    // Model answering streamed prompts
+    @Value("${chat.stream.model:gemini-pro}")
+    private String model = "gemini-pro";
+
+    // Time allowed to open a connection to the API
+    @Value("${chat.stream.connect-timeout-ms:5000}")
+    private long connectTimeoutMillis = 5000;
+
+    // Time allowed for the API to start answering
+    @Value("${chat.stream.first-byte-timeout-ms:15000}")
+    private long firstByteTimeoutMillis = 15000;
+
+    // Time a whole answer may take before the stream is closed
+    @Value("${chat.stream.timeout-ms:120000}")
+    private long streamTimeoutMillis = 120000;
+
+    // Time to the first relayed text, and time of whole streams by outcome
+    private final Timer firstText;
+    private final MeterRegistry meterRegistry;
+
+    // Shared client; it pools connections to the API
+    private HttpClient httpClient;
+
+    // Constructor injection for the meter registry
+    public ChatStreamServiceImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.firstText = Timer.builder("chat.stream.first-text")
+                .description("Time from a streamed prompt to its first relayed text")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Builds the shared client once the configuration is injected
+    @PostConstruct
+    public void start() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+    }
+
+    // Opens a stream of 'text' events carrying the answer, closed by a 'done' or 'error' event. The upstream
+    // request is cancelled when the client disconnects or the stream times out
+    @Override
+    public SseEmitter streamChat(String prompt) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        CompletableFuture<Void> relay = relay(prompt, text -> {
+            try {
+                emitter.send(SseEmitter.event().name("text").data(text));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);   // Client went away; fails and cancels the relay
+            }
+        });
+        relay.whenComplete((ignored, failure) -> {
+            try {
+                if (failure == null) {
+                    emitter.send(SseEmitter.event().name("done").data(""));
+                } else {
+                    if (!(failure instanceof CancellationException)) {
+                        log.warn("chat stream failed: {}", failure.toString());
+                    }
+                    emitter.send(SseEmitter.event().name("error").data("The assistant is unavailable, please try again"));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the stream already closed
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onTimeout(() -> relay.cancel(true));
+        emitter.onError(e -> relay.cancel(true));
+        emitter.onCompletion(() -> relay.cancel(true));
+        return emitter;
+    }
+
+    // Sends a prompt to the streaming endpoint and hands each piece of the answer's text to 'onText' as it
+    // arrives. The returned future completes with the stream; cancelling it, or 'onText' throwing, aborts the
+    // upstream response
+    CompletableFuture<Void> relay(String prompt, Consumer<String> onText) {
+        long started = System.nanoTime();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicBoolean first = new AtomicBoolean(true);
+        Consumer<String> timedOnText = text -> {
+            if (first.compareAndSet(true, false)) {
+                firstText.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            onText.accept(text);
+        };
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/models/" + model
+                        + ":streamGenerateContent?alt=sse&key=" + URLEncoder.encode(geminiApiKey, StandardCharsets.UTF_8)))
+                .timeout(Duration.ofMillis(firstByteTimeoutMillis))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody(prompt)))
+                .build();
+        CompletableFuture<HttpResponse<Void>> exchange = httpClient.sendAsync(request, info -> info.statusCode() == 200
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(new EventLines(timedOnText, done))
+                        : HttpResponse.BodySubscribers.mapping(
+                                HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                                body -> {
+                                    throw new IllegalStateException("Gemini answered HTTP " + info.statusCode() + ": " + body);
+                                }));
+        exchange.whenComplete((response, failure) -> {
+            if (failure != null) {
+                done.completeExceptionally(failure);
+            }
+        });
+        // A stream that failed, timed out or was cancelled before the response arrived aborts the exchange
+        done.whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                exchange.cancel(true);
+            }
+        });
+
+        done.orTimeout(streamTimeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, failure) -> meterRegistry.timer("chat.stream.duration",
+                                "outcome", failure == null ? "success" : failure instanceof CancellationException ? "cancelled" : "error")
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        return done;
+    }
+
+    // Hands the text parts of the first candidate in one streamed response to 'onText', reading the event
+    // token by token; an error object in the stream fails it
+    static void readTexts(String json, Consumer<String> onText) throws IOException {
+        try (JsonParser parser = JSON.createParser(json)) {
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                if (token != JsonToken.VALUE_STRING) {
+                    continue;
+                }
+                String path = parser.getParsingContext().pathAsPointer().toString();
+                if (path.startsWith("/candidates/0/content/parts/") && path.endsWith("/text")) {
+                    onText.accept(parser.getText());
+                } else if (path.equals("/error/message")) {
+                    throw new IOException("Gemini stream failed: " + parser.getText());
+                }
+            }
+        }
+    }
+
+    // Request body with the prompt as the user's only turn
+    static String requestBody(String prompt) {
+        StringWriter body = new StringWriter();
+        try (JsonGenerator json = JSON.createGenerator(body)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("contents");
+            json.writeStartObject();
+            json.writeStringField("role", "user");
+            json.writeArrayFieldStart("parts");
+            json.writeStartObject();
+            json.writeStringField("text", prompt);
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // A StringWriter does not fail
+        }
+        return body.toString();
+    }
+
+    // Consumes the response body one line at a time, requesting the next line only once the current one is
+    // relayed, so a slow client slows the upstream read instead of buffering the answer
+    private static final class EventLines implements Flow.Subscriber<String> {
+        private final Consumer<String> onText;        // Receiver of relayed text
+        private final CompletableFuture<Void> done;   // Completion of the stream
+        private Flow.Subscription subscription;       // Demand on the response body
+
+        EventLines(Consumer<String> onText, CompletableFuture<Void> done) {
+            this.onText = onText;
+            this.done = done;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            // A stream that failed, timed out or was cancelled stops reading the response
+            done.whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    subscription.cancel();
+                }
+            });
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (done.isDone()) {
+                return;
+            }
+            if (line.startsWith(DATA_PREFIX)) {
+                try {
+                    readTexts(line.substring(DATA_PREFIX.length()).trim(), onText);
+                } catch (IOException | RuntimeException e) {
+                    done.completeExceptionally(e);
+                    return;
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+}
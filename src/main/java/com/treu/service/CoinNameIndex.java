@@ -0,0 +1,171 @@
+package com.treu.service;
+
+// Immutable quote held by the price snapshot
+import com.treu.model.CoinQuote;
+
+import java.util.ArrayDeque;     // Breadth-first queue for the failure links
+import java.util.ArrayList;      // Resizable array implementation of List
+import java.util.Collection;     // Quotes the index is built from
+import java.util.Comparator;     // Order of overlapping matches
+import java.util.HashMap;        // Transitions and alias owners
+import java.util.List;           // Interface for ordered collections
+import java.util.Locale;         // Locale-independent lower-casing
+import java.util.Map;            // Interface for key-value mappings
+
+// Immutable dictionary of coin ids, symbols and names, matched against free text with an Aho-Corasick
+// automaton: one pass over the text finds every alias it contains, however many coins are known. Aliases and
+// text are compared in normalised form (lower case, runs of other characters as one space) and a match must
+// cover whole words, so "eth" is found in "eth price?" but not in "method"
+final class CoinNameIndex {
+
+    // Whole-word occurrence of an alias in normalised text
+    static final class Match {
+        final String coinId;   // Coin the alias names
+        final String alias;    // Normalised alias as found
+        final int start;       // Offset of the first character in the normalised text
+        final int end;         // Offset after the last character
+
+        Match(String coinId, String alias, int start, int end) {
+            this.coinId = coinId;
+            this.alias = alias;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    // Leftmost first, the longer of two matches starting together first
+    private static final Comparator<Match> LEFTMOST_LONGEST =
+            Comparator.<Match>comparingInt(match -> match.start).thenComparingInt(match -> -match.end);
+
+    // Coin id by normalised alias
+    private final Map<String, String> coinByAlias;
+
+    // Automaton: transitions, failure link and dictionary suffix link of each node, and the alias ending there
+    private final List<Map<Character, Integer>> next = new ArrayList<>();
+    private final List<Integer> fail = new ArrayList<>();
+    private final List<Integer> outputLink = new ArrayList<>();
+    private final List<String> aliasAt = new ArrayList<>();
+
+    private CoinNameIndex(Map<String, String> coinByAlias) {
+        this.coinByAlias = coinByAlias;
+        newNode();
+        for (String alias : coinByAlias.keySet()) {
+            int node = 0;
+            for (int i = 0; i < alias.length(); i++) {
+                Integer child = next.get(node).get(alias.charAt(i));
+                if (child == null) {
+                    child = newNode();
+                    next.get(node).put(alias.charAt(i), child);
+                }
+                node = child;
+            }
+            aliasAt.set(node, alias);
+        }
+        linkFailures();
+    }
+
+    // Builds the index of the given quotes. Symbols and names are not unique; the coin with the largest market
+    // cap keeps a shared alias, but a coin id always names its own coin
+    static CoinNameIndex of(Collection<CoinQuote> quotes) {
+        Map<String, CoinQuote> owners = new HashMap<>();
+        for (CoinQuote quote : quotes) {
+            for (String alias : new String[]{quote.getSymbol(), quote.getName()}) {
+                String key = normalize(alias);
+                if (!key.isEmpty()) {
+                    owners.merge(key, quote, (kept, other) -> other.getMarketCap() > kept.getMarketCap() ? other : kept);
+                }
+            }
+        }
+        Map<String, String> coinByAlias = new HashMap<>(owners.size() * 2);
+        owners.forEach((alias, quote) -> coinByAlias.put(alias, quote.getId()));
+        for (CoinQuote quote : quotes) {
+            String key = normalize(quote.getId());
+            if (!key.isEmpty()) {
+                coinByAlias.put(key, quote.getId());
+            }
+        }
+        return new CoinNameIndex(coinByAlias);
+    }
+
+    // Coin named exactly by an id, symbol or name, or null
+    String resolve(String name) {
+        return coinByAlias.get(normalize(name));
+    }
+
+    // Whole-word aliases in the normalised text, without overlaps: where matches overlap, the leftmost and then
+    // longest wins, so "bitcoin cash" is one match rather than "bitcoin" and "cash"
+    List<Match> find(String normalizedText) {
+        List<Match> found = new ArrayList<>();
+        int node = 0;
+        for (int i = 0; i < normalizedText.length(); i++) {
+            char c = normalizedText.charAt(i);
+            while (node != 0 && !next.get(node).containsKey(c)) {
+                node = fail.get(node);
+            }
+            node = next.get(node).getOrDefault(c, 0);
+            for (int out = aliasAt.get(node) != null ? node : outputLink.get(node); out != 0; out = outputLink.get(out)) {
+                String alias = aliasAt.get(out);
+                int start = i + 1 - alias.length();
+                if (isBoundary(normalizedText, start - 1) && isBoundary(normalizedText, i + 1)) {
+                    found.add(new Match(coinByAlias.get(alias), alias, start, i + 1));
+                }
+            }
+        }
+        found.sort(LEFTMOST_LONGEST);
+        List<Match> selected = new ArrayList<>(found.size());
+        int coveredUntil = 0;
+        for (Match match : found) {
+            if (match.start >= coveredUntil) {
+                selected.add(match);
+                coveredUntil = match.end;
+            }
+        }
+        return selected;
+    }
+
+    // Number of aliases held
+    int size() {
+        return coinByAlias.size();
+    }
+
+    // Lower-cased text with each run of characters other than letters and digits replaced by one space
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // True if the offset lies outside the text or on a space, i.e. next to a word edge
+    private static boolean isBoundary(String text, int offset) {
+        return offset < 0 || offset >= text.length() || text.charAt(offset) == ' ';
+    }
+
+    // Adds an empty node and returns its number
+    private int newNode() {
+        next.add(new HashMap<>());
+        fail.add(0);
+        outputLink.add(0);
+        aliasAt.add(null);
+        return next.size() - 1;
+    }
+
+    // Sets the failure and dictionary suffix links breadth first, each from its parent's
+    private void linkFailures() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>(next.get(0).values());
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : next.get(node).entrySet()) {
+                int child = edge.getValue();
+                int candidate = fail.get(node);
+                while (candidate != 0 && !next.get(candidate).containsKey(edge.getKey())) {
+                    candidate = fail.get(candidate);
+                }
+                int link = next.get(candidate).getOrDefault(edge.getKey(), 0);
+                fail.set(child, link);
+                outputLink.set(child, aliasAt.get(link) != null ? link : outputLink.get(link));
+                queue.add(child);
+            }
+        }
+    }
+}
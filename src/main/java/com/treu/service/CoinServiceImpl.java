@@ -12,10 +12,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.treu.model.Coin;
 // Repository interface for coin data access
 import com.treu.repository.CoinRepository;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
 // Spring annotation for dependency injection
 import org.springframework.beans.factory.annotation.Autowired;
 // Spring annotation for injecting property values
 import org.springframework.beans.factory.annotation.Value;
+// Spring annotation for periodic background tasks
+import org.springframework.scheduling.annotation.Scheduled;
 // Spring HTTP utilities
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -33,6 +37,7 @@ import java.util.List;             // Interface for ordered collections
 import java.util.Optional;        // Wrapper for handling nullable values
 
 // Marks this class as a Spring service bean
+@Slf4j
 @Service
 public class CoinServiceImpl implements CoinService {
     // Repository for performing CRUD operations on Coin entities
@@ -43,17 +48,47 @@ public class CoinServiceImpl implements CoinService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    // Shared CoinGecko client with connect and read timeouts, so a stalled call cannot pin a scheduler thread
+    @Autowired
+    private RestTemplate restTemplate;
+
     // Injects the CoinMarketCap API key from application properties
     @Value("${coingecko.api.key}")
     private String API_KEY;
 
+    // In-memory snapshot of the latest prices, fed by every market data response
+    @Autowired
+    private PriceSnapshotService priceSnapshotService;
+
+    // Refreshes the price snapshot with the top coins by market cap so price ticks keep flowing
+    @Scheduled(initialDelayString = "${coingecko.price-refresh.initial-delay-ms:10000}",
+            fixedDelayString = "${coingecko.price-refresh.interval-ms:60000}")
+    public void refreshPriceSnapshot() {
+        String url = "https://api.coingecko.com/api/v3/coins/markets?vs_currency=usd&per_page=250&page=1";
+
+        try {
+            HttpHeaders headers = new HttpHeaders();    // Headers for the request
+            headers.set("x-cg-demo-api-key", API_KEY);  // Sets API key header
+
+            HttpEntity<String> entity = new HttpEntity<>("parameters", headers); // Request entity with headers
+
+            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+
+            List<Coin> coins = objectMapper.readValue(response.getBody(), new TypeReference<List<Coin>>() {});
+            priceSnapshotService.publish(coins);        // Publishes the new prices to tick listeners
+
+        } catch (Exception e) {
+            // The next refresh retries; the snapshot keeps the last known prices meanwhile
+            log.warn("Price refresh failed", e);
+        }
+    }
+
     // Fetches a paginated list of coins from CoinGecko API
     @Override
     public List<Coin> getCoinList(int page) throws Exception {
         // Constructs URL for fetching coin markets with pagination
         String url = "https://api.coingecko.com/api/v3/coins/markets?vs_currency=usd&per_page=10&page=" + page;
 
-        RestTemplate restTemplate = new RestTemplate(); // HTTP client for API calls
         try {
             HttpHeaders headers = new HttpHeaders();    // Headers for the request
             headers.set("x-cg-demo-api-key", API_KEY);  // Sets API key header
@@ -66,6 +101,7 @@ public class CoinServiceImpl implements CoinService {
             System.out.println(response.getBody());     // Logs response for debugging
             // Deserializes JSON response into a List of Coin objects
             List<Coin> coins = objectMapper.readValue(response.getBody(), new TypeReference<List<Coin>>() {});
+            priceSnapshotService.publish(coins);        // Keeps the price snapshot current
 
             return coins;                               // Returns the list of coins
 
@@ -82,7 +118,6 @@ public class CoinServiceImpl implements CoinService {
         // Constructs URL for market chart data
         String url = "https://api.coingecko.com/api/v3/coins/" + coinId + "/market_chart?vs_currency=usd&days=" + days;
 
-        RestTemplate restTemplate = new RestTemplate(); // HTTP client for API calls
         try {
             HttpHeaders headers = new HttpHeaders();    // Headers for the request
             headers.set("x-cg-demo-api-key", API_KEY);  // Sets API key header
@@ -126,7 +161,6 @@ public class CoinServiceImpl implements CoinService {
 
         HttpEntity<String> entity = new HttpEntity<>(headers); // Request entity with headers
 
-        RestTemplate restTemplate = new RestTemplate(); // HTTP client for API calls
         // Executes GET request and retrieves response as a string
         ResponseEntity<String> response = restTemplate.exchange(baseUrl, HttpMethod.GET, entity, String.class);
 
@@ -156,6 +190,7 @@ public class CoinServiceImpl implements CoinService {
         coin.setTotalSupply(marketData.get("total_supply").asLong()); // Sets total supply
 
         coinRepository.save(coin);                  // Saves the coin to the database
+        priceSnapshotService.publish(List.of(coin)); // Keeps the price snapshot current
         return response.getBody();                  // Returns raw JSON response
     }
 
@@ -178,7 +213,6 @@ public class CoinServiceImpl implements CoinService {
 
         HttpEntity<String> entity = new HttpEntity<>(headers); // Request entity with headers
 
-        RestTemplate restTemplate = new RestTemplate(); // HTTP client for API calls
         // Executes GET request and retrieves response as a string
         ResponseEntity<String> response = restTemplate.exchange(baseUrl, HttpMethod.GET, entity, String.class);
 
@@ -192,7 +226,6 @@ public class CoinServiceImpl implements CoinService {
         // Constructs URL for top 50 coins by market cap
         String url = "https://api.coingecko.com/api/v3/coins/markets?vs_currency=usd&page=1&per_page=50";
 
-        RestTemplate restTemplate = new RestTemplate(); // HTTP client for API calls
         try {
             HttpHeaders headers = new HttpHeaders();    // Headers for the request
             headers.set("x-cg-demo-api-key", API_KEY);  // Sets API key header
@@ -216,7 +249,6 @@ public class CoinServiceImpl implements CoinService {
         // Constructs URL for trending coins
         String url = "https://api.coingecko.com/api/v3/search/trending";
 
-        RestTemplate restTemplate = new RestTemplate(); // HTTP client for API calls
         try {
             HttpHeaders headers = new HttpHeaders();    // Headers for the request
             headers.set("x-cg-demo-api-key", API_KEY);  // Sets API key header
@@ -0,0 +1,15 @@
+package com.treu.service;
+
+// Defines a service interface for tax-lot tracking and realised P&L of fills
+public interface CostBasisService {
+
+    // Opens a lot for a buy fill of the given order
+    void recordBuy(Long userId, String coinId, Long orderId, double quantity, double price);
+
+    // Closes lots for a sell fill of the given order and returns the cost basis of the quantity sold;
+    // quantity not covered by known lots is costed at the fallback price
+    double recordSell(Long userId, String coinId, Long orderId, double quantity, double fallbackPrice);
+
+    // Drops the lots of a position that was deleted, so a later buy starts a fresh book
+    void closePosition(Long userId, String coinId);
+}
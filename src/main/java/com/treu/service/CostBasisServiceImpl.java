@@ -0,0 +1,141 @@
+package com.treu.service;
+
+// Custom enum for the lot matching method
+import com.treu.domain.CostBasisMethod;
+// Custom enum for order types (BUY, SELL)
+import com.treu.domain.OrderType;
+// Repository interface for order data access
+import com.treu.repository.OrderRepository;
+// Size bound shared by the in-memory caches
+import com.treu.utils.BoundedMaps;
+// Spring annotation for injecting property values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Hooks for running work when the surrounding transaction completes
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;   // Thread-safe map for the lot books
+
+// Marks this class as a Spring service bean
+@Service
+public class CostBasisServiceImpl implements CostBasisService {
+
+    // Repository used once per position to replay its fills into a book
+    private final OrderRepository orderRepository;
+
+    // Matching method applied to every position
+    private final CostBasisMethod method;
+
+    // Most books kept in memory; past it closed books go first, then arbitrary ones, replayed on next use
+    private final int maxBooks;
+
+    // Lot book per "userId:coinId", replayed on first use and then kept in step with fills
+    private final ConcurrentHashMap<String, TaxLotBook> books = new ConcurrentHashMap<>();
+
+    // Constructor injection for the order repository, the configured method and the book bound
+    public CostBasisServiceImpl(OrderRepository orderRepository,
+                                @Value("${trading.cost-basis.method:FIFO}") CostBasisMethod method,
+                                @Value("${trading.cost-basis.max-books:100000}") int maxBooks) {
+        this.orderRepository = orderRepository;
+        this.method = method;
+        this.maxBooks = maxBooks;
+    }
+
+    // Opens a lot for a buy fill
+    @Override
+    public void recordBuy(Long userId, String coinId, Long orderId, double quantity, double price) {
+        String key = key(userId, coinId);
+        book(key, userId, coinId, orderId).buy(quantity, price);
+        evictOnRollback(key);
+    }
+
+    // Closes lots for a sell fill and returns their cost
+    @Override
+    public double recordSell(Long userId, String coinId, Long orderId, double quantity, double fallbackPrice) {
+        String key = key(userId, coinId);
+        TaxLotBook book = book(key, userId, coinId, orderId);
+        double cost;
+        synchronized (book) {
+            // Positions predating lot tracking (or trimmed as dust) may hold less than the asset row
+            double covered = Math.min(quantity, book.getQuantity());
+            cost = (covered > 0 ? book.sell(covered) : 0) + (quantity - covered) * fallbackPrice;
+        }
+        evictOnRollback(key);
+        return cost;
+    }
+
+    // Drops the lots of a position deleted as dust once the deletion commits; the replay on next use
+    // applies the same dust rule, so a later buy starts from an empty book
+    @Override
+    public void closePosition(Long userId, String coinId) {
+        String key = key(userId, coinId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    books.remove(key);
+                }
+            });
+        } else {
+            books.remove(key);
+        }
+    }
+
+    // Returns the position's book, replaying its settled fills the first time it is used.
+    // The replay queries the database, so it runs outside the map: computeIfAbsent would hold the bin's
+    // monitor across the query, blocking other keys and pinning the carrier of a virtual thread
+    private TaxLotBook book(String key, Long userId, String coinId, Long orderId) {
+        TaxLotBook book = books.get(key);
+        if (book != null) {
+            return book;
+        }
+        TaxLotBook replayed = replay(userId, coinId, orderId);
+        if (books.size() >= maxBooks) {
+            BoundedMaps.trim(books, maxBooks, closed -> closed.getQuantity() <= 0);
+        }
+        book = books.putIfAbsent(key, replayed);   // A concurrent replay of the same position wins
+        return book != null ? book : replayed;
+    }
+
+    // Rebuilds a book from the position's fill history, leaving out the order being filled.
+    // A sell that left dust deleted the position, so its remaining lots are dropped as well
+    private TaxLotBook replay(Long userId, String coinId, Long orderId) {
+        TaxLotBook book = new TaxLotBook(method);
+        for (Object[] fill : orderRepository.findSettledFillsByUserIdAndCoinId(userId, coinId, orderId)) {
+            double quantity = ((Number) fill[1]).doubleValue();
+            if (quantity <= 0) {
+                continue;
+            }
+            if (fill[0] == OrderType.BUY) {
+                book.buy(quantity, ((Number) fill[2]).doubleValue());
+            } else {
+                book.sell(Math.min(quantity, book.getQuantity()));
+                if (book.getQuantity() * ((Number) fill[3]).doubleValue() <= OrderServiceImpl.DUST_VALUE) {
+                    book.clear();
+                }
+            }
+        }
+        return book;
+    }
+
+    // A rolled back fill leaves the book ahead of the database, so drop it and replay on next use
+    private void evictOnRollback(String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        books.remove(key);
+                    }
+                }
+            });
+        }
+    }
+
+    // Map key of a position
+    private static String key(Long userId, String coinId) {
+        return userId + ":" + coinId;
+    }
+}
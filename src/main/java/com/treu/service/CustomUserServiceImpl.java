@@ -6,6 +6,8 @@ import com.treu.model.User;
 import com.treu.repository.UserRepository;
 // Interface for representing granted authorities in Spring Security
 import org.springframework.security.core.GrantedAuthority;
+// Authority implementation holding a role name
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 // Interface for user details in Spring Security
 import org.springframework.security.core.userdetails.UserDetails;
 // Interface for custom user details service in Spring Security
@@ -41,8 +43,11 @@ public class CustomUserServiceImpl implements UserDetailsService {
             throw new UsernameNotFoundException("user not found with email  - " + username);
         }
 
-        // Initializes an empty list of authorities (roles/permissions), currently not populated
+        // Grants the user's role, which ends up in the JWT's authorities claim (e.g. for per-role rate limits)
         List<GrantedAuthority> authorities = new ArrayList<>();
+        if (user.getRole() != null) {
+            authorities.add(new SimpleGrantedAuthority(user.getRole().name()));
+        }
 
         // Returns a Spring Security User object with email, password, and authorities
         return new org.springframework.security.core.userdetails.User(
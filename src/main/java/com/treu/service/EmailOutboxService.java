@@ -0,0 +1,14 @@
+package com.treu.service;
+
+// Entity class representing an outbox email
+import com.treu.model.EmailOutboxMessage;
+
+// Defines a service interface for the persistent outbox that delivers email in the background
+public interface EmailOutboxService {
+
+    // Stores an email for delivery; dispatch starts once the surrounding transaction (if any) commits
+    EmailOutboxMessage enqueue(String recipient, String subject, String body);
+
+    // Sends every due message, claiming them in batches; returns the number of messages attempted
+    int dispatch();
+}
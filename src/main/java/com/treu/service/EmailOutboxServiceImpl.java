@@ -0,0 +1,324 @@
+package com.treu.service;
+
+// Custom enum for the delivery state of a message
+import com.treu.domain.EmailOutboxStatus;
+// Entity class representing an outbox email
+import com.treu.model.EmailOutboxMessage;
+// Repository interface for outbox data access
+import com.treu.repository.EmailOutboxRepository;
+// Daemon thread factory naming the dispatcher threads
+import com.treu.utils.NamedThreadFactory;
+// Lifecycle callbacks for the dispatcher threads
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+// Exceptions for messaging-related errors in Jakarta Mail
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+// Class representing a MIME email message in Jakarta Mail
+import jakarta.mail.internet.MimeMessage;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring Data pagination request
+import org.springframework.data.domain.PageRequest;
+// Spring mail exceptions for failed sends
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+// Spring interface for sending emails
+import org.springframework.mail.javamail.JavaMailSender;
+// Helper class for constructing MIME messages in Spring
+import org.springframework.mail.javamail.MimeMessageHelper;
+// Spring annotation for periodically triggered methods
+import org.springframework.scheduling.annotation.Scheduled;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Hooks for running work after the surrounding transaction commits
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;                     // Date and time class for scheduling attempts
+import java.time.temporal.ChronoUnit;               // Millisecond offsets for leases and retries
+import java.util.ArrayList;                         // Resizable array implementation of List
+import java.util.Collections;                       // Empty failure map
+import java.util.LinkedHashMap;                     // Maps built MIME messages back to their rows, in send order
+import java.util.List;                              // Interface for ordered collections
+import java.util.Map;                               // Interface for key-value mappings
+import java.util.UUID;                              // Random claim tokens
+import java.util.concurrent.ExecutionException;     // Failure of a batch future
+import java.util.concurrent.ExecutorService;        // Dispatcher thread pools
+import java.util.concurrent.Executors;              // Factory for the pools
+import java.util.concurrent.Future;                 // Handle of a submitted batch
+import java.util.concurrent.ThreadLocalRandom;      // Jitter for retry delays
+import java.util.concurrent.atomic.AtomicBoolean;   // Guards against overlapping dispatch cycles
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    // Repository for the outbox table
+    private final EmailOutboxRepository outboxRepository;
+
+    // Spring's email sender; one send call opens one SMTP connection and sends a whole batch over it
+    private final JavaMailSender mailSender;
+
+    // Sender address; empty leaves it to the mail session
+    @Value("${email.outbox.from:${spring.mail.username:}}")
+    private String from = "";
+
+    // Messages sent over one SMTP connection
+    @Value("${email.outbox.batch-size:20}")
+    private int batchSize = 20;
+
+    // Batches (and so SMTP connections) in flight at once
+    @Value("${email.outbox.dispatchers:2}")
+    private int dispatchers = 2;
+
+    // Attempts before a message is dead-lettered
+    @Value("${email.outbox.max-attempts:6}")
+    private int maxAttempts = 6;
+
+    // Delay before the first retry; doubles with every further attempt
+    @Value("${email.outbox.backoff-ms:5000}")
+    private long backoffMillis = 5000;
+
+    // Upper bound of the retry delay
+    @Value("${email.outbox.max-backoff-ms:900000}")
+    private long maxBackoffMillis = 900000;
+
+    // Time a claimed batch may take before another dispatcher retries it
+    @Value("${email.outbox.lease-ms:120000}")
+    private long leaseMillis = 120000;
+
+    // Days sent messages are kept
+    @Value("${email.outbox.retention-days:7}")
+    private int retentionDays = 7;
+
+    // Set while a dispatch cycle runs; a trigger arriving meanwhile sets 'rerun' instead of starting another
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    // Single thread running dispatch cycles, so triggers never block request or scheduler threads
+    private ExecutorService poller;
+
+    // Threads sending batches. Platform threads even in virtual-thread mode: the mail transport sends
+    // inside synchronized methods, which would pin a virtual thread's carrier for the whole SMTP exchange
+    private ExecutorService senders;
+
+    // Constructor injection for the outbox repository and mail sender
+    public EmailOutboxServiceImpl(EmailOutboxRepository outboxRepository, JavaMailSender mailSender) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+    }
+
+    // Starts the dispatcher threads once the configuration is injected
+    @PostConstruct
+    public void start() {
+        poller = Executors.newSingleThreadExecutor(new NamedThreadFactory("email-outbox-poller"));
+        senders = Executors.newFixedThreadPool(dispatchers, new NamedThreadFactory("email-outbox-sender"));
+    }
+
+    // Stops the dispatcher threads; unsent messages stay in the table for the next start
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    // Stores the message and triggers a dispatch after commit
+    @Override
+    public EmailOutboxMessage enqueue(String recipient, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setRecipient(recipient);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setStatus(EmailOutboxStatus.PENDING);
+        message.setNextAttemptAt(now);
+        message.setCreatedAt(now);
+        message = outboxRepository.save(message);
+
+        // A rolled back caller must not send, and the row is only visible to dispatchers once committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatchSoon();
+                }
+            });
+        } else {
+            dispatchSoon();
+        }
+        return message;
+    }
+
+    // Picks up retries and messages of other instances
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        dispatchSoon();
+    }
+
+    // Drops sent messages past the retention window once a day
+    @Scheduled(cron = "${email.outbox.purge-cron:0 15 3 * * *}")
+    public void purgeSent() {
+        int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("email outbox purged {} sent messages", deleted);
+    }
+
+    // Runs dispatch cycles until no trigger arrived during the last one. A trigger landing between the last
+    // check and the flag being cleared would be lost, so 'rerun' is read again once the flag is clear
+    @Override
+    public int dispatch() {
+        int attempted = 0;
+        while (dispatching.compareAndSet(false, true)) {
+            try {
+                do {
+                    rerun.set(false);
+                    attempted += dispatchCycle();
+                } while (rerun.get());
+            } catch (RuntimeException e) {
+                log.warn("email outbox dispatch failed", e);
+            } finally {
+                dispatching.set(false);
+            }
+            if (!rerun.get()) {
+                return attempted;
+            }
+        }
+        rerun.set(true);                              // The running dispatch will go round once more
+        return attempted;
+    }
+
+    // Hands a dispatch to the poller thread. 'rerun' is set before 'dispatching' is read, the reverse of
+    // dispatch, so either the running dispatch sees the trigger or this one starts a new dispatch
+    private void dispatchSoon() {
+        rerun.set(true);
+        if (dispatching.get()) {
+            return;                                   // The running cycle will go round once more
+        }
+        if (poller != null && !poller.isShutdown()) {
+            poller.execute(this::dispatch);
+        }
+    }
+
+    // Claims due messages in batches, one batch per sender thread, until none are due
+    private int dispatchCycle() {
+        outboxRepository.releaseExpiredLeases(LocalDateTime.now());
+        int attempted = 0;
+        while (true) {
+            List<Future<Integer>> batches = new ArrayList<>(dispatchers);
+            for (int i = 0; i < dispatchers; i++) {
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> ids = outboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                String token = UUID.randomUUID().toString();
+                if (outboxRepository.claim(ids, token, now.plus(leaseMillis, ChronoUnit.MILLIS)) == 0) {
+                    continue;                         // Another instance claimed them first
+                }
+                List<EmailOutboxMessage> claimed = outboxRepository.findByClaimToken(token);
+                batches.add(senders.submit(() -> sendBatch(claimed)));
+            }
+            if (batches.isEmpty()) {
+                return attempted;
+            }
+            for (Future<Integer> batch : batches) {
+                try {
+                    attempted += batch.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return attempted;
+                } catch (ExecutionException e) {
+                    // The batch keeps its lease and is retried once the lease expires
+                    log.warn("email outbox batch failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    // Sends a claimed batch over one SMTP connection and records each message's outcome
+    int sendBatch(List<EmailOutboxMessage> batch) {
+        Map<MimeMessage, EmailOutboxMessage> rows = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutboxMessage message : batch) {
+            message.setAttempts(message.getAttempts() + 1);
+            try {
+                rows.put(build(message), message);
+            } catch (MessagingException e) {
+                deadLetter(message, e);               // A message that cannot be built never will be
+            }
+        }
+
+        Map<Object, Exception> failures = Collections.emptyMap();
+        Exception batchFailure = null;
+        if (!rows.isEmpty()) {
+            try {
+                mailSender.send(rows.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                batchFailure = failures.isEmpty() ? e : null;
+            } catch (MailException e) {
+                batchFailure = e;                     // e.g. authentication failed: nothing was sent
+            }
+        }
+
+        for (Map.Entry<MimeMessage, EmailOutboxMessage> entry : rows.entrySet()) {
+            EmailOutboxMessage message = entry.getValue();
+            Exception failure = batchFailure != null ? batchFailure : failures.get(entry.getKey());
+            if (failure == null) {
+                message.setStatus(EmailOutboxStatus.SENT);
+                message.setSentAt(now);
+                message.setLastError(null);
+            } else if (failure instanceof SendFailedException || message.getAttempts() >= maxAttempts) {
+                deadLetter(message, failure);         // Rejected recipients will not be accepted later
+            } else {
+                retryLater(message, failure, now);
+            }
+            message.setClaimToken(null);
+            message.setLeaseUntil(null);
+        }
+        outboxRepository.saveAll(batch);
+        return batch.size();
+    }
+
+    // Builds the MIME message of an outbox row
+    private MimeMessage build(EmailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+        if (from != null && !from.isBlank()) {
+            helper.setFrom(from);
+        }
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody(), true);
+        helper.setTo(message.getRecipient());
+        return mimeMessage;
+    }
+
+    // Schedules the next attempt with exponential backoff and up to 20% jitter
+    private void retryLater(EmailOutboxMessage message, Exception failure, LocalDateTime now) {
+        long delay = Math.min(maxBackoffMillis, backoffMillis << Math.min(message.getAttempts() - 1, 30));
+        delay += (long) (delay * 0.2 * ThreadLocalRandom.current().nextDouble());
+        message.setStatus(EmailOutboxStatus.PENDING);
+        message.setNextAttemptAt(now.plus(delay, ChronoUnit.MILLIS));
+        message.setLastError(describe(failure));
+    }
+
+    // Gives up on a message
+    private void deadLetter(EmailOutboxMessage message, Exception failure) {
+        message.setStatus(EmailOutboxStatus.DEAD);
+        message.setClaimToken(null);
+        message.setLeaseUntil(null);
+        message.setLastError(describe(failure));
+        log.warn("email outbox message {} dead-lettered after {} attempts: {}",
+                message.getId(), message.getAttempts(), message.getLastError());
+    }
+
+    // Error text that fits the lastError column
+    private static String describe(Exception failure) {
+        String text = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        return text.length() > 1000 ? text.substring(0, 1000) : text;
+    }
+}
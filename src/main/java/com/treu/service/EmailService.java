@@ -2,18 +2,10 @@ package com.treu.service;
 
 // Exception for messaging-related errors in Jakarta Mail
 import jakarta.mail.MessagingException;
-// Class representing a MIME email message in Jakarta Mail
-import jakarta.mail.internet.MimeMessage;
 // Spring annotation for dependency injection
 import org.springframework.beans.factory.annotation.Autowired;
-// General exception for mail sending issues in Spring
-import org.springframework.mail.MailException;
 // Specific exception for mail sending failures in Spring
 import org.springframework.mail.MailSendException;
-// Spring interface for sending emails
-import org.springframework.mail.javamail.JavaMailSender;
-// Helper class for constructing MIME messages in Spring
-import org.springframework.mail.javamail.MimeMessageHelper;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
 
@@ -21,32 +13,18 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailService {
 
-    // Spring's email sender component, injected for sending emails
+    // Outbox the email is handed to; delivery happens in the background with retries
     @Autowired
-    private JavaMailSender javaMailSender;
+    private EmailOutboxService emailOutboxService;
 
-    // Sends a verification OTP email to the specified user email address
+    // Queues a verification OTP email to the specified user email address; returns without waiting for SMTP
     public void sendVerificationOtpEmail(String userEmail, String otp) throws MessagingException, MailSendException {
-        // Creates a new MIME message for email construction
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        // Helper to simplify setting MIME message properties, using UTF-8 encoding
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
-
         // Defines the email subject
         String subject = "Account verification";
         // Defines the email body with the OTP
         String text = "your account verification code is : " + otp;
 
-        helper.setSubject(subject);     // Sets the email subject
-        helper.setText(text, true);     // Sets the email body, true indicates HTML support (though not used here)
-        helper.setTo(userEmail);        // Sets the recipient email address
-
-        try {
-            // Attempts to send the email using the injected JavaMailSender
-            javaMailSender.send(mimeMessage);
-        } catch (MailException e) {
-            // Catches any mail sending errors and throws a specific exception
-            throw new MailSendException("Failed to send email");
-        }
+        // Stores the email in the outbox; the dispatcher sends it once the caller's transaction commits
+        emailOutboxService.enqueue(userEmail, subject, text);
     }
 }
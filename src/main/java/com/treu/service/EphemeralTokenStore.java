@@ -0,0 +1,22 @@
+package com.treu.service;
+
+import java.time.Duration;        // Time a stored value stays valid
+
+// Store for short-lived codes and sessions (2FA logins, verification and password reset OTPs).
+// The in-process implementation suits a single node; a shared implementation (e.g. Redis) can replace it
+// for multi-node deployments by registering under another auth.token-store.type
+public interface EphemeralTokenStore {
+
+    // Stores a value under a key until the TTL elapses, replacing any previous value and its failed attempts
+    void put(String key, Object value, Duration ttl);
+
+    // Returns the value stored under a key, or null if there is none, it has expired or is of another type
+    <T> T get(String key, Class<T> type);
+
+    // Removes the value stored under a key
+    void remove(String key);
+
+    // Compares a submitted code with the expected one in constant time. Failures are counted against the key,
+    // and the key is removed once the maximum number of attempts is reached, so the code must be re-issued
+    boolean verifyCode(String key, String expected, String submitted);
+}
@@ -6,23 +6,36 @@ import com.treu.domain.VerificationType;
 import com.treu.model.ForgotPasswordToken;
 // Entity class representing a user
 import com.treu.model.User;
-// Repository interface for forgot password token data access
-import com.treu.repository.ForgotPasswordRepository;
-// Spring annotation for dependency injection
-import org.springframework.beans.factory.annotation.Autowired;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;        // Wrapper for handling nullable values
+import java.time.Duration;        // Lifetime of a reset token
 
 // Marks this class as a Spring service bean
 @Service
 public class ForgotPasswordServiceImpl implements ForgotPasswordService {
-    // Repository for performing CRUD operations on ForgotPasswordToken entities
-    @Autowired
-    private ForgotPasswordRepository forgotPasswordRepository;
 
-    // Creates and saves a new forgot password token for a user
+    // Key prefix of reset tokens by ID
+    private static final String TOKEN_KEY = "reset:token:";
+
+    // Key prefix of the current token ID by user ID
+    private static final String USER_KEY = "reset:user:";
+
+    // Store holding pending password resets
+    private final EphemeralTokenStore tokenStore;
+
+    // Time a reset OTP stays valid
+    @Value("${auth.forgot-password.otp-ttl-ms:600000}")
+    private long ttlMillis = 600000;
+
+    // Constructor injection for the token store
+    public ForgotPasswordServiceImpl(EphemeralTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    // Creates a forgot password token for a user, replacing the user's previous one
     @Override
     public ForgotPasswordToken createToken(User user,
                                            String id,
@@ -36,34 +49,43 @@ public class ForgotPasswordServiceImpl implements ForgotPasswordService {
         forgotPasswordToken.setVerificationType(verificationType); // Sets the verification method
         forgotPasswordToken.setSendTo(sendTo);      // Sets the destination (e.g., email or phone)
 
-        // Saves and returns the token to the database
-        return forgotPasswordRepository.save(forgotPasswordToken);
+        // Invalidates the previous token so only the latest OTP works
+        String previousId = tokenStore.get(USER_KEY + user.getId(), String.class);
+        if (previousId != null) {
+            tokenStore.remove(TOKEN_KEY + previousId);
+        }
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        tokenStore.put(TOKEN_KEY + id, forgotPasswordToken, ttl);
+        tokenStore.put(USER_KEY + user.getId(), id, ttl);
+        return forgotPasswordToken;
     }
 
     // Finds a forgot password token by its ID
     @Override
     public ForgotPasswordToken findById(String id) {
-        // Queries the repository for the token, returns an Optional
-        Optional<ForgotPasswordToken> opt = forgotPasswordRepository.findById(id);
-        return opt.orElse(null);                    // Returns the token or null if not found
+        return tokenStore.get(TOKEN_KEY + id, ForgotPasswordToken.class); // Returns null if missing or expired
     }
 
-    // Finds a forgot password token by the associated user's ID
+    // Finds the pending forgot password token of a user
     @Override
     public ForgotPasswordToken findByUser(Long userId) {
-        // Queries the repository for the token linked to the user ID
-        return forgotPasswordRepository.findByUserId(userId);
+        String id = tokenStore.get(USER_KEY + userId, String.class);
+        return id != null ? findById(id) : null;    // Returns null if the user has no live token
     }
 
-    // Deletes a forgot password token from the database
+    // Deletes a forgot password token
     @Override
     public void deleteToken(ForgotPasswordToken token) {
-        forgotPasswordRepository.delete(token);     // Removes the specified token
+        tokenStore.remove(TOKEN_KEY + token.getId());
+        tokenStore.remove(USER_KEY + token.getUser().getId());
     }
 
-    // Verifies if the provided OTP matches the token's OTP
+    // Verifies the provided OTP in constant time, counting failed attempts against the token
     @Override
     public boolean verifyToken(ForgotPasswordToken token, String otp) {
-        return token.getOtp().equals(otp);          // Returns true if OTPs match, false otherwise
+        if (token == null) {
+            return false;                           // Unknown or expired token
+        }
+        return tokenStore.verifyCode(TOKEN_KEY + token.getId(), token.getOtp(), otp);
     }
 }
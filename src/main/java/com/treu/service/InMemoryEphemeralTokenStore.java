@@ -0,0 +1,162 @@
+package com.treu.service;
+
+// Utility class holding the constant-time OTP comparison
+import com.treu.utils.OtpUtils;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Registers this store unless another implementation is selected
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+// Spring annotation for periodically running a method
+import org.springframework.scheduling.annotation.Scheduled;
+// Spring annotation to mark this class as a component
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;                              // Time a stored value stays valid
+import java.util.Iterator;                              // Iterator over the keys of a wheel slot
+import java.util.concurrent.ConcurrentHashMap;          // Thread-safe map for the stored values
+import java.util.concurrent.ConcurrentLinkedQueue;      // Lock-free queue for the keys of a wheel slot
+import java.util.concurrent.atomic.AtomicInteger;       // Failed attempt counter
+
+// In-process EphemeralTokenStore. Expiry uses a hashed time wheel: every value is queued in the slot of the
+// tick it expires at, and each tick only visits its own slot instead of scanning the whole map.
+// Reads also check the deadline, so a value is never served late even if a tick runs behind
+@Component
+@ConditionalOnProperty(name = "auth.token-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryEphemeralTokenStore implements EphemeralTokenStore {
+
+    // Stored value with its deadline and failed attempts
+    private static final class Entry {
+        final Object value;                                    // Stored code or session
+        final long expiresAtMillis;                            // Store time plus TTL
+        final AtomicInteger failedAttempts = new AtomicInteger(); // Wrong codes submitted so far
+
+        Entry(Object value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // Key queued in a wheel slot, together with the entry it was queued for
+    private static final class Timer {
+        final String key;      // Key of the entry
+        final Entry entry;     // Entry the timer belongs to; stale once the key holds another entry
+
+        Timer(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    // Stored values by key
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Wheel slots; slot i holds the timers of the ticks congruent to i
+    private final ConcurrentLinkedQueue<Timer>[] wheel;
+
+    // Length of one tick in milliseconds
+    private final long tickMillis;
+
+    // Failed attempts after which a code is discarded
+    private final int maxAttempts;
+
+    // Last tick the wheel has processed
+    private long lastTick;
+
+    // Creates a store with the given tick length, number of slots and attempt limit
+    @SuppressWarnings("unchecked")
+    public InMemoryEphemeralTokenStore(@Value("${auth.token-store.tick-ms:1000}") long tickMillis,
+                                       @Value("${auth.token-store.wheel-size:512}") int wheelSize,
+                                       @Value("${auth.token-store.max-attempts:5}") int maxAttempts) {
+        this.tickMillis = tickMillis;
+        this.maxAttempts = maxAttempts;
+        this.wheel = new ConcurrentLinkedQueue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    // Stores a value and queues its timer in the slot of the first tick at or after its deadline
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        Entry entry = new Entry(value, System.currentTimeMillis() + ttl.toMillis());
+        entries.put(key, entry);
+        long tick = (entry.expiresAtMillis + tickMillis - 1) / tickMillis;
+        wheel[(int) (tick % wheel.length)].add(new Timer(key, entry));
+    }
+
+    // Returns the live value of the requested type, dropping it if it has expired
+    @Override
+    public <T> T get(String key, Class<T> type) {
+        Entry entry = live(key, System.currentTimeMillis());
+        return entry != null && type.isInstance(entry.value) ? type.cast(entry.value) : null;
+    }
+
+    // Removes a value; its timer is dropped when its slot comes round
+    @Override
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    // Checks a code, counting a failure against the entry and discarding it on the last allowed failure
+    @Override
+    public boolean verifyCode(String key, String expected, String submitted) {
+        Entry entry = live(key, System.currentTimeMillis());
+        if (entry == null) {
+            return false;
+        }
+        if (OtpUtils.matches(expected, submitted)) {
+            return true;
+        }
+        if (entry.failedAttempts.incrementAndGet() >= maxAttempts) {
+            entries.remove(key, entry);
+        }
+        return false;
+    }
+
+    // Number of stored values, including expired ones not yet collected
+    public int size() {
+        return entries.size();
+    }
+
+    // Advances the wheel once per tick
+    @Scheduled(fixedRateString = "${auth.token-store.tick-ms:1000}")
+    public void expire() {
+        advance(System.currentTimeMillis());
+    }
+
+    // Processes the slots of every tick since the last run, at most one full turn of the wheel
+    synchronized void advance(long now) {
+        long currentTick = now / tickMillis;
+        long ticks = Math.min(currentTick - lastTick, wheel.length);
+        for (long t = currentTick - ticks + 1; t <= currentTick; t++) {
+            expireSlot(wheel[(int) (t % wheel.length)], now);
+        }
+        lastTick = currentTick;
+    }
+
+    // Removes expired entries of a slot and drops timers whose key was replaced or removed;
+    // timers for later turns of the wheel stay queued
+    private void expireSlot(ConcurrentLinkedQueue<Timer> slot, long now) {
+        Iterator<Timer> timers = slot.iterator();
+        while (timers.hasNext()) {
+            Timer timer = timers.next();
+            if (entries.get(timer.key) != timer.entry) {
+                timers.remove();
+            } else if (timer.entry.expiresAtMillis <= now) {
+                entries.remove(timer.key, timer.entry);
+                timers.remove();
+            }
+        }
+    }
+
+    // Returns the entry of a key if it has not expired
+    private Entry live(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAtMillis <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,14 @@
+package com.treu.service;
+
+// Response class describing a reconciliation run
+import com.treu.response.ReconciliationReport;
+
+// Defines a service interface for checking wallet balances against the ledger and orders
+public interface LedgerReconciliationService {
+
+    // Starts a run in the background; with resume=true an interrupted run continues after its checkpoint
+    ReconciliationReport startRun(boolean resume);
+
+    // Returns the progress and first mismatches of the current or last run, null if none ever ran
+    ReconciliationReport getLatestReport();
+}
@@ -0,0 +1,347 @@
+package com.treu.service;
+
+// Custom enum for order types (BUY debits the wallet, SELL credits it)
+import com.treu.domain.OrderType;
+// Custom enum for the kind of discrepancy found
+import com.treu.domain.ReconciliationMismatchType;
+// Entity class representing a reconciliation job checkpoint
+import com.treu.model.ReconciliationCheckpoint;
+// Entity class representing a reconciliation mismatch
+import com.treu.model.ReconciliationMismatch;
+// Repository interfaces used by the job
+import com.treu.repository.OrderRepository;
+import com.treu.repository.ReconciliationCheckpointRepository;
+import com.treu.repository.ReconciliationMismatchRepository;
+import com.treu.repository.WalletRepository;
+import com.treu.repository.WalletTransactionRepository;
+// Response class describing a reconciliation run
+import com.treu.response.ReconciliationReport;
+// Primitive-keyed aggregate used instead of boxed maps
+import com.treu.utils.LongAggregateMap;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring Data pagination request
+import org.springframework.data.domain.PageRequest;
+// Spring annotation for cron-triggered methods
+import org.springframework.scheduling.annotation.Scheduled;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Spring abstraction over the JPA transaction manager
+import org.springframework.transaction.PlatformTransactionManager;
+// Programmatic transaction helper, one read-only transaction per partition
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;      // High-precision decimal class for financial values
+import java.time.LocalDateTime;   // Date and time class for run timestamps
+import java.util.ArrayList;       // Resizable array implementation of List
+import java.util.List;            // Interface for ordered collections
+import java.util.UUID;            // Random run identifiers
+import java.util.concurrent.ForkJoinPool;          // Dedicated pool for the partitions
+import java.util.concurrent.atomic.AtomicBoolean;  // Guards against overlapping runs
+import java.util.concurrent.locks.ReentrantLock;   // Serialises checkpoint updates without pinning virtual threads
+import java.util.stream.IntStream; // Stream of partition indexes
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class LedgerReconciliationServiceImpl implements LedgerReconciliationService {
+
+    // Name of the checkpoint row owned by this job
+    static final String JOB_NAME = "ledger-reconciliation";
+
+    // Number of mismatches returned inline with a report
+    private static final int REPORT_LIMIT = 100;
+
+    // Repositories read and written by the job
+    private final WalletRepository walletRepository;
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final OrderRepository orderRepository;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final ReconciliationMismatchRepository mismatchRepository;
+
+    // Read-only transaction per partition so balances and ledger sums come from one consistent view
+    private final TransactionTemplate readOnlyTransaction;
+
+    // True while a run is in progress on this instance
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Number of wallet ids handled by one partition
+    @Value("${ledger.reconciliation.partition-size:10000}")
+    private long partitionSize = 10000;
+
+    // Number of partitions processed concurrently
+    @Value("${ledger.reconciliation.parallelism:4}")
+    private int parallelism = 4;
+
+    // Constructor injection for repositories and the transaction manager
+    public LedgerReconciliationServiceImpl(WalletRepository walletRepository,
+                                           WalletTransactionRepository walletTransactionRepository,
+                                           OrderRepository orderRepository,
+                                           ReconciliationCheckpointRepository checkpointRepository,
+                                           ReconciliationMismatchRepository mismatchRepository,
+                                           PlatformTransactionManager transactionManager) {
+        this.walletRepository = walletRepository;
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.orderRepository = orderRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.mismatchRepository = mismatchRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Nightly run after the balance snapshots; continues an interrupted run instead of starting over
+    @Scheduled(cron = "${ledger.reconciliation.cron:0 30 1 * * *}")
+    public void scheduledRun() {
+        if (!running.get()) {
+            startRun(true);
+        }
+    }
+
+    // Prepares the checkpoint and hands the partitions to a dedicated fork-join pool
+    @Override
+    public ReconciliationReport startRun(boolean resume) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("reconciliation is already running");
+        }
+        try {
+            ReconciliationCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+            if (resume && checkpoint != null && checkpoint.getFinishedAt() == null) {
+                // Partitions past the watermark may have written mismatches before the interruption
+                mismatchRepository.deleteByRunIdAndWalletIdGreaterThan(checkpoint.getRunId(), checkpoint.getWatermark());
+                log.info("resuming reconciliation run {} after wallet {}", checkpoint.getRunId(), checkpoint.getWatermark());
+            } else {
+                checkpoint = newCheckpoint();
+            }
+
+            ReconciliationReport report = toReport(checkpoint, true);
+            ReconciliationCheckpoint started = checkpoint;
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            pool.execute(() -> {
+                try {
+                    runPartitions(started);
+                } catch (RuntimeException e) {
+                    log.error("reconciliation run {} stopped at wallet {}", started.getRunId(), started.getWatermark(), e);
+                } finally {
+                    running.set(false);
+                    pool.shutdown();
+                }
+            });
+            return report;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    // Reads the checkpoint and the first mismatches of the last run
+    @Override
+    public ReconciliationReport getLatestReport() {
+        return checkpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> toReport(checkpoint, running.get() && checkpoint.getFinishedAt() == null))
+                .orElse(null);
+    }
+
+    // Starts a fresh run covering every wallet that exists now
+    private ReconciliationCheckpoint newCheckpoint() {
+        Long maxId = walletRepository.findMaxId();
+        ReconciliationCheckpoint checkpoint = new ReconciliationCheckpoint();
+        checkpoint.setJobName(JOB_NAME);
+        checkpoint.setRunId(UUID.randomUUID().toString());
+        checkpoint.setWatermark(0L);
+        checkpoint.setMaxWalletId(maxId == null ? 0L : maxId);
+        checkpoint.setStartedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getStartedAt());
+        return checkpointRepository.save(checkpoint);
+    }
+
+    // Processes every partition after the watermark in parallel, then closes the run
+    void runPartitions(ReconciliationCheckpoint checkpoint) {
+        long first = checkpoint.getWatermark() + 1;
+        long last = checkpoint.getMaxWalletId();
+        int partitions = first > last ? 0 : (int) ((last - first + partitionSize) / partitionSize);
+        PartitionTracker tracker = new PartitionTracker(checkpoint, partitions);
+
+        // The stream runs on the pool of the calling worker thread, bounded by 'parallelism'
+        IntStream.range(0, partitions).parallel().forEach(p -> {
+            long fromId = first + p * partitionSize;
+            long toId = Math.min(fromId + partitionSize - 1, last);
+            PartitionResult result = reconcilePartition(checkpoint.getRunId(), fromId, toId);
+            if (!result.mismatches.isEmpty()) {
+                mismatchRepository.saveAll(result.mismatches);
+            }
+            tracker.complete(p, toId, result);
+        });
+
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        log.info("reconciliation run {} checked {} wallets, {} mismatches",
+                checkpoint.getRunId(), checkpoint.getWalletsChecked(), checkpoint.getMismatchCount());
+    }
+
+    // Compares balances, ledger sums and order totals for one wallet id range
+    PartitionResult reconcilePartition(String runId, long fromId, long toId) {
+        return readOnlyTransaction.execute(status -> {
+            List<Object[]> wallets = walletRepository.findOwnersAndBalancesByIdRange(fromId, toId);
+            if (wallets.isEmpty()) {
+                return new PartitionResult(0, List.of());
+            }
+
+            // Ledger totals per wallet, all rows and order payment rows only
+            LongAggregateMap ledger = new LongAggregateMap(wallets.size());
+            for (Object[] row : walletTransactionRepository.aggregateByWalletIdRange(fromId, toId)) {
+                ledger.add((Long) row[0], decimal(row[1]), ((Number) row[2]).longValue());
+            }
+            LongAggregateMap orderPayments = new LongAggregateMap(wallets.size());
+            for (Object[] row : walletTransactionRepository.aggregateOrderPaymentsByWalletIdRange(fromId, toId)) {
+                orderPayments.add((Long) row[0], decimal(row[1]), ((Number) row[2]).longValue());
+            }
+
+            // Signed order totals per owner, exact and in the whole units the ledger books: buys debit the
+            // wallet, sells credit it
+            List<Long> userIds = new ArrayList<>(wallets.size());
+            for (Object[] row : wallets) {
+                if (row[1] != null) {
+                    userIds.add((Long) row[1]);
+                }
+            }
+            LongAggregateMap orders = new LongAggregateMap(userIds.size());
+            LongAggregateMap bookedOrders = new LongAggregateMap(userIds.size());
+            if (!userIds.isEmpty()) {
+                for (Object[] row : orderRepository.aggregateSettledOrdersByUserIds(userIds)) {
+                    boolean buy = row[1] == OrderType.BUY;
+                    long count = ((Number) row[3]).longValue();
+                    orders.add((Long) row[0], signed(buy, decimal(row[2])), count);
+                    bookedOrders.add((Long) row[0], signed(buy, decimal(row[4])), count);
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<ReconciliationMismatch> mismatches = new ArrayList<>();
+            for (Object[] row : wallets) {
+                long walletId = (Long) row[0];
+                Long userId = (Long) row[1];
+                BigDecimal balance = row[2] == null ? BigDecimal.ZERO : (BigDecimal) row[2];
+
+                // Order payments move the balance by the exact price but are booked in whole units, so the ledger
+                // explains the balance up to the orders' parts below one unit
+                BigDecimal expectedBalance = ledger.sum(walletId);
+                if (userId != null) {
+                    expectedBalance = expectedBalance.add(orders.sum(userId)).subtract(bookedOrders.sum(userId));
+                }
+                if (balance.compareTo(expectedBalance) != 0) {
+                    mismatches.add(mismatch(runId, walletId, userId, ReconciliationMismatchType.BALANCE,
+                            expectedBalance, balance, now));
+                }
+
+                if (userId != null) {
+                    BigDecimal expectedBooked = bookedOrders.sum(userId);
+                    BigDecimal booked = orderPayments.sum(walletId);
+                    if (orders.count(userId) != orderPayments.count(walletId) || expectedBooked.compareTo(booked) != 0) {
+                        mismatches.add(mismatch(runId, walletId, userId, ReconciliationMismatchType.ORDER_LEDGER,
+                                expectedBooked, booked, now));
+                    }
+                }
+            }
+            return new PartitionResult(wallets.size(), mismatches);
+        });
+    }
+
+    // Builds a mismatch row
+    private static ReconciliationMismatch mismatch(String runId, long walletId, Long userId,
+                                                   ReconciliationMismatchType type,
+                                                   BigDecimal expected, BigDecimal actual, LocalDateTime now) {
+        return new ReconciliationMismatch(null, runId, walletId, userId, type, expected, actual, now);
+    }
+
+    // Exact value of an aggregate column: sums of amounts come back as Long, sums of prices as BigDecimal
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    // Order total as it moves the wallet: negative for buys
+    private static BigDecimal signed(boolean buy, BigDecimal total) {
+        return buy ? total.negate() : total;
+    }
+
+    // Converts a checkpoint into a report with the first mismatches of its run
+    private ReconciliationReport toReport(ReconciliationCheckpoint checkpoint, boolean isRunning) {
+        ReconciliationReport report = new ReconciliationReport();
+        report.setRunId(checkpoint.getRunId());
+        report.setRunning(isRunning);
+        report.setWatermark(checkpoint.getWatermark());
+        report.setMaxWalletId(checkpoint.getMaxWalletId());
+        report.setWalletsChecked(checkpoint.getWalletsChecked());
+        report.setMismatchCount(checkpoint.getMismatchCount());
+        report.setStartedAt(checkpoint.getStartedAt());
+        report.setFinishedAt(checkpoint.getFinishedAt());
+        report.setMismatches(mismatchRepository.findByRunIdOrderByWalletId(
+                checkpoint.getRunId(), PageRequest.of(0, REPORT_LIMIT)));
+        return report;
+    }
+
+    // Outcome of one partition
+    static final class PartitionResult {
+        final int wallets;                               // Wallets found in the range
+        final List<ReconciliationMismatch> mismatches;   // Discrepancies found in the range
+
+        PartitionResult(int wallets, List<ReconciliationMismatch> mismatches) {
+            this.wallets = wallets;
+            this.mismatches = mismatches;
+        }
+    }
+
+    // Moves the checkpoint watermark over partitions that completed without gaps, so a resume never skips one
+    private final class PartitionTracker {
+        private final ReconciliationCheckpoint checkpoint;
+        private final boolean[] done;                    // Partitions that finished
+        private final long[] upperIds;                   // Last wallet id of each finished partition
+        private final int[] walletCounts;                // Wallets checked per finished partition
+        private final int[] mismatchCounts;              // Mismatches found per finished partition
+        private int next;                                // First partition not yet folded into the watermark
+        private final ReentrantLock lock = new ReentrantLock(); // Held across the checkpoint save
+
+        PartitionTracker(ReconciliationCheckpoint checkpoint, int partitions) {
+            this.checkpoint = checkpoint;
+            this.done = new boolean[partitions];
+            this.upperIds = new long[partitions];
+            this.walletCounts = new int[partitions];
+            this.mismatchCounts = new int[partitions];
+        }
+
+        // Records a finished partition and persists the checkpoint if the watermark moved
+        void complete(int partition, long upperId, PartitionResult result) {
+            lock.lock();
+            try {
+                completeLocked(partition, upperId, result);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Body of complete, run with the lock held
+        private void completeLocked(int partition, long upperId, PartitionResult result) {
+            done[partition] = true;
+            upperIds[partition] = upperId;
+            walletCounts[partition] = result.wallets;
+            mismatchCounts[partition] = result.mismatches.size();
+            boolean advanced = false;
+            while (next < done.length && done[next]) {
+                checkpoint.setWatermark(upperIds[next]);
+                checkpoint.setWalletsChecked(checkpoint.getWalletsChecked() + walletCounts[next]);
+                checkpoint.setMismatchCount(checkpoint.getMismatchCount() + mismatchCounts[next]);
+                next++;
+                advanced = true;
+            }
+            if (advanced) {
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+            }
+        }
+    }
+}
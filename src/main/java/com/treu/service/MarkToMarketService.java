@@ -0,0 +1,22 @@
+package com.treu.service;
+
+// Entity class representing a mark-to-market run
+import com.treu.model.MarkToMarketRun;
+// Entity class representing a user's equity in one run
+import com.treu.model.UserEquitySnapshot;
+
+import java.util.List;             // Interface for ordered collections
+
+// Defines a service interface for valuing every user's holdings at the latest prices
+public interface MarkToMarketService {
+
+    // Values all positions, writes one equity row per user and returns the finished run;
+    // throws IllegalStateException if a run is already in progress
+    MarkToMarketRun runNow();
+
+    // Returns the latest finished run, or null if none has finished
+    MarkToMarketRun getLatestRun();
+
+    // Returns a page of the latest run's equity rows, largest first
+    List<UserEquitySnapshot> getLatestEquity(int page, int size);
+}
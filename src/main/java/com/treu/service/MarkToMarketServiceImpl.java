@@ -0,0 +1,394 @@
+package com.treu.service;
+
+// Immutable quote stored in the price snapshot
+import com.treu.model.CoinQuote;
+// Entity class representing a mark-to-market run
+import com.treu.model.MarkToMarketRun;
+// Entity class representing a user's equity in one run
+import com.treu.model.UserEquitySnapshot;
+// Repository interface for asset data access
+import com.treu.repository.AssetsRepository;
+// Repository interface for run data access
+import com.treu.repository.MarkToMarketRunRepository;
+// Repository interface for equity snapshot data access
+import com.treu.repository.UserEquitySnapshotRepository;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring Data pagination request
+import org.springframework.data.domain.PageRequest;
+// Spring JDBC helpers for the batched snapshot insert
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+// Spring annotation for cron-triggered methods
+import org.springframework.scheduling.annotation.Scheduled;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Spring abstraction over the JPA transaction manager
+import org.springframework.transaction.PlatformTransactionManager;
+// Programmatic transaction helper for the cursor and each chunk write
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;          // JDBC statement filled by the batch setter
+import java.sql.SQLException;               // Checked exception of the batch setter
+import java.time.LocalDateTime;             // Date and time class for run timestamps
+import java.util.ArrayList;                 // Resizable array implementation of List
+import java.util.Arrays;                    // Array growth helpers
+import java.util.Collections;               // Empty list for runs without rows
+import java.util.HashMap;                   // Hash table implementation of Map
+import java.util.List;                      // Interface for ordered collections
+import java.util.Map;                       // Interface for key-value mappings
+import java.util.concurrent.CompletableFuture; // Handle of a chunk submitted to the pool
+import java.util.concurrent.CompletionException; // Wrapper of a failed chunk's exception
+import java.util.concurrent.ForkJoinPool;   // Dedicated pool so the job never occupies the common pool
+import java.util.concurrent.Semaphore;      // Bounds the chunks buffered ahead of the workers
+import java.util.concurrent.atomic.AtomicBoolean; // Guards against overlapping runs
+import java.util.concurrent.atomic.AtomicReference; // First chunk failure, stopping the cursor
+import java.util.concurrent.atomic.DoubleAdder;   // Contention-free totals across workers
+import java.util.concurrent.atomic.LongAdder;     // Contention-free counters across workers
+import java.util.stream.Stream;             // Cursor over the asset rows
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class MarkToMarketServiceImpl implements MarkToMarketService {
+
+    // Insert of one equity row; batched, and rewritten into multi-row inserts by rewriteBatchedStatements
+    private static final String INSERT_EQUITY = "insert into user_equity_snapshots "
+            + "(run_id, user_id, market_value, cost_basis, position_count) values (?, ?, ?, ?, ?)";
+
+    // Repository streaming every asset row
+    private final AssetsRepository assetsRepository;
+
+    // Repository for reading and writing runs
+    private final MarkToMarketRunRepository runRepository;
+
+    // Repository for reading and pruning equity rows
+    private final UserEquitySnapshotRepository equityRepository;
+
+    // Latest prices, preferred over the price stored with the coin row
+    private final PriceSnapshotService priceSnapshotService;
+
+    // Plain JDBC for the bulk insert; JPA cannot batch inserts of IDENTITY entities
+    private final JdbcTemplate jdbcTemplate;
+
+    // Read-only transaction holding the cursor open
+    private final TransactionTemplate readTemplate;
+
+    // One transaction per chunk write
+    private final TransactionTemplate writeTemplate;
+
+    // Minimum number of asset rows per chunk; a chunk is only cut between users
+    @Value("${mark-to-market.chunk-size:20000}")
+    private int chunkSize = 20000;
+
+    // Number of chunks valued and written concurrently
+    @Value("${mark-to-market.parallelism:4}")
+    private int parallelism = 4;
+
+    // Days of equity rows kept; older runs are pruned after each run
+    @Value("${mark-to-market.retention-days:30}")
+    private int retentionDays = 30;
+
+    // Set while a run is in progress
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Constructor injection for repositories, prices, JDBC and the transaction manager
+    public MarkToMarketServiceImpl(AssetsRepository assetsRepository,
+                                   MarkToMarketRunRepository runRepository,
+                                   UserEquitySnapshotRepository equityRepository,
+                                   PriceSnapshotService priceSnapshotService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager) {
+        this.assetsRepository = assetsRepository;
+        this.runRepository = runRepository;
+        this.equityRepository = equityRepository;
+        this.priceSnapshotService = priceSnapshotService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Values all holdings at the top of every hour
+    @Scheduled(cron = "${mark-to-market.cron:0 0 * * * *}")
+    public void scheduledRun() {
+        try {
+            runNow();
+        } catch (IllegalStateException e) {
+            log.warn("mark-to-market skipped: {}", e.getMessage());
+        }
+    }
+
+    // Runs the job unless another run is in progress
+    @Override
+    public MarkToMarketRun runNow() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("a mark-to-market run is already in progress");
+        }
+        try {
+            return run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Returns the latest finished run
+    @Override
+    public MarkToMarketRun getLatestRun() {
+        return runRepository.findTopByFinishedAtIsNotNullOrderByIdDesc().orElse(null);
+    }
+
+    // Returns a page of the latest finished run's rows
+    @Override
+    public List<UserEquitySnapshot> getLatestEquity(int page, int size) {
+        MarkToMarketRun run = getLatestRun();
+        if (run == null) {
+            return Collections.emptyList();
+        }
+        return equityRepository.findByRunIdOrderByMarketValueDesc(run.getId(), PageRequest.of(page, size));
+    }
+
+    // Streams the asset rows on this thread, cutting them into chunks that the pool values and writes
+    private MarkToMarketRun run() {
+        long started = System.currentTimeMillis();
+        MarkToMarketRun run = new MarkToMarketRun();
+        run.setStartedAt(LocalDateTime.now());
+        run.setPriceVersion(priceSnapshotService.getVersion());
+        run = runRepository.save(run);
+        Long runId = run.getId();
+
+        // One consistent price set for the whole run, read without contention by every worker
+        Map<String, Double> prices = new HashMap<>();
+        for (CoinQuote quote : priceSnapshotService.getQuotes()) {
+            prices.put(quote.getId(), quote.getPrice());
+        }
+
+        Totals totals = new Totals();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // Two chunks per worker keep the workers busy while bounding memory to a few chunks
+        Semaphore permits = new Semaphore(parallelism * 2);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        AtomicReference<Throwable> chunkFailure = new AtomicReference<>();
+        try {
+            readTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = assetsRepository.streamAllPositions()) {
+                    Chunk[] current = {new Chunk(chunkSize)};
+                    rows.forEach(row -> {
+                        if (chunkFailure.get() != null) {
+                            throw new IllegalStateException("stopped by a failed chunk");
+                        }
+                        long userId = ((Number) row[0]).longValue();
+                        if (current[0].size >= chunkSize && userId != current[0].lastUserId()) {
+                            pending.add(submit(pool, permits, current[0], runId, prices, totals, chunkFailure));
+                            current[0] = new Chunk(chunkSize);
+                        }
+                        current[0].add(userId, (String) row[1], ((Number) row[2]).doubleValue(),
+                                ((Number) row[3]).doubleValue(), ((Number) row[4]).doubleValue());
+                    });
+                    if (current[0].size > 0) {
+                        pending.add(submit(pool, permits, current[0], runId, prices, totals, chunkFailure));
+                    }
+                }
+            });
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        } catch (RuntimeException e) {
+            fail(run, started, pending, chunkFailure.get() != null ? chunkFailure.get() : e);
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+
+        run.setUserCount(totals.users.sum());
+        run.setPositionCount(totals.positions.sum());
+        run.setTotalMarketValue(totals.marketValue.sum());
+        run.setTotalCostBasis(totals.costBasis.sum());
+        run.setDurationMs(System.currentTimeMillis() - started);
+        run.setFinishedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+        log.info("mark-to-market run {} valued {} positions of {} users (AUM {}) in {} ms", runId,
+                run.getPositionCount(), run.getUserCount(), run.getTotalMarketValue(), run.getDurationMs());
+
+        prune();
+        return run;
+    }
+
+    // Hands a chunk to the pool once a permit frees up, so the cursor never runs far ahead of the writers;
+    // the first failed chunk is recorded so the cursor stops cutting new ones
+    private CompletableFuture<Void> submit(ForkJoinPool pool, Semaphore permits, Chunk chunk, Long runId,
+                                           Map<String, Double> prices, Totals totals,
+                                           AtomicReference<Throwable> chunkFailure) {
+        permits.acquireUninterruptibly();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                EquityRows equity = aggregate(chunk, prices);
+                write(runId, equity);
+                totals.add(chunk, equity);
+            } catch (RuntimeException e) {
+                chunkFailure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                permits.release();
+            }
+        }, pool);
+    }
+
+    // Closes a run that stopped part way: waits for the chunks still in flight, deletes the rows the
+    // committed chunks wrote and records the failure, so the run is never read as finished or half written
+    private void fail(MarkToMarketRun run, long started, List<CompletableFuture<Void>> pending, Throwable cause) {
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(t -> null).join();
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        int deleted = equityRepository.deleteByRunId(run.getId());
+        String failure = String.valueOf(cause);
+        run.setFailure(failure.length() > 255 ? failure.substring(0, 255) : failure);
+        run.setDurationMs(System.currentTimeMillis() - started);
+        runRepository.save(run);
+        log.error("mark-to-market run {} failed, {} partial equity rows deleted", run.getId(), deleted, cause);
+    }
+
+    // Folds a chunk's rows into one equity row per user; rows of a user are contiguous in the chunk
+    static EquityRows aggregate(Chunk chunk, Map<String, Double> prices) {
+        EquityRows equity = new EquityRows(Math.max(16, chunk.size / 4));
+        for (int i = 0; i < chunk.size; i++) {
+            Double price = prices.get(chunk.coinIds[i]);
+            double value = chunk.quantities[i] * (price != null ? price : chunk.fallbackPrices[i]);
+            double cost = chunk.quantities[i] * chunk.buyPrices[i];
+            if (i == 0 || chunk.userIds[i] != chunk.userIds[i - 1]) {
+                equity.open(chunk.userIds[i]);
+            }
+            equity.accumulate(value, cost);
+        }
+        return equity;
+    }
+
+    // Inserts a chunk's equity rows in one batch and one transaction
+    private void write(Long runId, EquityRows equity) {
+        writeTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_EQUITY,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, runId);
+                        ps.setLong(2, equity.userIds[i]);
+                        ps.setDouble(3, equity.marketValues[i]);
+                        ps.setDouble(4, equity.costBases[i]);
+                        ps.setInt(5, equity.positionCounts[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return equity.size;
+                    }
+                }));
+    }
+
+    // Deletes equity rows of runs older than the retention window
+    private void prune() {
+        runRepository.findTopByStartedAtBeforeOrderByIdDesc(LocalDateTime.now().minusDays(retentionDays))
+                .ifPresent(oldest -> {
+                    int deleted = equityRepository.deleteByRunIdLessThanEqual(oldest.getId());
+                    log.info("mark-to-market pruned {} equity rows of runs up to {}", deleted, oldest.getId());
+                });
+    }
+
+    // Asset rows of consecutive users held in parallel primitive arrays
+    static final class Chunk {
+        long[] userIds;           // Owner per row
+        String[] coinIds;         // Coin per row
+        double[] quantities;      // Quantity per row
+        double[] buyPrices;       // Average buy price per row
+        double[] fallbackPrices;  // Coin row price, used for coins missing from the snapshot
+        int size;                 // Number of rows in use
+
+        Chunk(int capacity) {
+            userIds = new long[capacity];
+            coinIds = new String[capacity];
+            quantities = new double[capacity];
+            buyPrices = new double[capacity];
+            fallbackPrices = new double[capacity];
+        }
+
+        // Appends a row, growing the arrays when a user's rows run past the capacity
+        void add(long userId, String coinId, double quantity, double buyPrice, double fallbackPrice) {
+            if (size == userIds.length) {
+                int capacity = Math.max(16, size * 2);
+                userIds = Arrays.copyOf(userIds, capacity);
+                coinIds = Arrays.copyOf(coinIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                buyPrices = Arrays.copyOf(buyPrices, capacity);
+                fallbackPrices = Arrays.copyOf(fallbackPrices, capacity);
+            }
+            userIds[size] = userId;
+            coinIds[size] = coinId;
+            quantities[size] = quantity;
+            buyPrices[size] = buyPrice;
+            fallbackPrices[size] = fallbackPrice;
+            size++;
+        }
+
+        // Owner of the last row, or Long.MIN_VALUE for an empty chunk
+        long lastUserId() {
+            return size == 0 ? Long.MIN_VALUE : userIds[size - 1];
+        }
+    }
+
+    // One chunk's per-user results in parallel primitive arrays
+    static final class EquityRows {
+        long[] userIds;           // User per row
+        double[] marketValues;    // Market value per user
+        double[] costBases;       // Cost basis per user
+        int[] positionCounts;     // Positions per user
+        int size;                 // Number of users in use
+
+        EquityRows(int capacity) {
+            userIds = new long[capacity];
+            marketValues = new double[capacity];
+            costBases = new double[capacity];
+            positionCounts = new int[capacity];
+        }
+
+        // Starts the row of the next user
+        void open(long userId) {
+            if (size == userIds.length) {
+                int capacity = size * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                marketValues = Arrays.copyOf(marketValues, capacity);
+                costBases = Arrays.copyOf(costBases, capacity);
+                positionCounts = Arrays.copyOf(positionCounts, capacity);
+            }
+            userIds[size++] = userId;
+        }
+
+        // Adds a position to the current user's row
+        void accumulate(double value, double cost) {
+            marketValues[size - 1] += value;
+            costBases[size - 1] += cost;
+            positionCounts[size - 1]++;
+        }
+    }
+
+    // Run-wide totals summed by the workers
+    private static final class Totals {
+        final LongAdder users = new LongAdder();          // Users valued
+        final LongAdder positions = new LongAdder();      // Asset rows valued
+        final DoubleAdder marketValue = new DoubleAdder(); // Sum of market values
+        final DoubleAdder costBasis = new DoubleAdder();   // Sum of cost bases
+
+        // Adds a written chunk
+        void add(Chunk chunk, EquityRows equity) {
+            double chunkValue = 0;
+            double chunkCost = 0;
+            for (int i = 0; i < equity.size; i++) {
+                chunkValue += equity.marketValues[i];
+                chunkCost += equity.costBases[i];
+            }
+            users.add(equity.size);
+            positions.add(chunk.size);
+            marketValue.add(chunkValue);
+            costBasis.add(chunkCost);
+        }
+    }
+}
@@ -18,6 +18,9 @@ import java.util.stream.Collectors;
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    // A position left worth at most this much after a sell is deleted as dust
+    static final double DUST_VALUE = 1;
+
     // Repository for order data access, injected via constructor
     private final OrderRepository orderRepository;
 
@@ -32,6 +35,14 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    // Live portfolio valuation, told about every position change, injected via @Autowired
+    @Autowired
+    private PortfolioService portfolioService;
+
+    // Tax-lot tracking for the cost basis and realised P&L of sells, injected via @Autowired
+    @Autowired
+    private CostBasisService costBasisService;
+
     // Constructor injection for OrderRepository and AssetService
     @Autowired
     public OrderServiceImpl(OrderRepository orderRepository, AssetService assetService) {
@@ -104,7 +115,6 @@ public class OrderServiceImpl implements OrderService {
         OrderItem orderItem = new OrderItem();
         orderItem.setCoin(coin);
         orderItem.setQuantity(quantity);
-        orderItem.setBuyPrice(coin.getCurrentPrice()); // Overwritten immediately below
         orderItem.setBuyPrice(buyPrice);               // Sets the buy price
         orderItem.setSellPrice(sellPrice);             // Sets the sell price
         // Saves and returns the order item
@@ -127,13 +137,18 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(OrderStatus.SUCCESS);
         order.setOrderType(OrderType.BUY); // Redundant; already set in createOrder
         Order savedOrder = orderRepository.save(order);
+        // Opens a tax lot for the fill
+        costBasisService.recordBuy(user.getId(), coin.getId(), order.getId(), quantity, buyPrice);
         // Manages the user's asset
         Asset oldAsset = assetService.findAssetByUserIdAndCoinId(order.getUser().getId(), order.getOrderItem().getCoin().getId());
+        Asset asset;
         if (oldAsset == null) {
-            assetService.createAsset(user, orderItem.getCoin(), orderItem.getQuantity());
+            asset = assetService.createAsset(user, orderItem.getCoin(), orderItem.getQuantity());
         } else {
-            assetService.updateAsset(oldAsset.getId(), quantity);
+            asset = assetService.addToAsset(oldAsset.getId(), quantity, buyPrice);
         }
+        // Updates the live portfolio with the position's new quantity and cost
+        portfolioService.onPositionChanged(user.getId(), coin.getId(), asset.getQuantity(), asset.getBuyPrice(), buyPrice);
         return savedOrder;
     }
 
@@ -151,11 +166,23 @@ public class OrderServiceImpl implements OrderService {
             // Verifies sufficient quantity to sell
             if (assetToSell.getQuantity() >= quantity) {
                 walletService.payOrderPayment(order, user); // Likely credits the wallet
+                // Matches the fill against the position's lots; the managed item is flushed with the order
+                if (quantity > 0) {
+                    double cost = costBasisService.recordSell(user.getId(), coin.getId(), order.getId(),
+                            quantity, assetToSell.getBuyPrice());
+                    orderItem.setBuyPrice(cost / quantity);
+                    orderItem.setRealizedPnl(quantity * sellPrice - cost);
+                }
                 Asset updatedAsset = assetService.updateAsset(assetToSell.getId(), -quantity);
                 // Deletes the asset if its value becomes negligible
-                if (updatedAsset.getQuantity() * coin.getCurrentPrice() <= 1) {
+                boolean dust = updatedAsset.getQuantity() * coin.getCurrentPrice() <= DUST_VALUE;
+                if (dust) {
                     assetService.deleteAsset(updatedAsset.getId());
+                    costBasisService.closePosition(user.getId(), coin.getId());
                 }
+                // Updates the live portfolio; a deleted asset leaves no position
+                portfolioService.onPositionChanged(user.getId(), coin.getId(),
+                        dust ? 0 : updatedAsset.getQuantity(), updatedAsset.getBuyPrice(), sellPrice);
                 return savedOrder;
             } else {
                 orderRepository.delete(order);
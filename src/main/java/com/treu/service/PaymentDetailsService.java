@@ -14,6 +14,6 @@ public interface PaymentDetailsService {
                                             String bankName,
                                             User user);
 
-    // Retrieves the payment details associated with a specific user
-    public PaymentDetails getUsersPaymentDetails(User user);
+    // Retrieves the payment details associated with the user with the given ID
+    public PaymentDetails getUsersPaymentDetails(Long userId);
 }
@@ -38,8 +38,8 @@ public class PaymentDetailsServiceImpl implements PaymentDetailsService {
 
     // Retrieves payment details for a specific user by their ID
     @Override
-    public PaymentDetails getUsersPaymentDetails(User user) {
+    public PaymentDetails getUsersPaymentDetails(Long userId) {
         // Queries the repository using the user's ID to fetch payment details
-        return paymentDetailsRepository.getPaymentDetailsByUserId(user.getId());
+        return paymentDetailsRepository.getPaymentDetailsByUserId(userId);
     }
 }
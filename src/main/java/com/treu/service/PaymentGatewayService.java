@@ -0,0 +1,27 @@
+package com.treu.service;
+
+// Exception class for Razorpay payment processing errors
+import com.razorpay.RazorpayException;
+// Exception class for Stripe payment processing errors
+import com.stripe.exception.StripeException;
+// Parameters for creating Stripe checkout sessions
+import com.stripe.param.checkout.SessionCreateParams;
+// Custom enum for defining payment methods (e.g., RAZORPAY, STRIPE)
+import com.treu.domain.PaymentMethod;
+// Provider's view of a payment
+import com.treu.model.GatewayPayment;
+// JSON object for constructing Razorpay requests
+import org.json.JSONObject;
+
+// Defines a service interface for calls to the payment providers, made through shared clients with timeouts
+public interface PaymentGatewayService {
+
+    // Creates a Razorpay payment link and returns its short URL
+    String createRazorpayPaymentLink(JSONObject request) throws RazorpayException;
+
+    // Creates a Stripe checkout session and returns its URL
+    String createStripeCheckoutSession(SessionCreateParams params) throws StripeException;
+
+    // Looks up a payment at its provider: a Razorpay payment id, or a Stripe payment intent id
+    GatewayPayment fetchPayment(PaymentMethod provider, String paymentId) throws RazorpayException, StripeException;
+}
@@ -0,0 +1,262 @@
+package com.treu.service;
+
+// Razorpay payment object
+import com.razorpay.Payment;
+// Razorpay payment link object
+import com.razorpay.PaymentLink;
+// Razorpay client for API interactions
+import com.razorpay.RazorpayClient;
+// Exception for Razorpay-specific errors
+import com.razorpay.RazorpayException;
+// Exception for Stripe-specific errors
+import com.stripe.exception.StripeException;
+// Stripe payment intent object
+import com.stripe.model.PaymentIntent;
+// Stripe checkout session object
+import com.stripe.model.checkout.Session;
+// Per-request Stripe settings: API key, timeouts and retries
+import com.stripe.net.RequestOptions;
+// Parameters for creating Stripe checkout sessions
+import com.stripe.param.checkout.SessionCreateParams;
+// Custom enum for the state of a payment at its provider
+import com.treu.domain.GatewayPaymentStatus;
+// Custom enum for payment methods (e.g., RAZORPAY, STRIPE)
+import com.treu.domain.PaymentMethod;
+// Provider's view of a payment
+import com.treu.model.GatewayPayment;
+// Daemon thread factory naming the Razorpay call threads
+import com.treu.utils.NamedThreadFactory;
+// Micrometer registry and timer for the latency histograms
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+// Lifecycle callbacks for the shared clients
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// JSON object for constructing Razorpay requests
+import org.json.JSONObject;
+// Spring annotation for injecting property values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+
+import java.util.Map;                                  // Stripe metadata
+import java.util.concurrent.ArrayBlockingQueue;        // Bounded queue of waiting Razorpay calls
+import java.util.concurrent.Callable;                  // Razorpay call run under a deadline
+import java.util.concurrent.ExecutionException;        // Failure of a Razorpay call
+import java.util.concurrent.ExecutorService;           // Threads running Razorpay calls
+import java.util.concurrent.Future;                    // Pending Razorpay call
+import java.util.concurrent.RejectedExecutionException; // Razorpay call pool and queue full
+import java.util.concurrent.ThreadPoolExecutor;        // Bounded Razorpay call pool
+import java.util.concurrent.TimeUnit;                  // Units of deadlines and recorded latencies
+import java.util.concurrent.TimeoutException;          // Razorpay call past its deadline
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class PaymentGatewayServiceImpl implements PaymentGatewayService {
+
+    // Name of the latency histogram, tagged by provider, operation and outcome
+    static final String LATENCY_METRIC = "payment.provider.latency";
+
+    // Registry the latency histograms are published to
+    private final MeterRegistry meterRegistry;
+
+    // Stripe API secret key from application properties
+    @Value("${stripe.api.key}")
+    private String stripeSecretKey;
+
+    // Razorpay API key from application properties
+    @Value("${razorpay.api.key}")
+    private String razorpayKey;
+
+    // Razorpay API secret from application properties
+    @Value("${razorpay.api.secret}")
+    private String razorpaySecret;
+
+    // Time allowed to open a connection to a provider
+    @Value("${payment.gateway.connect-timeout-ms:5000}")
+    private int connectTimeoutMillis = 5000;
+
+    // Time allowed for a provider to answer
+    @Value("${payment.gateway.read-timeout-ms:15000}")
+    private int readTimeoutMillis = 15000;
+
+    // Retries of Stripe requests failing on the network; Stripe makes them safe with idempotency keys
+    @Value("${payment.gateway.stripe.max-network-retries:2}")
+    private int stripeMaxNetworkRetries = 2;
+
+    // Razorpay calls in flight at once
+    @Value("${payment.gateway.razorpay.max-concurrency:8}")
+    private int razorpayMaxConcurrency = 8;
+
+    // Razorpay calls waiting for a thread; past it a call fails at once instead of queueing behind a slow provider
+    @Value("${payment.gateway.razorpay.queue-capacity:32}")
+    private int razorpayQueueCapacity = 32;
+
+    // Shared Razorpay client. The SDK keeps one static HTTP client whose 60 second timeouts cannot be
+    // configured, so each call runs on 'razorpayCalls' and is abandoned at the configured deadline
+    private RazorpayClient razorpay;
+
+    // Threads running Razorpay calls
+    private ExecutorService razorpayCalls;
+
+    // Stripe key and timeouts passed with every request, instead of the process-wide Stripe.apiKey
+    private RequestOptions stripeOptions;
+
+    // Constructor injection for the meter registry
+    public PaymentGatewayServiceImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Builds the shared clients once the configuration is injected
+    @PostConstruct
+    public void start() throws RazorpayException {
+        razorpay = new RazorpayClient(razorpayKey, razorpaySecret);
+        razorpayCalls = new ThreadPoolExecutor(razorpayMaxConcurrency, razorpayMaxConcurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(razorpayQueueCapacity), new NamedThreadFactory("razorpay-call"),
+                new ThreadPoolExecutor.AbortPolicy());
+        stripeOptions = RequestOptions.builder()
+                .setApiKey(stripeSecretKey)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setReadTimeout(readTimeoutMillis)
+                .setMaxNetworkRetries(stripeMaxNetworkRetries)
+                .build();
+    }
+
+    // Stops the Razorpay call threads
+    @PreDestroy
+    public void stop() {
+        razorpayCalls.shutdownNow();
+    }
+
+    // Creates a Razorpay payment link and returns its short URL
+    @Override
+    public String createRazorpayPaymentLink(JSONObject request) throws RazorpayException {
+        PaymentLink link = razorpay("create_payment_link", () -> razorpay.paymentLink.create(request));
+        return link.get("short_url");
+    }
+
+    // Creates a Stripe checkout session and returns its URL
+    @Override
+    public String createStripeCheckoutSession(SessionCreateParams params) throws StripeException {
+        return stripe("create_checkout_session", () -> Session.create(params, stripeOptions)).getUrl();
+    }
+
+    // Looks up a payment at its provider
+    @Override
+    public GatewayPayment fetchPayment(PaymentMethod provider, String paymentId) throws RazorpayException, StripeException {
+        if (provider == PaymentMethod.RAZORPAY) {
+            Payment payment = razorpay("fetch_payment", () -> razorpay.payments.fetch(paymentId));
+            JSONObject json = payment.toJson();
+            // Razorpay sends empty notes as an array, so only an object can name the order
+            JSONObject notes = json.optJSONObject("notes");
+            return new GatewayPayment(
+                    paymentId,
+                    razorpayStatus(json.optString("status")),
+                    json.optLong("amount"),
+                    notes != null ? parseOrderId(notes.optString("order_id", null)) : null);
+        }
+        PaymentIntent intent = stripe("fetch_payment", () -> PaymentIntent.retrieve(paymentId, stripeOptions));
+        Map<String, String> metadata = intent.getMetadata();
+        return new GatewayPayment(
+                paymentId,
+                stripeStatus(intent.getStatus()),
+                intent.getAmountReceived() != null ? intent.getAmountReceived() : 0,
+                metadata != null ? parseOrderId(metadata.get("order_id")) : null);
+    }
+
+    // Runs a Razorpay call on the call pool, waiting at most the connect and read timeouts for it
+    <T> T razorpay(String operation, Callable<T> call) throws RazorpayException {
+        long started = System.nanoTime();
+        String outcome = "error";
+        Future<T> future;
+        try {
+            future = razorpayCalls.submit(call);
+        } catch (RejectedExecutionException e) {
+            record("razorpay", operation, "rejected", System.nanoTime() - started);
+            throw new RazorpayException("razorpay " + operation + " rejected: " + razorpayMaxConcurrency
+                    + " calls in flight and " + razorpayQueueCapacity + " waiting");
+        }
+        try {
+            T result = future.get(connectTimeoutMillis + readTimeoutMillis, TimeUnit.MILLISECONDS);
+            outcome = "success";
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            outcome = "timeout";
+            throw new RazorpayException("razorpay " + operation + " timed out after "
+                    + (connectTimeoutMillis + readTimeoutMillis) + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RazorpayException cause) {
+                throw cause;
+            }
+            throw new RazorpayException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RazorpayException(e);
+        } finally {
+            record("razorpay", operation, outcome, System.nanoTime() - started);
+        }
+    }
+
+    // Runs a Stripe call, whose timeouts are set in 'stripeOptions'
+    private <T> T stripe(String operation, StripeCall<T> call) throws StripeException {
+        long started = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            record("stripe", operation, outcome, System.nanoTime() - started);
+        }
+    }
+
+    // Adds a call's latency to its histogram
+    private void record(String provider, String operation, String outcome, long nanos) {
+        Timer.builder(LATENCY_METRIC)
+                .description("Latency of payment provider API calls")
+                .tag("provider", provider)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Stripe SDK call
+    @FunctionalInterface
+    private interface StripeCall<T> {
+        T call() throws StripeException;
+    }
+
+    // State of a Razorpay payment: created and authorized payments may still be captured
+    private static GatewayPaymentStatus razorpayStatus(String status) {
+        return switch (status) {
+            case "captured" -> GatewayPaymentStatus.SETTLED;
+            case "failed", "refunded" -> GatewayPaymentStatus.FAILED;
+            default -> GatewayPaymentStatus.PENDING;
+        };
+    }
+
+    // State of a Stripe payment intent: anything short of succeeded or canceled may still complete
+    private static GatewayPaymentStatus stripeStatus(String status) {
+        if ("succeeded".equals(status)) {
+            return GatewayPaymentStatus.SETTLED;
+        }
+        return "canceled".equals(status) ? GatewayPaymentStatus.FAILED : GatewayPaymentStatus.PENDING;
+    }
+
+    // Order id of a reference, or null if it is not one of ours
+    private static Long parseOrderId(String reference) {
+        try {
+            return reference != null && !reference.isEmpty() ? Long.valueOf(reference) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -22,9 +22,6 @@ public interface PaymentService {
     // Retrieves a payment order by its ID, throws an exception if not found or operation fails
     PaymentOrder getPaymentOrderById(Long id) throws Exception;
 
-    // Processes a payment order using a payment ID, returns success status, throws RazorpayException on error
-    Boolean ProccedPaymentOrder(PaymentOrder paymentOrder, String paymentId) throws RazorpayException;
-
     // Creates a Razorpay payment link for a user, amount, and order ID, throws RazorpayException on error
     PaymentResponse createRazorpayPaymentLink(User user, Long Amount, Long orderId) throws RazorpayException;
 
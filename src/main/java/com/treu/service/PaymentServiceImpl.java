@@ -1,25 +1,13 @@
 package com.treu.service;
 
-// Razorpay payment object
-import com.razorpay.Payment;
-// Razorpay payment link object
-import com.razorpay.PaymentLink;
-// Razorpay client for API interactions
-import com.razorpay.RazorpayClient;
 // Exception for Razorpay-specific errors
 import com.razorpay.RazorpayException;
 // Exception for Stripe-specific errors
 import com.stripe.exception.StripeException;
-// Stripe API main class
-import com.stripe.Stripe;
-// Stripe checkout session object
-import com.stripe.model.checkout.Session;
 // Parameters for creating Stripe checkout sessions
 import com.stripe.param.checkout.SessionCreateParams;
 // Custom enum for payment methods (e.g., RAZORPAY, STRIPE)
 import com.treu.domain.PaymentMethod;
-// Custom enum for payment order statuses (e.g., PENDING, SUCCESS)
-import com.treu.domain.PaymentOrderStatus;
 // Entity class for payment orders
 import com.treu.model.PaymentOrder;
 // Entity class for users
@@ -32,8 +20,6 @@ import com.treu.response.PaymentResponse;
 import org.json.JSONObject;
 // Spring annotation for dependency injection
 import org.springframework.beans.factory.annotation.Autowired;
-// Spring annotation for injecting property values
-import org.springframework.beans.factory.annotation.Value;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
 
@@ -43,22 +29,14 @@ import java.util.Optional;        // Wrapper for handling nullable values
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
-    // Stripe API secret key from application properties
-    @Value("${stripe.api.key}")
-    private String stripeSecretKey;
-
-    // Razorpay API key from application properties
-    @Value("${razorpay.api.key}")
-    private String apiKey;
-
-    // Razorpay API secret from application properties
-    @Value("${razorpay.api.secret}")
-    private String apiSecret;
-
     // Repository for managing PaymentOrder entities
     @Autowired
     private PaymentOrderRepository paymentOrderRepository;
 
+    // Shared provider clients, with timeouts and latency histograms
+    @Autowired
+    private PaymentGatewayService paymentGatewayService;
+
     // Creates a new payment order with user, amount, and method
     @Override
     public PaymentOrder createOrder(User user, Long amount, PaymentMethod paymentMethod) {
@@ -79,42 +57,12 @@ public class PaymentServiceImpl implements PaymentService {
         return optionalPaymentOrder.get();          // Returns the found order
     }
 
-    // Processes a payment order based on payment ID (Razorpay-specific logic)
-    @Override
-    public Boolean ProccedPaymentOrder(PaymentOrder paymentOrder, String paymentId) throws RazorpayException {
-        if (paymentOrder.getStatus().equals(PaymentOrderStatus.PENDING)) { // Checks if order is pending
-            if (paymentOrder.getPaymentMethod().equals(PaymentMethod.RAZORPAY)) { // Razorpay-specific logic
-                RazorpayClient razorpay = new RazorpayClient(apiKey, apiSecret); // Initializes Razorpay client
-                Payment payment = razorpay.payments.fetch(paymentId); // Fetches payment details
-
-                Integer amount = payment.get("amount");     // Gets payment amount
-                String status = payment.get("status");      // Gets payment status
-                if (status.equals("captured")) {            // Checks if payment was successful
-                    paymentOrder.setStatus(PaymentOrderStatus.SUCCESS); // Updates to SUCCESS
-                    paymentOrderRepository.save(paymentOrder); // Saves updated order
-                    return true;                            // Returns success
-                }
-                paymentOrder.setStatus(PaymentOrderStatus.FAILED); // Sets to FAILED if not captured
-                paymentOrderRepository.save(paymentOrder); // Saves updated order
-                return false;                               // Returns failure
-            }
-            // Default case (non-Razorpay, e.g., Stripe not implemented here)
-            paymentOrder.setStatus(PaymentOrderStatus.SUCCESS); // Assumes success
-            paymentOrderRepository.save(paymentOrder);  // Saves updated order (duplicate save below)
-            paymentOrderRepository.save(paymentOrder);  // Redundant save
-            return true;                                // Returns success
-        }
-        return false;                                   // Returns false if not pending
-    }
-
     // Creates a Razorpay payment link for a user and order
     @Override
     public PaymentResponse createRazorpayPaymentLink(User user, Long Amount, Long orderId) throws RazorpayException {
         Long amount = Amount * 100;                     // Converts amount to paise (Razorpay requires smallest unit)
 
         try {
-            RazorpayClient razorpay = new RazorpayClient(apiKey, apiSecret); // Initializes Razorpay client
-
             JSONObject paymentLinkRequest = new JSONObject(); // JSON object for payment link request
             paymentLinkRequest.put("amount", amount);   // Sets amount in paise
             paymentLinkRequest.put("currency", "INR");  // Sets currency to INR
@@ -132,15 +80,18 @@ public class PaymentServiceImpl implements PaymentService {
 
             paymentLinkRequest.put("reminder_enable", true); // Enables reminders
 
+            // Order reference, returned in the payment_link.paid webhook
+            paymentLinkRequest.put("reference_id", String.valueOf(orderId));
+            JSONObject notes = new JSONObject();
+            notes.put("order_id", String.valueOf(orderId)); // Copied to the payment, for payment.captured
+            paymentLinkRequest.put("notes", notes);
+
             // Callback settings for post-payment redirection
             paymentLinkRequest.put("callback_url", "http://localhost:5173/wallet/" + orderId);
             paymentLinkRequest.put("callback_method", "get");
 
             // Creates the payment link via Razorpay API
-            PaymentLink payment = razorpay.paymentLink.create(paymentLinkRequest);
-
-            String paymentLinkId = payment.get("id");   // Gets payment link ID
-            String paymentLinkUrl = payment.get("short_url"); // Gets short URL
+            String paymentLinkUrl = paymentGatewayService.createRazorpayPaymentLink(paymentLinkRequest);
 
             PaymentResponse res = new PaymentResponse(); // Creates response object
             res.setPayment_url(paymentLinkUrl);         // Sets payment URL
@@ -156,14 +107,17 @@ public class PaymentServiceImpl implements PaymentService {
     // Creates a Stripe payment link for a user and order
     @Override
     public PaymentResponse createStripePaymentLink(User user, Long amount, Long orderId) throws StripeException {
-        Stripe.apiKey = stripeSecretKey;                // Sets Stripe API key
-
         // Builds parameters for Stripe checkout session
         SessionCreateParams params = SessionCreateParams.builder()
                 .addPaymentMethodType(SessionCreateParams.PaymentMethodType.CARD) // Allows card payments
                 .setMode(SessionCreateParams.Mode.PAYMENT) // Sets mode to payment
                 .setSuccessUrl("http://localhost:5173/wallet?order_id=" + orderId) // Success redirect URL
                 .setCancelUrl("http://localhost:5173/payment/cancel") // Cancel redirect URL
+                .setClientReferenceId(String.valueOf(orderId)) // Order reference, returned in the webhook
+                .putMetadata("order_id", String.valueOf(orderId))
+                .setPaymentIntentData(SessionCreateParams.PaymentIntentData.builder() // Copied to the payment intent,
+                        .putMetadata("order_id", String.valueOf(orderId)) // for deposits confirmed by lookup
+                        .build())
                 .addLineItem(SessionCreateParams.LineItem.builder() // Adds line item for payment
                         .setQuantity(1L)                    // Sets quantity to 1
                         .setPriceData(SessionCreateParams.LineItem.PriceData.builder() // Price details
@@ -176,12 +130,11 @@ public class PaymentServiceImpl implements PaymentService {
                         .build())
                 .build();
 
-        Session session = Session.create(params);       // Creates Stripe checkout session
-
-        System.out.println("session _____ " + session); // Logs session for debugging
+        // Creates Stripe checkout session
+        String sessionUrl = paymentGatewayService.createStripeCheckoutSession(params);
 
         PaymentResponse res = new PaymentResponse();    // Creates response object
-        res.setPayment_url(session.getUrl());           // Sets payment URL from session
+        res.setPayment_url(sessionUrl);                 // Sets payment URL from session
 
         return res;                                     // Returns response with payment link
     }
@@ -0,0 +1,22 @@
+package com.treu.service;
+
+// Custom enum for defining payment methods (e.g., RAZORPAY, STRIPE)
+import com.treu.domain.PaymentMethod;
+// Custom enum for the outcome of receiving a webhook
+import com.treu.domain.PaymentWebhookOutcome;
+// Entity class representing a payment order
+import com.treu.model.PaymentOrder;
+
+// Defines a service interface for receiving payment provider webhooks and crediting the paid orders
+public interface PaymentWebhookService {
+
+    // Verifies the signature of a webhook delivery and queues its payment; crediting happens in the background
+    PaymentWebhookOutcome receive(PaymentMethod provider, String payload, String signature);
+
+    // Queues a payment the client reports for its order after checkout; the payment is looked up at the provider
+    // in the background, and the order stays PENDING until then. A payment already queued is reported as DUPLICATE
+    PaymentWebhookOutcome confirmDeposit(PaymentOrder order, String paymentId);
+
+    // Processes every due event, claiming them in batches; returns the number of events handled
+    int processPending();
+}
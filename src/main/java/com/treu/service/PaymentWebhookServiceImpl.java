@@ -0,0 +1,602 @@
+package com.treu.service;
+
+// Jackson tree model for reading provider payloads
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+// Razorpay signature helper and its exception
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+// Stripe signature helper and its exception
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+// Custom enum for the state of a payment at its provider
+import com.treu.domain.GatewayPaymentStatus;
+// Custom enum for the processing state of an event
+import com.treu.domain.PaymentEventStatus;
+// Custom enum for defining payment methods (e.g., RAZORPAY, STRIPE)
+import com.treu.domain.PaymentMethod;
+// Custom enum for the outcome of receiving a webhook
+import com.treu.domain.PaymentWebhookOutcome;
+// Custom enum for defining wallet transaction types (e.g., DEPOSIT, WITHDRAWAL)
+import com.treu.domain.WalletTransactionType;
+// Custom exception for wallet-related errors
+import com.treu.exception.WalletException;
+// Provider's view of a payment
+import com.treu.model.GatewayPayment;
+// Entity class representing a received payment webhook event
+import com.treu.model.PaymentEvent;
+// Entity class representing a payment order
+import com.treu.model.PaymentOrder;
+// Entity class representing a wallet
+import com.treu.model.Wallet;
+// Entity class representing a wallet transaction
+import com.treu.model.WalletTransaction;
+// Repository interface for payment event data access
+import com.treu.repository.PaymentEventRepository;
+// Repository interface for payment order data access
+import com.treu.repository.PaymentOrderRepository;
+// Repository interface for wallet data access
+import com.treu.repository.WalletRepository;
+// Repository interface for wallet transaction data access
+import com.treu.repository.WalletTransactionRepository;
+// Daemon thread factory naming the processor thread
+import com.treu.utils.NamedThreadFactory;
+// Lifecycle callbacks for the processor thread
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Thrown when a replayed payment hits the unique key
+import org.springframework.dao.DataIntegrityViolationException;
+// Spring Data pagination request
+import org.springframework.data.domain.PageRequest;
+// Spring annotation for periodically triggered methods
+import org.springframework.scheduling.annotation.Scheduled;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Spring abstraction over the JPA transaction manager
+import org.springframework.transaction.PlatformTransactionManager;
+// Programmatic transaction settling one batch
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;                         // Unreadable payload
+import java.math.BigDecimal;                        // High-precision decimal class for wallet amounts
+import java.time.LocalDate;                         // Date class for ledger entries
+import java.time.LocalDateTime;                     // Date and time class for scheduling attempts
+import java.time.temporal.ChronoUnit;               // Millisecond offsets for leases and retries
+import java.util.ArrayList;                         // Resizable array implementation of List
+import java.util.HashMap;                           // Hash table implementation of Map
+import java.util.HashSet;                           // Order ids of a batch
+import java.util.LinkedHashMap;                     // Credit totals per user, in batch order
+import java.util.List;                              // Interface for ordered collections
+import java.util.Map;                               // Interface for key-value mappings
+import java.util.Set;                               // Interface for collections without duplicates
+import java.util.UUID;                              // Random claim tokens
+import java.util.concurrent.ExecutorService;        // Processor thread
+import java.util.concurrent.Executors;              // Factory for the processor
+import java.util.concurrent.ThreadLocalRandom;      // Jitter for retry delays
+import java.util.concurrent.atomic.AtomicBoolean;   // Guards against overlapping processing cycles
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class PaymentWebhookServiceImpl implements PaymentWebhookService {
+
+    // Repository for the durable event queue
+    private final PaymentEventRepository paymentEventRepository;
+
+    // Repository for settling payment orders
+    private final PaymentOrderRepository paymentOrderRepository;
+
+    // Repository for crediting wallets in place
+    private final WalletRepository walletRepository;
+
+    // Repository for the ledger entries of the credits
+    private final WalletTransactionRepository walletTransactionRepository;
+
+    // Service creating the wallet of a user who has none yet
+    private final WalletService walletService;
+
+    // Provider lookups of payments reported by clients
+    private final PaymentGatewayService paymentGatewayService;
+
+    // Parser for the provider payloads
+    private final ObjectMapper objectMapper;
+
+    // One transaction per settled batch
+    private final TransactionTemplate transactionTemplate;
+
+    // Secret Razorpay signs webhooks with; empty rejects every Razorpay webhook
+    @Value("${razorpay.webhook.secret:}")
+    private String razorpayWebhookSecret = "";
+
+    // Secret Stripe signs webhooks with; empty rejects every Stripe webhook
+    @Value("${stripe.webhook.secret:}")
+    private String stripeWebhookSecret = "";
+
+    // Maximum age of a Stripe signature, which guards against replays of old deliveries
+    @Value("${stripe.webhook.tolerance-seconds:300}")
+    private long stripeToleranceSeconds = 300;
+
+    // Events settled per transaction
+    @Value("${payment.webhook.batch-size:100}")
+    private int batchSize = 100;
+
+    // Attempts before an event is given up on
+    @Value("${payment.webhook.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    // Delay before the first retry; doubles with every further attempt
+    @Value("${payment.webhook.backoff-ms:5000}")
+    private long backoffMillis = 5000;
+
+    // Upper bound of the retry delay
+    @Value("${payment.webhook.max-backoff-ms:900000}")
+    private long maxBackoffMillis = 900000;
+
+    // Time a claimed batch may take before another processor retries it
+    @Value("${payment.webhook.lease-ms:60000}")
+    private long leaseMillis = 60000;
+
+    // Deposit of a settled event, posted to its owner's wallet
+    private static final class Credit {
+        final PaymentEvent event;     // Event that settled the order
+        final Long userId;            // Owner of the order
+        final long amount;            // Order amount credited to the wallet
+
+        Credit(PaymentEvent event, Long userId, long amount) {
+            this.event = event;
+            this.userId = userId;
+            this.amount = amount;
+        }
+    }
+
+    // Set while a processing cycle runs; a trigger arriving meanwhile sets 'rerun' instead of starting another
+    private final AtomicBoolean processing = new AtomicBoolean();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    // Single thread running processing cycles, so webhook responses never wait for crediting
+    private ExecutorService processor;
+
+    // Constructor injection for repositories, the wallet and gateway services, the JSON mapper and the
+    // transaction manager
+    public PaymentWebhookServiceImpl(PaymentEventRepository paymentEventRepository,
+                                     PaymentOrderRepository paymentOrderRepository,
+                                     WalletRepository walletRepository,
+                                     WalletTransactionRepository walletTransactionRepository,
+                                     WalletService walletService,
+                                     PaymentGatewayService paymentGatewayService,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
+        this.paymentEventRepository = paymentEventRepository;
+        this.paymentOrderRepository = paymentOrderRepository;
+        this.walletRepository = walletRepository;
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.walletService = walletService;
+        this.paymentGatewayService = paymentGatewayService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Starts the processor thread once the configuration is injected
+    @PostConstruct
+    public void start() {
+        processor = Executors.newSingleThreadExecutor(new NamedThreadFactory("payment-webhook-processor"));
+    }
+
+    // Stops the processor thread; unprocessed events stay in the table for the next start
+    @PreDestroy
+    public void stop() {
+        processor.shutdownNow();
+    }
+
+    // Verifies, parses and stores the event. The insert is the only work done before answering, so the
+    // provider gets its 2xx quickly; a replay of a stored payment is answered without storing anything
+    @Override
+    public PaymentWebhookOutcome receive(PaymentMethod provider, String payload, String signature) {
+        if (!verify(provider, payload, signature)) {
+            log.warn("{} webhook rejected: invalid signature", provider);
+            return PaymentWebhookOutcome.INVALID_SIGNATURE;
+        }
+        PaymentEvent event;
+        try {
+            event = parse(provider, payload);
+        } catch (IOException e) {
+            log.warn("{} webhook ignored: unreadable payload", provider, e);
+            return PaymentWebhookOutcome.IGNORED;
+        }
+        if (event == null) {
+            return PaymentWebhookOutcome.IGNORED;
+        }
+        try {
+            paymentEventRepository.save(event);
+        } catch (DataIntegrityViolationException e) {
+            // The client may have reported the payment first; the signature settles it without a lookup, on the
+            // order it names. While a processor holds the reported copy, the provider is asked to come back
+            if (event.getOrderId() != null) {
+                if (paymentEventRepository.vouch(provider, event.getProviderPaymentId(), event.getOrderId(),
+                        event.getAmount(), LocalDateTime.now()) > 0) {
+                    processSoon();
+                } else if (paymentEventRepository.existsByProviderAndProviderPaymentIdAndVerifiedFalseAndStatus(
+                        provider, event.getProviderPaymentId(), PaymentEventStatus.PROCESSING)) {
+                    return PaymentWebhookOutcome.RETRY;
+                }
+            }
+            return PaymentWebhookOutcome.DUPLICATE;
+        }
+        processSoon();
+        return PaymentWebhookOutcome.ACCEPTED;
+    }
+
+    // Queues a client-reported payment unverified: the request thread never waits on the provider, and the
+    // processor settles it only once the provider reports it captured
+    @Override
+    public PaymentWebhookOutcome confirmDeposit(PaymentOrder order, String paymentId) {
+        PaymentEvent event = new PaymentEvent();
+        event.setProvider(order.getPaymentMethod());
+        event.setProviderPaymentId(paymentId);
+        event.setOrderId(order.getId());
+        event.setVerified(false);
+        event.setStatus(PaymentEventStatus.PENDING);
+        event.setReceivedAt(LocalDateTime.now());
+        event.setNextAttemptAt(event.getReceivedAt());
+        try {
+            paymentEventRepository.save(event);
+        } catch (DataIntegrityViolationException e) {
+            return PaymentWebhookOutcome.DUPLICATE;   // Queued already, by an earlier request or the webhook
+        }
+        processSoon();
+        return PaymentWebhookOutcome.ACCEPTED;
+    }
+
+    // Picks up retries and events received by other instances
+    @Scheduled(fixedDelayString = "${payment.webhook.poll-interval-ms:5000}")
+    public void poll() {
+        processSoon();
+    }
+
+    // Runs processing cycles until no trigger arrived during the last one
+    @Override
+    public int processPending() {
+        if (!processing.compareAndSet(false, true)) {
+            rerun.set(true);
+            return 0;
+        }
+        int handled = 0;
+        try {
+            do {
+                rerun.set(false);
+                handled += processCycle();
+            } while (rerun.get());
+        } catch (RuntimeException e) {
+            log.warn("payment webhook processing failed", e);
+        } finally {
+            processing.set(false);
+        }
+        return handled;
+    }
+
+    // Settles a claimed batch in one transaction. Client-reported payments are first looked up at the provider,
+    // outside the transaction; those not captured yet are rescheduled. If the batch fails, its events are
+    // settled one by one so a single bad event is retried on its own instead of holding back the others
+    void processBatch(List<PaymentEvent> claimed) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentEvent> batch = new ArrayList<>(claimed.size());
+        List<PaymentEvent> deferred = new ArrayList<>();
+        for (PaymentEvent event : claimed) {
+            event.setAttempts(event.getAttempts() + 1);
+            if (event.isVerified() || lookUp(event, now)) {
+                batch.add(event);
+            } else {
+                deferred.add(event);
+            }
+        }
+        if (!deferred.isEmpty()) {
+            paymentEventRepository.saveAll(deferred);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> settle(batch, now));
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                retryLater(batch.get(0), describe(e), now);
+                paymentEventRepository.save(batch.get(0));
+                return;
+            }
+            log.warn("payment event batch of {} failed, settling one by one", batch.size(), e);
+        }
+        for (PaymentEvent event : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> settle(List.of(event), now));
+            } catch (RuntimeException e) {
+                retryLater(event, describe(e), now);
+                paymentEventRepository.save(event);
+            }
+        }
+    }
+
+    // Checks a client-reported payment with its provider; true if it is captured for its order and can settle.
+    // Otherwise the event is finished or rescheduled, and false is returned
+    private boolean lookUp(PaymentEvent event, LocalDateTime now) {
+        GatewayPayment payment;
+        try {
+            payment = paymentGatewayService.fetchPayment(event.getProvider(), event.getProviderPaymentId());
+        } catch (Exception e) {
+            retryLater(event, describe(e), now);      // Provider unreachable or slow; ask again later
+            return false;
+        }
+        // Only a payment the provider ties to this very order can settle it; one tied to no order could be any
+        // captured payment the client happens to know the id of
+        if (payment.getOrderId() == null) {
+            finish(event, PaymentEventStatus.SKIPPED, "payment names no payment order", now);
+            return false;
+        }
+        if (!payment.getOrderId().equals(event.getOrderId())) {
+            finish(event, PaymentEventStatus.SKIPPED, "payment belongs to payment order " + payment.getOrderId(), now);
+            return false;
+        }
+        if (payment.getStatus() == GatewayPaymentStatus.FAILED) {
+            finish(event, PaymentEventStatus.SKIPPED, "payment failed at the provider", now);
+            return false;
+        }
+        if (payment.getStatus() == GatewayPaymentStatus.PENDING) {
+            retryLater(event, "payment not captured yet", now);
+            return false;
+        }
+        event.setAmount(payment.getAmount());
+        event.setVerified(true);
+        return true;
+    }
+
+    // Hands processing to the processor thread
+    private void processSoon() {
+        if (processing.get()) {
+            rerun.set(true);                          // The running cycle will go round once more
+            return;
+        }
+        if (processor != null && !processor.isShutdown()) {
+            processor.execute(this::processPending);
+        }
+    }
+
+    // Claims due events in batches until none are due
+    private int processCycle() {
+        paymentEventRepository.releaseExpiredLeases(LocalDateTime.now());
+        int handled = 0;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = paymentEventRepository.findDueIds(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return handled;
+            }
+            String token = UUID.randomUUID().toString();
+            if (paymentEventRepository.claim(ids, token, now.plus(leaseMillis, ChronoUnit.MILLIS)) == 0) {
+                continue;                             // Another instance claimed them first
+            }
+            List<PaymentEvent> claimed = paymentEventRepository.findByClaimToken(token);
+            processBatch(claimed);
+            handled += claimed.size();
+        }
+    }
+
+    // Settles events inside the caller's transaction. Each order moves from PENDING to SUCCESS with one
+    // conditional update, which makes the provider payment id the idempotency key; the credits are then
+    // posted in bulk, one balance update per wallet and one batched insert of ledger entries
+    private void settle(List<PaymentEvent> events, LocalDateTime now) {
+        // Loads the orders of the batch without their users
+        Set<Long> orderIds = new HashSet<>();
+        for (PaymentEvent event : events) {
+            if (event.getOrderId() != null) {
+                orderIds.add(event.getOrderId());
+            }
+        }
+        Map<Long, Object[]> orders = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (Object[] row : paymentOrderRepository.findSettlementRows(orderIds)) {
+                orders.put((Long) row[0], row);
+            }
+        }
+
+        // Settles each order, collecting the credits per user
+        Map<Long, Long> totals = new LinkedHashMap<>();
+        List<Credit> credits = new ArrayList<>();
+        for (PaymentEvent event : events) {
+            Object[] order = event.getOrderId() != null ? orders.get(event.getOrderId()) : null;
+            String skipReason = null;
+            if (order == null) {
+                skipReason = "unknown payment order " + event.getOrderId();
+            } else if (order[3] != event.getProvider()) {
+                skipReason = "payment order " + event.getOrderId() + " is not a " + event.getProvider() + " order";
+            } else if (((Number) order[2]).longValue() * 100 != event.getAmount()) {
+                skipReason = "paid amount " + event.getAmount() + " does not match payment order " + event.getOrderId();
+            } else if (paymentOrderRepository.markSucceeded(event.getOrderId(), event.getProviderPaymentId()) == 0) {
+                skipReason = "payment order " + event.getOrderId() + " is already settled";
+            }
+            if (skipReason != null) {
+                finish(event, PaymentEventStatus.SKIPPED, skipReason, now);
+                continue;
+            }
+            Long userId = (Long) order[1];
+            long amount = ((Number) order[2]).longValue();
+            totals.merge(userId, amount, Long::sum);
+            credits.add(new Credit(event, userId, amount));
+            finish(event, PaymentEventStatus.PROCESSED, null, now);
+        }
+
+        if (!totals.isEmpty()) {
+            // Loads the owners' wallets with one query, creating the rare missing one
+            Map<Long, Wallet> wallets = new HashMap<>();
+            for (Wallet wallet : walletRepository.findByUserIdIn(totals.keySet())) {
+                wallets.put(wallet.getUser().getId(), wallet);
+            }
+            for (Long userId : totals.keySet()) {
+                if (!wallets.containsKey(userId)) {
+                    wallets.put(userId, createWallet(userId));
+                }
+            }
+
+            // Posts the credits: one balance update per wallet, one ledger entry per payment
+            for (Map.Entry<Long, Long> total : totals.entrySet()) {
+                walletRepository.credit(wallets.get(total.getKey()).getId(), BigDecimal.valueOf(total.getValue()));
+            }
+            List<WalletTransaction> entries = new ArrayList<>(credits.size());
+            for (Credit credit : credits) {
+                entries.add(ledgerEntry(wallets.get(credit.userId), credit.event.getProviderPaymentId(), credit.amount));
+            }
+            walletTransactionRepository.saveAll(entries);
+        }
+        paymentEventRepository.saveAll(events);
+    }
+
+    // Checks the provider's signature over the raw payload
+    private boolean verify(PaymentMethod provider, String payload, String signature) {
+        if (payload == null || signature == null || signature.isBlank()) {
+            return false;
+        }
+        try {
+            if (provider == PaymentMethod.RAZORPAY) {
+                return !razorpayWebhookSecret.isBlank()
+                        && Utils.verifyWebhookSignature(payload, signature, razorpayWebhookSecret);
+            }
+            return !stripeWebhookSecret.isBlank()
+                    && Webhook.Signature.verifyHeader(payload, signature, stripeWebhookSecret, stripeToleranceSeconds);
+        } catch (RazorpayException | SignatureVerificationException e) {
+            return false;
+        }
+    }
+
+    // Event to queue for a verified payload, or null if it does not report a completed payment
+    PaymentEvent parse(PaymentMethod provider, String payload) throws IOException {
+        JsonNode root = objectMapper.readTree(payload);
+        String paymentId;
+        String eventId;
+        String reference;
+        long amount;
+        if (provider == PaymentMethod.RAZORPAY) {
+            // payment_link.paid for payment links, payment.captured for payments carrying the order in their notes
+            String type = text(root.path("event"));
+            JsonNode payment = root.path("payload").path("payment").path("entity");
+            if (!("payment_link.paid".equals(type) || "payment.captured".equals(type))
+                    || !"captured".equals(text(payment.path("status")))) {
+                return null;
+            }
+            paymentId = text(payment.path("id"));
+            eventId = text(root.path("id"));
+            reference = text(root.path("payload").path("payment_link").path("entity").path("reference_id"));
+            if (reference == null) {
+                reference = text(payment.path("notes").path("order_id"));
+            }
+            amount = payment.path("amount").asLong();
+        } else {
+            // Checkout sessions paid at once, or later for delayed payment methods
+            String type = text(root.path("type"));
+            JsonNode session = root.path("data").path("object");
+            if (!("checkout.session.completed".equals(type) || "checkout.session.async_payment_succeeded".equals(type))
+                    || !"paid".equals(text(session.path("payment_status")))) {
+                return null;
+            }
+            paymentId = text(session.path("payment_intent"));
+            if (paymentId == null) {
+                paymentId = text(session.path("id"));
+            }
+            eventId = text(root.path("id"));
+            reference = text(session.path("client_reference_id"));
+            if (reference == null) {
+                reference = text(session.path("metadata").path("order_id"));
+            }
+            amount = session.path("amount_total").asLong();
+        }
+        if (paymentId == null) {
+            return null;
+        }
+
+        PaymentEvent event = new PaymentEvent();
+        event.setProvider(provider);
+        event.setProviderPaymentId(paymentId);
+        event.setProviderEventId(eventId);
+        event.setOrderId(parseOrderId(reference));
+        event.setAmount(amount);
+        event.setVerified(true);                     // The signature vouches for the payment's state
+        event.setStatus(PaymentEventStatus.PENDING);
+        event.setReceivedAt(LocalDateTime.now());
+        event.setNextAttemptAt(event.getReceivedAt());
+        return event;
+    }
+
+    // Creates the wallet of a user who never opened it
+    private Wallet createWallet(Long userId) {
+        try {
+            return walletService.getUserWallet(userId);
+        } catch (WalletException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    // Marks an event as done
+    private static void finish(PaymentEvent event, PaymentEventStatus status, String reason, LocalDateTime now) {
+        event.setStatus(status);
+        event.setLastError(reason);
+        event.setProcessedAt(now);
+        event.setClaimToken(null);
+        event.setLeaseUntil(null);
+    }
+
+    // Schedules the next attempt with exponential backoff and up to 20% jitter, or gives up
+    private void retryLater(PaymentEvent event, String reason, LocalDateTime now) {
+        event.setClaimToken(null);
+        event.setLeaseUntil(null);
+        event.setLastError(reason);
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(PaymentEventStatus.FAILED);
+            log.warn("payment event {} ({} {}) failed after {} attempts: {}", event.getId(), event.getProvider(),
+                    event.getProviderPaymentId(), event.getAttempts(), event.getLastError());
+            return;
+        }
+        long delay = Math.min(maxBackoffMillis, backoffMillis << Math.min(event.getAttempts() - 1, 30));
+        delay += (long) (delay * 0.2 * ThreadLocalRandom.current().nextDouble());
+        event.setStatus(PaymentEventStatus.PENDING);
+        event.setNextAttemptAt(now.plus(delay, ChronoUnit.MILLIS));
+    }
+
+    // Ledger entry of a deposit, referencing the provider payment like the deposit endpoint does
+    private static WalletTransaction ledgerEntry(Wallet wallet, String paymentId, long amount) {
+        WalletTransaction transaction = new WalletTransaction();
+        transaction.setWallet(wallet);
+        transaction.setType(WalletTransactionType.ADD_MONEY);
+        transaction.setDate(LocalDate.now());
+        transaction.setTransferId(paymentId);
+        transaction.setPurpose("wallet deposit");
+        transaction.setAmount(amount);
+        return transaction;
+    }
+
+    // Text of a JSON value, or null if it is missing, null or empty
+    private static String text(JsonNode node) {
+        if (node == null || !node.isValueNode() || node.isNull()) {
+            return null;
+        }
+        String value = node.asText();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Order id of a reference, or null if it is not one of ours
+    private static Long parseOrderId(String reference) {
+        try {
+            return reference != null ? Long.valueOf(reference) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Error text that fits the lastError column
+    private static String describe(Exception failure) {
+        String text = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        return text.length() > 1000 ? text.substring(0, 1000) : text;
+    }
+}
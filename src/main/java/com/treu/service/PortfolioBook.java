@@ -0,0 +1,109 @@
+package com.treu.service;
+
+// Response classes describing a valued portfolio
+import com.treu.response.PortfolioPosition;
+import com.treu.response.PortfolioResponse;
+
+import java.util.ArrayList;       // Resizable array implementation of List
+import java.util.Arrays;          // Array growth helpers
+import java.util.List;            // Interface for ordered collections
+
+// One user's positions in parallel primitive arrays, with running totals so a tick or fill costs O(1)
+// and reading the totals needs no pass over the positions
+final class PortfolioBook {
+
+    private String[] coinIds = new String[4];     // Coin id per position
+    private double[] quantities = new double[4];  // Quantity per position
+    private double[] costs = new double[4];       // Total cost basis per position
+    private double[] prices = new double[4];      // Last applied price per position
+    private int size;                             // Number of positions in use
+
+    private double marketValue;                   // Sum of quantities[i] * prices[i]
+    private double costBasis;                     // Sum of costs[i]
+
+    // Sets a position to an absolute quantity and average cost; idempotent, so replays are harmless
+    synchronized void setPosition(String coinId, double quantity, double averageCost, double price) {
+        int i = indexOf(coinId);
+        if (quantity <= 0) {
+            if (i >= 0) {
+                remove(i);
+            }
+            return;
+        }
+        if (i < 0) {
+            i = append(coinId);
+        }
+        double cost = quantity * averageCost;
+        marketValue += quantity * price - quantities[i] * prices[i];
+        costBasis += cost - costs[i];
+        quantities[i] = quantity;
+        costs[i] = cost;
+        prices[i] = price;
+    }
+
+    // Revalues a position at a new price; returns false if the coin is not held
+    synchronized boolean applyPrice(String coinId, double price) {
+        int i = indexOf(coinId);
+        if (i < 0) {
+            return false;
+        }
+        marketValue += quantities[i] * (price - prices[i]);
+        prices[i] = price;
+        return true;
+    }
+
+    // Copies the book into a response, computing weights from the running market value
+    synchronized PortfolioResponse toResponse() {
+        List<PortfolioPosition> positions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double value = quantities[i] * prices[i];
+            positions.add(new PortfolioPosition(coinIds[i], quantities[i], prices[i], value, costs[i],
+                    value - costs[i], marketValue > 0 ? value / marketValue : 0));
+        }
+        double pnl = marketValue - costBasis;
+        return new PortfolioResponse(marketValue, costBasis, pnl,
+                costBasis > 0 ? pnl * 100 / costBasis : 0, positions);
+    }
+
+    // Linear scan; a user holds a handful of coins, which beats hashing
+    private int indexOf(String coinId) {
+        for (int i = 0; i < size; i++) {
+            if (coinIds[i].equals(coinId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Adds an empty position, growing the arrays when full
+    private int append(String coinId) {
+        if (size == coinIds.length) {
+            int capacity = size * 2;
+            coinIds = Arrays.copyOf(coinIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        coinIds[size] = coinId;
+        quantities[size] = 0;
+        costs[size] = 0;
+        prices[size] = 0;
+        return size++;
+    }
+
+    // Moves the last position into the freed slot and re-sums the totals to shed accumulated rounding
+    private void remove(int i) {
+        size--;
+        coinIds[i] = coinIds[size];
+        quantities[i] = quantities[size];
+        costs[i] = costs[size];
+        prices[i] = prices[size];
+        coinIds[size] = null;
+        marketValue = 0;
+        costBasis = 0;
+        for (int j = 0; j < size; j++) {
+            marketValue += quantities[j] * prices[j];
+            costBasis += costs[j];
+        }
+    }
+}
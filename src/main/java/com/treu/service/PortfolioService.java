@@ -0,0 +1,14 @@
+package com.treu.service;
+
+// Response class describing a valued portfolio
+import com.treu.response.PortfolioResponse;
+
+// Defines a service interface for the live valuation of users' holdings
+public interface PortfolioService {
+
+    // Returns market value, unrealised P&L and allocation weights of a user's holdings
+    PortfolioResponse getPortfolio(Long userId);
+
+    // Records a position's new quantity and average cost after a fill; applied once the fill's transaction commits
+    void onPositionChanged(Long userId, String coinId, double quantity, double averageCost, double fillPrice);
+}
@@ -0,0 +1,193 @@
+package com.treu.service;
+
+// Entity class representing an asset held by a user
+import com.treu.model.Asset;
+// Immutable quote stored in the price snapshot
+import com.treu.model.CoinQuote;
+// Repository interface for asset data access
+import com.treu.repository.AssetsRepository;
+// Response class describing a valued portfolio
+import com.treu.response.PortfolioResponse;
+// Size bound shared by the in-memory caches
+import com.treu.utils.BoundedMaps;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Hooks for running work after the surrounding transaction commits
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;                            // Coins of a loaded book
+import java.util.List;                                 // Interface for ordered collections
+import java.util.Set;                                  // Interface for the holder sets
+import java.util.concurrent.ConcurrentHashMap;         // Thread-safe maps for books and holders
+import java.util.concurrent.atomic.AtomicLongArray;    // Fill counters striped by user id
+
+// Marks this class as a Spring service bean
+@Service
+public class PortfolioServiceImpl implements PortfolioService, PriceTickListener {
+
+    // Repository used once per user to build the initial book
+    private final AssetsRepository assetsRepository;
+
+    // Latest prices, preferred over the price stored with the coin row
+    private final PriceSnapshotService priceSnapshotService;
+
+    // Book per user id, built on first read and then maintained from fills and ticks
+    private final ConcurrentHashMap<Long, PortfolioBook> books = new ConcurrentHashMap<>();
+
+    // User ids holding each coin, so a tick only touches the books it moves
+    private final ConcurrentHashMap<String, Set<Long>> holders = new ConcurrentHashMap<>();
+
+    // Fills applied per stripe of user ids; a load that saw its stripe move may have missed a fill
+    private final AtomicLongArray fillStamps = new AtomicLongArray(FILL_STRIPES);
+
+    // Number of fill counter stripes, a power of two
+    private static final int FILL_STRIPES = 256;
+
+    // Loads retried while fills keep landing before the book is served uncached
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    // Books kept in memory; beyond it arbitrary books are dropped and rebuilt on their next read
+    @Value("${portfolio.max-books:100000}")
+    private int maxBooks = 100000;
+
+    // Constructor injection for the asset repository and price snapshot
+    public PortfolioServiceImpl(AssetsRepository assetsRepository, PriceSnapshotService priceSnapshotService) {
+        this.assetsRepository = assetsRepository;
+        this.priceSnapshotService = priceSnapshotService;
+    }
+
+    // Returns the user's valued portfolio, loading their assets only the first time. The assets are read outside
+    // the map, as computeIfAbsent would hold a bin lock, and every user hashed to it, across the query
+    @Override
+    public PortfolioResponse getPortfolio(Long userId) {
+        PortfolioBook book = books.get(userId);
+        if (book != null) {
+            return book.toResponse();
+        }
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long stamp = fillStamps.get(stripe(userId));
+            List<String> coinIds = new ArrayList<>();
+            PortfolioBook loaded = load(userId, coinIds);
+            if (books.size() >= maxBooks) {
+                evict();
+            }
+            PortfolioBook raced = books.putIfAbsent(userId, loaded);
+            if (raced != null) {
+                return raced.toResponse();
+            }
+            if (fillStamps.get(stripe(userId)) == stamp) {
+                // Registered only once published; prices are re-read so a tick seen before registering is kept
+                for (String coinId : coinIds) {
+                    addHolder(coinId, userId);
+                    CoinQuote quote = priceSnapshotService.getQuote(coinId);
+                    if (quote != null) {
+                        loaded.applyPrice(coinId, quote.getPrice());
+                    }
+                }
+                return loaded.toResponse();
+            }
+            // A fill committed while the assets were read and may be missing from them
+            books.remove(userId, loaded);
+        }
+        // Fills keep landing; answer from a fresh read without keeping it
+        return load(userId, new ArrayList<>()).toResponse();
+    }
+
+    // Applies a fill to a loaded book after commit; users without a book pick the fill up when they load
+    @Override
+    public void onPositionChanged(Long userId, String coinId, double quantity, double averageCost, double fillPrice) {
+        Runnable apply = () -> {
+            // Counted before the book is touched, so a load racing with the fill sees it and retries
+            fillStamps.incrementAndGet(stripe(userId));
+            books.computeIfPresent(userId, (id, book) -> {
+                book.setPosition(coinId, quantity, averageCost, priceOf(coinId, fillPrice));
+                if (quantity > 0) {
+                    addHolder(coinId, userId);
+                } else {
+                    removeHolder(coinId, userId);
+                }
+                return book;
+            });
+        };
+        // A rolled back order must not move the book, and a book loaded before commit must still see the fill
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Revalues every loaded book holding the coin
+    @Override
+    public void onPriceTick(CoinQuote quote, double previousPrice) {
+        Set<Long> users = holders.get(quote.getId());
+        if (users == null) {
+            return;
+        }
+        for (Long userId : users) {
+            PortfolioBook book = books.get(userId);
+            if (book != null) {
+                book.applyPrice(quote.getId(), quote.getPrice());
+            }
+        }
+    }
+
+    // Builds a book from the user's asset rows, collecting the coins it holds
+    private PortfolioBook load(Long userId, List<String> coinIds) {
+        PortfolioBook book = new PortfolioBook();
+        for (Asset asset : assetsRepository.findByUserId(userId)) {
+            String coinId = asset.getCoin().getId();
+            book.setPosition(coinId, asset.getQuantity(), asset.getBuyPrice(),
+                    priceOf(coinId, asset.getCoin().getCurrentPrice()));
+            coinIds.add(coinId);
+        }
+        return book;
+    }
+
+    // Drops arbitrary books to make room, and the evicted users from the holder sets
+    private void evict() {
+        BoundedMaps.trim(books, maxBooks, book -> false);
+        for (String coinId : holders.keySet()) {
+            holders.computeIfPresent(coinId, (id, users) -> {
+                users.removeIf(userId -> !books.containsKey(userId));
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    // Adds a user to the holders of a coin
+    private void addHolder(String coinId, Long userId) {
+        holders.compute(coinId, (id, users) -> {
+            Set<Long> updated = users != null ? users : ConcurrentHashMap.newKeySet();
+            updated.add(userId);
+            return updated;
+        });
+    }
+
+    // Removes a user from the holders of a coin, and the coin with its last holder
+    private void removeHolder(String coinId, Long userId) {
+        holders.computeIfPresent(coinId, (id, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    // Fill counter stripe of a user
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (FILL_STRIPES - 1);
+    }
+
+    // Latest snapshot price, or the given fallback for coins the snapshot has not seen
+    private double priceOf(String coinId, double fallback) {
+        CoinQuote quote = priceSnapshotService.getQuote(coinId);
+        return quote != null ? quote.getPrice() : fallback;
+    }
+}
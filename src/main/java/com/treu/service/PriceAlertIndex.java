@@ -0,0 +1,115 @@
+package com.treu.service;
+
+// Custom enum for the delivery channel of an alert
+import com.treu.domain.PriceAlertChannel;
+// Custom enum for the side of the threshold an alert waits for
+import com.treu.domain.PriceAlertDirection;
+
+import java.util.ArrayList;                          // Resizable list of fired alerts
+import java.util.Comparator;                         // Threshold order of the index
+import java.util.List;                               // Interface for ordered collections
+import java.util.NavigableSet;                       // Sorted set with first/last access
+import java.util.NoSuchElementException;             // Thrown by first/last on an empty set
+import java.util.concurrent.ConcurrentHashMap;       // Thread-safe map of coin id to its alerts
+import java.util.concurrent.ConcurrentSkipListSet;   // Concurrent sorted set per coin and direction
+
+// Active price alerts of every coin, in two threshold-sorted sets per coin. ABOVE alerts are sorted
+// ascending and fire from the low end, BELOW alerts from the high end. A tick therefore only looks at
+// the alerts it fires, plus one comparison to stop, whatever the number of alerts.
+// An entry takes about 80 bytes, so a million alerts fit in under 100 MB
+final class PriceAlertIndex {
+
+    // Indexed alert: enough to fire and deliver it without loading the row
+    static final class Entry {
+        final long alertId;                 // Id of the alert row; breaks threshold ties
+        final long userId;                  // Owner of the alert
+        final double threshold;             // Price compared against
+        final PriceAlertChannel channel;    // How the owner is notified
+
+        Entry(long alertId, long userId, double threshold, PriceAlertChannel channel) {
+            this.alertId = alertId;
+            this.userId = userId;
+            this.threshold = threshold;
+            this.channel = channel;
+        }
+    }
+
+    // Threshold order, then id, so equal thresholds stay distinct and re-adding an indexed alert is a no-op
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingDouble((Entry entry) -> entry.threshold).thenComparingLong(entry -> entry.alertId);
+
+    // Alerts of one coin by direction
+    private static final class CoinAlerts {
+        final NavigableSet<Entry> above = new ConcurrentSkipListSet<>(ORDER);
+        final NavigableSet<Entry> below = new ConcurrentSkipListSet<>(ORDER);
+
+        NavigableSet<Entry> of(PriceAlertDirection direction) {
+            return direction == PriceAlertDirection.ABOVE ? above : below;
+        }
+    }
+
+    // Alerts by coin id
+    private final ConcurrentHashMap<String, CoinAlerts> coins = new ConcurrentHashMap<>();
+
+    // Adds an alert; returns false if it was already indexed
+    boolean add(String coinId, PriceAlertDirection direction, Entry entry) {
+        return coins.computeIfAbsent(coinId, id -> new CoinAlerts()).of(direction).add(entry);
+    }
+
+    // Removes an alert; returns false if it was not indexed
+    boolean remove(String coinId, PriceAlertDirection direction, long alertId, double threshold) {
+        CoinAlerts alerts = coins.get(coinId);
+        return alerts != null && alerts.of(direction).remove(new Entry(alertId, 0, threshold, null));
+    }
+
+    // Removes and returns the alerts of a coin that the price fires. Each alert is returned once even when
+    // ticks of the same coin are evaluated concurrently, since only the thread whose remove succeeds keeps it
+    List<Entry> fire(String coinId, double price) {
+        CoinAlerts alerts = coins.get(coinId);
+        if (alerts == null) {
+            return List.of();
+        }
+        List<Entry> fired = new ArrayList<>(0);
+        Entry entry;
+        // ABOVE: lowest thresholds first, stopping at the first one still above the price
+        while ((entry = first(alerts.above)) != null && entry.threshold <= price) {
+            if (alerts.above.remove(entry)) {
+                fired.add(entry);
+            }
+        }
+        // BELOW: highest thresholds first, stopping at the first one still below the price
+        while ((entry = last(alerts.below)) != null && entry.threshold >= price) {
+            if (alerts.below.remove(entry)) {
+                fired.add(entry);
+            }
+        }
+        return fired;
+    }
+
+    // Number of indexed alerts; walks every set, so for monitoring only
+    int size() {
+        int size = 0;
+        for (CoinAlerts alerts : coins.values()) {
+            size += alerts.above.size() + alerts.below.size();
+        }
+        return size;
+    }
+
+    // Lowest entry, or null if the set is empty (possibly emptied by a concurrent tick)
+    private static Entry first(NavigableSet<Entry> set) {
+        try {
+            return set.first();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    // Highest entry, or null if the set is empty (possibly emptied by a concurrent tick)
+    private static Entry last(NavigableSet<Entry> set) {
+        try {
+            return set.last();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+}
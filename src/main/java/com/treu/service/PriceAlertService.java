@@ -0,0 +1,29 @@
+package com.treu.service;
+
+// Custom enum for the delivery channel of an alert
+import com.treu.domain.PriceAlertChannel;
+// Custom enum for the side of the threshold an alert waits for
+import com.treu.domain.PriceAlertDirection;
+// Entity class representing a price alert
+import com.treu.model.PriceAlert;
+// Server-sent event stream used as the push channel
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;             // Interface for ordered collections
+
+// Defines a service interface for price alerts on watchlist coins
+public interface PriceAlertService {
+
+    // Creates an alert on a coin of the user's watchlist, throws an exception if the coin is not watched
+    PriceAlert createAlert(Long userId, String coinId, PriceAlertDirection direction, double threshold,
+                           PriceAlertChannel channel) throws Exception;
+
+    // Retrieves a user's alerts, newest first
+    List<PriceAlert> getUserAlerts(Long userId);
+
+    // Cancels one of the user's alerts, throws an exception if it does not exist or belongs to someone else
+    PriceAlert cancelAlert(Long userId, Long alertId) throws Exception;
+
+    // Opens a stream on which the user's PUSH alerts are sent while it stays connected
+    SseEmitter subscribe(Long userId);
+}
@@ -0,0 +1,431 @@
+package com.treu.service;
+
+// Custom enum for the delivery channel of an alert
+import com.treu.domain.PriceAlertChannel;
+// Custom enum for the side of the threshold an alert waits for
+import com.treu.domain.PriceAlertDirection;
+// Immutable quote stored in the price snapshot
+import com.treu.model.CoinQuote;
+// Entity class representing a price alert
+import com.treu.model.PriceAlert;
+// Repository interface for price alert data access
+import com.treu.repository.PriceAlertRepository;
+// Repository interface for user data access
+import com.treu.repository.UserRepository;
+// Daemon thread factory naming the notifier and pusher threads
+import com.treu.utils.NamedThreadFactory;
+// Lifecycle callbacks for the notifier and pusher threads
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring Data pagination request
+import org.springframework.data.domain.PageRequest;
+// Spring annotation for periodically triggered methods
+import org.springframework.scheduling.annotation.Scheduled;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Spring abstraction over the JPA transaction manager
+import org.springframework.transaction.PlatformTransactionManager;
+// Programmatic transaction tying an alert's trigger to its outbox email
+import org.springframework.transaction.support.TransactionTemplate;
+// Server-sent event stream used as the push channel
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;                         // Failed write to a closed stream
+import java.time.LocalDateTime;                     // Date and time class for trigger times
+import java.util.ArrayList;                         // Resizable array implementation of List
+import java.util.HashMap;                           // Hash table implementation of Map
+import java.util.List;                              // Interface for ordered collections
+import java.util.Map;                               // Interface for key-value mappings
+import java.util.Set;                               // Interface for collections without duplicates
+import java.util.concurrent.ArrayBlockingQueue;     // Bounded queue of pending pushes
+import java.util.concurrent.ConcurrentHashMap;      // Thread-safe map of open streams by user
+import java.util.concurrent.ExecutorService;        // Notifier thread
+import java.util.concurrent.Executors;              // Factory for the notifier
+import java.util.concurrent.RejectedExecutionException; // Tick arriving after shutdown, or pushers saturated
+import java.util.concurrent.ThreadPoolExecutor;     // Bounded pool writing to push streams
+import java.util.concurrent.TimeUnit;               // Keep-alive unit of the pusher pool
+import java.util.concurrent.atomic.AtomicBoolean;   // Whether any stream took an alert
+import java.util.concurrent.atomic.AtomicInteger;   // Pending sends
+import java.util.concurrent.atomic.AtomicLong;      // Highest alert id loaded into the index
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class PriceAlertServiceImpl implements PriceAlertService, PriceTickListener {
+
+    // Repository for alert rows
+    private final PriceAlertRepository priceAlertRepository;
+
+    // Repository used to link new alerts to their user without loading it
+    private final UserRepository userRepository;
+
+    // Watched coins of a user; alerts only exist on watched coins
+    private final WatchlistService watchlistService;
+
+    // Durable email delivery
+    private final EmailOutboxService emailOutboxService;
+
+    // Marks an alert as fired and queues its email in one transaction
+    private final TransactionTemplate transactionTemplate;
+
+    // Active alerts by coin, sorted by threshold; ticks only touch the alerts they fire
+    private final PriceAlertIndex index = new PriceAlertIndex();
+
+    // Open push streams by user
+    private final ConcurrentHashMap<Long, Set<PushStream>> streams = new ConcurrentHashMap<>();
+
+    // Highest alert id loaded by the last sync; the next one only reads newer rows
+    private final AtomicLong loadedUpTo = new AtomicLong();
+
+    // Time of the last sync that started from the first id
+    private volatile long lastFullSyncMillis;
+
+    // Active alerts read per query while syncing the index
+    @Value("${price-alert.sync-batch-size:10000}")
+    private int syncBatchSize = 10000;
+
+    // Time after which a sync reloads every active alert rather than only new ones, picking up rows that
+    // committed out of id order on other instances and alerts whose delivery failed
+    @Value("${price-alert.full-sync-interval-ms:3600000}")
+    private long fullSyncIntervalMillis = 3600000;
+
+    // Time a push stream stays open before the client has to reconnect
+    @Value("${price-alert.push.timeout-ms:1800000}")
+    private long pushTimeoutMillis = 1800000;
+
+    // Threads writing alerts to push streams, so a client that reads slowly never stalls the notifier
+    @Value("${price-alert.push.threads:4}")
+    private int pushThreads = 4;
+
+    // Pushes waiting for a pusher thread; past it a push is rejected and the alert goes out by email
+    @Value("${price-alert.push.queue-capacity:1000}")
+    private int pushQueueCapacity = 1000;
+
+    // Sends a stream may have pending before it counts as fallen behind and is closed
+    @Value("${price-alert.push.max-pending-per-stream:16}")
+    private int maxPendingPerStream = 16;
+
+    // Single thread delivering fired alerts, so ticks never wait for the database or the mail outbox
+    private ExecutorService notifier;
+
+    // Bounded pool writing to the push streams
+    private ExecutorService pushers;
+
+    // Constructor injection for repositories, the watchlist, the outbox and the transaction manager
+    public PriceAlertServiceImpl(PriceAlertRepository priceAlertRepository,
+                                 UserRepository userRepository,
+                                 WatchlistService watchlistService,
+                                 EmailOutboxService emailOutboxService,
+                                 PlatformTransactionManager transactionManager) {
+        this.priceAlertRepository = priceAlertRepository;
+        this.userRepository = userRepository;
+        this.watchlistService = watchlistService;
+        this.emailOutboxService = emailOutboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Starts the notifier and pusher threads once the configuration is injected
+    @PostConstruct
+    public void start() {
+        notifier = Executors.newSingleThreadExecutor(new NamedThreadFactory("price-alert-notifier"));
+        pushers = new ThreadPoolExecutor(pushThreads, pushThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(pushQueueCapacity), new NamedThreadFactory("price-alert-pusher"));
+    }
+
+    // Stops the notifier and pusher threads and closes the open streams
+    @PreDestroy
+    public void stop() {
+        notifier.shutdownNow();
+        pushers.shutdownNow();
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> stream.emitter.complete()));
+        streams.clear();
+    }
+
+    // Stores an alert on a watched coin and indexes it right away
+    @Override
+    public PriceAlert createAlert(Long userId, String coinId, PriceAlertDirection direction, double threshold,
+                                  PriceAlertChannel channel) throws Exception {
+        // Checks the request before touching the database
+        if (direction == null) {
+            throw new Exception("alert direction is required");
+        }
+        if (!(threshold > 0)) {
+            throw new Exception("alert threshold must be positive");
+        }
+        // Alerts are attached to watchlist entries
+        if (coinId == null || !watchlistService.getWatchedCoinIds(userId).contains(coinId)) {
+            throw new Exception("coin is not on your watchlist: " + coinId);
+        }
+
+        // Creates the alert, linking the user by reference
+        PriceAlert alert = new PriceAlert();
+        alert.setUser(userRepository.getReferenceById(userId));
+        alert.setCoinId(coinId);
+        alert.setDirection(direction);
+        alert.setThreshold(threshold);
+        alert.setChannel(channel != null ? channel : PriceAlertChannel.EMAIL);
+        alert.setCreatedAt(LocalDateTime.now());
+        PriceAlert saved = priceAlertRepository.save(alert);
+
+        // Indexes the alert so the next tick evaluates it
+        index.add(coinId, direction, entryOf(saved, userId));
+        return saved;
+    }
+
+    // Retrieves a user's alerts, newest first
+    @Override
+    public List<PriceAlert> getUserAlerts(Long userId) {
+        return priceAlertRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    // Deactivates one of the user's alerts and drops it from the index
+    @Override
+    public PriceAlert cancelAlert(Long userId, Long alertId) throws Exception {
+        // Fetches the alert and checks that it belongs to the caller
+        PriceAlert alert = priceAlertRepository.findById(alertId)
+                .orElseThrow(() -> new Exception("alert not found with id " + alertId));
+        if (!alert.getUser().getId().equals(userId)) {
+            throw new Exception("alert not found with id " + alertId);
+        }
+        // Deactivates it; an alert that already fired stays as it is
+        if (priceAlertRepository.deactivate(alertId) > 0) {
+            alert.setActive(false);
+        }
+        index.remove(alert.getCoinId(), alert.getDirection(), alertId, alert.getThreshold());
+        return alert;
+    }
+
+    // Opens a push stream for the user; it is dropped when the client disconnects or the timeout passes
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(pushTimeoutMillis);
+        PushStream stream = new PushStream(emitter);
+        streams.compute(userId, (id, userStreams) -> {
+            Set<PushStream> updated = userStreams != null ? userStreams : ConcurrentHashMap.newKeySet();
+            updated.add(stream);
+            return updated;
+        });
+        Runnable remove = () -> removeStream(userId, stream);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    // Takes the alerts the new price crosses off the index and hands them to the notifier
+    @Override
+    public void onPriceTick(CoinQuote quote, double previousPrice) {
+        List<PriceAlertIndex.Entry> fired = index.fire(quote.getId(), quote.getPrice());
+        if (fired.isEmpty()) {
+            return;
+        }
+        try {
+            notifier.execute(() -> deliver(quote.getId(), quote.getPrice(), fired));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the alerts are still active in the database and are indexed again on the next start
+            log.debug("price alert notifier stopped, {} alerts of {} left for the next start", fired.size(), quote.getId());
+        }
+    }
+
+    // Loads active alerts created since the last sync, by id keyset. Alerts of other instances are
+    // picked up here; an alert indexed twice fires twice at most, and markTriggered lets only one through
+    @Scheduled(fixedDelayString = "${price-alert.sync-interval-ms:30000}")
+    public void syncIndex() {
+        long now = System.currentTimeMillis();
+        long afterId = loadedUpTo.get();
+        if (now - lastFullSyncMillis >= fullSyncIntervalMillis) {
+            afterId = 0;
+            lastFullSyncMillis = now;
+        }
+        int loaded = 0;
+        List<PriceAlert> batch;
+        do {
+            batch = priceAlertRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(
+                    afterId, PageRequest.of(0, syncBatchSize));
+            for (PriceAlert alert : batch) {
+                index.add(alert.getCoinId(), alert.getDirection(), entryOf(alert, alert.getUser().getId()));
+                afterId = alert.getId();
+            }
+            loaded += batch.size();
+        } while (batch.size() == syncBatchSize);
+        loadedUpTo.accumulateAndGet(afterId, Math::max);
+        if (loaded > 0) {
+            log.debug("price alert index synced {} alerts", loaded);
+        }
+    }
+
+    // Number of alerts waiting in the index
+    public int indexedAlertCount() {
+        return index.size();
+    }
+
+    // Delivers alerts fired by a price. Each alert is claimed with a conditional update first, so an alert
+    // fired on several instances is delivered once. Alerts on coins the user no longer watches are
+    // deactivated silently
+    void deliver(String coinId, double price, List<PriceAlertIndex.Entry> fired) {
+        // Loads the fired alerts with their users in one query
+        List<Long> ids = new ArrayList<>(fired.size());
+        for (PriceAlertIndex.Entry entry : fired) {
+            ids.add(entry.alertId);
+        }
+        Map<Long, PriceAlert> alerts = new HashMap<>();
+        for (PriceAlert alert : priceAlertRepository.findWithUserByIdIn(ids)) {
+            alerts.put(alert.getId(), alert);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (PriceAlertIndex.Entry entry : fired) {
+            PriceAlert alert = alerts.get(entry.alertId);
+            if (alert == null || !alert.isActive()) {
+                continue;
+            }
+            try {
+                if (!isWatched(entry.userId, coinId)) {
+                    priceAlertRepository.deactivate(entry.alertId);
+                } else if (entry.channel == PriceAlertChannel.PUSH) {
+                    // Pushes after the claim commits; without an open stream the alert goes out by email
+                    if (priceAlertRepository.markTriggered(entry.alertId, now, price) > 0) {
+                        markDelivered(alert, now, price);
+                        if (!push(entry.userId, alert, price)) {
+                            email(alert, price);
+                        }
+                    }
+                } else {
+                    // Claims the alert and queues its email together, so neither happens without the other
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (priceAlertRepository.markTriggered(entry.alertId, now, price) > 0) {
+                            markDelivered(alert, now, price);
+                            email(alert, price);
+                        }
+                    });
+                }
+            } catch (RuntimeException e) {
+                // The alert stays active in the database and is indexed again by the next full sync
+                log.warn("price alert {} could not be delivered", entry.alertId, e);
+            }
+        }
+    }
+
+    // True if the coin is still on the user's watchlist
+    private boolean isWatched(Long userId, String coinId) {
+        try {
+            return watchlistService.getWatchedCoinIds(userId).contains(coinId);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // Hands a fired alert to the pushers for each of the user's open streams; returns false if no stream can
+    // take it. A stream with too many sends pending is closed rather than queued to. When every send handed
+    // over fails, the last one to finish falls back to email
+    private boolean push(Long userId, PriceAlert alert, double price) {
+        Set<PushStream> userStreams = streams.get(userId);
+        if (userStreams == null) {
+            return false;
+        }
+        List<PushStream> targets = new ArrayList<>(userStreams.size());
+        for (PushStream stream : userStreams) {
+            if (stream.pending.incrementAndGet() <= maxPendingPerStream) {
+                targets.add(stream);
+            } else {
+                drop(userId, stream);
+            }
+        }
+        if (targets.isEmpty()) {
+            return false;
+        }
+        AtomicInteger remaining = new AtomicInteger(targets.size());
+        AtomicBoolean delivered = new AtomicBoolean();
+        boolean accepted = false;
+        for (PushStream stream : targets) {
+            try {
+                pushers.execute(() -> send(userId, stream, alert, price, remaining, delivered));
+                accepted = true;
+            } catch (RejectedExecutionException e) {
+                // Pushers saturated or shutting down; this stream misses the alert
+                stream.pending.decrementAndGet();
+                remaining.decrementAndGet();
+            }
+        }
+        return accepted;
+    }
+
+    // Writes an alert to one stream on a pusher thread
+    private void send(Long userId, PushStream stream, PriceAlert alert, double price,
+                      AtomicInteger remaining, AtomicBoolean delivered) {
+        try {
+            stream.emitter.send(SseEmitter.event().name("price-alert").data(alert));
+            delivered.set(true);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; its completion callback removes the stream
+            stream.emitter.completeWithError(e);
+            removeStream(userId, stream);
+        } finally {
+            if (stream.pending.decrementAndGet() == 0 && stream.dropped) {
+                stream.emitter.complete();            // Closed once its last pending send is done
+            }
+            if (remaining.decrementAndGet() == 0 && !delivered.get()) {
+                try {
+                    email(alert, price);
+                } catch (RuntimeException e) {
+                    log.warn("price alert {} could not be delivered", alert.getId(), e);
+                }
+            }
+        }
+    }
+
+    // Stops routing alerts to a stream that fell behind. Completing it here would wait for the send it is
+    // stuck in, so the pusher finishing its last pending send closes it
+    private void drop(Long userId, PushStream stream) {
+        stream.dropped = true;
+        removeStream(userId, stream);
+        if (stream.pending.decrementAndGet() == 0) {
+            stream.emitter.complete();
+        }
+    }
+
+    // Queues the alert's email in the outbox
+    private void email(PriceAlert alert, double price) {
+        String side = alert.getDirection() == PriceAlertDirection.ABOVE ? "above" : "below";
+        emailOutboxService.enqueue(alert.getUser().getEmail(),
+                String.format("Price alert: %s %s %.2f USD", alert.getCoinId(), side, alert.getThreshold()),
+                String.format("%s is at %.2f USD, %s your alert at %.2f USD.",
+                        alert.getCoinId(), price, side, alert.getThreshold()));
+    }
+
+    // Drops a closed stream, and the user's entry with their last stream
+    private void removeStream(Long userId, PushStream stream) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            userStreams.remove(stream);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    // Reflects the trigger update on the loaded alert, which is what the user receives
+    private static void markDelivered(PriceAlert alert, LocalDateTime now, double price) {
+        alert.setActive(false);
+        alert.setTriggeredAt(now);
+        alert.setTriggeredPrice(price);
+    }
+
+    // Index entry of a stored alert
+    private static PriceAlertIndex.Entry entryOf(PriceAlert alert, Long userId) {
+        return new PriceAlertIndex.Entry(alert.getId(), userId, alert.getThreshold(), alert.getChannel());
+    }
+
+    // An open push stream and the sends queued for it
+    private static final class PushStream {
+        final SseEmitter emitter;                      // Client connection
+        final AtomicInteger pending = new AtomicInteger(); // Sends handed to the pushers and not yet done
+        volatile boolean dropped;                      // Fell behind; closed after its last pending send
+
+        PushStream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
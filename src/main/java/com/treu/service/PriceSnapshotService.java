@@ -0,0 +1,24 @@
+package com.treu.service;
+
+// Entity class representing a cryptocurrency fetched from the market data API
+import com.treu.model.Coin;
+// Immutable quote stored in the snapshot
+import com.treu.model.CoinQuote;
+
+import java.util.Collection;      // Interface for groups of coins and quotes
+
+// Defines a service interface for the in-memory snapshot of the latest coin prices
+public interface PriceSnapshotService {
+
+    // Stores the latest market data of the given coins and notifies tick listeners of changed prices
+    void publish(Collection<Coin> coins);
+
+    // Returns the latest quote of a coin, or null if the coin has not been seen yet
+    CoinQuote getQuote(String coinId);
+
+    // Returns every quote currently held
+    Collection<CoinQuote> getQuotes();
+
+    // Returns the version of the most recent change; increases with every stored quote
+    long getVersion();
+}
@@ -0,0 +1,88 @@
+package com.treu.service;
+
+// Entity class representing a cryptocurrency fetched from the market data API
+import com.treu.model.Coin;
+// Immutable quote stored in the snapshot
+import com.treu.model.CoinQuote;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
+// Lazy lookup of listener beans, which themselves may depend on this service
+import org.springframework.beans.factory.ObjectProvider;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;                       // Interface for groups of coins and quotes
+import java.util.Collections;                      // Read-only views
+import java.util.List;                             // Interface for ordered collections
+import java.util.concurrent.ConcurrentHashMap;     // Thread-safe map of coin id to quote
+import java.util.concurrent.atomic.AtomicLong;     // Monotonic snapshot version
+
+// Marks this class as a Spring service bean
+@Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
+public class PriceSnapshotServiceImpl implements PriceSnapshotService {
+
+    // Latest quote per coin id
+    private final ConcurrentHashMap<String, CoinQuote> quotes = new ConcurrentHashMap<>();
+
+    // Version of the most recent stored quote. Seeded with the start time in milliseconds rather than 0, so a
+    // restarted instance keeps counting above the versions clients were given before the restart (a refresh
+    // stores a few hundred quotes a minute, far fewer than the milliseconds that pass meanwhile)
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    // Components notified of price changes
+    private final ObjectProvider<PriceTickListener> listeners;
+
+    // Constructor injection for the tick listeners
+    public PriceSnapshotServiceImpl(ObjectProvider<PriceTickListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    // Replaces the quote of every coin with a usable price; listeners only hear about actual price moves
+    @Override
+    public void publish(Collection<Coin> coins) {
+        if (coins == null) {
+            return;
+        }
+        List<PriceTickListener> targets = listeners.orderedStream().toList();
+        long now = System.currentTimeMillis();
+        for (Coin coin : coins) {
+            if (coin == null || coin.getId() == null || coin.getCurrentPrice() <= 0) {
+                continue;                      // Skips coins without market data
+            }
+            CoinQuote quote = CoinQuote.of(coin, version.incrementAndGet(), now);
+            CoinQuote previous = quotes.put(coin.getId(), quote);
+            double previousPrice = previous == null ? 0 : previous.getPrice();
+            if (previousPrice == quote.getPrice()) {
+                continue;
+            }
+            for (PriceTickListener listener : targets) {
+                try {
+                    listener.onPriceTick(quote, previousPrice);
+                } catch (RuntimeException e) {
+                    // One failing listener must not stop the others from seeing the tick
+                    log.warn("price tick listener {} failed for {}", listener.getClass().getSimpleName(), coin.getId(), e);
+                }
+            }
+        }
+    }
+
+    // Returns the latest quote of a coin
+    @Override
+    public CoinQuote getQuote(String coinId) {
+        return coinId == null ? null : quotes.get(coinId);
+    }
+
+    // Returns a read-only view of every quote
+    @Override
+    public Collection<CoinQuote> getQuotes() {
+        return Collections.unmodifiableCollection(quotes.values());
+    }
+
+    // Returns the current snapshot version
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+}
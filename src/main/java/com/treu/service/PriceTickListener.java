@@ -0,0 +1,11 @@
+package com.treu.service;
+
+// Immutable quote stored in the snapshot
+import com.treu.model.CoinQuote;
+
+// Callback for components that maintain state derived from coin prices (portfolios, alerts)
+public interface PriceTickListener {
+
+    // Called after a coin's price changed; previousPrice is 0 the first time the coin is seen
+    void onPriceTick(CoinQuote quote, double previousPrice);
+}
@@ -0,0 +1,24 @@
+package com.treu.service;
+
+// Custom exception for user-related errors
+import com.treu.exception.UserException;
+// Entity class representing a user
+import com.treu.model.User;
+// Response carrying the new token pair
+import com.treu.response.AuthResponse;
+
+// Defines a service interface for issuing, rotating and revoking refresh tokens
+public interface RefreshTokenService {
+
+    // Issues a refresh token starting a new rotation family for the user
+    String createRefreshToken(User user);
+
+    // Exchanges a refresh token for a new access token and refresh token; the old one cannot be used again
+    AuthResponse refresh(String refreshToken) throws UserException;
+
+    // Revokes the refresh token's whole rotation family (logout)
+    void revoke(String refreshToken);
+
+    // Revokes every refresh token of a user (e.g. after a password reset)
+    void revokeAllForUser(Long userId);
+}
@@ -0,0 +1,163 @@
+package com.treu.service;
+
+// Utility class for generating access tokens
+import com.treu.config.JwtProvider;
+// Custom exception for user-related errors
+import com.treu.exception.UserException;
+// Immutable principal carried by the access token
+import com.treu.model.AuthenticatedUser;
+// Entity class representing a refresh token
+import com.treu.model.RefreshToken;
+// Entity class representing a user
+import com.treu.model.User;
+// Repository interface for refresh token data access
+import com.treu.repository.RefreshTokenRepository;
+// Response carrying the new token pair
+import com.treu.response.AuthResponse;
+// Lombok annotation for a logger field
+import lombok.extern.slf4j.Slf4j;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation for periodically running a method
+import org.springframework.scheduling.annotation.Scheduled;
+// Authentication carrying the user's email and role into the access token
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+// Spring annotation to mark this class as a service
+import org.springframework.stereotype.Service;
+// Spring annotation for transaction management
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;   // Encoding of the token before hashing
+import java.security.MessageDigest;          // SHA-256 of the token
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;           // Source of the token bytes
+import java.time.LocalDateTime;              // Date and time class for expiry
+import java.time.temporal.ChronoUnit;        // Unit of the configured lifetime
+import java.util.Base64;                     // URL-safe text form of the token
+import java.util.HexFormat;                  // Hex form of the hash
+import java.util.List;                       // Authorities of the access token
+import java.util.UUID;                       // Rotation family ids
+
+// Marks this class as a Spring service bean
+@Slf4j
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    // Generator for the token bytes
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Repository for refresh tokens
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    // Lifetime of a refresh token; every rotation starts a new one
+    @Value("${jwt.refresh-token.ttl-ms:1209600000}")
+    private long ttlMillis = 1209600000L;
+
+    // Constructor injection for the refresh token repository
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    // Issues a token in a new family
+    @Override
+    @Transactional
+    public String createRefreshToken(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    // Rotates a token. Presenting a token that was already rotated means it leaked (the legitimate client
+    // would hold its successor), so the whole family is revoked and both parties must sign in again
+    @Override
+    @Transactional   // UserException is checked, so a revoked family is committed despite the throw
+    public AuthResponse refresh(String refreshToken) throws UserException {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new UserException("invalid refresh token");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken));
+        if (token == null || token.getRevokedAt() != null) {
+            throw new UserException("invalid refresh token");
+        }
+        if (token.getUsedAt() != null) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {}, family {} revoked", token.getUser().getId(), token.getFamilyId());
+            throw new UserException("invalid refresh token");
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new UserException("refresh token expired");
+        }
+        token.setUsedAt(now);
+        refreshTokenRepository.save(token);
+
+        User user = token.getUser();
+        AuthResponse response = new AuthResponse();
+        response.setJwt(accessToken(user));
+        response.setRefreshToken(issue(user, token.getFamilyId()));
+        response.setStatus(true);
+        response.setMessage("Token refreshed");
+        return response;
+    }
+
+    // Revokes the family of a token; unknown tokens are ignored
+    @Override
+    @Transactional
+    public void revoke(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return;
+        }
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(refreshToken));
+        if (token != null) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now());
+        }
+    }
+
+    // Revokes all tokens of a user
+    @Override
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+    }
+
+    // Deletes tokens a day after they expire; used and revoked ones are kept until then for reuse detection
+    @Scheduled(cron = "${jwt.refresh-token.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now().minusDays(1));
+        log.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    // Creates and saves a token in the given family, returning its client form
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(value));
+        token.setFamilyId(familyId);
+        token.setUser(user);
+        token.setExpiresAt(LocalDateTime.now().plus(ttlMillis, ChronoUnit.MILLIS));
+        refreshTokenRepository.save(token);
+        return value;
+    }
+
+    // Access token for the user with their role as authority; the principal's claims are re-read on every refresh
+    private static String accessToken(User user) {
+        List<SimpleGrantedAuthority> authorities = user.getRole() != null
+                ? List.of(new SimpleGrantedAuthority(user.getRole().name()))
+                : List.of();
+        return JwtProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(user), null, authorities));
+    }
+
+    // Hex SHA-256 of a token
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.treu.service;
+
+// Custom enum for the lot matching method
+import com.treu.domain.CostBasisMethod;
+
+// Tax lots of one position held in a ring buffer of primitive arrays: FIFO sells consume from the head,
+// LIFO sells from the tail, both without shifting; AVERAGE only needs the running totals
+final class TaxLotBook {
+
+    // Quantities at or below this are treated as zero to absorb floating point residue
+    private static final double EPSILON = 1e-9;
+
+    private final CostBasisMethod method;          // Matching method used for sells
+    private double[] quantities = new double[8];  // Remaining quantity per lot, capacity is a power of two
+    private double[] prices = new double[8];      // Unit price per lot
+    private int head;                             // Index of the oldest lot
+    private int count;                            // Number of open lots
+
+    private double totalQuantity;                 // Sum of open quantities
+    private double totalCost;                     // Sum of open quantity * price
+
+    TaxLotBook(CostBasisMethod method) {
+        this.method = method;
+    }
+
+    // Opens a lot for a buy fill
+    synchronized void buy(double quantity, double price) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity should be > 0");
+        }
+        totalQuantity += quantity;
+        totalCost += quantity * price;
+        if (method == CostBasisMethod.AVERAGE) {
+            return;                                // Average cost needs no individual lots
+        }
+        if (count == quantities.length) {
+            grow();
+        }
+        int tail = (head + count) & (quantities.length - 1);
+        quantities[tail] = quantity;
+        prices[tail] = price;
+        count++;
+    }
+
+    // Closes lots for a sell fill and returns the cost basis of the quantity sold
+    synchronized double sell(double quantity) {
+        if (quantity > totalQuantity + EPSILON) {
+            throw new IllegalStateException("cannot sell " + quantity + ", only " + totalQuantity + " held");
+        }
+        double cost;
+        if (method == CostBasisMethod.AVERAGE) {
+            cost = totalQuantity > 0 ? quantity * totalCost / totalQuantity : 0;
+        } else {
+            cost = consumeLots(quantity);
+        }
+        totalQuantity -= quantity;
+        totalCost -= cost;
+        if (totalQuantity <= EPSILON) {             // Position closed: drop any residue
+            totalQuantity = 0;
+            totalCost = 0;
+            head = 0;
+            count = 0;
+        }
+        return cost;
+    }
+
+    // Drops every open lot, as when the position is deleted with dust left in it
+    synchronized void clear() {
+        totalQuantity = 0;
+        totalCost = 0;
+        head = 0;
+        count = 0;
+    }
+
+    // Quantity still held
+    synchronized double getQuantity() {
+        return totalQuantity;
+    }
+
+    // Average unit cost of the quantity still held
+    synchronized double getAverageCost() {
+        return totalQuantity > 0 ? totalCost / totalQuantity : 0;
+    }
+
+    // Number of open lots (always 0 for AVERAGE)
+    synchronized int getLotCount() {
+        return count;
+    }
+
+    // Takes quantity from the head (FIFO) or the tail (LIFO), summing the cost of what was taken
+    private double consumeLots(double quantity) {
+        int mask = quantities.length - 1;
+        double remaining = quantity;
+        double cost = 0;
+        while (remaining > EPSILON && count > 0) {
+            int lot = method == CostBasisMethod.FIFO ? head : (head + count - 1) & mask;
+            double taken = Math.min(remaining, quantities[lot]);
+            cost += taken * prices[lot];
+            quantities[lot] -= taken;
+            remaining -= taken;
+            if (quantities[lot] <= EPSILON) {       // Lot fully consumed
+                if (method == CostBasisMethod.FIFO) {
+                    head = (head + 1) & mask;
+                }
+                count--;
+            }
+        }
+        return cost;
+    }
+
+    // Doubles the ring buffer, unrolling it so the oldest lot lands at index 0
+    private void grow() {
+        int capacity = quantities.length;
+        double[] newQuantities = new double[capacity * 2];
+        double[] newPrices = new double[capacity * 2];
+        int first = capacity - head;               // Lots from head to the end of the array
+        System.arraycopy(quantities, head, newQuantities, 0, first);
+        System.arraycopy(quantities, 0, newQuantities, first, head);
+        System.arraycopy(prices, head, newPrices, 0, first);
+        System.arraycopy(prices, 0, newPrices, first, head);
+        quantities = newQuantities;
+        prices = newPrices;
+        head = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TaxLotBook(" + method + ", quantity=" + totalQuantity + ", cost=" + totalCost + ", lots=" + count + ")";
+    }
+}
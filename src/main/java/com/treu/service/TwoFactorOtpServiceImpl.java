@@ -4,25 +4,37 @@ package com.treu.service;
 import com.treu.model.TwoFactorOTP;
 // Entity class representing a user
 import com.treu.model.User;
-// Repository interface for two-factor OTP data access
-import com.treu.repository.TwoFactorOtpRepository;
-// Spring annotation for dependency injection
-import org.springframework.beans.factory.annotation.Autowired;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;        // Wrapper for handling nullable values
+import java.time.Duration;       // Lifetime of a pending login
 import java.util.UUID;           // Utility for generating unique identifiers
 
 // Marks this class as a Spring service bean
 @Service
 public class TwoFactorOtpServiceImpl implements TwoFactorOtpService {
 
-    // Repository for performing CRUD operations on TwoFactorOTP entities
-    @Autowired
-    private TwoFactorOtpRepository twoFactorOtpRepository;
+    // Key prefix of sessions by ID
+    private static final String SESSION_KEY = "2fa:session:";
 
-    // Creates and saves a new two-factor OTP for a user with OTP and JWT
+    // Key prefix of the current session ID by user ID
+    private static final String USER_KEY = "2fa:user:";
+
+    // Store holding pending two-factor logins
+    private final EphemeralTokenStore tokenStore;
+
+    // Time a user has to enter the OTP
+    @Value("${auth.two-factor.otp-ttl-ms:300000}")
+    private long ttlMillis = 300000;
+
+    // Constructor injection for the token store
+    public TwoFactorOtpServiceImpl(EphemeralTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    // Creates a two-factor session for a user with OTP and JWT, replacing the user's previous one
     @Override
     public TwoFactorOTP createTwoFactorOtp(User user, String otp, String jwt) {
         UUID uuid = UUID.randomUUID();          // Generates a random UUID
@@ -34,34 +46,43 @@ public class TwoFactorOtpServiceImpl implements TwoFactorOtpService {
         twoFactorOTP.setOtp(otp);               // Sets the one-time password
         twoFactorOTP.setJwt(jwt);               // Sets the JSON Web Token
 
-        // Saves and returns the two-factor OTP entity
-        return twoFactorOtpRepository.save(twoFactorOTP);
+        // Invalidates the previous session so only the latest OTP works
+        String previousId = tokenStore.get(USER_KEY + user.getId(), String.class);
+        if (previousId != null) {
+            tokenStore.remove(SESSION_KEY + previousId);
+        }
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        tokenStore.put(SESSION_KEY + id, twoFactorOTP, ttl);
+        tokenStore.put(USER_KEY + user.getId(), id, ttl);
+        return twoFactorOTP;
     }
 
-    // Finds a two-factor OTP by the associated user's ID
+    // Finds the pending two-factor session of a user
     @Override
     public TwoFactorOTP findByUser(Long userId) {
-        // Queries the repository for the OTP linked to the user ID
-        return twoFactorOtpRepository.findByUserId(userId);
+        String id = tokenStore.get(USER_KEY + userId, String.class);
+        return id != null ? findById(id) : null;  // Returns null if the user has no live session
     }
 
-    // Finds a two-factor OTP by its ID
+    // Finds a two-factor session by its ID
     @Override
     public TwoFactorOTP findById(String id) {
-        // Queries the repository for the OTP, returns an Optional
-        Optional<TwoFactorOTP> twoFactorOtp = twoFactorOtpRepository.findById(id);
-        return twoFactorOtp.orElse(null);       // Returns the OTP or null if not found
+        return tokenStore.get(SESSION_KEY + id, TwoFactorOTP.class); // Returns null if missing or expired
     }
 
-    // Verifies if the provided OTP matches the stored OTP
+    // Verifies the provided OTP in constant time, counting failed attempts against the session
     @Override
     public boolean verifyTwoFactorOtp(TwoFactorOTP twoFactorOtp, String otp) {
-        return twoFactorOtp.getOtp().equals(otp); // Returns true if OTPs match, false otherwise
+        if (twoFactorOtp == null) {
+            return false;                       // Unknown or expired session
+        }
+        return tokenStore.verifyCode(SESSION_KEY + twoFactorOtp.getId(), twoFactorOtp.getOtp(), otp);
     }
 
-    // Deletes a specified two-factor OTP
+    // Deletes a two-factor session
     @Override
     public void deleteTwoFactorOtp(TwoFactorOTP twoFactorOTP) {
-        twoFactorOtpRepository.delete(twoFactorOTP); // Removes the OTP from the database
+        tokenStore.remove(SESSION_KEY + twoFactorOTP.getId());
+        tokenStore.remove(USER_KEY + twoFactorOTP.getUser().getId());
     }
 }
@@ -0,0 +1,117 @@
+package com.treu.service;
+
+// Entity class representing a user
+import com.treu.model.User;
+// Immutable snapshot of a user held by the shared level
+import com.treu.model.UserProfile;
+// Size bound shared by the in-memory caches
+import com.treu.utils.BoundedMaps;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring annotation to mark this class as a component
+import org.springframework.stereotype.Component;
+// Access to the current request's attributes
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;   // Thread-safe map for the shared entries
+import java.util.concurrent.atomic.AtomicLong;   // Invalidation counter
+
+// Two-level cache of users resolved from a JWT: one instance per request, plus a short-TTL shared map by email.
+// The shared level holds immutable profiles and hands out a new entity per request, so callers can modify and
+// save their user without touching the cache
+@Component
+public class UserProfileCache {
+
+    // Request attribute holding the user resolved for the current request
+    private static final String REQUEST_ATTRIBUTE = UserProfileCache.class.getName() + ".user";
+
+    // Shared entry: the user's profile and the time it stops being served
+    private static final class Entry {
+        final UserProfile profile;    // Immutable, shared by every reader
+        final long expiresAtMillis;   // Load time plus TTL
+
+        Entry(UserProfile profile, long expiresAtMillis) {
+            this.profile = profile;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // Shared entries by email
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation; a load that overlaps one is not cached, as it may have read the old row
+    private final AtomicLong generation = new AtomicLong();
+
+    // Time a shared entry is served; bounds staleness across instances, which do not see each other's invalidations
+    @Value("${user.profile-cache.ttl-ms:30000}")
+    private long ttlMillis = 30000;
+
+    // Maximum number of shared entries
+    @Value("${user.profile-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    // Returns the user for the email from the request or the shared level, or null if it must be loaded
+    public User get(String email) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object user = request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (user instanceof User && email.equals(((User) user).getEmail())) {
+                return (User) user;
+            }
+        }
+
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(email, entry);
+            return null;
+        }
+        User user = entry.profile.toUser();
+        remember(request, user);
+        return user;
+    }
+
+    // Current invalidation count; read before loading a user and pass it to put
+    public long generation() {
+        return generation.get();
+    }
+
+    // Caches a user loaded from the database, unless an invalidation happened since the load began
+    public void put(String email, User user, long loadedAtGeneration) {
+        remember(RequestContextHolder.getRequestAttributes(), user);
+        if (ttlMillis <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            long now = System.currentTimeMillis();
+            BoundedMaps.trim(entries, maxSize, entry -> entry.expiresAtMillis <= now);
+        }
+        entries.put(email, new Entry(UserProfile.of(user), System.currentTimeMillis() + ttlMillis));
+        // Re-check after publishing: an invalidation between the read and the put must win
+        if (generation.get() != loadedAtGeneration) {
+            entries.remove(email);
+        }
+    }
+
+    // Drops a user from both levels after their profile, password or 2FA settings change
+    public void invalidate(String email) {
+        generation.incrementAndGet();
+        if (email != null) {
+            entries.remove(email);
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.removeAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // Stores the user on the current request, if there is one
+    private static void remember(RequestAttributes request, User user) {
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
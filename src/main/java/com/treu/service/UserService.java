@@ -4,6 +4,8 @@ package com.treu.service;
 import com.treu.domain.VerificationType;
 // Custom exception for user-related errors
 import com.treu.exception.UserException;
+// Immutable principal of an authenticated request
+import com.treu.model.AuthenticatedUser;
 // Entity class representing a user
 import com.treu.model.User;
 
@@ -13,6 +15,9 @@ public interface UserService {
     // Retrieves a user's profile using a JSON Web Token (JWT), throws UserException on error
     public User findUserProfileByJwt(String jwt) throws UserException;
 
+    // Retrieves the caller's principal from a JWT without loading the user when the token carries it
+    public AuthenticatedUser findPrincipalByJwt(String jwt) throws UserException;
+
     // Finds a user by their email address, throws UserException if not found or error occurs
     public User findUserByEmail(String email) throws UserException;
 
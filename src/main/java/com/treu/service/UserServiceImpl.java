@@ -6,6 +6,8 @@ import com.treu.config.JwtProvider;
 import com.treu.domain.VerificationType;
 // Custom exception for user-related errors
 import com.treu.exception.UserException;
+// Immutable principal of an authenticated request
+import com.treu.model.AuthenticatedUser;
 // Entity class for two-factor authentication settings
 import com.treu.model.TwoFactorAuth;
 // Entity class representing a user
@@ -33,22 +35,44 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    // Cache of users resolved from JWTs, invalidated whenever this service changes a user
+    @Autowired
+    private UserProfileCache userProfileCache;
+
     // Finds a user's profile using a JWT token
     @Override
     public User findUserProfileByJwt(String jwt) throws UserException {
         // Extracts email from the JWT token
         String email = JwtProvider.getEmailFromJwtToken(jwt);
 
+        // Serves the user from the request or the shared cache when possible
+        User cached = userProfileCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+
         // Queries the repository for the user by email
+        long generation = userProfileCache.generation();
         User user = userRepository.findByEmail(email);
 
         // Throws exception if user is not found
         if (user == null) {
             throw new UserException("user not exist with email " + email);
         }
+        userProfileCache.put(email, user, generation);
         return user; // Returns the found user
     }
 
+    // Returns the principal from the token's claims; tokens issued without them resolve it from the profile
+    @Override
+    public AuthenticatedUser findPrincipalByJwt(String jwt) throws UserException {
+        AuthenticatedUser principal = JwtProvider.getPrincipalFromJwtToken(jwt);
+        if (principal != null) {
+            return principal;
+        }
+        return AuthenticatedUser.of(findUserProfileByJwt(jwt));
+    }
+
     // Finds a user by their email address
     @Override
     public User findUserByEmail(String username) throws UserException {
@@ -81,7 +105,9 @@ public class UserServiceImpl implements UserService {
     @Override
     public User verifyUser(User user) throws UserException {
         user.setVerified(true);         // Marks the user as verified
-        return userRepository.save(user); // Saves and returns the updated user
+        User saved = userRepository.save(user); // Saves the updated user
+        userProfileCache.invalidate(user.getEmail()); // Drops the cached profile
+        return saved;
     }
 
     // Enables two-factor authentication for a user
@@ -92,7 +118,9 @@ public class UserServiceImpl implements UserService {
         twoFactorAuth.setSendTo(verificationType);        // Sets the verification method (e.g., EMAIL, SMS)
 
         user.setTwoFactorAuth(twoFactorAuth);             // Associates two-factor settings with the user
-        return userRepository.save(user);                 // Saves and returns the updated user
+        User saved = userRepository.save(user);           // Saves the updated user
+        userProfileCache.invalidate(user.getEmail());     // Drops the cached profile
+        return saved;
     }
 
     // Updates a user's password with a new encoded password
@@ -100,7 +128,9 @@ public class UserServiceImpl implements UserService {
     public User updatePassword(User user, String newPassword) {
         // Encodes the new password and sets it
         user.setPassword(passwordEncoder.encode(newPassword));
-        return userRepository.save(user);                 // Saves and returns the updated user
+        User saved = userRepository.save(user);           // Saves the updated user
+        userProfileCache.invalidate(user.getEmail());     // Drops the cached profile
+        return saved;
     }
 
     // Sends an OTP for password update (currently unimplemented)
@@ -6,65 +6,77 @@ import com.treu.domain.VerificationType;
 import com.treu.model.User;
 // Entity class representing a verification code
 import com.treu.model.VerificationCode;
-// Repository interface for verification code data access
-import com.treu.repository.VerificationRepository;
 // Utility class for generating OTPs
 import com.treu.utils.OtpUtils;
-// Spring annotation for dependency injection
-import org.springframework.beans.factory.annotation.Autowired;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;        // Wrapper for handling nullable values
+import java.time.Duration;        // Lifetime of a verification code
 
 // Marks this class as a Spring service bean
 @Service
 public class VerificationServiceImpl implements VerificationService {
 
-    // Repository for performing CRUD operations on VerificationCode entities
-    @Autowired
-    private VerificationRepository verificationRepository;
+    // Key prefix of verification codes by user ID
+    private static final String KEY = "verification:user:";
 
-    // Sends a verification OTP by creating and saving a VerificationCode
+    // Store holding pending verification codes
+    private final EphemeralTokenStore tokenStore;
+
+    // Time a verification code stays valid
+    @Value("${auth.verification.otp-ttl-ms:600000}")
+    private long ttlMillis = 600000;
+
+    // Constructor injection for the token store
+    public VerificationServiceImpl(EphemeralTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    // Creates a verification code with a fresh OTP, replacing the user's previous one
     @Override
     public VerificationCode sendVerificationOTP(User user, VerificationType verificationType) {
         VerificationCode verificationCode = new VerificationCode(); // Creates a new VerificationCode instance
 
+        verificationCode.setId(user.getId());            // One pending code per user
         verificationCode.setOtp(OtpUtils.generateOTP()); // Generates and sets a random OTP
         verificationCode.setUser(user);                  // Associates the code with the user
         verificationCode.setVerificationType(verificationType); // Sets the verification method
 
-        // Saves and returns the verification code
-        return verificationRepository.save(verificationCode);
+        // Stores the code until it expires
+        tokenStore.put(KEY + user.getId(), verificationCode, Duration.ofMillis(ttlMillis));
+        return verificationCode;
     }
 
     // Finds a verification code by its ID, throws exception if not found
     @Override
     public VerificationCode findVerificationById(Long id) throws Exception {
-        // Queries the repository for the verification code by ID
-        Optional<VerificationCode> verificationCodeOption = verificationRepository.findById(id);
-        if (verificationCodeOption.isEmpty()) {          // Checks if the code exists
+        VerificationCode verificationCode = tokenStore.get(KEY + id, VerificationCode.class);
+        if (verificationCode == null) {                  // Checks if the code exists and is live
             throw new Exception("verification not found"); // Throws exception if not found
         }
-        return verificationCodeOption.get();             // Returns the found verification code
+        return verificationCode;                         // Returns the found verification code
     }
 
-    // Finds a user's verification code by their ID
+    // Finds a user's pending verification code, or null if none is live
     @Override
     public VerificationCode findUsersVerification(User user) throws Exception {
-        // Queries the repository for the verification code by user ID
-        return verificationRepository.findByUserId(user.getId());
+        return tokenStore.get(KEY + user.getId(), VerificationCode.class);
     }
 
-    // Verifies if the provided OTP matches the stored OTP in the verification code
+    // Verifies the provided OTP in constant time, counting failed attempts against the code
     @Override
     public Boolean VerifyOtp(String opt, VerificationCode verificationCode) {
-        return opt.equals(verificationCode.getOtp());    // Returns true if OTPs match, false otherwise
+        if (verificationCode == null) {
+            return false;                                // No live code to verify against
+        }
+        return tokenStore.verifyCode(KEY + verificationCode.getId(), verificationCode.getOtp(), opt);
     }
 
     // Deletes a specified verification code
     @Override
     public void deleteVerification(VerificationCode verificationCode) {
-        verificationRepository.delete(verificationCode); // Removes the verification code from the database
+        tokenStore.remove(KEY + verificationCode.getId()); // Removes the verification code from the store
     }
 }
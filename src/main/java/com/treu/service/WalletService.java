@@ -15,15 +15,24 @@ public interface WalletService {
     // Retrieves the wallet associated with a specific user, throws WalletException on error
     Wallet getUserWallet(User user) throws WalletException;
 
+    // Retrieves the wallet of a user by ID, loading the user only if a wallet must be created
+    Wallet getUserWallet(Long userId) throws WalletException;
+
     // Adds a specified amount of money to a wallet, throws WalletException on error
     public Wallet addBalanceToWallet(Wallet wallet, Long money) throws WalletException;
 
     // Finds a wallet by its ID, throws WalletException if not found or error occurs
     public Wallet findWalletById(Long id) throws WalletException;
 
-    // Transfers an amount from a sender's wallet to a receiver's wallet, throws WalletException on error
-    public Wallet walletToWalletTransfer(User sender, Wallet receiverWallet, Long amount) throws WalletException;
+    // Transfers an amount from a sender's wallet to a receiver's wallet and books both legs, throws WalletException on error
+    public Wallet walletToWalletTransfer(User sender, Wallet receiverWallet, Long amount, String purpose) throws WalletException;
+
+    // Transfers an amount from the wallet of the sender with the given ID and books both legs, throws WalletException on error
+    public Wallet walletToWalletTransfer(Long senderId, Wallet receiverWallet, Long amount, String purpose) throws WalletException;
 
     // Processes payment for an order using a user's wallet, throws WalletException on error
     public Wallet payOrderPayment(Order order, User user) throws WalletException;
+
+    // Processes payment for an order using the wallet of the user with the given ID, throws WalletException on error
+    public Wallet payOrderPayment(Order order, Long userId) throws WalletException;
 }
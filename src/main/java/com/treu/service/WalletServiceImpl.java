@@ -2,6 +2,8 @@ package com.treu.service;
 
 // Custom enum for defining order types (e.g., BUY, SELL)
 import com.treu.domain.OrderType;
+// Custom enum for the kind of ledger row written
+import com.treu.domain.WalletTransactionType;
 // Custom exception for wallet-related errors
 import com.treu.exception.WalletException;
 // Entity class for orders
@@ -12,6 +14,8 @@ import com.treu.model.User;
 import com.treu.model.Wallet;
 // Entity class for wallet transactions
 import com.treu.model.WalletTransaction;
+// Repository interface for user data access
+import com.treu.repository.UserRepository;
 // Repository interface for wallet data access
 import com.treu.repository.WalletRepository;
 // Repository interface for wallet transaction data access
@@ -20,6 +24,8 @@ import com.treu.repository.WalletTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
+// Spring annotation for declarative transactions
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;      // High-precision decimal class for financial calculations
 import java.time.LocalDate;       // Date class for transaction timestamps
@@ -37,6 +43,10 @@ public class WalletServiceImpl implements WalletService {
     @Autowired
     private WalletTransactionRepository walletTransactionRepository;
 
+    // Repository for loading the owner of a wallet that has to be created
+    @Autowired
+    private UserRepository userRepository;
+
     // Generates a new wallet for a user and saves it
     public Wallet genrateWallete(User user) { // Note: "genrateWallete" seems to be a typo for "generateWallet"
         Wallet wallet = new Wallet();         // Creates a new Wallet instance
@@ -57,6 +67,21 @@ public class WalletServiceImpl implements WalletService {
         return wallet;                        // Returns the new wallet
     }
 
+    // Retrieves a user's wallet by user ID; the user is loaded only to create a missing wallet
+    @Override
+    public Wallet getUserWallet(Long userId) throws WalletException {
+        // Queries for an existing wallet by user ID
+        Wallet wallet = walletRepository.findByUserId(userId);
+        if (wallet != null) {                 // Returns existing wallet if found
+            return wallet;
+        }
+
+        // Loads the user to link the new wallet to
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new WalletException("User not found with id " + userId));
+        return genrateWallete(user);          // Creates and returns a new wallet
+    }
+
     // Finds a wallet by its ID, throws exception if not found
     @Override
     public Wallet findWalletById(Long id) throws WalletException {
@@ -69,9 +94,24 @@ public class WalletServiceImpl implements WalletService {
 
     // Transfers an amount from sender's wallet to receiver's wallet
     @Override
-    public Wallet walletToWalletTransfer(User sender, Wallet receiverWallet, Long amount) throws WalletException {
-        Wallet senderWallet = getUserWallet(sender); // Gets sender's wallet
+    @Transactional
+    public Wallet walletToWalletTransfer(User sender, Wallet receiverWallet, Long amount, String purpose) throws WalletException {
+        return transfer(getUserWallet(sender), receiverWallet, amount, purpose);
+    }
+
+    // Transfers an amount from the wallet of the sender with the given ID to receiver's wallet
+    @Override
+    @Transactional
+    public Wallet walletToWalletTransfer(Long senderId, Wallet receiverWallet, Long amount, String purpose) throws WalletException {
+        return transfer(getUserWallet(senderId), receiverWallet, amount, purpose);
+    }
 
+    // Moves the amount between two loaded wallets and books both legs on the ledger
+    private Wallet transfer(Wallet senderWallet, Wallet receiverWallet, Long amount, String purpose) throws WalletException {
+        // Rejects amounts that would move money the other way
+        if (amount == null || amount <= 0) {
+            throw new WalletException("Transfer amount must be positive");
+        }
         // Checks if sender has sufficient balance
         if (senderWallet.getBalance().compareTo(BigDecimal.valueOf(amount)) < 0) {
             throw new WalletException("Insufficient balance...");
@@ -88,14 +128,39 @@ public class WalletServiceImpl implements WalletService {
         receiverWallet.setBalance(receiverBalance);
         walletRepository.save(receiverWallet);  // Saves updated receiver wallet
 
+        // Books the debit on the sender and the matching credit on the receiver, each naming the other wallet
+        walletTransactionRepository.save(transferRow(senderWallet, receiverWallet, purpose, -amount));
+        walletTransactionRepository.save(transferRow(receiverWallet, senderWallet, purpose, amount));
+
         return senderWallet;                    // Returns sender's updated wallet
     }
 
+    // Ledger row of one leg of a transfer
+    private static WalletTransaction transferRow(Wallet wallet, Wallet counterparty, String purpose, long amount) {
+        WalletTransaction transaction = new WalletTransaction();
+        transaction.setWallet(wallet);          // Wallet the leg is booked on
+        transaction.setType(WalletTransactionType.WALLET_TRANSFER);
+        transaction.setDate(LocalDate.now());   // Sets current date
+        transaction.setTransferId(counterparty.getId() != null ? counterparty.getId().toString() : null);
+        transaction.setPurpose(purpose);        // Free text entered by the sender
+        transaction.setAmount(amount);          // Signed: negative on the sender, positive on the receiver
+        return transaction;
+    }
+
     // Processes payment for an order using a user's wallet
     @Override
     public Wallet payOrderPayment(Order order, User user) throws WalletException {
-        Wallet wallet = getUserWallet(user);    // Gets user's wallet
+        return pay(order, getUserWallet(user));
+    }
+
+    // Processes payment for an order using the wallet of the user with the given ID
+    @Override
+    public Wallet payOrderPayment(Order order, Long userId) throws WalletException {
+        return pay(order, getUserWallet(userId));
+    }
 
+    // Debits or credits a loaded wallet for an order
+    private Wallet pay(Order order, Wallet wallet) throws WalletException {
         // Creates a transaction record for the payment
         WalletTransaction walletTransaction = new WalletTransaction();
         walletTransaction.setWallet(wallet);    // Links transaction to wallet
@@ -104,7 +169,7 @@ public class WalletServiceImpl implements WalletService {
         walletTransaction.setTransferId(order.getOrderItem().getCoin().getSymbol()); // Sets coin symbol as transfer ID
 
         if (order.getOrderType().equals(OrderType.BUY)) { // Handles BUY order
-            // Commented-out: walletTransaction.setType(WalletTransactionType.BUY_ASSET);
+            walletTransaction.setType(WalletTransactionType.BUY_ASSET); // Classifies the row as an order payment
             walletTransaction.setAmount(-order.getPrice().longValue()); // Negative amount for debit
             BigDecimal newBalance = wallet.getBalance().subtract(order.getPrice()); // Calculates new balance
 
@@ -116,7 +181,7 @@ public class WalletServiceImpl implements WalletService {
             System.out.println("outside---------- ");
             wallet.setBalance(newBalance);      // Updates wallet balance
         } else if (order.getOrderType().equals(OrderType.SELL)) { // Handles SELL order
-            // Commented-out: walletTransaction.setType(WalletTransactionType.SELL_ASSET);
+            walletTransaction.setType(WalletTransactionType.SELL_ASSET); // Classifies the row as an order payment
             walletTransaction.setAmount(order.getPrice().longValue()); // Positive amount for credit
             BigDecimal newBalance = wallet.getBalance().add(order.getPrice()); // Calculates new balance
             wallet.setBalance(newBalance);      // Updates wallet balance
@@ -6,6 +6,10 @@ import com.treu.model.Coin;
 import com.treu.model.User;
 // Entity class representing a watchlist
 import com.treu.model.Watchlist;
+// Compact watchlist with prices
+import com.treu.response.WatchlistView;
+
+import java.util.Set;              // Interface for collections without duplicates
 
 // Defines a service interface for managing watchlist-related operations
 public interface WatchlistService {
@@ -19,6 +23,13 @@ public interface WatchlistService {
     // Finds a watchlist by its ID, throws an exception if not found or error occurs
     Watchlist findById(Long id) throws Exception;
 
-    // Adds a coin to a user's watchlist, throws an exception if operation fails
-    Coin addItemToWatchlist(Coin coin, User user) throws Exception;
+    // Toggles a coin on the watchlist of the user with the given ID, throws an exception if operation fails
+    Coin addItemToWatchlist(Coin coin, Long userId) throws Exception;
+
+    // Retrieves the IDs of the coins a user watches without loading the coins, throws an exception if not found
+    Set<String> getWatchedCoinIds(Long userId) throws Exception;
+
+    // Renders a user's watched coins with their latest prices; with since and the membership fingerprint of an
+    // earlier view, returns only the quotes changed after that version, throws an exception if not found
+    WatchlistView getWatchlistView(Long userId, Long since, Integer membership) throws Exception;
 }
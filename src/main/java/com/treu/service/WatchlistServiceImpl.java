@@ -2,27 +2,79 @@ package com.treu.service;
 
 // Entity class representing a cryptocurrency
 import com.treu.model.Coin;
+// Immutable quote from the in-memory price snapshot
+import com.treu.model.CoinQuote;
 // Entity class representing a user
 import com.treu.model.User;
 // Entity class representing a watchlist
 import com.treu.model.Watchlist;
+// Repository interface for coin data access
+import com.treu.repository.CoinRepository;
 // Repository interface for watchlist data access
 import com.treu.repository.WatchlistRepository;
+// Compact quote of one watched coin
+import com.treu.response.WatchlistQuote;
+// Compact watchlist with prices
+import com.treu.response.WatchlistView;
+// Size bound shared by the in-memory caches
+import com.treu.utils.BoundedMaps;
 // Spring annotation for dependency injection
 import org.springframework.beans.factory.annotation.Autowired;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Exception thrown when an insert violates a unique key
+import org.springframework.dao.DataIntegrityViolationException;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;        // Wrapper for handling nullable values
+import java.util.ArrayList;                      // Resizable lists for the rendered view
+import java.util.Collections;                    // Read-only views of the cached sets
+import java.util.List;                           // Interface for ordered collections
+import java.util.Optional;                       // Wrapper for handling nullable values
+import java.util.Set;                            // Interface for collections without duplicates
+import java.util.concurrent.ConcurrentHashMap;   // Thread-safe map and set for the cached entries
+import java.util.concurrent.locks.ReentrantLock; // Serializes toggles of one user without pinning virtual threads
 
 // Marks this class as a Spring service bean
 @Service
 public class WatchlistServiceImpl implements WatchlistService {
 
+    // Cached watchlist of a user: its ID and the IDs of its coins, changed only while holding the lock
+    private static final class WatchedCoins {
+        final Long watchlistId;                                   // ID of the watchlist row
+        final Set<String> coinIds = ConcurrentHashMap.newKeySet(); // IDs of the watched coins
+        final ReentrantLock lock = new ReentrantLock();           // Held while a toggle runs
+        final long expiresAtMillis;                               // Load time plus TTL
+
+        WatchedCoins(Long watchlistId, long expiresAtMillis) {
+            this.watchlistId = watchlistId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
     // Repository for performing CRUD operations on Watchlist entities
     @Autowired
     private WatchlistRepository watchlistRepository;
 
+    // Repository for coins no price tick has reached yet
+    @Autowired
+    private CoinRepository coinRepository;
+
+    // In-memory snapshot of the latest coin prices
+    @Autowired
+    private PriceSnapshotService priceSnapshotService;
+
+    // Cached coin IDs by user ID
+    private final ConcurrentHashMap<Long, WatchedCoins> watchedCoins = new ConcurrentHashMap<>();
+
+    // Time an entry is served; bounds staleness across instances, which do not see each other's toggles
+    @Value("${watchlist.cache.ttl-ms:60000}")
+    private long ttlMillis = 60000;
+
+    // Maximum number of cached users
+    @Value("${watchlist.cache.max-size:10000}")
+    private int maxSize = 10000;
+
     // Retrieves a user's watchlist by their ID, throws exception if not found
     @Override
     public Watchlist findUserWatchlist(Long userId) throws Exception {
@@ -39,7 +91,9 @@ public class WatchlistServiceImpl implements WatchlistService {
     public Watchlist createWatchList(User user) {
         Watchlist watchlist = new Watchlist(); // Creates a new Watchlist instance
         watchlist.setUser(user);               // Associates the watchlist with the user
-        return watchlistRepository.save(watchlist); // Saves and returns the watchlist
+        Watchlist saved = watchlistRepository.save(watchlist); // Saves the watchlist
+        watchedCoins.remove(user.getId());     // Drops any entry pointing at an older watchlist
+        return saved;                          // Returns the saved watchlist
     }
 
     // Finds a watchlist by its ID, throws exception if not found
@@ -53,18 +107,109 @@ public class WatchlistServiceImpl implements WatchlistService {
         return optionalWatchlist.get();        // Returns the found watchlist
     }
 
-    // Adds or removes a coin from a user's watchlist, toggling its presence
+    // Adds or removes a coin from a user's watchlist, toggling its presence with a single insert or delete.
+    // The cached set decides which; if it was stale, the statement reports it and the opposite one runs
     @Override
-    public Coin addItemToWatchlist(Coin coin, User user) throws Exception {
-        Watchlist watchlist = findUserWatchlist(user.getId()); // Retrieves user's watchlist
-
-        // Toggles coin presence: removes if present, adds if absent
-        if (watchlist.getCoins().contains(coin)) {
-            watchlist.getCoins().remove(coin); // Removes coin from watchlist
-        } else {
-            watchlist.getCoins().add(coin);    // Adds coin to watchlist
+    public Coin addItemToWatchlist(Coin coin, Long userId) throws Exception {
+        WatchedCoins watched = watchedCoins(userId); // Cached IDs, loaded on first use
+        String coinId = coin.getId();
+
+        watched.lock.lock();
+        try {
+            if (watched.coinIds.contains(coinId)) {
+                // Removes the coin; no row deleted means it was already gone, so the toggle adds it
+                if (watchlistRepository.removeCoin(watched.watchlistId, coinId) > 0) {
+                    watched.coinIds.remove(coinId);
+                } else {
+                    watchlistRepository.addCoin(watched.watchlistId, coinId);
+                    watched.coinIds.add(coinId);
+                }
+            } else {
+                // Adds the coin; a duplicate key means it was already there, so the toggle removes it
+                try {
+                    watchlistRepository.addCoin(watched.watchlistId, coinId);
+                    watched.coinIds.add(coinId);
+                } catch (DataIntegrityViolationException e) {
+                    watchlistRepository.removeCoin(watched.watchlistId, coinId);
+                    watched.coinIds.remove(coinId);
+                }
+            }
+        } catch (RuntimeException e) {
+            watchedCoins.remove(userId, watched); // Unknown outcome: reload on next use
+            throw e;
+        } finally {
+            watched.lock.unlock();
         }
-        watchlistRepository.save(watchlist);   // Saves the updated watchlist
         return coin;                           // Returns the coin (unchanged)
     }
+
+    // Retrieves the cached IDs of the coins a user watches, as a read-only view
+    @Override
+    public Set<String> getWatchedCoinIds(Long userId) throws Exception {
+        return Collections.unmodifiableSet(watchedCoins(userId).coinIds);
+    }
+
+    // Joins the user's cached coin IDs against the price snapshot; no query runs unless a coin has no quote yet
+    @Override
+    public WatchlistView getWatchlistView(Long userId, Long since, Integer membership) throws Exception {
+        // Reads the version first: a quote stored meanwhile is sent now and again next time, never skipped
+        long version = priceSnapshotService.getVersion();
+
+        List<String> coinIds = new ArrayList<>(watchedCoins(userId).coinIds);
+        Collections.sort(coinIds);
+        // Sorted-list hash, the same on every instance; a toggle since the earlier view forces a full one, and
+        // so does a version this snapshot has not reached (one from another instance or from before a restart)
+        int fingerprint = coinIds.hashCode();
+        boolean full = since == null || membership == null || membership != fingerprint || since > version;
+
+        List<WatchlistQuote> quotes = new ArrayList<>(coinIds.size());
+        List<String> unpriced = new ArrayList<>();
+        for (String coinId : coinIds) {
+            CoinQuote quote = priceSnapshotService.getQuote(coinId);
+            if (quote == null) {
+                if (full) {
+                    unpriced.add(coinId);
+                }
+            } else if (full || quote.getVersion() > since) {
+                quotes.add(new WatchlistQuote(quote.getId(), quote.getSymbol(), quote.getName(), quote.getImage(),
+                        quote.getPrice(), quote.getPriceChange24h(), quote.getPriceChangePercentage24h(),
+                        quote.getVersion()));
+            }
+        }
+        // Coins no tick has reached yet are served from their stored rows, in one query
+        if (!unpriced.isEmpty()) {
+            for (Coin coin : coinRepository.findAllById(unpriced)) {
+                quotes.add(new WatchlistQuote(coin.getId(), coin.getSymbol(), coin.getName(), coin.getImage(),
+                        coin.getCurrentPrice(), coin.getPriceChange24h(), coin.getPriceChangePercentage24h(), 0));
+            }
+        }
+        return new WatchlistView(version, fingerprint, full, coinIds, quotes);
+    }
+
+    // Returns the live cache entry of a user, loading their watchlist ID and coin IDs on a miss
+    private WatchedCoins watchedCoins(Long userId) throws Exception {
+        long now = System.currentTimeMillis();
+        WatchedCoins cached = watchedCoins.get(userId);
+        if (cached != null && cached.expiresAtMillis > now) {
+            return cached;
+        }
+
+        // Two queries on the watchlist and join table; the coins themselves are never loaded
+        Long watchlistId = watchlistRepository.findIdByUserId(userId);
+        if (watchlistId == null) {
+            throw new Exception("watch not found");
+        }
+        WatchedCoins loaded = new WatchedCoins(watchlistId, now + ttlMillis);
+        loaded.coinIds.addAll(watchlistRepository.findCoinIds(watchlistId));
+
+        if (watchedCoins.size() >= maxSize) {
+            BoundedMaps.trim(watchedCoins, maxSize, entry -> entry.expiresAtMillis <= now);
+        }
+        // Keeps an entry another thread published meanwhile, so concurrent toggles share one lock
+        if (cached == null) {
+            WatchedCoins raced = watchedCoins.putIfAbsent(userId, loaded);
+            return raced != null ? raced : loaded;
+        }
+        return watchedCoins.replace(userId, cached, loaded) ? loaded : watchedCoins.getOrDefault(userId, loaded);
+    }
 }
@@ -1,24 +1,48 @@
 package com.treu.service;
 
+// Custom enum for defining withdrawal statuses (e.g., PENDING, SUCCESS, DECLINE)
+import com.treu.domain.WithdrawalStatus;
+// Custom exception for wallet-related errors
+import com.treu.exception.WalletException;
 // Entity class representing a user
 import com.treu.model.User;
 // Entity class representing a withdrawal
 import com.treu.model.Withdrawal;
+// One page of the admin withdrawal queue
+import com.treu.response.WithdrawalPage;
+// Outcome of settling one withdrawal
+import com.treu.response.WithdrawalResult;
+// Count and total amount of one withdrawal status
+import com.treu.response.WithdrawalStatusSummary;
+// Server-sent event stream of queue changes
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;    // Date and time class for the page cursor
 import java.util.List;             // Interface for ordered collections
 
 // Defines a service interface for managing withdrawal-related operations
 public interface WithdrawalService {
 
-    // Requests a new withdrawal for a specified amount by a user
-    Withdrawal requestWithdrawal(Long amount, User user);
+    // Requests a new withdrawal for a specified amount by a user, reserving the amount from their wallet;
+    // throws an exception if the balance does not cover it
+    Withdrawal requestWithdrawal(Long amount, User user) throws WalletException;
 
     // Processes a withdrawal request (approve or reject), throws an exception if error occurs
     Withdrawal procedWithdrawal(Long withdrawalId, boolean accept) throws Exception;
 
-    // Retrieves a user's withdrawal history
-    List<Withdrawal> getUsersWithdrawalHistory(User user);
+    // Approves or declines many pending withdrawals in one transaction, returning one result per ID in order
+    List<WithdrawalResult> proceedWithdrawals(List<Long> withdrawalIds, boolean accept) throws WalletException;
 
-    // Fetches all pending withdrawal requests across all users
-    List<Withdrawal> getAllWithdrawalRequest();
+    // Retrieves the withdrawal history of the user with the given ID
+    List<Withdrawal> getUsersWithdrawalHistory(Long userId);
+
+    // Retrieves one page of withdrawals in a status, oldest first; pass the cursor of the previous page to
+    // continue after it, or null for the first page
+    WithdrawalPage getWithdrawalQueue(WithdrawalStatus status, LocalDateTime afterDate, Long afterId, int size);
+
+    // Counts and sums the withdrawals of every status
+    List<WithdrawalStatusSummary> getWithdrawalSummary();
+
+    // Opens a stream on which new pending withdrawals and settlements are sent as they commit
+    SseEmitter subscribeToQueue();
 }
@@ -1,77 +1,336 @@
 package com.treu.service;
 
+// Custom enum for defining wallet transaction types (e.g., DEPOSIT, WITHDRAWAL)
+import com.treu.domain.WalletTransactionType;
 // Custom enum for defining withdrawal statuses (e.g., PENDING, SUCCESS, DECLINE)
 import com.treu.domain.WithdrawalStatus;
+// Custom exception for wallet-related errors
+import com.treu.exception.WalletException;
 // Entity class representing a user
 import com.treu.model.User;
+// Entity class representing a wallet
+import com.treu.model.Wallet;
+// Entity class representing a wallet transaction
+import com.treu.model.WalletTransaction;
 // Entity class representing a withdrawal
 import com.treu.model.Withdrawal;
+// Repository interface for wallet data access
+import com.treu.repository.WalletRepository;
+// Repository interface for wallet transaction data access
+import com.treu.repository.WalletTransactionRepository;
 // Repository interface for withdrawal data access
 import com.treu.repository.WithdrawalRepository;
+// One page of the admin withdrawal queue
+import com.treu.response.WithdrawalPage;
+// Outcome of settling one withdrawal
+import com.treu.response.WithdrawalResult;
+// Count and total amount of one withdrawal status
+import com.treu.response.WithdrawalStatusSummary;
+// Daemon thread factory naming the publisher thread
+import com.treu.utils.NamedThreadFactory;
+// Lifecycle callbacks for the stream publisher thread
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+// Lombok annotation to generate an SLF4J logger
+import lombok.extern.slf4j.Slf4j;
 // Spring annotation for dependency injection
 import org.springframework.beans.factory.annotation.Autowired;
+// Spring annotation for injecting configuration values
+import org.springframework.beans.factory.annotation.Value;
+// Spring Data pagination request
+import org.springframework.data.domain.PageRequest;
 // Spring annotation to mark this class as a service
 import org.springframework.stereotype.Service;
+// Runs the reservation and each settlement batch in one transaction
+import org.springframework.transaction.annotation.Transactional;
+// Hooks for publishing queue changes after the surrounding transaction commits
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+// Server-sent event stream of queue changes
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;       // Failed write to a closed stream
+import java.math.BigDecimal;      // High-precision decimal class for wallet amounts
+import java.time.LocalDate;       // Date class for ledger entries
 import java.time.LocalDateTime;   // Date and time class for withdrawal timestamps
-import java.util.List;           // Interface for ordered collections
-import java.util.Optional;       // Wrapper for handling nullable values
+import java.util.ArrayList;       // Resizable array implementation of List
+import java.util.HashMap;         // Hash table implementation of Map
+import java.util.LinkedHashMap;   // Refund totals per user, in request order
+import java.util.LinkedHashSet;   // Requested ids without duplicates, in request order
+import java.util.List;            // Interface for ordered collections
+import java.util.Map;             // Interface for key-value mappings
+import java.util.Set;             // Interface for collections without duplicates
+import java.util.concurrent.ConcurrentHashMap;    // Thread-safe set of open streams
+import java.util.concurrent.ExecutorService;      // Stream publisher thread
+import java.util.concurrent.Executors;            // Factory for the publisher
+import java.util.concurrent.RejectedExecutionException; // Change committed during shutdown
 
 // Marks this class as a Spring service bean
 @Service
+// Generates a static SLF4J logger named 'log'
+@Slf4j
 public class WithdrawalServiceImpl implements WithdrawalService {
 
     // Repository for performing CRUD operations on Withdrawal entities
     @Autowired
     private WithdrawalRepository withdrawalRepository;
 
-    // Requests a new withdrawal with a specified amount for a user
+    // Repository for reserving and refunding wallet balances in place
+    @Autowired
+    private WalletRepository walletRepository;
+
+    // Repository for the ledger entries of reservations and refunds
+    @Autowired
+    private WalletTransactionRepository walletTransactionRepository;
+
+    // Service finding, or creating, the wallet of the requesting user
+    @Autowired
+    private WalletService walletService;
+
+    // Maximum number of withdrawals settled by one batch request
+    @Value("${withdrawal.batch.max-size:500}")
+    private int maxBatchSize = 500;
+
+    // Largest page of the admin queue
+    @Value("${withdrawal.queue.max-page-size:200}")
+    private int maxPageSize = 200;
+
+    // Time a queue stream stays open before the admin UI has to reconnect
+    @Value("${withdrawal.queue.stream-timeout-ms:1800000}")
+    private long streamTimeoutMillis = 1800000;
+
+    // Open queue streams of admin UIs on this instance
+    private final Set<SseEmitter> queueStreams = ConcurrentHashMap.newKeySet();
+
+    // Single thread writing queue events, so a slow admin connection never holds up a request
+    private ExecutorService publisher;
+
+    // Starts the stream publisher thread
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadExecutor(new NamedThreadFactory("withdrawal-queue-publisher"));
+    }
+
+    // Stops the publisher thread and closes the open streams
+    @PreDestroy
+    public void stop() {
+        publisher.shutdownNow();
+        queueStreams.forEach(SseEmitter::complete);
+        queueStreams.clear();
+    }
+
+    // Reserves the amount from the user's wallet and records the withdrawal and its ledger entry together.
+    // The reservation is a conditional update, so concurrent requests cannot overdraw the wallet
     @Override
-    public Withdrawal requestWithdrawal(Long amount, User user) {
+    @Transactional(rollbackFor = Exception.class)
+    public Withdrawal requestWithdrawal(Long amount, User user) throws WalletException {
+        // Rejects empty and negative amounts, which would credit the wallet
+        if (amount == null || amount <= 0) {
+            throw new WalletException("Withdrawal amount must be positive");
+        }
+        Wallet wallet = walletService.getUserWallet(user.getId());
+
+        // Reserves the funds; nothing is written if the balance does not cover them
+        if (walletRepository.debitIfSufficient(wallet.getId(), BigDecimal.valueOf(amount)) == 0) {
+            throw new WalletException("Insufficient balance...");
+        }
+
         Withdrawal withdrawal = new Withdrawal();      // Creates a new Withdrawal instance
         withdrawal.setAmount(amount);                  // Sets the withdrawal amount
         withdrawal.setStatus(WithdrawalStatus.PENDING); // Sets initial status to PENDING
         withdrawal.setDate(LocalDateTime.now());       // Sets the current date and time
         withdrawal.setUser(user);                      // Associates the withdrawal with the user
-        return withdrawalRepository.save(withdrawal);  // Saves and returns the withdrawal
+        withdrawal = withdrawalRepository.save(withdrawal);
+
+        // Records the debit in the ledger, referencing the withdrawal
+        walletTransactionRepository.save(ledgerEntry(wallet, -amount, withdrawal.getId(), "bank account withdrawal"));
+        // Shows the new withdrawal in open admin queues once it is committed
+        publishAfterCommit("withdrawal-pending", withdrawal);
+        return withdrawal;
     }
 
     // Processes a withdrawal request, approving or rejecting it
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Withdrawal procedWithdrawal(Long withdrawalId, boolean accept) throws Exception { // Note: "proced" typo
-        // Queries the repository for the withdrawal by ID
-        Optional<Withdrawal> withdrawalOptional = withdrawalRepository.findById(withdrawalId);
-
-        // Throws exception if withdrawal is not found
-        if (withdrawalOptional.isEmpty()) {
-            throw new Exception("withdrawal id is wrong...");
+        WithdrawalResult result = proceedWithdrawals(List.of(withdrawalId), accept).get(0);
+        // Throws if the withdrawal does not exist or was already settled
+        if (!result.isApplied()) {
+            throw new Exception(result.getMessage());
         }
+        // Returns the settled withdrawal from the persistence context
+        return withdrawalRepository.findById(withdrawalId).orElseThrow();
+    }
 
-        Withdrawal withdrawal = withdrawalOptional.get(); // Retrieves the withdrawal
+    // Settles pending withdrawals in one transaction. The rows are locked first, so each one is settled once
+    // even when admins work the same queue; declined amounts go back to each withdrawal's owner
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<WithdrawalResult> proceedWithdrawals(List<Long> withdrawalIds, boolean accept) throws WalletException {
+        LinkedHashSet<Long> ids = new LinkedHashSet<>(withdrawalIds);
+        if (ids.size() > maxBatchSize) {
+            throw new WalletException("At most " + maxBatchSize + " withdrawals can be settled at once");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
 
-        withdrawal.setDate(LocalDateTime.now());          // Updates the date to current time
+        // Loads and locks every requested withdrawal with one query
+        Map<Long, Withdrawal> withdrawals = new HashMap<>();
+        for (Withdrawal withdrawal : withdrawalRepository.findAllForUpdateByIdIn(ids)) {
+            withdrawals.put(withdrawal.getId(), withdrawal);
+        }
 
-        // Sets status based on acceptance
-        if (accept) {
-            withdrawal.setStatus(WithdrawalStatus.SUCCESS); // Approves the withdrawal
-        } else {
-            withdrawal.setStatus(WithdrawalStatus.DECLINE); // Rejects the withdrawal
+        LocalDateTime now = LocalDateTime.now();
+        WithdrawalStatus status = accept ? WithdrawalStatus.SUCCESS : WithdrawalStatus.DECLINE;
+        List<Withdrawal> settled = new ArrayList<>(withdrawals.size());
+        List<WithdrawalResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Withdrawal withdrawal = withdrawals.get(id);
+            if (withdrawal == null) {
+                results.add(new WithdrawalResult(id, false, null, "withdrawal id is wrong..."));
+            } else if (withdrawal.getStatus() != WithdrawalStatus.PENDING) {
+                results.add(new WithdrawalResult(id, false, withdrawal.getStatus(), "withdrawal is already processed"));
+            } else {
+                // Managed entity; the change is flushed with the others at commit
+                withdrawal.setStatus(status);
+                withdrawal.setDate(now);
+                settled.add(withdrawal);
+                results.add(new WithdrawalResult(id, true, status, null));
+            }
         }
 
-        return withdrawalRepository.save(withdrawal);     // Saves and returns the updated withdrawal
+        // Returns the reserved amounts of declined withdrawals to their owners
+        if (!accept && !settled.isEmpty()) {
+            refund(settled);
+        }
+        // Removes the settled withdrawals from open admin queues once the batch is committed
+        if (!settled.isEmpty()) {
+            publishAfterCommit("withdrawal-settled",
+                    results.stream().filter(WithdrawalResult::isApplied).toList());
+        }
+        return results;
     }
 
     // Retrieves a user's withdrawal history
     @Override
-    public List<Withdrawal> getUsersWithdrawalHistory(User user) {
+    public List<Withdrawal> getUsersWithdrawalHistory(Long userId) {
         // Fetches all withdrawals for the user by their ID
-        return withdrawalRepository.findByUserId(user.getId());
+        return withdrawalRepository.findByUserId(userId);
+    }
+
+    // Retrieves one page of a status by (date, id) keyset, reading one extra row to tell whether more follow
+    @Override
+    public WithdrawalPage getWithdrawalQueue(WithdrawalStatus status, LocalDateTime afterDate, Long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Withdrawal> rows = afterDate == null || afterId == null
+                ? withdrawalRepository.findQueueFirstPage(status, page)
+                : withdrawalRepository.findQueuePageAfter(status, afterDate, afterId, page);
+        if (rows.size() <= limit) {
+            return new WithdrawalPage(rows, null, null);
+        }
+        List<Withdrawal> items = rows.subList(0, limit);
+        Withdrawal last = items.get(limit - 1);
+        return new WithdrawalPage(new ArrayList<>(items), last.getDate(), last.getId());
+    }
+
+    // Counts and sums every status with one grouped query
+    @Override
+    public List<WithdrawalStatusSummary> getWithdrawalSummary() {
+        List<WithdrawalStatusSummary> summary = new ArrayList<>();
+        for (Object[] row : withdrawalRepository.summarizeByStatus()) {
+            summary.add(new WithdrawalStatusSummary(
+                    (WithdrawalStatus) row[0], ((Number) row[1]).longValue(), ((Number) row[2]).longValue()));
+        }
+        return summary;
     }
 
-    // Fetches all withdrawal requests across all users
+    // Opens a queue stream; it is dropped when the client disconnects or the timeout passes
     @Override
-    public List<Withdrawal> getAllWithdrawalRequest() {
-        // Retrieves all withdrawals from the repository
-        return withdrawalRepository.findAll();
+    public SseEmitter subscribeToQueue() {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        queueStreams.add(emitter);
+        emitter.onCompletion(() -> queueStreams.remove(emitter));
+        emitter.onTimeout(() -> queueStreams.remove(emitter));
+        emitter.onError(e -> queueStreams.remove(emitter));
+        return emitter;
+    }
+
+    // Credits each owner once with the total of their declined withdrawals and records one ledger entry per withdrawal
+    private void refund(List<Withdrawal> declined) {
+        // Sums the refunds per user
+        Map<Long, Long> totals = new LinkedHashMap<>();
+        for (Withdrawal withdrawal : declined) {
+            totals.merge(withdrawal.getUser().getId(), withdrawal.getAmount(), Long::sum);
+        }
+
+        // Loads the owners' wallets with one query
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findByUserIdIn(totals.keySet())) {
+            wallets.put(wallet.getUser().getId(), wallet);
+        }
+
+        List<WalletTransaction> entries = new ArrayList<>(declined.size());
+        for (Withdrawal withdrawal : declined) {
+            Wallet wallet = wallets.get(withdrawal.getUser().getId());
+            // The reservation debited this wallet, so a missing one means the data is broken; rolls back the batch
+            if (wallet == null) {
+                throw new IllegalStateException("No wallet for the owner of withdrawal " + withdrawal.getId());
+            }
+            entries.add(ledgerEntry(wallet, withdrawal.getAmount(), withdrawal.getId(), "withdrawal declined"));
+        }
+        for (Map.Entry<Long, Long> total : totals.entrySet()) {
+            walletRepository.credit(wallets.get(total.getKey()).getId(), BigDecimal.valueOf(total.getValue()));
+        }
+        walletTransactionRepository.saveAll(entries);
+    }
+
+    // Sends an event to the open queue streams after the current transaction commits, or right away outside one
+    private void publishAfterCommit(String event, Object data) {
+        if (queueStreams.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event, data);
+                }
+            });
+        } else {
+            publish(event, data);
+        }
+    }
+
+    // Hands an event to the publisher thread
+    private void publish(String event, Object data) {
+        try {
+            publisher.execute(() -> {
+                for (SseEmitter emitter : queueStreams) {
+                    try {
+                        emitter.send(SseEmitter.event().name(event).data(data));
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away; the admin UI reloads the page when it reconnects
+                        emitter.completeWithError(e);
+                        queueStreams.remove(emitter);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("withdrawal queue publisher stopped, {} not streamed", event);
+        }
+    }
+
+    // Ledger entry of a withdrawal; debits are negative, refunds positive
+    private static WalletTransaction ledgerEntry(Wallet wallet, long amount, Long withdrawalId, String purpose) {
+        WalletTransaction transaction = new WalletTransaction();
+        transaction.setWallet(wallet);
+        transaction.setType(WalletTransactionType.WITHDRAWAL);
+        transaction.setDate(LocalDate.now());
+        transaction.setTransferId(String.valueOf(withdrawalId));
+        transaction.setPurpose(purpose);
+        transaction.setAmount(amount);
+        return transaction;
     }
 }
@@ -0,0 +1,23 @@
+package com.treu.utils;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+// Size bound shared by the in-memory caches. A full cache first drops its expired entries and then arbitrary
+// ones, in hash order, until a tenth of its capacity is free, so trims stay rare and cost no bookkeeping per read
+public final class BoundedMaps {
+
+    private BoundedMaps() {
+    }
+
+    // Makes room in a map holding up to maxSize entries; 'expired' picks the entries that are no longer useful
+    public static <K, V> void trim(ConcurrentMap<K, V> map, int maxSize, Predicate<? super V> expired) {
+        map.values().removeIf(expired);
+        Iterator<K> keys = map.keySet().iterator();
+        for (int i = map.size() - maxSize * 9 / 10; i > 0 && keys.hasNext(); i--) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
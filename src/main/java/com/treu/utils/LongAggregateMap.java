@@ -0,0 +1,103 @@
+package com.treu.utils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+// Open-addressing map from a long key to a running (sum, count) pair, used by batch jobs that aggregate
+// millions of rows per id and cannot afford a boxed map entry per row. Sums are exact, as they hold money
+public class LongAggregateMap {
+
+    // Marker for an unused slot; ids produced by the database are never Long.MIN_VALUE
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;                // Keys, EMPTY where the slot is free
+    private BigDecimal[] sums;          // Running sum per key, null until the key is added
+    private long[] counts;              // Running count per key
+    private int size;                   // Number of keys in use
+    private int mask;                   // capacity - 1, capacity is always a power of two
+
+    // Creates a map sized for the expected number of keys without resizing
+    public LongAggregateMap(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    // Adds an amount and a count to the key's aggregate, inserting the key if needed
+    public void add(long key, BigDecimal amount, long count) {
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {      // First time this key is seen
+            keys[slot] = key;
+            sums[slot] = BigDecimal.ZERO;
+            size++;
+        }
+        sums[slot] = sums[slot].add(amount);
+        counts[slot] += count;
+        if (size * 2 > keys.length) {   // Keeps the load factor at or below one half
+            resize();
+        }
+    }
+
+    // Returns the summed amount for the key, zero when absent
+    public BigDecimal sum(long key) {
+        int slot = slotOf(key);
+        return keys[slot] == EMPTY ? BigDecimal.ZERO : sums[slot];
+    }
+
+    // Returns the summed count for the key, zero when absent
+    public long count(long key) {
+        int slot = slotOf(key);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    // Returns true when the key has been added
+    public boolean containsKey(long key) {
+        return keys[slotOf(key)] != EMPTY;
+    }
+
+    // Number of distinct keys
+    public int size() {
+        return size;
+    }
+
+    // Linear probe for the key's slot, or the free slot where it would go
+    private int slotOf(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Spreads sequential ids across the table (murmur3 finalizer)
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    // Doubles the table and re-inserts every key
+    private void resize() {
+        long[] oldKeys = keys;
+        BigDecimal[] oldSums = sums;
+        long[] oldCounts = counts;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                sums[slot] = oldSums[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    // Allocates empty arrays of the given power-of-two capacity
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        sums = new BigDecimal[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -1,24 +1,36 @@
 package com.treu.utils;
 
-import java.util.Random;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 
 // Utility class for generating One-Time Passwords (OTPs)
 public class OtpUtils {
 
+    // Shared cryptographically strong generator; OTPs must not be predictable from earlier ones
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     // Generates a random 6-digit OTP as a string
     public static String generateOTP() {
         int otpLength = 6;              // Defines the length of the OTP (6 digits)
 
-        Random random = new Random();   // Creates a Random instance for generating numbers
-
         // StringBuilder to efficiently build the OTP string
         StringBuilder otp = new StringBuilder(otpLength);
 
         // Loops to generate each digit of the OTP
         for (int i = 0; i < otpLength; i++) {
-            otp.append(random.nextInt(10)); // Appends a random digit (0-9)
+            otp.append(RANDOM.nextInt(10)); // Appends a random digit (0-9)
         }
 
         return otp.toString();          // Converts StringBuilder to String and returns the OTP
     }
+
+    // Compares an expected OTP with a submitted one in time independent of where they differ
+    public static boolean matches(String expected, String submitted) {
+        if (expected == null || submitted == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                submitted.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -1,5 +1,7 @@
 package com.treu.config;
 
+import com.treu.domain.USER_ROLE;
+import com.treu.model.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
@@ -8,12 +10,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.Authentication;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.crypto.SecretKey;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -81,6 +91,40 @@ public class JwtProviderTest {
         assertTrue(claims.getExpiration().after(new Date()));
     }
 
+    /**
+     * Test for generateToken method with an AuthenticatedUser principal
+     * Verifies that the principal's id and flags survive the round trip through the token
+     */
+    @Test
+    void generateToken_WithAuthenticatedUser_ShouldCarryPrincipal() {
+        // Arrange
+        AuthenticatedUser principal = new AuthenticatedUser(42L, TEST_EMAIL, USER_ROLE.ROLE_ADMIN, true, true);
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null,
+                List.of(new SimpleGrantedAuthority(USER_ROLE.ROLE_ADMIN.name())));
+
+        // Act
+        String token = JwtProvider.generateToken(auth);
+        AuthenticatedUser parsed = JwtProvider.getPrincipalFromJwtToken("Bearer " + token);
+
+        // Assert
+        assertEquals(principal, parsed);
+        assertEquals(TEST_EMAIL, JwtProvider.getEmailFromJwtToken("Bearer " + token));
+    }
+
+    /**
+     * Test for getPrincipalFromJwtToken method with a token issued without a principal
+     * Verifies that null is returned so callers fall back to loading the user
+     */
+    @Test
+    void getPrincipalFromJwtToken_WithoutUserId_ShouldReturnNull() {
+        // Arrange
+        String token = JwtProvider.generateToken(new UsernamePasswordAuthenticationToken(TEST_EMAIL, null,
+                List.of(new SimpleGrantedAuthority(TEST_ROLE))));
+
+        // Act & Assert
+        assertNull(JwtProvider.getPrincipalFromJwtToken("Bearer " + token));
+    }
+
     /**
      * Test for getEmailFromJwtToken method
      * Verifies correct email extraction from a valid JWT token
@@ -163,4 +207,52 @@ public class JwtProviderTest {
             JwtProvider.getEmailFromJwtToken(expiredToken);
         });
     }
+
+    /**
+     * Test for getEmailFromJwtToken method within a request
+     * Verifies that claims verified by JwtTokenValidator are reused instead of parsing the token again
+     */
+    @Test
+    void getEmailFromJwtToken_WithVerifiedRequestClaims_ShouldReuseClaims() {
+        // Arrange: a request carrying claims for an opaque token that would fail to parse
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(JwtConstant.JWT_TOKEN_ATTRIBUTE, "opaque");
+        request.setAttribute(JwtConstant.JWT_CLAIMS_ATTRIBUTE, Jwts.claims(Map.of("email", TEST_EMAIL)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        try {
+            // Act & Assert: the stored claims answer for their own token only
+            assertEquals(TEST_EMAIL, JwtProvider.getEmailFromJwtToken("Bearer opaque"));
+            assertThrows(Exception.class, () -> JwtProvider.getEmailFromJwtToken("Bearer other"));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * Test for JwtTokenValidator with an expired token
+     * Verifies that the request is answered with 401 instead of failing, so the client can refresh and retry
+     */
+    @Test
+    void jwtTokenValidator_WithExpiredToken_ShouldAnswerUnauthorized() throws Exception {
+        // Arrange: a request carrying an expired token
+        String expiredToken = Jwts.builder()
+                .setIssuedAt(new Date(System.currentTimeMillis() - 2000))
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .claim("email", TEST_EMAIL)
+                .signWith(TEST_KEY)
+                .compact();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(JwtConstant.JWT_HEADER, "Bearer " + expiredToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        new JwtTokenValidator(new VerifiedTokenCache(16)).doFilter(request, response, chain);
+
+        // Assert: 401 with the bearer challenge, and the request goes no further
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer error=\"invalid_token\"", response.getHeader("WWW-Authenticate"));
+        assertNull(chain.getRequest());
+    }
 }
@@ -0,0 +1,72 @@
+package com.treu.config;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of JwtTokenValidator's per-request cost with and without the verified-token cache.
+ * Not a unit test; run with
+ * mvn test-compile exec:java -Dexec.mainClass=com.treu.config.JwtTokenValidatorBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenValidatorBenchmark {
+
+    private final FilterChain chain = (request, response) -> { };
+    private JwtTokenValidator cached;
+    private JwtTokenValidator uncached;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    /**
+     * Builds one signed token and both filters; the cached filter sees the token once before measuring
+     */
+    @Setup
+    public void setUp() throws Exception {
+        String token = JwtProvider.generateToken(new UsernamePasswordAuthenticationToken("bench@example.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+        request = new MockHttpServletRequest();
+        request.addHeader(JwtConstant.JWT_HEADER, "Bearer " + token);
+        response = new MockHttpServletResponse();
+        cached = new JwtTokenValidator(new VerifiedTokenCache(10000));
+        uncached = new JwtTokenValidator(new VerifiedTokenCache(0));
+        cached.doFilterInternal(request, response, chain);
+    }
+
+    /**
+     * Filter cost when the token has been verified before
+     */
+    @Benchmark
+    public Object withCache() throws Exception {
+        cached.doFilterInternal(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /**
+     * Filter cost when every request decodes, verifies and parses the token
+     */
+    @Benchmark
+    public Object withoutCache() throws Exception {
+        uncached.doFilterInternal(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtTokenValidatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
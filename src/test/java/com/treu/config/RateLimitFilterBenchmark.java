@@ -0,0 +1,82 @@
+package com.treu.config;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of RateLimitFilter's per-request cost on a limited route and on an unlimited one.
+ * Not a unit test; run with
+ * mvn test-compile exec:java -Dexec.mainClass=com.treu.config.RateLimitFilterBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private final FilterChain chain = (request, response) -> { };
+    private RateLimitFilter filter;
+    private MockHttpServletRequest limited;
+    private MockHttpServletRequest unlimited;
+    private MockHttpServletResponse response;
+
+    /**
+     * Builds the filter with a limit high enough never to reject, and a signed-in user
+     */
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Rule signin = new RateLimitProperties.Rule();
+        signin.setMethod("POST");
+        signin.setPath("/auth/signin");
+        signin.setLimit(10);
+        RateLimitProperties.Rule pay = new RateLimitProperties.Rule();
+        pay.setMethod("POST");
+        pay.setPath("/api/orders/pay");
+        pay.setLimit(Integer.MAX_VALUE);
+        pay.setPeriodMs(1000);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(List.of(signin, pay));
+        filter = new RateLimitFilter(new RateLimiter(properties), properties);
+
+        limited = new MockHttpServletRequest("POST", "/api/orders/pay");
+        unlimited = new MockHttpServletRequest("GET", "/api/coins");
+        response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "bench@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    /**
+     * Filter cost on a limited route
+     */
+    @Benchmark
+    public MockHttpServletResponse limitedRoute() throws Exception {
+        filter.doFilterInternal(limited, response, chain);
+        return response;
+    }
+
+    /**
+     * Filter cost on a route without a rule
+     */
+    @Benchmark
+    public MockHttpServletResponse unlimitedRoute() throws Exception {
+        filter.doFilterInternal(unlimited, response, chain);
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimitFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
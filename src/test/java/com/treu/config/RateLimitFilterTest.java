@@ -0,0 +1,226 @@
+package com.treu.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private RateLimiter limiter;
+    private RateLimitFilter filter;
+    private final AtomicInteger passed = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> passed.incrementAndGet();
+
+    @BeforeEach
+    public void setup() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setShards(4);
+        properties.setMaxKeysPerShard(100);
+        properties.setRules(List.of(
+                rule("POST", "/auth/signin", 3, 0),
+                rule("POST", "/api/orders/pay", 2, 4),
+                rule(null, "/auth/users/reset-password/**", 1, 0)));
+        limiter = new RateLimiter(properties);
+        filter = new RateLimitFilter(limiter, properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Builds a rule allowing limit requests per minute
+    private static RateLimitProperties.Rule rule(String method, String path, int limit, int adminLimit) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setMethod(method);
+        rule.setPath(path);
+        rule.setLimit(limit);
+        rule.setAdminLimit(adminLimit);
+        rule.setPeriodMs(60000);
+        return rule;
+    }
+
+    // Sends one request through the filter and returns its status
+    private int send(String method, String path, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilterInternal(request, response, chain);
+        return response.getStatus();
+    }
+
+    /**
+     * Test for doFilterInternal: anonymous requests are limited per client IP.
+     */
+    @Test
+    public void testDoFilter_AnonymousLimitedPerIp() throws Exception {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send("POST", "/auth/signin", "10.0.0.1"));
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/signin");
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilterInternal(request, rejected, chain);
+
+        // Assert: the fourth is rejected with a retry hint, another IP still passes
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(200, send("POST", "/auth/signin", "10.0.0.2"));
+        assertEquals(4, passed.get());
+    }
+
+    /**
+     * Test for doFilterInternal: an encoded path is matched in decoded form, so it cannot dodge its rule.
+     */
+    @Test
+    public void testDoFilter_MatchesDecodedPath() throws Exception {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send("POST", "/auth/%73ignin", "10.0.0.3"));
+        }
+
+        // Assert: the encoded requests used up the signin bucket of the client
+        assertEquals(429, send("POST", "/auth/signin", "10.0.0.3"));
+        assertEquals(429, send("POST", "/auth/%73ign%69n", "10.0.0.3"));
+    }
+
+    /**
+     * Test for doFilterInternal: signed-in requests are limited per user, with the admin limit for admins.
+     */
+    @Test
+    public void testDoFilter_UsersLimitedPerUserAndRole() throws Exception {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        // Act & Assert: two orders for the user, even from different IPs
+        assertEquals(200, send("POST", "/api/orders/pay", "10.0.0.1"));
+        assertEquals(200, send("POST", "/api/orders/pay", "10.0.0.2"));
+        assertEquals(429, send("POST", "/api/orders/pay", "10.0.0.3"));
+
+        // Act & Assert: four for the admin
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(200, send("POST", "/api/orders/pay", "10.0.0.1"));
+        }
+        assertEquals(429, send("POST", "/api/orders/pay", "10.0.0.1"));
+    }
+
+    /**
+     * Test for doFilterInternal: unmatched methods and paths are not limited; prefixes match sub-paths.
+     */
+    @Test
+    public void testDoFilter_MatchesMethodAndPath() throws Exception {
+        // Act & Assert
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, send("GET", "/auth/signin", "10.0.0.1"));
+            assertEquals(200, send("POST", "/api/coins", "10.0.0.1"));
+        }
+        assertEquals(200, send("POST", "/auth/users/reset-password/send-otp", "10.0.0.1"));
+        assertEquals(429, send("PATCH", "/auth/users/reset-password/verify-otp", "10.0.0.1"));
+    }
+
+    /**
+     * Test for tryAcquire: tokens refill at the configured rate.
+     */
+    @Test
+    public void testTryAcquire_Refills() throws Exception {
+        // Arrange: 1 token per 20 ms, bucket of 1
+        long interval = 20_000_000L;
+        assertEquals(0, limiter.tryAcquire("k", interval, 1));
+        assertTrue(limiter.tryAcquire("k", interval, 1) > 0);
+
+        // Act
+        Thread.sleep(30);
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("k", interval, 1));
+    }
+
+    /**
+     * Test for sweep: full buckets are dropped, used ones kept.
+     */
+    @Test
+    public void testSweep_DropsRefilledBuckets() throws Exception {
+        // Arrange
+        limiter.tryAcquire("short", 1_000_000L, 1);
+        limiter.tryAcquire("long", 60_000_000_000L, 1);
+        Thread.sleep(5);
+
+        // Act
+        limiter.sweep();
+
+        // Assert
+        assertEquals(1, limiter.size());
+    }
+
+    /**
+     * Test for tryAcquire: a shard full of live buckets refuses new keys instead of evicting a live bucket, and
+     * takes them again once a bucket has refilled.
+     */
+    @Test
+    public void testTryAcquire_FullShardKeepsLiveBuckets() throws Exception {
+        // Arrange: one shard of two buckets, one drained for a minute, one refilling within a millisecond
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setShards(1);
+        properties.setMaxKeysPerShard(2);
+        RateLimiter small = new RateLimiter(properties);
+        long minute = 60_000_000_000L;
+        assertEquals(0, small.tryAcquire("drained", minute, 1));
+        assertEquals(0, small.tryAcquire("refilling", 1_000_000L, 1));
+
+        // Act & Assert: a new key is turned away and the drained bucket keeps its limit
+        assertTrue(small.tryAcquire("rotated", minute, 1) > 0);
+        assertTrue(small.tryAcquire("drained", minute, 1) > 0);
+        assertEquals(2, small.size());
+
+        // Act & Assert: once the other bucket refilled, its slot goes to the new key
+        Thread.sleep(150);
+        assertEquals(0, small.tryAcquire("rotated", minute, 1));
+        assertTrue(small.tryAcquire("drained", minute, 1) > 0);
+    }
+
+    /**
+     * Test for clientAddress: the forwarding header is read only behind a trusted proxy, and only up to the
+     * first hop that is not a trusted proxy.
+     */
+    @Test
+    public void testClientAddress_TrustsOnlyConfiguredProxies() {
+        // Arrange
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setTrustedProxies(List.of("10.0.0.0/8", " 192.168.1.1"));
+        RateLimitFilter behindProxy = new RateLimitFilter(limiter, properties);
+
+        // Act & Assert: the client's own entry on the left cannot override what the proxies recorded
+        assertEquals("203.0.113.7", behindProxy.clientAddress(
+                forwarded("10.0.0.5", "198.51.100.1, 203.0.113.7, 192.168.1.1")));
+        // Act & Assert: a request not coming from a proxy is keyed on its connection
+        assertEquals("203.0.113.9", behindProxy.clientAddress(forwarded("203.0.113.9", "198.51.100.1")));
+        // Act & Assert: without the header, or without trusted proxies, the connection's address is used
+        assertEquals("10.0.0.5", behindProxy.clientAddress(forwarded("10.0.0.5", null)));
+        assertEquals("10.0.0.5", filter.clientAddress(forwarded("10.0.0.5", "198.51.100.1")));
+    }
+
+    // Request from an address with an optional X-Forwarded-For header
+    private static MockHttpServletRequest forwarded(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/signin");
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,116 @@
+package com.treu.config;
+
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RevokedTokenSet
+ * Contains unit tests for revocation lookups and purging of expired ids
+ */
+public class RevokedTokenSetTest {
+
+    /**
+     * Test for isRevoked method
+     * Verifies that revoked ids are found and other ids are not
+     */
+    @Test
+    void isRevoked_ShouldFindOnlyRevokedIds() {
+        // Arrange
+        RevokedTokenSet set = new RevokedTokenSet(1 << 16);
+        long expiresAt = System.currentTimeMillis() + 60000;
+        for (int i = 0; i < 1000; i++) {
+            set.revoke("revoked-" + i, expiresAt);
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.isRevoked("revoked-" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(set.isRevoked(UUID.randomUUID().toString()));
+        }
+    }
+
+    /**
+     * Test for purgeExpired method
+     * Verifies that ids of expired tokens are dropped and live ones survive the filter rebuild
+     */
+    @Test
+    void purgeExpired_ShouldDropExpiredIds() {
+        // Arrange
+        RevokedTokenSet set = new RevokedTokenSet(1 << 16);
+        set.revoke("expired", System.currentTimeMillis() - 1);
+        set.revoke("live", System.currentTimeMillis() + 60000);
+
+        // Act
+        set.purgeExpired();
+
+        // Assert
+        assertEquals(1, set.size());
+        assertFalse(set.isRevoked("expired"));
+        assertTrue(set.isRevoked("live"));
+    }
+
+    /**
+     * Test for VerifiedTokenCache revocation by token id
+     * Verifies that revoking a token with a jti rejects it in every cache sharing the set
+     */
+    @Test
+    void revoke_ShouldRejectTokenInCachesSharingTheSet() {
+        // Arrange
+        JwtProvider.setKey(Keys.hmacShaKeyFor(
+                "TestSecretKeyForJwtProviderUnitTesting12345".getBytes()));
+        RevokedTokenSet set = new RevokedTokenSet(1 << 16);
+        VerifiedTokenCache first = new VerifiedTokenCache(10, set);
+        VerifiedTokenCache second = new VerifiedTokenCache(10, set);
+        String token = JwtProvider.generateToken(
+                new UsernamePasswordAuthenticationToken("test@example.com", null, List.of()));
+        second.verify(token);
+
+        // Act
+        first.revoke(token);
+
+        // Assert
+        assertTrue(set.isRevoked(second.get(token).getTokenId()));
+        assertThrows(IllegalStateException.class, () -> second.verify(token));
+        assertNull(second.get(token));
+    }
+
+    /**
+     * Test for revoke method
+     * Verifies that ids revoked while the filter is being rebuilt are still found afterwards
+     */
+    @Test
+    void revoke_ShouldSurviveConcurrentPurges() throws Exception {
+        // Arrange: a purger rebuilding the filter as fast as it can, each round with an expired id to drop
+        RevokedTokenSet set = new RevokedTokenSet(1 << 16);
+        long expiresAt = System.currentTimeMillis() + 60000;
+        AtomicBoolean revoking = new AtomicBoolean(true);
+        Thread purger = new Thread(() -> {
+            for (int i = 0; revoking.get(); i++) {
+                set.revoke("expired-" + i, 0);
+                set.purgeExpired();
+            }
+        });
+        purger.start();
+
+        // Act
+        for (int i = 0; i < 20000; i++) {
+            set.revoke("revoked-" + i, expiresAt);
+        }
+        revoking.set(false);
+        purger.join();
+
+        // Assert
+        for (int i = 0; i < 20000; i++) {
+            assertTrue(set.isRevoked("revoked-" + i), "revoked-" + i);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.treu.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for VerifiedTokenCache
+ * Contains unit tests for caching, bounding and revoking verified tokens
+ */
+public class VerifiedTokenCacheTest {
+
+    private final SecretKey TEST_KEY = Keys.hmacShaKeyFor("TestSecretKeyForJwtProviderUnitTesting12345".getBytes());
+
+    @BeforeEach
+    void setUp() {
+        // Set test key for JWT operations
+        JwtProvider.setKey(TEST_KEY);
+    }
+
+    // Builds a token for the email expiring after the given number of milliseconds
+    private String token(String email, long expiresInMillis) {
+        return Jwts.builder()
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .claim("email", email)
+                .claim("authorities", "ROLE_CUSTOMER")
+                .signWith(TEST_KEY)
+                .compact();
+    }
+
+    /**
+     * Test for verify method
+     * Verifies that a repeated token is answered from the cache with its parsed principal
+     */
+    @Test
+    void verify_RepeatedToken_ShouldHitCache() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        String token = token("test@example.com", 60000);
+
+        // Act
+        VerifiedTokenCache.Entry first = cache.verify(token);
+        VerifiedTokenCache.Entry second = cache.verify(token);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("test@example.com", first.getEmail());
+        assertEquals("ROLE_CUSTOMER", first.getAuthorities().get(0).getAuthority());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Test for revoke method
+     * Verifies that a revoked token is rejected although its signature is valid
+     */
+    @Test
+    void revoke_ShouldRejectToken() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        String token = token("test@example.com", 60000);
+        cache.verify(token);
+
+        // Act
+        cache.revoke(token);
+
+        // Assert
+        assertNull(cache.get(token));
+        assertTrue(cache.isRevoked(token));
+        assertThrows(IllegalStateException.class, () -> cache.verify(token));
+    }
+
+    /**
+     * Test for verify method
+     * Verifies that the cache never grows past its bound and that a bound of 0 disables caching
+     */
+    @Test
+    void verify_ShouldStayWithinBound() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        VerifiedTokenCache disabled = new VerifiedTokenCache(0);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            cache.verify(token("user" + i + "@example.com", 60000));
+            disabled.verify(token("user" + i + "@example.com", 60000));
+        }
+
+        // Assert
+        assertTrue(cache.size() <= 10);
+        assertEquals(0, disabled.size());
+    }
+
+    /**
+     * Test for purgeExpired method
+     * Verifies that entries are dropped once their token expires
+     */
+    @Test
+    void purgeExpired_ShouldDropExpiredEntries() throws InterruptedException {
+        // Arrange: exp has second precision, so expire within about two seconds
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        String token = token("test@example.com", 2000);
+        cache.verify(token);
+
+        // Act
+        Thread.sleep(2100);
+        cache.purgeExpired();
+
+        // Assert
+        assertEquals(0, cache.size());
+        assertNull(cache.get(token));
+    }
+}
@@ -0,0 +1,204 @@
+package com.treu.config;
+
+import com.treu.controller.CoinController;
+import com.treu.repository.CoinRepository;
+import com.treu.service.CoinServiceImpl;
+import com.treu.service.PriceSnapshotService;
+import org.mockito.Mockito;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the two request execution modes on a real endpoint: the app's GET /coins/search, served by
+ * CoinController and CoinServiceImpl on an embedded Tomcat, with the CoinGecko round trip replaced by a
+ * RestTemplate interceptor that blocks the request thread for a slow provider call (1 s by default, -Dio-millis
+ * to change it; keep it long enough that the platform pool, not the CPU, is what runs out). A burst of concurrent requests is
+ * sent with spring.threads.virtual.enabled off and then on: every connection is opened first, then all requests
+ * are written, then the responses are read, so the whole burst is waiting on the server at once. For each mode
+ * it reports the peak number of requests in flight inside the endpoint, wall time, peak heap above the idle heap
+ * and peak live platform threads. The client runs on one thread in the same JVM and holds the same sockets in
+ * both modes.
+ * Virtual threads need a Java 21 runtime (build with -Djava21); on older runtimes only the platform mode runs.
+ * Not a unit test; run with
+ * mvn test-compile exec:java -Dexec.mainClass=com.treu.config.VirtualThreadCapacityBenchmark -Dexec.classpathScope=test
+ * and -Drequests=N to change the burst (each request holds two file descriptors in this JVM)
+ */
+public class VirtualThreadCapacityBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("requests", 4_000);     // Burst size
+    private static final int WARM_UP_REQUESTS = 400;                                // Burst run before measuring
+    private static final long IO_MILLIS = Long.getLong("io-millis", 1_000);         // Blocking time per request
+
+    // Requests currently blocked in the endpoint, and the most seen at once
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+
+    // Results go to the real console; the endpoint's own logging of every body is discarded
+    private static final PrintStream RESULTS = System.out;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        run(false);
+        if (Runtime.version().feature() >= 21) {
+            run(true);
+        } else {
+            RESULTS.printf("virtual: skipped, Java %d has no virtual threads%n", Runtime.version().feature());
+        }
+    }
+
+    /**
+     * Opens a connection with a read timeout well above the burst's duration
+     */
+    private static Socket connect(InetSocketAddress address) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(address, 30_000);
+        socket.setSoTimeout(120_000);
+        return socket;
+    }
+
+    /**
+     * Reads a response until the server closes the connection
+     */
+    private static String read(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Opens n connections, writes a request on each and reads the responses in order, calling 'sample' before
+     * each read. Returns the number of 200 responses
+     */
+    private static int burst(InetSocketAddress address, byte[] request, int n, Runnable sample) throws IOException {
+        Socket[] sockets = new Socket[n];
+        for (int i = 0; i < n; i++) {
+            sockets[i] = connect(address);
+        }
+        for (Socket socket : sockets) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request);
+            out.flush();
+        }
+        int ok = 0;
+        for (Socket socket : sockets) {
+            if (sample != null) {
+                sample.run();
+            }
+            if (read(socket).startsWith("HTTP/1.1 200")) {
+                ok++;
+            }
+            socket.close();
+        }
+        return ok;
+    }
+
+    /**
+     * Starts the endpoint in one mode, fires the burst at it and prints the measurements
+     */
+    private static void run(boolean virtual) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CoinSearchApp.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.max-connections=" + (REQUESTS + 100),
+                        "server.tomcat.accept-count=" + REQUESTS,
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+            byte[] request = ("GET /coins/search?q=bitcoin HTTP/1.1\r\nHost: 127.0.0.1\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            // Warms up the dispatcher, the JSON path and the JIT
+            burst(address, request, WARM_UP_REQUESTS, null);
+
+            System.gc();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long heapBefore = memory.getHeapMemoryUsage().getUsed();
+            inFlight.set(0);
+            peakInFlight.set(0);
+            long[] peaks = {heapBefore, threads.getThreadCount()};
+
+            long start = System.nanoTime();
+            int ok = burst(address, request, REQUESTS, () -> {
+                peaks[0] = Math.max(peaks[0], memory.getHeapMemoryUsage().getUsed());
+                peaks[1] = Math.max(peaks[1], threads.getThreadCount());
+            });
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            RESULTS.printf("%-8s %d/%d ok | peak in-flight %5d | wall %6d ms | %7.0f req/s | "
+                            + "peak heap +%4d MB | peak platform threads %4d%n",
+                    virtual ? "virtual" : "platform", ok, REQUESTS, peakInFlight.get(), millis,
+                    REQUESTS * 1000.0 / millis, (peaks[0] - heapBefore) >> 20, peaks[1]);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * The coin search endpoint and its service, with CoinGecko replaced by a blocking stub and no database
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(excludeName = {
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+            "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration",
+            "org.springframework.boot.autoconfigure.mail.MailSenderValidatorAutoConfiguration"})
+    @Import({CoinController.class, CoinServiceImpl.class})
+    static class CoinSearchApp {
+
+        @Bean
+        CoinRepository coinRepository() {
+            return Mockito.mock(CoinRepository.class);
+        }
+
+        @Bean
+        PriceSnapshotService priceSnapshotService() {
+            return Mockito.mock(PriceSnapshotService.class);
+        }
+
+        // Holds the request thread for a CoinGecko round trip and answers an empty search
+        @Bean
+        RestTemplate coinGeckoRestTemplate() {
+            RestTemplate restTemplate = new RestTemplate();
+            restTemplate.getInterceptors().add((request, body, execution) -> {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(IO_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return new MockClientHttpResponse("{\"coins\":[]}".getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+            });
+            return restTemplate;
+        }
+    }
+}
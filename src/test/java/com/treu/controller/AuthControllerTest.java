@@ -2,11 +2,15 @@ package com.treu.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.treu.config.JwtProvider;
+import com.treu.config.VerifiedTokenCache;
 import com.treu.model.TwoFactorAuth;
 import com.treu.model.TwoFactorOTP;
 import com.treu.model.User;
 import com.treu.repository.UserRepository;
+import com.treu.exception.UserException;
 import com.treu.request.LoginRequest;
+import com.treu.request.RefreshTokenRequest;
+import com.treu.response.AuthResponse;
 import com.treu.service.*;
 import com.treu.utils.OtpUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,8 +31,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.ArrayList;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -71,6 +77,12 @@ public class AuthControllerTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -182,6 +194,9 @@ public class AuthControllerTest {
         // 3. Return our test user when finding a user by email
         when(userService.findUserByEmail("test@example.com")).thenReturn(testUser);
 
+        // 4. Return a refresh token for the signed-in user
+        when(refreshTokenService.createRefreshToken(testUser)).thenReturn("refresh-token");
+
         // Use MockedStatic to mock the static JwtProvider.generateToken method
         try (MockedStatic<JwtProvider> jwtProviderMock = Mockito.mockStatic(JwtProvider.class)) {
             // Configure the mock to return a predefined JWT token
@@ -196,10 +211,51 @@ public class AuthControllerTest {
                             .content(objectMapper.writeValueAsString(loginRequest)))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.jwt").value("test.jwt.token"))
+                    .andExpect(jsonPath("$.refreshToken").value("refresh-token"))
                     .andExpect(jsonPath("$.message").value("Login Success"));
         }
     }
 
+    /**
+     * Test for login with a password hash stored at an outdated cost factor.
+     * Verifies that the password is rehashed with the submitted credentials after a successful sign-in.
+     */
+    @Test
+    void signin_outdatedHash_rehashesPassword() throws Exception {
+        // Arrange:
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@example.com");
+        loginRequest.setPassword("password");
+
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("test@example.com")
+                .password("encodedPassword")
+                .authorities(new ArrayList<>())
+                .build();
+
+        when(customUserDetails.loadUserByUsername("test@example.com")).thenReturn(userDetails);
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(userService.findUserByEmail("test@example.com")).thenReturn(testUser);
+
+        // The stored hash needs upgrading
+        when(passwordEncoder.upgradeEncoding(testUser.getPassword())).thenReturn(true);
+
+        try (MockedStatic<JwtProvider> jwtProviderMock = Mockito.mockStatic(JwtProvider.class)) {
+            jwtProviderMock.when(() -> JwtProvider.generateToken(any()))
+                    .thenReturn("test.jwt.token");
+
+            // Act & Assert:
+            mockMvc.perform(post("/auth/signin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.jwt").value("test.jwt.token"));
+        }
+
+        // The password is rehashed through the user service
+        verify(userService).updatePassword(testUser, "password");
+    }
+
     /**
      * Test for login with two-factor authentication enabled.
      * Verifies that when 2FA is enabled, the response contains a session ID but no JWT.
@@ -305,4 +361,56 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.twoFactorAuthEnabled").value(true))
                 .andExpect(jsonPath("$.message").value("Two factor authentication verified"));
     }
+
+    /**
+     * Test for refreshing tokens.
+     * Verifies that a refresh token is exchanged for the new token pair from the service.
+     */
+    @Test
+    void refresh_validToken_returnsNewTokens() throws Exception {
+        // Arrange:
+        AuthResponse rotated = new AuthResponse();
+        rotated.setJwt("new.jwt.token");
+        rotated.setRefreshToken("new-refresh-token");
+        when(refreshTokenService.refresh("old-refresh-token")).thenReturn(rotated);
+
+        // Act & Assert:
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("old-refresh-token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jwt").value("new.jwt.token"))
+                .andExpect(jsonPath("$.refreshToken").value("new-refresh-token"));
+    }
+
+    /**
+     * Test for refreshing with an invalid token.
+     * Verifies that the service's rejection reaches the client as an error.
+     */
+    @Test
+    void refresh_invalidToken_isRejected() throws Exception {
+        // Arrange:
+        when(refreshTokenService.refresh("stolen")).thenThrow(new UserException("invalid refresh token"));
+
+        // Act & Assert:
+        assertThrows(UserException.class, () -> authController.refreshToken(new RefreshTokenRequest("stolen")));
+    }
+
+    /**
+     * Test for logout.
+     * Verifies that both the access token and the refresh token are revoked.
+     */
+    @Test
+    void logout_revokesAccessAndRefreshTokens() throws Exception {
+        // Act & Assert:
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer access.jwt.token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("refresh-token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Logged out"));
+
+        verify(tokenCache).revoke("access.jwt.token");
+        verify(refreshTokenService).revoke("refresh-token");
+    }
 }
@@ -12,6 +12,7 @@ import com.treu.response.ApiResponse;
 import com.treu.response.AuthResponse;
 import com.treu.service.EmailService;
 import com.treu.service.ForgotPasswordService;
+import com.treu.service.RefreshTokenService;
 import com.treu.service.UserService;
 import com.treu.service.VerificationService;
 import org.junit.jupiter.api.BeforeEach;
@@ -46,6 +47,9 @@ public class UserControllerTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private UserController userController;
 
@@ -247,6 +251,8 @@ public class UserControllerTest {
         verify(forgotPasswordService).findById(tokenId);
         verify(forgotPasswordService).verifyToken(testForgotPasswordToken, TEST_OTP);
         verify(userService).updatePassword(testForgotPasswordToken.getUser(), "newPassword");
+        verify(forgotPasswordService).deleteToken(testForgotPasswordToken);
+        verify(refreshTokenService).revokeAllForUser(testUser.getId());
     }
 
     /**
@@ -0,0 +1,190 @@
+package com.treu.service;
+
+import com.treu.exception.WalletException;
+import com.treu.model.Wallet;
+import com.treu.model.WalletBalanceSnapshot;
+import com.treu.repository.OrderRepository;
+import com.treu.repository.WalletBalanceSnapshotRepository;
+import com.treu.repository.WalletRepository;
+import com.treu.repository.WalletTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BalanceSnapshotServiceImplTest {
+
+    // Mocks for dependencies
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private WalletBalanceSnapshotRepository snapshotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BalanceSnapshotServiceImpl snapshotService;
+
+    private final LocalDate day = LocalDate.now().minusDays(10);
+
+    @BeforeEach
+    public void setup() {
+        snapshotService = new BalanceSnapshotServiceImpl(
+                walletRepository, walletTransactionRepository, orderRepository, snapshotRepository, transactionManager);
+    }
+
+    /**
+     * Test for getBalanceAsOf: uses the nearest snapshot and adds the transactions booked after it.
+     */
+    @Test
+    public void testGetBalanceAsOf_FromSnapshot() throws WalletException {
+        // Arrange
+        LocalDate snapshotDay = day.minusDays(1);
+        WalletBalanceSnapshot snapshot = new WalletBalanceSnapshot(1L, 7L, snapshotDay, BigDecimal.valueOf(500), null);
+        when(snapshotRepository.findTopByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(7L, day))
+                .thenReturn(Optional.of(snapshot));
+        when(walletTransactionRepository.sumAmountBetween(7L, snapshotDay, day)).thenReturn(-120L);
+        when(orderRepository.sumUnbookedBetween(7L, day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+                .thenReturn(BigDecimal.ZERO);
+
+        // Act
+        BigDecimal balance = snapshotService.getBalanceAsOf(7L, day);
+
+        // Assert
+        assertEquals(BigDecimal.valueOf(380), balance);
+        verify(walletRepository, never()).findById(anyLong());
+    }
+
+    /**
+     * Test for getBalanceAsOf: without an older snapshot, walks back from the live balance.
+     */
+    @Test
+    public void testGetBalanceAsOf_WithoutSnapshot() throws WalletException {
+        // Arrange
+        Wallet wallet = new Wallet();
+        wallet.setId(7L);
+        wallet.setBalance(BigDecimal.valueOf(1000));
+        when(snapshotRepository.findTopByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(7L, day))
+                .thenReturn(Optional.empty());
+        when(walletTransactionRepository.sumAmountAfter(7L, day)).thenReturn(250L);
+        when(orderRepository.sumUnbookedFrom(7L, day.plusDays(1).atStartOfDay())).thenReturn(BigDecimal.ZERO);
+        when(walletRepository.findById(7L)).thenReturn(Optional.of(wallet));
+
+        // Act
+        BigDecimal balance = snapshotService.getBalanceAsOf(7L, day);
+
+        // Assert
+        assertEquals(BigDecimal.valueOf(750), balance);
+    }
+
+    /**
+     * Test for getBalanceAsOf: orders with a fractional price, booked in whole units, do not skew the balance.
+     */
+    @Test
+    public void testGetBalanceAsOf_FractionalOrderPrices() throws WalletException {
+        // Arrange: 1000 before a buy at 99.60, booked as -99, then a sell at 20.25 booked as 20, both after the day
+        Wallet wallet = new Wallet();
+        wallet.setId(7L);
+        wallet.setBalance(new BigDecimal("920.65"));
+        LocalDate snapshotDay = day.minusDays(1);
+        when(snapshotRepository.findTopByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(7L, day))
+                .thenReturn(Optional.empty());
+        when(walletTransactionRepository.sumAmountAfter(7L, day)).thenReturn(-79L);
+        when(orderRepository.sumUnbookedFrom(7L, day.plusDays(1).atStartOfDay())).thenReturn(new BigDecimal("-0.35"));
+        when(walletRepository.findById(7L)).thenReturn(Optional.of(wallet));
+
+        // Act
+        BigDecimal fromLive = snapshotService.getBalanceAsOf(7L, day);
+
+        // Arrange: the same orders after a snapshot of the previous day
+        WalletBalanceSnapshot snapshot = new WalletBalanceSnapshot(1L, 7L, snapshotDay, new BigDecimal("1000"), null);
+        when(snapshotRepository.findTopByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(7L, day.plusDays(1)))
+                .thenReturn(Optional.of(snapshot));
+        when(walletTransactionRepository.sumAmountBetween(7L, snapshotDay, day.plusDays(1))).thenReturn(-79L);
+        when(orderRepository.sumUnbookedBetween(7L, day.atStartOfDay(), day.plusDays(2).atStartOfDay()))
+                .thenReturn(new BigDecimal("-0.35"));
+
+        // Act
+        BigDecimal fromSnapshot = snapshotService.getBalanceAsOf(7L, day.plusDays(1));
+
+        // Assert
+        assertEquals(0, new BigDecimal("1000").compareTo(fromLive));
+        assertEquals(0, new BigDecimal("920.65").compareTo(fromSnapshot));
+    }
+
+    /**
+     * Test for getBalanceAsOf: an unknown wallet raises WalletException.
+     */
+    @Test
+    public void testGetBalanceAsOf_UnknownWallet() {
+        // Arrange
+        when(walletRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(WalletException.class, () -> snapshotService.getBalanceAsOf(99L, LocalDate.now()));
+    }
+
+    /**
+     * Test for snapshotDay: every id-range partition is written with balance minus later transactions.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSnapshotDay_WritesAllPartitions() {
+        // Arrange: three wallets split into partitions of two ids
+        ReflectionTestUtils.setField(snapshotService, "partitionSize", 2L);
+        when(walletRepository.findMaxId()).thenReturn(3L);
+        when(walletRepository.findBalancesByIdRange(1L, 2L)).thenReturn(List.of(
+                new Object[]{1L, BigDecimal.valueOf(100)},
+                new Object[]{2L, BigDecimal.valueOf(50)}));
+        when(walletRepository.findBalancesByIdRange(3L, 3L)).thenReturn(Collections.singletonList(
+                new Object[]{3L, BigDecimal.valueOf(10)}));
+        when(walletTransactionRepository.sumAmountAfterByWalletIdRange(1L, 2L, day))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 40L}));
+        when(walletTransactionRepository.sumAmountAfterByWalletIdRange(3L, 3L, day))
+                .thenReturn(Collections.emptyList());
+        // Wallet 2 sold for 12.50 after the day, booked as 12
+        when(orderRepository.sumUnbookedFromByWalletIdRange(1L, 2L, day.plusDays(1).atStartOfDay()))
+                .thenReturn(Collections.singletonList(new Object[]{2L, new BigDecimal("0.50")}));
+        when(orderRepository.sumUnbookedFromByWalletIdRange(3L, 3L, day.plusDays(1).atStartOfDay()))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        int written = snapshotService.snapshotDay(day);
+
+        // Assert
+        assertEquals(3, written);
+        ArgumentCaptor<List<WalletBalanceSnapshot>> captor = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository, times(2)).saveAll(captor.capture());
+        List<WalletBalanceSnapshot> saved = new ArrayList<>();
+        captor.getAllValues().forEach(saved::addAll);
+        saved.sort((a, b) -> a.getWalletId().compareTo(b.getWalletId()));
+        assertEquals(BigDecimal.valueOf(60), saved.get(0).getClosingBalance());
+        assertEquals(0, new BigDecimal("49.50").compareTo(saved.get(1).getClosingBalance()));
+        assertEquals(BigDecimal.valueOf(10), saved.get(2).getClosingBalance());
+        verify(snapshotRepository).deleteByDateAndWalletIdRange(day, 1L, 2L);
+        verify(snapshotRepository).deleteByDateAndWalletIdRange(day, 3L, 3L);
+    }
+}
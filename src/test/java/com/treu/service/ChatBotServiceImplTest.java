@@ -0,0 +1,76 @@
+package com.treu.service;
+
+import com.treu.model.CoinQuote;
+import com.treu.response.ApiResponse;
+import com.treu.response.FunctionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChatBotServiceImplTest {
+
+    // Mocks for dependencies
+    @Mock
+    private ChatResponseCache chatResponseCache;
+
+    @Mock
+    private ChatIntentRouter chatIntentRouter;
+
+    private ChatBotServiceImpl chatBotService;
+
+    @BeforeEach
+    public void setup() {
+        chatBotService = new ChatBotServiceImpl(chatResponseCache, chatIntentRouter);
+    }
+
+    /**
+     * Test for getCoinDetails: a cached coin lookup on a coin in the snapshot is answered without a remote call.
+     */
+    @Test
+    public void testGetCoinDetails_AnsweredFromSnapshot() {
+        // Arrange
+        FunctionResponse call = new FunctionResponse();
+        call.setFunctionName("getCoinDetails");
+        call.setCurrencyName("btc");
+        call.setCurrencyData("current_price, market_cap");
+        when(chatResponseCache.getFunctionCall("price of btc?")).thenReturn(call);
+        when(chatIntentRouter.resolveCoin("btc")).thenReturn("bitcoin");
+        when(chatResponseCache.findQuote("bitcoin")).thenReturn(new CoinQuote("bitcoin", "btc", "Bitcoin", null,
+                65432.1, 1_290_000_000_000L, 0, 66000, 64000, 1500, 2.31, 1, System.currentTimeMillis()));
+
+        // Act
+        ApiResponse response = chatBotService.getCoinDetails("price of btc?");
+
+        // Assert
+        assertTrue(response.isStatus());
+        assertEquals("Bitcoin (BTC) is trading at $65,432.10, up 2.31% over the last 24 hours. "
+                + "Market cap: $1,290,000,000,000.00.", response.getMessage());
+        verify(chatIntentRouter).route("price of btc?");
+        verify(chatIntentRouter, never()).recordLlmCall(anyLong());
+        verify(chatResponseCache, never()).putFunctionCall(anyString(), any());
+    }
+
+    /**
+     * Test for describeQuote: coins under a dollar keep their significant decimals and falls read as down.
+     */
+    @Test
+    public void testDescribeQuote_SmallPriceAndFall() {
+        // Arrange
+        CoinQuote quote = new CoinQuote("shiba-inu", "shib", "Shiba Inu", null,
+                0.0000231, 0, 0, 0.000024, 0.000022, 0, -4.5, 1, 0);
+
+        // Act
+        String text = ChatBotServiceImpl.describeQuote(quote, "high_24h, low_24h");
+
+        // Assert
+        assertEquals("Shiba Inu (SHIB) is trading at $0.000023, down 4.50% over the last 24 hours. "
+                + "24h range: $0.000022 - $0.000024.", text);
+    }
+}
@@ -0,0 +1,90 @@
+package com.treu.service;
+
+import com.treu.model.CoinQuote;
+import com.treu.response.FunctionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChatIntentRouterTest {
+
+    // Mocks for dependencies
+    @Mock
+    private PriceSnapshotService priceSnapshotService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ChatIntentRouter chatIntentRouter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        chatIntentRouter = new ChatIntentRouter(priceSnapshotService, meterRegistry);
+        when(priceSnapshotService.getQuotes()).thenReturn(List.of(
+                new CoinQuote("bitcoin", "btc", "Bitcoin", null, 1, 1000, 0, 0, 0, 0, 0, 1, 0),
+                new CoinQuote("ethereum", "eth", "Ethereum", null, 1, 500, 0, 0, 0, 0, 0, 1, 0),
+                new CoinQuote("harmony", "one", "Harmony", null, 1, 5, 0, 0, 0, 0, 0, 1, 0)));
+    }
+
+    /**
+     * Test for classify: plain questions about one coin resolve to a coin lookup asking for the keyword's data.
+     */
+    @Test
+    public void testClassify_PlainCoinQuestions() {
+        // Act & Assert
+        assertCall("bitcoin", "current_price", chatIntentRouter.classify("BTC price?"));
+        assertCall("bitcoin", "current_price", chatIntentRouter.classify("btc"));
+        assertCall("ethereum", "market_cap", chatIntentRouter.classify("What's the market cap of Ethereum"));
+        assertCall("ethereum", "total_volume, high_24h, low_24h",
+                chatIntentRouter.classify("eth volume and range"));
+    }
+
+    /**
+     * Test for classify: comparisons, unknown words and prompts without a coin are left to the LLM.
+     */
+    @Test
+    public void testClassify_AmbiguousPromptsFallBack() {
+        // Act & Assert
+        assertNull(chatIntentRouter.classify("btc vs eth"));
+        assertNull(chatIntentRouter.classify("should I buy bitcoin"));
+        assertNull(chatIntentRouter.classify("what is the price"));
+        assertNull(chatIntentRouter.classify(""));
+    }
+
+    /**
+     * Test for route: routed and fallback prompts are counted, and a routed prompt saves the mean LLM latency.
+     */
+    @Test
+    public void testRoute_ReportsHitRateAndLatencySaved() {
+        // Arrange
+        chatIntentRouter.recordLlmCall(2_000_000_000L);
+
+        // Act
+        chatIntentRouter.route("btc price");
+        chatIntentRouter.route("eth");
+        chatIntentRouter.route("should I buy eth");
+
+        // Assert
+        assertEquals(2, meterRegistry.get("chat.router.requests").tag("result", "routed").counter().count());
+        assertEquals(1, meterRegistry.get("chat.router.requests").tag("result", "fallback").counter().count());
+        assertEquals(4.0, meterRegistry.get("chat.router.latency.saved").counter().count(), 1e-9);
+        assertEquals(3, meterRegistry.get("chat.router.latency").timer().count());
+    }
+
+    // Asserts a coin lookup of a coin asking for the given data
+    private static void assertCall(String coinId, String data, FunctionResponse call) {
+        assertNotNull(call);
+        assertEquals(ChatIntentRouter.COIN_FUNCTION, call.getFunctionName());
+        assertEquals(coinId, call.getCurrencyName());
+        assertEquals(data, call.getCurrencyData());
+    }
+}
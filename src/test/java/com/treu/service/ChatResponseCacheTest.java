@@ -0,0 +1,106 @@
+package com.treu.service;
+
+import com.treu.model.CoinQuote;
+import com.treu.response.FunctionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChatResponseCacheTest {
+
+    // Mocks for dependencies
+    @Mock
+    private PriceSnapshotService priceSnapshotService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ChatResponseCache chatResponseCache;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        chatResponseCache = new ChatResponseCache(priceSnapshotService, meterRegistry);
+    }
+
+    /**
+     * Test for normalize: rephrasings of one question share a key, different questions do not.
+     */
+    @Test
+    public void testNormalize_RephrasingsShareKey() {
+        // Act & Assert
+        assertEquals("price bitcoin", ChatResponseCache.normalize("What is the price of Bitcoin?"));
+        assertEquals("bitcoin price", ChatResponseCache.normalize("  bitcoin PRICE today "));
+        assertNotEquals(ChatResponseCache.normalize("bitcoin price"), ChatResponseCache.normalize("bitcoin volume"));
+        assertEquals("", ChatResponseCache.normalize("what is the ?"));
+    }
+
+    /**
+     * Test for normalize: prompts naming the same words in another order are different questions.
+     */
+    @Test
+    public void testNormalize_KeepsWordOrder() {
+        // Act & Assert
+        assertEquals("convert btc eth", ChatResponseCache.normalize("Convert BTC to ETH"));
+        assertNotEquals(ChatResponseCache.normalize("convert btc to eth"), ChatResponseCache.normalize("convert eth to btc"));
+    }
+
+    /**
+     * Test for getFunctionCall: a stored call is served for a rephrased prompt as a copy, and counted as a hit.
+     */
+    @Test
+    public void testGetFunctionCall_ServesCopyForRephrasedPrompt() {
+        // Arrange
+        chatResponseCache.putFunctionCall("price of bitcoin?", call("bitcoin"));
+
+        // Act
+        FunctionResponse first = chatResponseCache.getFunctionCall("Price of Bitcoin");
+        first.setCurrencyName("changed");
+        FunctionResponse second = chatResponseCache.getFunctionCall("what's the price of bitcoin today");
+
+        // Assert
+        assertEquals("bitcoin", second.getCurrencyName());
+        assertNull(chatResponseCache.getFunctionCall("ethereum price"));
+        assertEquals(2, meterRegistry.get("chat.cache.requests").tags("layer", "function_call", "result", "hit")
+                .counter().count());
+    }
+
+    /**
+     * Test for findQuote: a fresh snapshot quote is served and counted as a hit, a stale or missing one is not.
+     */
+    @Test
+    public void testFindQuote_ServesFreshQuotesOnly() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        CoinQuote bitcoin = quote("bitcoin", "btc", "Bitcoin", 1_000_000L, now);
+        when(priceSnapshotService.getQuote("bitcoin")).thenReturn(bitcoin);
+        when(priceSnapshotService.getQuote("dogecoin")).thenReturn(quote("dogecoin", "doge", "Dogecoin", 100L, now - 3_600_000L));
+
+        // Act & Assert
+        assertSame(bitcoin, chatResponseCache.findQuote("bitcoin"));
+        assertNull(chatResponseCache.findQuote("dogecoin"));
+        assertNull(chatResponseCache.findQuote(null));
+        assertEquals(2, meterRegistry.get("chat.cache.requests").tags("layer", "snapshot", "result", "miss")
+                .counter().count());
+    }
+
+    // getCoinDetails call for a coin
+    private static FunctionResponse call(String currencyName) {
+        FunctionResponse call = new FunctionResponse();
+        call.setFunctionName("getCoinDetails");
+        call.setCurrencyName(currencyName);
+        call.setCurrencyData("current_price");
+        return call;
+    }
+
+    // Quote of a coin stored at a time
+    private static CoinQuote quote(String id, String symbol, String name, long marketCap, long updatedAt) {
+        return new CoinQuote(id, symbol, name, null, 100, marketCap, 0, 0, 0, 0, 0, 1, updatedAt);
+    }
+}
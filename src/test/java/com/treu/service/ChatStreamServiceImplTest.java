@@ -0,0 +1,214 @@
+package com.treu.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatStreamServiceImplTest {
+
+    // Local stand-in for the generative language API
+    private HttpServer server;
+    private ExecutorService serverThreads;
+
+    // Request seen by the fake endpoint
+    private volatile String requestUri;
+    private volatile String requestBody;
+
+    // Released by the test once it received the first streamed text
+    private final CountDownLatch firstTextReceived = new CountDownLatch(1);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ChatStreamServiceImpl chatStreamService;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        chatStreamService = new ChatStreamServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(chatStreamService, "geminiApiKey", "test-key");
+        ReflectionTestUtils.setField(chatStreamService, "baseUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta");
+        ReflectionTestUtils.setField(chatStreamService, "streamTimeoutMillis", 10000L);
+        chatStreamService.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    // Server-sent event carrying one text part
+    private static String event(String text) {
+        return "data: {\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"" + text + "\"}], \"role\": \"model\"},"
+                + " \"index\": 0}]}\r\n\r\n";
+    }
+
+    // Serves the first event, waits until the client relayed it, then serves the second
+    private void serveTwoEvents(HttpExchange exchange) throws IOException {
+        requestUri = exchange.getRequestURI().toString();
+        requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(event("Bitcoin is").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            firstTextReceived.await(5, TimeUnit.SECONDS);
+            out.write(event(" a cryptocurrency.").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | InterruptedException e) {
+            // Client abandoned the stream
+        }
+    }
+
+    /**
+     * Test for relay: text is handed on as each event arrives, before the upstream answer is complete.
+     */
+    @Test
+    public void testRelay_ForwardsTextAsItArrives() throws Exception {
+        // Arrange
+        server.createContext("/", this::serveTwoEvents);
+        List<String> texts = new CopyOnWriteArrayList<>();
+
+        // Act
+        CompletableFuture<Void> relay = chatStreamService.relay("what is \"bitcoin\"?", text -> {
+            texts.add(text);
+            firstTextReceived.countDown();
+        });
+        relay.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(List.of("Bitcoin is", " a cryptocurrency."), texts);
+        assertEquals("/v1beta/models/gemini-pro:streamGenerateContent?alt=sse&key=test-key", requestUri);
+        assertTrue(requestBody.contains("\"text\":\"what is \\\"bitcoin\\\"?\""));
+        assertEquals(1, meterRegistry.get("chat.stream.first-text").timer().count());
+    }
+
+    /**
+     * Test for relay: an error status from the API fails the stream without relaying anything.
+     */
+    @Test
+    public void testRelay_FailsOnErrorStatus() {
+        // Arrange
+        server.createContext("/", exchange -> {
+            byte[] body = "{\"error\": {\"code\": 429, \"message\": \"quota\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(429, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        List<String> texts = new CopyOnWriteArrayList<>();
+
+        // Act
+        CompletableFuture<Void> relay = chatStreamService.relay("btc price", texts::add);
+
+        // Assert
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> relay.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause().getMessage().contains("429"));
+        assertTrue(texts.isEmpty());
+    }
+
+    /**
+     * Test for relay: once the stream is cancelled, e.g. by a disconnecting client, no further text is relayed.
+     */
+    @Test
+    public void testRelay_CancelStopsRelaying() throws Exception {
+        // Arrange
+        server.createContext("/", this::serveTwoEvents);
+        List<String> texts = new CopyOnWriteArrayList<>();
+        CompletableFuture<CompletableFuture<Void>> handle = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<Void> relay = chatStreamService.relay("btc price", text -> {
+            texts.add(text);
+            handle.join().cancel(true);
+            firstTextReceived.countDown();
+        });
+        handle.complete(relay);
+
+        // Assert
+        assertThrows(CancellationException.class, () -> relay.get(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(List.of("Bitcoin is"), texts);
+    }
+
+    /**
+     * Test for relay: a stream cancelled before the API answered closes the connection instead of leaving the
+     * exchange waiting for a response.
+     */
+    @Test
+    public void testRelay_CancelBeforeResponseAbortsExchange() throws Exception {
+        // Arrange: an endpoint that reads the request and never answers
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        try (ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            serverThreads.submit(() -> {
+                try (Socket socket = silent.accept(); InputStream in = socket.getInputStream()) {
+                    in.read();
+                    requested.countDown();
+                    while (in.read() != -1) {
+                        // Drains the request until the client closes the connection
+                    }
+                    closed.countDown();
+                }
+                return null;
+            });
+            ReflectionTestUtils.setField(chatStreamService, "baseUrl",
+                    "http://127.0.0.1:" + silent.getLocalPort() + "/v1beta");
+
+            // Act
+            CompletableFuture<Void> relay = chatStreamService.relay("btc price", text -> { });
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+            relay.cancel(true);
+
+            // Assert: closed well before the 15 second first-byte timeout would have ended the exchange
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Test for readTexts: every text part of the first candidate is read, and an error object fails the event.
+     */
+    @Test
+    public void testReadTexts_FirstCandidatePartsAndErrors() throws IOException {
+        // Arrange
+        List<String> texts = new CopyOnWriteArrayList<>();
+        String json = "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"a\"}, {\"text\": \"b\"}]}},"
+                + " {\"content\": {\"parts\": [{\"text\": \"other\"}]}}], \"usageMetadata\": {\"totalTokenCount\": 3}}";
+
+        // Act
+        ChatStreamServiceImpl.readTexts(json, texts::add);
+
+        // Assert
+        assertEquals(List.of("a", "b"), texts);
+        assertThrows(IOException.class, () -> ChatStreamServiceImpl.readTexts(
+                "{\"error\": {\"code\": 500, \"message\": \"internal\"}}", texts::add));
+    }
+}
@@ -0,0 +1,52 @@
+package com.treu.service;
+
+import com.treu.model.CoinQuote;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoinNameIndexTest {
+
+    // Quote of a coin with a market cap
+    private static CoinQuote quote(String id, String symbol, String name, long marketCap) {
+        return new CoinQuote(id, symbol, name, null, 1, marketCap, 0, 0, 0, 0, 0, 1, 0);
+    }
+
+    // Coin ids of the matches in a text
+    private static List<String> coins(CoinNameIndex index, String text) {
+        return index.find(CoinNameIndex.normalize(text)).stream().map(match -> match.coinId).toList();
+    }
+
+    private static final CoinNameIndex INDEX = CoinNameIndex.of(List.of(
+            quote("bitcoin", "btc", "Bitcoin", 1_000_000),
+            quote("bitcoin-cash", "bch", "Bitcoin Cash", 10_000),
+            quote("ethereum", "eth", "Ethereum", 500_000),
+            quote("batcat", "btc", "BatCat", 1),
+            quote("shiba-inu", "shib", "Shiba Inu", 5_000)));
+
+    /**
+     * Test for find: aliases are found as whole words only, and the longest of overlapping aliases wins.
+     */
+    @Test
+    public void testFind_WholeWordsLongestFirst() {
+        // Act & Assert
+        assertEquals(List.of("bitcoin-cash"), coins(INDEX, "Bitcoin Cash price?"));
+        assertEquals(List.of("bitcoin", "ethereum"), coins(INDEX, "btc vs. ETH"));
+        assertEquals(List.of("shiba-inu"), coins(INDEX, "how is shiba   inu doing"));
+        assertTrue(coins(INDEX, "a method to ethics").isEmpty());
+    }
+
+    /**
+     * Test for resolve: a shared symbol belongs to the coin with the largest market cap, an id to its own coin.
+     */
+    @Test
+    public void testResolve_SharedSymbolGoesToLargestCoin() {
+        // Act & Assert
+        assertEquals("bitcoin", INDEX.resolve("BTC"));
+        assertEquals("batcat", INDEX.resolve("batcat"));
+        assertEquals("bitcoin-cash", INDEX.resolve("bitcoin-cash"));
+        assertNull(INDEX.resolve("dogecoin"));
+    }
+}
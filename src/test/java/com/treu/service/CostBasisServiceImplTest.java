@@ -0,0 +1,97 @@
+package com.treu.service;
+
+import com.treu.domain.CostBasisMethod;
+import com.treu.domain.OrderType;
+import com.treu.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CostBasisServiceImplTest {
+
+    // Mock for the fill history
+    @Mock
+    private OrderRepository orderRepository;
+
+    private CostBasisServiceImpl costBasisService;
+
+    @BeforeEach
+    void setUp() {
+        costBasisService = new CostBasisServiceImpl(orderRepository, CostBasisMethod.FIFO, 2);
+    }
+
+    // A settled fill as returned by findSettledFillsByUserIdAndCoinId
+    private static Object[] fill(OrderType type, double quantity, double buyPrice, double sellPrice) {
+        return new Object[]{type, quantity, buyPrice, sellPrice};
+    }
+
+    /**
+     * Test for recordSell: a replayed sell that left dust drops the remaining lots, as the position was deleted.
+     */
+    @Test
+    public void testRecordSell_ReplayDropsDustLots() {
+        // Arrange: 1 @ 100 sold down to 0.001 (worth 0.2 at 200), then 1 @ 300 bought back
+        List<Object[]> fills = new ArrayList<>();
+        fills.add(fill(OrderType.BUY, 1, 100, 0));
+        fills.add(fill(OrderType.SELL, 0.999, 100, 200));
+        fills.add(fill(OrderType.BUY, 1, 300, 0));
+        when(orderRepository.findSettledFillsByUserIdAndCoinId(1L, "bitcoin", 9L)).thenReturn(fills);
+
+        // Act
+        double cost = costBasisService.recordSell(1L, "bitcoin", 9L, 1, 0);
+
+        // Assert: the whole sell matches the new lot, not the dust one
+        assertEquals(300, cost, 1e-9);
+    }
+
+    /**
+     * Test for closePosition: the next fill replays the position instead of reusing its lots.
+     */
+    @Test
+    public void testClosePosition_DropsBook() {
+        // Arrange
+        when(orderRepository.findSettledFillsByUserIdAndCoinId(anyLong(), anyString(), anyLong()))
+                .thenReturn(new ArrayList<>());
+        costBasisService.recordBuy(1L, "bitcoin", 1L, 0.001, 100);
+
+        // Act
+        costBasisService.closePosition(1L, "bitcoin");
+        costBasisService.recordBuy(1L, "bitcoin", 2L, 1, 300);
+        double cost = costBasisService.recordSell(1L, "bitcoin", 3L, 1, 0);
+
+        // Assert
+        assertEquals(300, cost, 1e-9);
+        verify(orderRepository, times(2)).findSettledFillsByUserIdAndCoinId(eq(1L), eq("bitcoin"), anyLong());
+    }
+
+    /**
+     * Test for recordBuy: books beyond the bound are dropped.
+     */
+    @Test
+    public void testRecordBuy_BoundsBooks() {
+        // Arrange
+        when(orderRepository.findSettledFillsByUserIdAndCoinId(anyLong(), anyString(), anyLong()))
+                .thenReturn(new ArrayList<>());
+
+        // Act
+        for (long userId = 1; userId <= 5; userId++) {
+            costBasisService.recordBuy(userId, "bitcoin", userId, 1, 100);
+        }
+
+        // Assert
+        Map<?, ?> books = (Map<?, ?>) ReflectionTestUtils.getField(costBasisService, "books");
+        assertTrue(books.size() <= 2);
+    }
+}
@@ -0,0 +1,181 @@
+package com.treu.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.treu.domain.EmailOutboxStatus;
+import com.treu.model.EmailOutboxMessage;
+import com.treu.repository.EmailOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxServiceImplTest {
+
+    // Local fake SMTP server, restarted for every test
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    // Mock for the outbox table
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    private EmailOutboxServiceImpl outboxService;
+
+    @BeforeEach
+    public void setup() {
+        outboxService = service(greenMail.getSmtp().getPort());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        outboxService.stop();
+    }
+
+    // Builds a started service sending through localhost:port
+    private EmailOutboxServiceImpl service(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        EmailOutboxServiceImpl service = new EmailOutboxServiceImpl(outboxRepository, mailSender);
+        ReflectionTestUtils.setField(service, "from", "noreply@treu.test");
+        service.start();
+        return service;
+    }
+
+    // Builds a claimed outbox row
+    private EmailOutboxMessage message(long id, String recipient, int attempts) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setId(id);
+        message.setRecipient(recipient);
+        message.setSubject("Account verification");
+        message.setBody("your account verification code is : 12345" + id);
+        message.setStatus(EmailOutboxStatus.SENDING);
+        message.setAttempts(attempts);
+        message.setClaimToken("token");
+        message.setNextAttemptAt(LocalDateTime.now());
+        return message;
+    }
+
+    /**
+     * Test for sendBatch: every message of the batch is delivered and marked sent.
+     */
+    @Test
+    public void testSendBatch_DeliversAndMarksSent() throws Exception {
+        // Arrange
+        List<EmailOutboxMessage> batch = List.of(
+                message(1, "a@example.com", 0),
+                message(2, "b@example.com", 0),
+                message(3, "c@example.com", 0));
+
+        // Act
+        int attempted = outboxService.sendBatch(batch);
+
+        // Assert
+        assertEquals(3, attempted);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Account verification", received[0].getSubject());
+        for (EmailOutboxMessage message : batch) {
+            assertEquals(EmailOutboxStatus.SENT, message.getStatus());
+            assertEquals(1, message.getAttempts());
+            assertNotNull(message.getSentAt());
+            assertNull(message.getClaimToken());
+        }
+        verify(outboxRepository).saveAll(batch);
+    }
+
+    /**
+     * Test for sendBatch: an unreachable server schedules a retry with backoff.
+     */
+    @Test
+    public void testSendBatch_UnreachableServerRetriesLater() {
+        // Arrange: nothing listens on the port once GreenMail is stopped
+        greenMail.stop();
+        EmailOutboxMessage message = message(1, "a@example.com", 0);
+
+        // Act
+        outboxService.sendBatch(List.of(message));
+
+        // Assert
+        assertEquals(EmailOutboxStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(4)));
+        assertNotNull(message.getLastError());
+    }
+
+    /**
+     * Test for sendBatch: the last allowed attempt dead-letters the message.
+     */
+    @Test
+    public void testSendBatch_DeadLettersAfterMaxAttempts() {
+        // Arrange
+        greenMail.stop();
+        EmailOutboxMessage message = message(1, "a@example.com", 5);
+
+        // Act
+        outboxService.sendBatch(List.of(message));
+
+        // Assert
+        assertEquals(EmailOutboxStatus.DEAD, message.getStatus());
+        assertEquals(6, message.getAttempts());
+    }
+
+    /**
+     * Test for dispatch: due messages are claimed and sent until none are left.
+     */
+    @Test
+    public void testDispatch_ClaimsAndSendsDueMessages() {
+        // Arrange
+        EmailOutboxMessage message = message(1, "a@example.com", 0);
+        when(outboxRepository.findDueIds(any(), any()))
+                .thenReturn(List.of(1L))
+                .thenReturn(Collections.emptyList());
+        when(outboxRepository.claim(eq(List.of(1L)), anyString(), any())).thenReturn(1);
+        when(outboxRepository.findByClaimToken(anyString())).thenReturn(List.of(message));
+
+        // Act
+        int attempted = outboxService.dispatch();
+
+        // Assert
+        assertEquals(1, attempted);
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(EmailOutboxStatus.SENT, message.getStatus());
+        verify(outboxRepository).releaseExpiredLeases(any());
+    }
+
+    /**
+     * Test for dispatch: a trigger arriving while a cycle runs makes the dispatch go round once more.
+     */
+    @Test
+    public void testDispatch_RerunsForTriggerDuringCycle() {
+        // Arrange: the first lookup finds nothing but a new message is enqueued meanwhile
+        when(outboxRepository.findDueIds(any(), any()))
+                .thenAnswer(invocation -> {
+                    outboxService.poll();
+                    return Collections.emptyList();
+                })
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        outboxService.dispatch();
+
+        // Assert
+        verify(outboxRepository, times(2)).releaseExpiredLeases(any());
+    }
+}
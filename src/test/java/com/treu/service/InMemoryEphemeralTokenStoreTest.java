@@ -0,0 +1,134 @@
+package com.treu.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryEphemeralTokenStoreTest {
+
+    private InMemoryEphemeralTokenStore store;
+
+    @BeforeEach
+    public void setup() {
+        // 100 ms ticks, 16 slots, 3 attempts
+        store = new InMemoryEphemeralTokenStore(100, 16, 3);
+    }
+
+    /**
+     * Test for get: a stored value is returned while live and only for its own type.
+     */
+    @Test
+    public void testGet_ReturnsLiveValueOfRequestedType() {
+        // Arrange
+        store.put("key", "value", Duration.ofMinutes(1));
+
+        // Act & Assert
+        assertEquals("value", store.get("key", String.class));
+        assertNull(store.get("key", Long.class));
+        assertNull(store.get("missing", String.class));
+    }
+
+    /**
+     * Test for get: an expired value is not served even before the wheel collects it.
+     */
+    @Test
+    public void testGet_ExpiredValueNotServed() throws InterruptedException {
+        // Arrange
+        store.put("key", "value", Duration.ofMillis(10));
+
+        // Act
+        Thread.sleep(30);
+
+        // Assert
+        assertNull(store.get("key", String.class));
+    }
+
+    /**
+     * Test for advance: the wheel removes values whose deadline has passed and keeps the others.
+     */
+    @Test
+    public void testAdvance_RemovesExpiredValues() {
+        // Arrange
+        store.put("short", "a", Duration.ofMillis(200));
+        store.put("long", "b", Duration.ofMinutes(10));
+        long now = System.currentTimeMillis();
+
+        // Act: more than a full turn of the wheel later, every slot has been visited
+        store.advance(now + 2000);
+
+        // Assert
+        assertEquals(1, store.size());
+        assertNull(store.get("short", String.class));
+        assertEquals("b", store.get("long", String.class));
+    }
+
+    /**
+     * Test for advance: replacing a value drops the timer of the old one without expiring the new one.
+     */
+    @Test
+    public void testAdvance_ReplacedValueKeepsNewDeadline() {
+        // Arrange
+        store.put("key", "old", Duration.ofMillis(100));
+        store.put("key", "new", Duration.ofMinutes(10));
+
+        // Act
+        store.advance(System.currentTimeMillis() + 500);
+
+        // Assert
+        assertEquals("new", store.get("key", String.class));
+    }
+
+    /**
+     * Test for verifyCode: matching codes pass and wrong ones are rejected.
+     */
+    @Test
+    public void testVerifyCode_MatchesSubmittedCode() {
+        // Arrange
+        store.put("otp", "session", Duration.ofMinutes(1));
+
+        // Act & Assert
+        assertTrue(store.verifyCode("otp", "123456", "123456"));
+        assertFalse(store.verifyCode("otp", "123456", "654321"));
+        assertFalse(store.verifyCode("otp", "123456", null));
+        assertFalse(store.verifyCode("missing", "123456", "123456"));
+    }
+
+    /**
+     * Test for verifyCode: the code is discarded once the attempt limit is reached.
+     */
+    @Test
+    public void testVerifyCode_DiscardsAfterMaxAttempts() {
+        // Arrange
+        store.put("otp", "session", Duration.ofMinutes(1));
+
+        // Act
+        store.verifyCode("otp", "123456", "000000");
+        store.verifyCode("otp", "123456", "111111");
+        store.verifyCode("otp", "123456", "222222");
+
+        // Assert: even the right code fails now
+        assertFalse(store.verifyCode("otp", "123456", "123456"));
+        assertNull(store.get("otp", String.class));
+    }
+
+    /**
+     * Test for put: storing a new value resets the failed attempts.
+     */
+    @Test
+    public void testPut_ResetsFailedAttempts() {
+        // Arrange
+        store.put("otp", "session", Duration.ofMinutes(1));
+        store.verifyCode("otp", "123456", "000000");
+        store.verifyCode("otp", "123456", "111111");
+
+        // Act
+        store.put("otp", "session", Duration.ofMinutes(1));
+        store.verifyCode("otp", "123456", "222222");
+
+        // Assert
+        assertTrue(store.verifyCode("otp", "123456", "123456"));
+    }
+}
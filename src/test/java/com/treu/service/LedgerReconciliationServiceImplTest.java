@@ -0,0 +1,186 @@
+package com.treu.service;
+
+import com.treu.domain.OrderType;
+import com.treu.domain.ReconciliationMismatchType;
+import com.treu.model.ReconciliationCheckpoint;
+import com.treu.model.ReconciliationMismatch;
+import com.treu.repository.*;
+import com.treu.utils.LongAggregateMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerReconciliationServiceImplTest {
+
+    // Mocks for dependencies
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ReconciliationMismatchRepository mismatchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerReconciliationServiceImpl reconciliationService;
+
+    @BeforeEach
+    public void setup() {
+        reconciliationService = new LedgerReconciliationServiceImpl(walletRepository, walletTransactionRepository,
+                orderRepository, checkpointRepository, mismatchRepository, transactionManager);
+    }
+
+    /**
+     * Test for reconcilePartition: a consistent wallet passes, a drifted balance is reported.
+     */
+    @Test
+    public void testReconcilePartition_ReportsBalanceMismatch() {
+        // Arrange: wallet 1 matches its ledger, wallet 2 holds 40 more than its ledger explains
+        when(walletRepository.findOwnersAndBalancesByIdRange(1L, 2L)).thenReturn(List.of(
+                new Object[]{1L, 10L, new BigDecimal("150.00")},
+                new Object[]{2L, 20L, new BigDecimal("140.00")}));
+        when(walletTransactionRepository.aggregateByWalletIdRange(1L, 2L)).thenReturn(List.of(
+                new Object[]{1L, 150L, 2L},
+                new Object[]{2L, 100L, 1L}));
+        when(walletTransactionRepository.aggregateOrderPaymentsByWalletIdRange(1L, 2L))
+                .thenReturn(Collections.emptyList());
+        when(orderRepository.aggregateSettledOrdersByUserIds(List.of(10L, 20L)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        LedgerReconciliationServiceImpl.PartitionResult result = reconciliationService.reconcilePartition("run", 1L, 2L);
+
+        // Assert
+        assertEquals(2, result.wallets);
+        assertEquals(1, result.mismatches.size());
+        ReconciliationMismatch mismatch = result.mismatches.get(0);
+        assertEquals(2L, mismatch.getWalletId());
+        assertEquals(ReconciliationMismatchType.BALANCE, mismatch.getType());
+        assertEquals(0, BigDecimal.valueOf(100.0).compareTo(mismatch.getExpected()));
+    }
+
+    /**
+     * Test for reconcilePartition: an order with no matching ledger row is reported.
+     */
+    @Test
+    public void testReconcilePartition_ReportsOrderWithoutLedgerRow() {
+        // Arrange: one settled buy of 50 but no order payment booked on the wallet
+        when(walletRepository.findOwnersAndBalancesByIdRange(1L, 1L)).thenReturn(Collections.singletonList(
+                new Object[]{1L, 10L, BigDecimal.ZERO}));
+        when(walletTransactionRepository.aggregateByWalletIdRange(1L, 1L)).thenReturn(Collections.emptyList());
+        when(walletTransactionRepository.aggregateOrderPaymentsByWalletIdRange(1L, 1L))
+                .thenReturn(Collections.emptyList());
+        when(orderRepository.aggregateSettledOrdersByUserIds(List.of(10L))).thenReturn(Collections.singletonList(
+                new Object[]{10L, OrderType.BUY, new BigDecimal("50.00"), 1L, new BigDecimal("50")}));
+
+        // Act
+        LedgerReconciliationServiceImpl.PartitionResult result = reconciliationService.reconcilePartition("run", 1L, 1L);
+
+        // Assert
+        assertEquals(1, result.mismatches.size());
+        assertEquals(ReconciliationMismatchType.ORDER_LEDGER, result.mismatches.get(0).getType());
+        assertEquals(0, BigDecimal.valueOf(-50).compareTo(result.mismatches.get(0).getExpected()));
+    }
+
+    /**
+     * Test for reconcilePartition: orders booked in whole units reconcile exactly, but any other difference,
+     * however small, is reported.
+     */
+    @Test
+    public void testReconcilePartition_ComparesExactly() {
+        // Arrange: both wallets got a deposit of 150 and bought for 50.5, booked as -50; wallet 2 is a cent short
+        when(walletRepository.findOwnersAndBalancesByIdRange(1L, 2L)).thenReturn(List.of(
+                new Object[]{1L, 10L, new BigDecimal("99.50")},
+                new Object[]{2L, 20L, new BigDecimal("99.49")}));
+        when(walletTransactionRepository.aggregateByWalletIdRange(1L, 2L)).thenReturn(List.of(
+                new Object[]{1L, 100L, 2L},
+                new Object[]{2L, 100L, 2L}));
+        when(walletTransactionRepository.aggregateOrderPaymentsByWalletIdRange(1L, 2L)).thenReturn(List.of(
+                new Object[]{1L, -50L, 1L},
+                new Object[]{2L, -50L, 1L}));
+        when(orderRepository.aggregateSettledOrdersByUserIds(List.of(10L, 20L))).thenReturn(List.of(
+                new Object[]{10L, OrderType.BUY, new BigDecimal("50.50"), 1L, new BigDecimal("50")},
+                new Object[]{20L, OrderType.BUY, new BigDecimal("50.50"), 1L, new BigDecimal("50")}));
+
+        // Act
+        LedgerReconciliationServiceImpl.PartitionResult result = reconciliationService.reconcilePartition("run", 1L, 2L);
+
+        // Assert
+        assertEquals(1, result.mismatches.size());
+        ReconciliationMismatch mismatch = result.mismatches.get(0);
+        assertEquals(2L, mismatch.getWalletId());
+        assertEquals(ReconciliationMismatchType.BALANCE, mismatch.getType());
+        assertEquals(0, new BigDecimal("99.50").compareTo(mismatch.getExpected()));
+        assertEquals(0, new BigDecimal("99.49").compareTo(mismatch.getActual()));
+    }
+
+    /**
+     * Test for runPartitions: a resumed run only visits partitions after the watermark and closes the checkpoint.
+     */
+    @Test
+    public void testRunPartitions_ResumesAfterWatermark() {
+        // Arrange: wallets 1..4 in partitions of two, the first partition already done
+        ReflectionTestUtils.setField(reconciliationService, "partitionSize", 2L);
+        ReconciliationCheckpoint checkpoint = new ReconciliationCheckpoint();
+        checkpoint.setRunId("run");
+        checkpoint.setWatermark(2L);
+        checkpoint.setMaxWalletId(4L);
+        checkpoint.setWalletsChecked(2);
+        when(walletRepository.findOwnersAndBalancesByIdRange(3L, 4L)).thenReturn(Collections.singletonList(
+                new Object[]{3L, null, BigDecimal.ZERO}));
+
+        // Act
+        reconciliationService.runPartitions(checkpoint);
+
+        // Assert
+        verify(walletRepository, never()).findOwnersAndBalancesByIdRange(eq(1L), anyLong());
+        assertEquals(4L, checkpoint.getWatermark());
+        assertEquals(3, checkpoint.getWalletsChecked());
+        assertNotNull(checkpoint.getFinishedAt());
+        verify(mismatchRepository, never()).saveAll(any());
+    }
+
+    /**
+     * Test for LongAggregateMap: sums and counts survive a resize.
+     */
+    @Test
+    public void testLongAggregateMap_GrowsPastInitialCapacity() {
+        // Arrange
+        LongAggregateMap map = new LongAggregateMap(1);
+
+        // Act
+        for (long id = 1; id <= 1000; id++) {
+            map.add(id, BigDecimal.valueOf(id), 1);
+            map.add(id, new BigDecimal("0.5"), 1);
+        }
+
+        // Assert
+        assertEquals(1000, map.size());
+        assertEquals(new BigDecimal("500.5"), map.sum(500));
+        assertEquals(2, map.count(999));
+        assertFalse(map.containsKey(1001));
+        assertEquals(BigDecimal.ZERO, map.sum(1001));
+    }
+}
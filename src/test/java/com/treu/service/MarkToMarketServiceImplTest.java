@@ -0,0 +1,161 @@
+package com.treu.service;
+
+import com.treu.model.CoinQuote;
+import com.treu.model.MarkToMarketRun;
+import com.treu.repository.AssetsRepository;
+import com.treu.repository.MarkToMarketRunRepository;
+import com.treu.repository.UserEquitySnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MarkToMarketServiceImplTest {
+
+    // Mocks for dependencies
+    @Mock
+    private AssetsRepository assetsRepository;
+
+    @Mock
+    private MarkToMarketRunRepository runRepository;
+
+    @Mock
+    private UserEquitySnapshotRepository equityRepository;
+
+    @Mock
+    private PriceSnapshotService priceSnapshotService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MarkToMarketServiceImpl markToMarketService;
+
+    @BeforeEach
+    public void setup() {
+        markToMarketService = new MarkToMarketServiceImpl(assetsRepository, runRepository, equityRepository,
+                priceSnapshotService, jdbcTemplate, transactionManager);
+    }
+
+    /**
+     * Test for aggregate: rows fold into one equity row per user, preferring snapshot prices.
+     */
+    @Test
+    public void testAggregate_FoldsRowsPerUser() {
+        // Arrange
+        MarkToMarketServiceImpl.Chunk chunk = new MarkToMarketServiceImpl.Chunk(2);
+        chunk.add(1L, "bitcoin", 2, 100, 90);
+        chunk.add(1L, "ethereum", 10, 10, 5);
+        chunk.add(2L, "bitcoin", 1, 80, 90);
+
+        // Act
+        MarkToMarketServiceImpl.EquityRows equity = MarkToMarketServiceImpl.aggregate(chunk, Map.of("bitcoin", 150.0));
+
+        // Assert: ethereum is missing from the snapshot and falls back to the coin row price
+        assertEquals(2, equity.size);
+        assertEquals(1L, equity.userIds[0]);
+        assertEquals(350, equity.marketValues[0], 1e-9);
+        assertEquals(300, equity.costBases[0], 1e-9);
+        assertEquals(2, equity.positionCounts[0]);
+        assertEquals(150, equity.marketValues[1], 1e-9);
+        assertEquals(1, equity.positionCounts[1]);
+    }
+
+    /**
+     * Test for runNow: chunks are cut only between users and the run records the totals.
+     */
+    @Test
+    public void testRunNow_WritesChunksAndTotals() {
+        // Arrange: a chunk size of 2 cuts after user 1's three rows and again after user 2
+        ReflectionTestUtils.setField(markToMarketService, "chunkSize", 2);
+        when(runRepository.save(any(MarkToMarketRun.class))).thenAnswer(invocation -> {
+            MarkToMarketRun run = invocation.getArgument(0);
+            run.setId(7L);
+            return run;
+        });
+        when(runRepository.findTopByStartedAtBeforeOrderByIdDesc(any())).thenReturn(Optional.empty());
+        when(priceSnapshotService.getQuotes()).thenReturn(List.of(
+                new CoinQuote("bitcoin", null, null, null, 100, 0, 0, 0, 0, 0, 0, 1, 0)));
+        when(assetsRepository.streamAllPositions()).thenReturn(Stream.of(
+                new Object[]{1L, "bitcoin", 1.0, 50.0, 90.0},
+                new Object[]{1L, "ethereum", 1.0, 5.0, 10.0},
+                new Object[]{1L, "solana", 1.0, 1.0, 2.0},
+                new Object[]{2L, "bitcoin", 2.0, 60.0, 90.0},
+                new Object[]{2L, "ethereum", 1.0, 5.0, 10.0},
+                new Object[]{3L, "bitcoin", 1.0, 70.0, 90.0}));
+
+        // Act
+        MarkToMarketRun run = markToMarketService.runNow();
+
+        // Assert
+        assertEquals(3, run.getUserCount());
+        assertEquals(6, run.getPositionCount());
+        assertEquals(112 + 210 + 100, run.getTotalMarketValue(), 1e-9);
+        assertEquals(56 + 125 + 70, run.getTotalCostBasis(), 1e-9);
+        assertNotNull(run.getFinishedAt());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    /**
+     * Test for runNow: a failed chunk marks the run failed and deletes the rows other chunks committed.
+     */
+    @Test
+    public void testRunNow_FailedChunkFailsRun() {
+        // Arrange: one user per chunk, the second write fails
+        ReflectionTestUtils.setField(markToMarketService, "chunkSize", 1);
+        ReflectionTestUtils.setField(markToMarketService, "parallelism", 1);
+        when(runRepository.save(any(MarkToMarketRun.class))).thenAnswer(invocation -> {
+            MarkToMarketRun run = invocation.getArgument(0);
+            run.setId(7L);
+            return run;
+        });
+        when(priceSnapshotService.getQuotes()).thenReturn(List.of());
+        when(assetsRepository.streamAllPositions()).thenReturn(Stream.of(
+                new Object[]{1L, "bitcoin", 1.0, 50.0, 90.0},
+                new Object[]{2L, "bitcoin", 1.0, 60.0, 90.0},
+                new Object[]{3L, "bitcoin", 1.0, 70.0, 90.0}));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1})
+                .thenThrow(new IllegalStateException("disk full"));
+        when(equityRepository.deleteByRunId(7L)).thenReturn(1);
+
+        // Act
+        assertThrows(RuntimeException.class, () -> markToMarketService.runNow());
+
+        // Assert
+        verify(equityRepository).deleteByRunId(7L);
+        verify(runRepository, times(2)).save(argThat(run -> run.getFinishedAt() == null
+                && run.getFailure().contains("disk full")));
+        verify(runRepository, never()).findTopByStartedAtBeforeOrderByIdDesc(any());
+    }
+
+    /**
+     * Test for getLatestEquity: no finished run means no rows.
+     */
+    @Test
+    public void testGetLatestEquity_NoRun() {
+        // Arrange
+        when(runRepository.findTopByFinishedAtIsNotNullOrderByIdDesc()).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(markToMarketService.getLatestEquity(0, 10).isEmpty());
+        verifyNoInteractions(equityRepository);
+    }
+}
@@ -28,6 +28,7 @@ public class OrderServiceImplTest {
     private AssetService assetService;
     private WalletService walletService;
     private OrderItemRepository orderItemRepository;
+    private CostBasisService costBasisService;
 
     // Service under test
     private OrderServiceImpl orderService;
@@ -47,6 +48,7 @@ public class OrderServiceImplTest {
         assetService = Mockito.mock(AssetService.class);
         walletService = Mockito.mock(WalletService.class);
         orderItemRepository = Mockito.mock(OrderItemRepository.class);
+        costBasisService = Mockito.mock(CostBasisService.class);
 
         // Create service with constructor-injected dependencies
         orderService = new OrderServiceImpl(orderRepository, assetService);
@@ -54,6 +56,8 @@ public class OrderServiceImplTest {
         // Set field-injected dependencies using reflection
         ReflectionTestUtils.setField(orderService, "walletService", walletService);
         ReflectionTestUtils.setField(orderService, "orderItemRepository", orderItemRepository);
+        ReflectionTestUtils.setField(orderService, "portfolioService", Mockito.mock(PortfolioService.class));
+        ReflectionTestUtils.setField(orderService, "costBasisService", costBasisService);
 
         // Set up test user
         testUser = new User();
@@ -295,14 +299,15 @@ public class OrderServiceImplTest {
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
         when(assetService.findAssetByUserIdAndCoinId(anyLong(), anyString())).thenReturn(testAsset);
         when(walletService.payOrderPayment(any(Order.class), any(User.class))).thenReturn(testWallet);
-        when(assetService.updateAsset(anyLong(), anyDouble())).thenReturn(testAsset);
+        when(assetService.addToAsset(anyLong(), anyDouble(), anyDouble())).thenReturn(testAsset);
 
         // Act
         Order result = orderService.buyAsset(testCoin, 0.5, testUser);
 
         // Assert
         assertNotNull(result);
-        verify(assetService).updateAsset(eq(1L), eq(0.5)); // Should update existing asset
+        verify(assetService).addToAsset(eq(1L), eq(0.5), eq(50000.0)); // Should re-average existing asset
+        verify(costBasisService).recordBuy(eq(1L), eq("1"), any(), eq(0.5), eq(50000.0)); // Should open a lot
     }
 
     @Test
@@ -324,6 +329,7 @@ public class OrderServiceImplTest {
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
         when(walletService.payOrderPayment(any(Order.class), any(User.class))).thenReturn(testWallet);
         when(assetService.updateAsset(anyLong(), anyDouble())).thenReturn(testAsset);
+        when(costBasisService.recordSell(anyLong(), anyString(), any(), anyDouble(), anyDouble())).thenReturn(20000.0);
 
         // Act
         Order result = orderService.sellAsset(testCoin, 0.5, testUser);
@@ -331,6 +337,8 @@ public class OrderServiceImplTest {
         // Assert
         assertNotNull(result);
         verify(assetService).updateAsset(eq(1L), eq(-0.5)); // Should decrease asset quantity
+        assertEquals(40000.0, testOrderItem.getBuyPrice(), 1e-9);     // Matched lot cost per unit
+        assertEquals(5000.0, testOrderItem.getRealizedPnl(), 1e-9);   // 0.5 * 50000 - 20000
     }
 
     @Test
@@ -404,6 +412,7 @@ public class OrderServiceImplTest {
 
         // Now it should be deleted since value is <= $1
         verify(assetService).deleteAsset(eq(1L));
+        verify(costBasisService).closePosition(eq(1L), eq(testCoin.getId())); // Its lots go with it
     }
 
     @Test
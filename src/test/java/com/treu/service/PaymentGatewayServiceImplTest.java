@@ -0,0 +1,136 @@
+package com.treu.service;
+
+import com.razorpay.RazorpayException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentGatewayServiceImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PaymentGatewayServiceImpl paymentGatewayService;
+
+    @BeforeEach
+    public void setup() throws RazorpayException {
+        meterRegistry = new SimpleMeterRegistry();
+        paymentGatewayService = new PaymentGatewayServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(paymentGatewayService, "razorpayKey", "rzp_test_key");
+        ReflectionTestUtils.setField(paymentGatewayService, "razorpaySecret", "rzp_test_secret");
+        ReflectionTestUtils.setField(paymentGatewayService, "stripeSecretKey", "sk_test_key");
+        ReflectionTestUtils.setField(paymentGatewayService, "connectTimeoutMillis", 50);
+        ReflectionTestUtils.setField(paymentGatewayService, "readTimeoutMillis", 100);
+        paymentGatewayService.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        paymentGatewayService.stop();
+    }
+
+    /**
+     * Test for razorpay: a call answering in time returns its result and its latency is recorded as a success.
+     */
+    @Test
+    public void testRazorpay_RecordsLatencyHistogram() throws RazorpayException {
+        // Act
+        String result = paymentGatewayService.razorpay("fetch_payment", () -> "captured");
+
+        // Assert
+        assertEquals("captured", result);
+        Timer timer = meterRegistry.get(PaymentGatewayServiceImpl.LATENCY_METRIC)
+                .tags("provider", "razorpay", "operation", "fetch_payment", "outcome", "success").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.max(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    /**
+     * Test for razorpay: a call past the connect and read timeouts is abandoned and recorded as a timeout.
+     */
+    @Test
+    public void testRazorpay_SlowCall_TimesOut() {
+        // Act
+        long started = System.nanoTime();
+        RazorpayException e = assertThrows(RazorpayException.class, () -> paymentGatewayService.razorpay(
+                "fetch_payment", () -> {
+                    Thread.sleep(5000);
+                    return "captured";
+                }));
+
+        // Assert
+        assertTrue(e.getMessage().contains("timed out"));
+        assertTrue(System.nanoTime() - started < 2_000_000_000L);
+        assertEquals(1, meterRegistry.get(PaymentGatewayServiceImpl.LATENCY_METRIC)
+                .tag("outcome", "timeout").timer().count());
+    }
+
+    /**
+     * Test for razorpay: a provider error reaches the caller as it was thrown.
+     */
+    @Test
+    public void testRazorpay_ProviderError_IsRethrown() {
+        // Act
+        RazorpayException e = assertThrows(RazorpayException.class, () -> paymentGatewayService.razorpay(
+                "fetch_payment", () -> {
+                    throw new RazorpayException("BAD_REQUEST_ERROR: payment not found");
+                }));
+
+        // Assert
+        assertEquals("BAD_REQUEST_ERROR: payment not found", e.getMessage());
+        assertEquals(1, meterRegistry.get(PaymentGatewayServiceImpl.LATENCY_METRIC)
+                .tag("outcome", "error").timer().count());
+    }
+
+    /**
+     * Test for razorpay: with every thread busy and the queue full, a call fails at once as rejected.
+     */
+    @Test
+    public void testRazorpay_SaturatedPool_RejectsCall() throws Exception {
+        // Arrange: one thread and one queue slot, both taken by calls waiting on a latch
+        paymentGatewayService.stop();
+        ReflectionTestUtils.setField(paymentGatewayService, "readTimeoutMillis", 5000);
+        ReflectionTestUtils.setField(paymentGatewayService, "razorpayMaxConcurrency", 1);
+        ReflectionTestUtils.setField(paymentGatewayService, "razorpayQueueCapacity", 1);
+        paymentGatewayService.start();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    paymentGatewayService.razorpay("fetch_payment", () -> release.await(5, TimeUnit.SECONDS));
+                } catch (RazorpayException ignored) {
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(paymentGatewayService, "razorpayCalls");
+        while (pool.getQueue().size() < 1) {
+            Thread.sleep(5);
+        }
+
+        // Act
+        RazorpayException e = assertThrows(RazorpayException.class, () -> paymentGatewayService.razorpay(
+                "fetch_payment", () -> "captured"));
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        // Assert
+        assertTrue(e.getMessage().contains("rejected"));
+        assertEquals(1, meterRegistry.get(PaymentGatewayServiceImpl.LATENCY_METRIC)
+                .tag("outcome", "rejected").timer().count());
+    }
+}
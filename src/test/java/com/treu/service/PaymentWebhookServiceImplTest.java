@@ -0,0 +1,362 @@
+package com.treu.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treu.domain.GatewayPaymentStatus;
+import com.treu.domain.PaymentEventStatus;
+import com.treu.domain.PaymentMethod;
+import com.treu.domain.PaymentWebhookOutcome;
+import com.treu.model.GatewayPayment;
+import com.treu.model.PaymentEvent;
+import com.treu.model.PaymentOrder;
+import com.treu.model.User;
+import com.treu.model.Wallet;
+import com.treu.repository.PaymentEventRepository;
+import com.treu.repository.PaymentOrderRepository;
+import com.treu.repository.WalletRepository;
+import com.treu.repository.WalletTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentWebhookServiceImplTest {
+
+    private static final String RAZORPAY_SECRET = "rzp_webhook_secret";
+
+    private static final String STRIPE_SECRET = "whsec_test_secret";
+
+    // Mocks for dependencies
+    @Mock
+    private PaymentEventRepository paymentEventRepository;
+
+    @Mock
+    private PaymentOrderRepository paymentOrderRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private PaymentGatewayService paymentGatewayService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentWebhookServiceImpl paymentWebhookService;
+
+    @BeforeEach
+    public void setup() {
+        // The processor thread is not started, so received events stay queued for the test to process
+        paymentWebhookService = new PaymentWebhookServiceImpl(paymentEventRepository, paymentOrderRepository,
+                walletRepository, walletTransactionRepository, walletService, paymentGatewayService, new ObjectMapper(),
+                transactionManager);
+        ReflectionTestUtils.setField(paymentWebhookService, "razorpayWebhookSecret", RAZORPAY_SECRET);
+        ReflectionTestUtils.setField(paymentWebhookService, "stripeWebhookSecret", STRIPE_SECRET);
+    }
+
+    /**
+     * Test for receive: a signed Razorpay payment_link.paid is queued with its order, payment and amount.
+     */
+    @Test
+    public void testReceive_SignedRazorpayPayment_IsQueued() {
+        // Arrange
+        String payload = ProviderStub.razorpayPaymentLinkPaid("pay_1", 42L, 50000);
+
+        // Act
+        PaymentWebhookOutcome outcome = paymentWebhookService.receive(
+                PaymentMethod.RAZORPAY, payload, ProviderStub.razorpaySignature(payload, RAZORPAY_SECRET));
+
+        // Assert
+        assertEquals(PaymentWebhookOutcome.ACCEPTED, outcome);
+        ArgumentCaptor<PaymentEvent> event = ArgumentCaptor.forClass(PaymentEvent.class);
+        verify(paymentEventRepository).save(event.capture());
+        assertEquals(42L, event.getValue().getOrderId());
+        assertEquals("pay_1", event.getValue().getProviderPaymentId());
+        assertEquals(50000, event.getValue().getAmount());
+        assertEquals(PaymentEventStatus.PENDING, event.getValue().getStatus());
+    }
+
+    /**
+     * Test for receive: a payload signed with another secret is rejected before anything is stored.
+     */
+    @Test
+    public void testReceive_ForgedSignature_IsRejected() {
+        // Arrange
+        String payload = ProviderStub.razorpayPaymentLinkPaid("pay_1", 42L, 50000);
+
+        // Act
+        PaymentWebhookOutcome outcome = paymentWebhookService.receive(
+                PaymentMethod.RAZORPAY, payload, ProviderStub.razorpaySignature(payload, "not-the-secret"));
+
+        // Assert
+        assertEquals(PaymentWebhookOutcome.INVALID_SIGNATURE, outcome);
+        verifyNoInteractions(paymentEventRepository);
+    }
+
+    /**
+     * Test for receive: a redelivered Stripe payment hits the unique key and is acknowledged as a duplicate.
+     */
+    @Test
+    public void testReceive_StripeReplay_IsDuplicate() {
+        // Arrange
+        String payload = ProviderStub.stripeCheckoutCompleted("pi_1", 42L, 50000);
+        String signature = ProviderStub.stripeSignature(payload, STRIPE_SECRET);
+        when(paymentEventRepository.save(any(PaymentEvent.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("uk_payment_events_payment"));
+
+        // Act
+        PaymentWebhookOutcome first = paymentWebhookService.receive(PaymentMethod.STRIPE, payload, signature);
+        PaymentWebhookOutcome replay = paymentWebhookService.receive(PaymentMethod.STRIPE, payload, signature);
+
+        // Assert
+        assertEquals(PaymentWebhookOutcome.ACCEPTED, first);
+        assertEquals(PaymentWebhookOutcome.DUPLICATE, replay);
+        // The replay vouches for a client-reported copy of the payment, if one is waiting for its lookup
+        verify(paymentEventRepository).vouch(eq(PaymentMethod.STRIPE), eq("pi_1"), eq(42L), eq(50000L), any());
+    }
+
+    /**
+     * Test for receive: a signed event that does not report a completed payment is acknowledged and dropped.
+     */
+    @Test
+    public void testReceive_UnrelatedEvent_IsIgnored() {
+        // Arrange
+        String payload = "{\"id\":\"evt_2\",\"type\":\"customer.created\",\"data\":{\"object\":{\"id\":\"cus_1\"}}}";
+
+        // Act
+        PaymentWebhookOutcome outcome = paymentWebhookService.receive(
+                PaymentMethod.STRIPE, payload, ProviderStub.stripeSignature(payload, STRIPE_SECRET));
+
+        // Assert
+        assertEquals(PaymentWebhookOutcome.IGNORED, outcome);
+        verify(paymentEventRepository, never()).save(any());
+    }
+
+    /**
+     * Test for processBatch: two payments of one user are credited with a single balance update and one ledger
+     * entry each, while an order settled elsewhere is skipped without a credit.
+     */
+    @Test
+    public void testProcessBatch_CreditsOwnerOnceAndSkipsSettledOrder() {
+        // Arrange
+        User owner = new User();
+        owner.setId(1L);
+        PaymentEvent first = event(1L, "pay_1", 10L, 50000);
+        PaymentEvent second = event(2L, "pay_2", 11L, 25000);
+        PaymentEvent settled = event(3L, "pay_3", 12L, 10000);
+        when(paymentOrderRepository.findSettlementRows(any())).thenReturn(List.of(
+                new Object[]{10L, 1L, 500L, PaymentMethod.RAZORPAY},
+                new Object[]{11L, 1L, 250L, PaymentMethod.RAZORPAY},
+                new Object[]{12L, 1L, 100L, PaymentMethod.RAZORPAY}));
+        when(paymentOrderRepository.markSucceeded(10L, "pay_1")).thenReturn(1);
+        when(paymentOrderRepository.markSucceeded(11L, "pay_2")).thenReturn(1);
+        when(paymentOrderRepository.markSucceeded(12L, "pay_3")).thenReturn(0);
+        when(walletRepository.findByUserIdIn(any())).thenReturn(List.of(new Wallet(5L, owner, BigDecimal.ZERO)));
+
+        // Act
+        paymentWebhookService.processBatch(List.of(first, second, settled));
+
+        // Assert
+        verify(walletRepository).credit(5L, BigDecimal.valueOf(750));
+        verify(walletTransactionRepository).saveAll(argThat(entries -> ((List<?>) entries).size() == 2));
+        assertEquals(PaymentEventStatus.PROCESSED, first.getStatus());
+        assertEquals(PaymentEventStatus.PROCESSED, second.getStatus());
+        assertEquals(PaymentEventStatus.SKIPPED, settled.getStatus());
+        assertEquals(1, settled.getAttempts());
+    }
+
+    /**
+     * Test for confirmDeposit: a client-reported payment is queued unverified for the order, without calling the provider.
+     */
+    @Test
+    public void testConfirmDeposit_QueuesUnverifiedPayment() {
+        // Arrange
+        PaymentOrder order = new PaymentOrder();
+        order.setId(42L);
+        order.setPaymentMethod(PaymentMethod.RAZORPAY);
+
+        // Act
+        PaymentWebhookOutcome outcome = paymentWebhookService.confirmDeposit(order, "pay_1");
+
+        // Assert
+        assertEquals(PaymentWebhookOutcome.ACCEPTED, outcome);
+        ArgumentCaptor<PaymentEvent> event = ArgumentCaptor.forClass(PaymentEvent.class);
+        verify(paymentEventRepository).save(event.capture());
+        assertFalse(event.getValue().isVerified());
+        assertEquals(42L, event.getValue().getOrderId());
+        assertEquals(PaymentMethod.RAZORPAY, event.getValue().getProvider());
+        verifyNoInteractions(paymentGatewayService);
+    }
+
+    /**
+     * Test for processBatch: a client-reported payment captured at the provider is credited with the captured amount.
+     */
+    @Test
+    public void testProcessBatch_ReportedPaymentCaptured_IsCredited() throws Exception {
+        // Arrange
+        User owner = new User();
+        owner.setId(1L);
+        PaymentEvent reported = event(1L, "pay_1", 10L, 0);
+        reported.setVerified(false);
+        when(paymentGatewayService.fetchPayment(PaymentMethod.RAZORPAY, "pay_1"))
+                .thenReturn(new GatewayPayment("pay_1", GatewayPaymentStatus.SETTLED, 50000, 10L));
+        when(paymentOrderRepository.findSettlementRows(any()))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 1L, 500L, PaymentMethod.RAZORPAY}));
+        when(paymentOrderRepository.markSucceeded(10L, "pay_1")).thenReturn(1);
+        when(walletRepository.findByUserIdIn(any())).thenReturn(List.of(new Wallet(5L, owner, BigDecimal.ZERO)));
+
+        // Act
+        paymentWebhookService.processBatch(List.of(reported));
+
+        // Assert
+        verify(walletRepository).credit(5L, BigDecimal.valueOf(500));
+        assertEquals(PaymentEventStatus.PROCESSED, reported.getStatus());
+        assertTrue(reported.isVerified());
+    }
+
+    /**
+     * Test for processBatch: a reported payment not captured yet is rescheduled, and one made for another order is
+     * skipped; neither touches an order or a wallet.
+     */
+    @Test
+    public void testProcessBatch_ReportedPaymentNotSettleable_IsNotCredited() throws Exception {
+        // Arrange
+        PaymentEvent authorized = event(1L, "pay_1", 10L, 0);
+        authorized.setVerified(false);
+        PaymentEvent foreign = event(2L, "pay_2", 11L, 0);
+        foreign.setVerified(false);
+        when(paymentGatewayService.fetchPayment(PaymentMethod.RAZORPAY, "pay_1"))
+                .thenReturn(new GatewayPayment("pay_1", GatewayPaymentStatus.PENDING, 50000, 10L));
+        when(paymentGatewayService.fetchPayment(PaymentMethod.RAZORPAY, "pay_2"))
+                .thenReturn(new GatewayPayment("pay_2", GatewayPaymentStatus.SETTLED, 50000, 99L));
+
+        // Act
+        paymentWebhookService.processBatch(List.of(authorized, foreign));
+
+        // Assert
+        assertEquals(PaymentEventStatus.PENDING, authorized.getStatus());
+        assertTrue(authorized.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNull(authorized.getClaimToken());
+        assertEquals(PaymentEventStatus.SKIPPED, foreign.getStatus());
+        verify(paymentEventRepository).saveAll(List.of(authorized, foreign));
+        verifyNoInteractions(paymentOrderRepository, walletRepository, walletTransactionRepository);
+    }
+
+    /**
+     * Test for processBatch: a reported payment the provider ties to no order is skipped, not credited.
+     */
+    @Test
+    public void testProcessBatch_ReportedPaymentWithoutOrder_IsSkipped() throws Exception {
+        // Arrange
+        PaymentEvent reported = event(1L, "pay_1", 10L, 0);
+        reported.setVerified(false);
+        when(paymentGatewayService.fetchPayment(PaymentMethod.RAZORPAY, "pay_1"))
+                .thenReturn(new GatewayPayment("pay_1", GatewayPaymentStatus.SETTLED, 50000, null));
+
+        // Act
+        paymentWebhookService.processBatch(List.of(reported));
+
+        // Assert
+        assertEquals(PaymentEventStatus.SKIPPED, reported.getStatus());
+        assertFalse(reported.isVerified());
+        verifyNoInteractions(paymentOrderRepository, walletRepository, walletTransactionRepository);
+    }
+
+    /**
+     * Test for receive: a signed payment whose client-reported copy is being looked up asks for a redelivery.
+     */
+    @Test
+    public void testReceive_ReportedCopyBeingProcessed_AsksForRetry() {
+        // Arrange
+        String payload = ProviderStub.stripeCheckoutCompleted("pi_1", 42L, 50000);
+        String signature = ProviderStub.stripeSignature(payload, STRIPE_SECRET);
+        when(paymentEventRepository.save(any(PaymentEvent.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_payment_events_payment"));
+        when(paymentEventRepository.existsByProviderAndProviderPaymentIdAndVerifiedFalseAndStatus(
+                PaymentMethod.STRIPE, "pi_1", PaymentEventStatus.PROCESSING)).thenReturn(true);
+
+        // Act
+        PaymentWebhookOutcome outcome = paymentWebhookService.receive(PaymentMethod.STRIPE, payload, signature);
+
+        // Assert
+        assertEquals(PaymentWebhookOutcome.RETRY, outcome);
+    }
+
+    // Claimed Razorpay event of an order
+    private static PaymentEvent event(Long id, String paymentId, Long orderId, long amount) {
+        PaymentEvent event = new PaymentEvent();
+        event.setId(id);
+        event.setProvider(PaymentMethod.RAZORPAY);
+        event.setProviderPaymentId(paymentId);
+        event.setOrderId(orderId);
+        event.setAmount(amount);
+        event.setVerified(true);
+        event.setStatus(PaymentEventStatus.PROCESSING);
+        event.setClaimToken("token");
+        return event;
+    }
+
+    // Local stand-in for the providers: builds their webhook bodies and signs them the way they do
+    private static final class ProviderStub {
+
+        // Razorpay payment_link.paid body for a payment of an order, amount in paise
+        static String razorpayPaymentLinkPaid(String paymentId, Long orderId, long amount) {
+            return "{\"entity\":\"event\",\"event\":\"payment_link.paid\",\"payload\":{"
+                    + "\"payment_link\":{\"entity\":{\"id\":\"plink_1\",\"reference_id\":\"" + orderId + "\"}},"
+                    + "\"payment\":{\"entity\":{\"id\":\"" + paymentId + "\",\"amount\":" + amount
+                    + ",\"status\":\"captured\"}}}}";
+        }
+
+        // Stripe checkout.session.completed body for a paid session of an order, amount in cents
+        static String stripeCheckoutCompleted(String paymentIntent, Long orderId, long amount) {
+            return "{\"id\":\"evt_1\",\"type\":\"checkout.session.completed\",\"data\":{\"object\":{"
+                    + "\"id\":\"cs_1\",\"payment_intent\":\"" + paymentIntent + "\",\"client_reference_id\":\""
+                    + orderId + "\",\"amount_total\":" + amount + ",\"payment_status\":\"paid\"}}}";
+        }
+
+        // X-Razorpay-Signature: hex HMAC-SHA256 of the body
+        static String razorpaySignature(String payload, String secret) {
+            return hmac(secret, payload);
+        }
+
+        // Stripe-Signature: current timestamp and hex HMAC-SHA256 of "timestamp.body"
+        static String stripeSignature(String payload, String secret) {
+            long timestamp = System.currentTimeMillis() / 1000;
+            return "t=" + timestamp + ",v1=" + hmac(secret, timestamp + "." + payload);
+        }
+
+        private static String hmac(String secret, String message) {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+                return HexFormat.of().formatHex(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
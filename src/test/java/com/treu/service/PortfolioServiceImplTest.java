@@ -0,0 +1,177 @@
+package com.treu.service;
+
+import com.treu.model.Asset;
+import com.treu.model.Coin;
+import com.treu.model.CoinQuote;
+import com.treu.repository.AssetsRepository;
+import com.treu.response.PortfolioPosition;
+import com.treu.response.PortfolioResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PortfolioServiceImplTest {
+
+    // Mocks for dependencies
+    @Mock
+    private AssetsRepository assetsRepository;
+
+    @Mock
+    private PriceSnapshotService priceSnapshotService;
+
+    private PortfolioServiceImpl portfolioService;
+
+    @BeforeEach
+    public void setup() {
+        portfolioService = new PortfolioServiceImpl(assetsRepository, priceSnapshotService);
+    }
+
+    // Builds an asset of the given coin
+    private Asset asset(String coinId, double quantity, double buyPrice, double coinPrice) {
+        Coin coin = new Coin();
+        coin.setId(coinId);
+        coin.setCurrentPrice(coinPrice);
+        Asset asset = new Asset();
+        asset.setCoin(coin);
+        asset.setQuantity(quantity);
+        asset.setBuyPrice(buyPrice);
+        return asset;
+    }
+
+    // Builds a quote carrying only a price
+    private CoinQuote quote(String coinId, double price) {
+        return new CoinQuote(coinId, null, null, null, price, 0, 0, 0, 0, 0, 0, 1, 0);
+    }
+
+    /**
+     * Test for getPortfolio: the first read values the assets, later reads do not query again.
+     */
+    @Test
+    public void testGetPortfolio_LoadsOnce() {
+        // Arrange
+        when(assetsRepository.findByUserId(1L)).thenReturn(List.of(
+                asset("bitcoin", 2, 100, 150),
+                asset("ethereum", 10, 10, 5)));
+        when(priceSnapshotService.getQuote(anyString())).thenReturn(null);
+
+        // Act
+        PortfolioResponse first = portfolioService.getPortfolio(1L);
+        portfolioService.getPortfolio(1L);
+
+        // Assert
+        assertEquals(350, first.getMarketValue(), 1e-9);
+        assertEquals(300, first.getCostBasis(), 1e-9);
+        assertEquals(50, first.getUnrealizedPnl(), 1e-9);
+        PortfolioPosition bitcoin = first.getPositions().get(0);
+        assertEquals(300.0 / 350, bitcoin.getWeight(), 1e-9);
+        verify(assetsRepository, times(1)).findByUserId(1L);
+    }
+
+    /**
+     * Test for onPriceTick: a tick revalues only the books holding the coin.
+     */
+    @Test
+    public void testOnPriceTick_RevaluesHolders() {
+        // Arrange
+        when(assetsRepository.findByUserId(1L)).thenReturn(List.of(asset("bitcoin", 2, 100, 100)));
+        portfolioService.getPortfolio(1L);
+
+        // Act
+        portfolioService.onPriceTick(quote("bitcoin", 130), 100);
+        portfolioService.onPriceTick(quote("dogecoin", 1), 0.5);
+
+        // Assert
+        PortfolioResponse portfolio = portfolioService.getPortfolio(1L);
+        assertEquals(260, portfolio.getMarketValue(), 1e-9);
+        assertEquals(60, portfolio.getUnrealizedPnl(), 1e-9);
+        assertEquals(30, portfolio.getUnrealizedPnlPercentage(), 1e-9);
+    }
+
+    /**
+     * Test for onPositionChanged: fills add, resize and close positions of a loaded book.
+     */
+    @Test
+    public void testOnPositionChanged_AppliesFills() {
+        // Arrange
+        when(assetsRepository.findByUserId(1L)).thenReturn(List.of(asset("bitcoin", 1, 100, 100)));
+        portfolioService.getPortfolio(1L);
+
+        // Act: buy ethereum, then sell all bitcoin
+        portfolioService.onPositionChanged(1L, "ethereum", 4, 25, 25);
+        portfolioService.onPositionChanged(1L, "bitcoin", 0, 100, 120);
+
+        // Assert
+        PortfolioResponse portfolio = portfolioService.getPortfolio(1L);
+        assertEquals(1, portfolio.getPositions().size());
+        assertEquals("ethereum", portfolio.getPositions().get(0).getCoinId());
+        assertEquals(100, portfolio.getMarketValue(), 1e-9);
+        assertEquals(1.0, portfolio.getPositions().get(0).getWeight(), 1e-9);
+    }
+
+    /**
+     * Test for onPositionChanged: fills for users without a book are left to the first load.
+     */
+    @Test
+    public void testOnPositionChanged_IgnoresUnloadedUsers() {
+        // Act
+        portfolioService.onPositionChanged(2L, "bitcoin", 1, 100, 100);
+
+        // Assert
+        verifyNoInteractions(assetsRepository);
+    }
+
+    /**
+     * Test for getPortfolio: a fill landing while the assets are read makes the load start over.
+     */
+    @Test
+    public void testGetPortfolio_ReloadsWhenFillRacesLoad() {
+        // Arrange: the first read races with a fill that takes the position to 3 bitcoin
+        when(assetsRepository.findByUserId(1L))
+                .thenAnswer(invocation -> {
+                    portfolioService.onPositionChanged(1L, "bitcoin", 3, 100, 100);
+                    return List.of(asset("bitcoin", 2, 100, 100));
+                })
+                .thenReturn(List.of(asset("bitcoin", 3, 100, 100)));
+
+        // Act
+        PortfolioResponse portfolio = portfolioService.getPortfolio(1L);
+
+        // Assert
+        assertEquals(300, portfolio.getMarketValue(), 1e-9);
+        verify(assetsRepository, times(2)).findByUserId(1L);
+    }
+
+    /**
+     * Test for getPortfolio: books beyond the bound are evicted and rebuilt on their next read.
+     */
+    @Test
+    public void testGetPortfolio_BoundsBooks() {
+        // Arrange
+        ReflectionTestUtils.setField(portfolioService, "maxBooks", 2);
+        when(assetsRepository.findByUserId(anyLong())).thenReturn(List.of(asset("bitcoin", 1, 100, 100)));
+
+        // Act
+        for (long userId = 1; userId <= 5; userId++) {
+            portfolioService.getPortfolio(userId);
+        }
+
+        // Assert
+        Map<?, ?> books = (Map<?, ?>) ReflectionTestUtils.getField(portfolioService, "books");
+        Map<?, ?> holders = (Map<?, ?>) ReflectionTestUtils.getField(portfolioService, "holders");
+        assertTrue(books.size() <= 2);
+        assertTrue(((Set<?>) holders.get("bitcoin")).size() <= 2);
+    }
+}
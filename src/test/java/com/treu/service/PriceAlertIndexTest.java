@@ -0,0 +1,65 @@
+package com.treu.service;
+
+import com.treu.domain.PriceAlertChannel;
+import com.treu.domain.PriceAlertDirection;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceAlertIndexTest {
+
+    // Email alert of user 1 at a threshold
+    private static PriceAlertIndex.Entry entry(long alertId, double threshold) {
+        return new PriceAlertIndex.Entry(alertId, 1L, threshold, PriceAlertChannel.EMAIL);
+    }
+
+    // Ids of fired entries, in firing order
+    private static List<Long> ids(List<PriceAlertIndex.Entry> fired) {
+        return fired.stream().map(entry -> entry.alertId).toList();
+    }
+
+    /**
+     * Test for fire: a rise fires the crossed ABOVE alerts from the lowest threshold, a fall the BELOW ones
+     * from the highest, and alerts on the far side of the price stay indexed.
+     */
+    @Test
+    public void testFire_FiresOnlyCrossedThresholds() {
+        // Arrange
+        PriceAlertIndex index = new PriceAlertIndex();
+        index.add("bitcoin", PriceAlertDirection.ABOVE, entry(1, 62000));
+        index.add("bitcoin", PriceAlertDirection.ABOVE, entry(2, 61000));
+        index.add("bitcoin", PriceAlertDirection.ABOVE, entry(3, 70000));
+        index.add("bitcoin", PriceAlertDirection.BELOW, entry(4, 50000));
+        index.add("bitcoin", PriceAlertDirection.BELOW, entry(5, 55000));
+
+        // Act & Assert: a rise to 62000 fires both ABOVE alerts at or under it
+        assertEquals(List.of(2L, 1L), ids(index.fire("bitcoin", 62000)));
+        // Act & Assert: the same price again fires nothing, fired alerts are gone
+        assertTrue(index.fire("bitcoin", 62000).isEmpty());
+        // Act & Assert: a fall to 52000 fires the higher BELOW alert only
+        assertEquals(List.of(5L), ids(index.fire("bitcoin", 52000)));
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * Test for add and remove: equal thresholds stay distinct, re-adding is a no-op and removed alerts never fire.
+     */
+    @Test
+    public void testAddRemove_TracksAlertsById() {
+        // Arrange
+        PriceAlertIndex index = new PriceAlertIndex();
+        assertTrue(index.add("ethereum", PriceAlertDirection.ABOVE, entry(1, 3000)));
+        assertTrue(index.add("ethereum", PriceAlertDirection.ABOVE, entry(2, 3000)));
+        assertFalse(index.add("ethereum", PriceAlertDirection.ABOVE, entry(2, 3000)));
+
+        // Act
+        assertTrue(index.remove("ethereum", PriceAlertDirection.ABOVE, 1, 3000));
+        assertFalse(index.remove("ethereum", PriceAlertDirection.BELOW, 2, 3000));
+
+        // Assert
+        assertEquals(List.of(2L), ids(index.fire("ethereum", 3500)));
+        assertTrue(index.fire("solana", 100).isEmpty());
+    }
+}
@@ -0,0 +1,231 @@
+package com.treu.service;
+
+import com.treu.domain.PriceAlertChannel;
+import com.treu.domain.PriceAlertDirection;
+import com.treu.model.CoinQuote;
+import com.treu.model.PriceAlert;
+import com.treu.model.User;
+import com.treu.repository.PriceAlertRepository;
+import com.treu.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PriceAlertServiceImplTest {
+
+    // Mocks for dependencies
+    @Mock
+    private PriceAlertRepository priceAlertRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WatchlistService watchlistService;
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PriceAlertServiceImpl priceAlertService;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        priceAlertService = new PriceAlertServiceImpl(
+                priceAlertRepository, userRepository, watchlistService, emailOutboxService, transactionManager);
+        priceAlertService.start();
+        user = new User();
+        user.setId(1L);
+        user.setEmail("trader@example.com");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        priceAlertService.stop();
+    }
+
+    /**
+     * Test for createAlert: alerts can only be set on coins of the user's watchlist.
+     */
+    @Test
+    public void testCreateAlert_RequiresWatchedCoin() throws Exception {
+        // Arrange
+        when(watchlistService.getWatchedCoinIds(1L)).thenReturn(Set.of("ethereum"));
+
+        // Act & Assert
+        Exception e = assertThrows(Exception.class, () -> priceAlertService.createAlert(
+                1L, "bitcoin", PriceAlertDirection.ABOVE, 65000, PriceAlertChannel.EMAIL));
+        assertTrue(e.getMessage().contains("watchlist"));
+        verify(priceAlertRepository, never()).save(any());
+    }
+
+    /**
+     * Test for onPriceTick: a created alert fires on the first crossing tick and its email is queued once.
+     */
+    @Test
+    public void testOnPriceTick_FiresCreatedAlertOnce() throws Exception {
+        // Arrange
+        PriceAlert alert = createAlert(7L, PriceAlertChannel.EMAIL);
+        when(priceAlertRepository.findWithUserByIdIn(List.of(7L))).thenReturn(List.of(alert));
+        when(priceAlertRepository.markTriggered(eq(7L), any(), eq(65500.0))).thenReturn(1);
+
+        // Act
+        priceAlertService.onPriceTick(quote(64000), 63000);
+        priceAlertService.onPriceTick(quote(65500), 64000);
+        priceAlertService.onPriceTick(quote(66000), 65500);
+
+        // Assert
+        verify(emailOutboxService, timeout(2000)).enqueue(eq("trader@example.com"), contains("bitcoin above"), anyString());
+        verify(priceAlertRepository, times(1)).findWithUserByIdIn(any());
+        assertEquals(0, priceAlertService.indexedAlertCount());
+    }
+
+    /**
+     * Test for deliver: an alert already claimed elsewhere is not delivered again.
+     */
+    @Test
+    public void testDeliver_SkipsAlertClaimedElsewhere() throws Exception {
+        // Arrange
+        PriceAlert alert = alert(7L, PriceAlertChannel.EMAIL);
+        when(priceAlertRepository.findWithUserByIdIn(List.of(7L))).thenReturn(List.of(alert));
+        when(watchlistService.getWatchedCoinIds(1L)).thenReturn(Set.of("bitcoin"));
+        when(priceAlertRepository.markTriggered(eq(7L), any(), eq(65500.0))).thenReturn(0);
+
+        // Act
+        priceAlertService.deliver("bitcoin", 65500, List.of(entry(alert)));
+
+        // Assert
+        verifyNoInteractions(emailOutboxService);
+    }
+
+    /**
+     * Test for deliver: a PUSH alert without an open stream falls back to email.
+     */
+    @Test
+    public void testDeliver_PushWithoutStream_FallsBackToEmail() throws Exception {
+        // Arrange
+        PriceAlert alert = alert(8L, PriceAlertChannel.PUSH);
+        when(priceAlertRepository.findWithUserByIdIn(List.of(8L))).thenReturn(List.of(alert));
+        when(watchlistService.getWatchedCoinIds(1L)).thenReturn(Set.of("bitcoin"));
+        when(priceAlertRepository.markTriggered(eq(8L), any(), eq(65500.0))).thenReturn(1);
+
+        // Act
+        priceAlertService.deliver("bitcoin", 65500, List.of(entry(alert)));
+
+        // Assert
+        verify(emailOutboxService).enqueue(eq("trader@example.com"), anyString(), anyString());
+        assertFalse(alert.isActive());
+        assertEquals(65500.0, alert.getTriggeredPrice());
+    }
+
+    /**
+     * Test for deliver: a PUSH alert handed to an open stream goes out on a pusher thread, without email.
+     */
+    @Test
+    public void testDeliver_PushToOpenStream_SkipsEmail() throws Exception {
+        // Arrange
+        PriceAlert alert = alert(8L, PriceAlertChannel.PUSH);
+        when(priceAlertRepository.findWithUserByIdIn(List.of(8L))).thenReturn(List.of(alert));
+        when(watchlistService.getWatchedCoinIds(1L)).thenReturn(Set.of("bitcoin"));
+        when(priceAlertRepository.markTriggered(eq(8L), any(), eq(65500.0))).thenReturn(1);
+        priceAlertService.subscribe(1L);
+
+        // Act
+        priceAlertService.deliver("bitcoin", 65500, List.of(entry(alert)));
+
+        // Assert
+        verify(emailOutboxService, after(200).never()).enqueue(anyString(), anyString(), anyString());
+    }
+
+    /**
+     * Test for deliver: a stream with too many sends pending is closed and the alert falls back to email.
+     */
+    @Test
+    public void testDeliver_StreamFallenBehind_ClosedAndEmailed() throws Exception {
+        // Arrange: no pending send allowed, so the stream counts as fallen behind
+        ReflectionTestUtils.setField(priceAlertService, "maxPendingPerStream", 0);
+        PriceAlert alert = alert(8L, PriceAlertChannel.PUSH);
+        when(priceAlertRepository.findWithUserByIdIn(List.of(8L))).thenReturn(List.of(alert));
+        when(watchlistService.getWatchedCoinIds(1L)).thenReturn(Set.of("bitcoin"));
+        when(priceAlertRepository.markTriggered(eq(8L), any(), eq(65500.0))).thenReturn(1);
+        priceAlertService.subscribe(1L);
+
+        // Act
+        priceAlertService.deliver("bitcoin", 65500, List.of(entry(alert)));
+
+        // Assert
+        verify(emailOutboxService).enqueue(eq("trader@example.com"), anyString(), anyString());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(priceAlertService, "streams")).isEmpty());
+    }
+
+    /**
+     * Test for deliver: an alert on a coin the user stopped watching is deactivated without a notification.
+     */
+    @Test
+    public void testDeliver_UnwatchedCoin_DeactivatesSilently() throws Exception {
+        // Arrange
+        PriceAlert alert = alert(9L, PriceAlertChannel.EMAIL);
+        when(priceAlertRepository.findWithUserByIdIn(List.of(9L))).thenReturn(List.of(alert));
+        when(watchlistService.getWatchedCoinIds(1L)).thenReturn(Set.of());
+
+        // Act
+        priceAlertService.deliver("bitcoin", 65500, List.of(entry(alert)));
+
+        // Assert
+        verify(priceAlertRepository).deactivate(9L);
+        verify(priceAlertRepository, never()).markTriggered(anyLong(), any(), anyDouble());
+        verifyNoInteractions(emailOutboxService);
+    }
+
+    // Creates an ABOVE 65000 bitcoin alert through the service, stored with the given id
+    private PriceAlert createAlert(Long id, PriceAlertChannel channel) throws Exception {
+        when(watchlistService.getWatchedCoinIds(1L)).thenReturn(Set.of("bitcoin"));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(priceAlertRepository.save(any(PriceAlert.class))).thenAnswer(invocation -> {
+            PriceAlert saved = invocation.getArgument(0);
+            saved.setId(id);
+            return saved;
+        });
+        return priceAlertService.createAlert(1L, "bitcoin", PriceAlertDirection.ABOVE, 65000, channel);
+    }
+
+    // Active ABOVE 65000 bitcoin alert of the test user
+    private PriceAlert alert(Long id, PriceAlertChannel channel) {
+        PriceAlert alert = new PriceAlert();
+        alert.setId(id);
+        alert.setUser(user);
+        alert.setCoinId("bitcoin");
+        alert.setDirection(PriceAlertDirection.ABOVE);
+        alert.setThreshold(65000);
+        alert.setChannel(channel);
+        return alert;
+    }
+
+    // Index entry of an alert
+    private static PriceAlertIndex.Entry entry(PriceAlert alert) {
+        return new PriceAlertIndex.Entry(alert.getId(), alert.getUser().getId(), alert.getThreshold(), alert.getChannel());
+    }
+
+    // Bitcoin quote at a price
+    private static CoinQuote quote(double price) {
+        return new CoinQuote("bitcoin", "btc", "Bitcoin", null, price, 0, 0, 0, 0, 0, 0, 1, 0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.treu.service;
+
+import com.treu.config.JwtProvider;
+import com.treu.exception.UserException;
+import com.treu.model.RefreshToken;
+import com.treu.model.User;
+import com.treu.repository.RefreshTokenRepository;
+import com.treu.response.AuthResponse;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceImplTest {
+
+    // Mock for the refresh token table
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    private User user;
+
+    // Tokens saved through the mock repository
+    private final List<RefreshToken> saved = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        JwtProvider.setKey(Keys.hmacShaKeyFor("TestSecretKeyForJwtProviderUnitTesting12345".getBytes()));
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository);
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+        lenient().when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            if (!saved.contains(token)) {
+                saved.add(token);
+            }
+            return token;
+        });
+    }
+
+    /**
+     * Test for createRefreshToken: only the hash of the token is stored, in a new family.
+     */
+    @Test
+    public void testCreateRefreshToken_StoresHashOnly() {
+        // Act
+        String token = refreshTokenService.createRefreshToken(user);
+
+        // Assert
+        assertEquals(1, saved.size());
+        RefreshToken stored = saved.get(0);
+        assertNotEquals(token, stored.getTokenHash());
+        assertEquals(64, stored.getTokenHash().length());
+        assertNotNull(stored.getFamilyId());
+        assertTrue(stored.getExpiresAt().isAfter(LocalDateTime.now().plusDays(13)));
+    }
+
+    /**
+     * Test for refresh: the token is marked used and a new pair is issued in the same family.
+     */
+    @Test
+    public void testRefresh_RotatesWithinFamily() throws UserException {
+        // Arrange
+        String token = refreshTokenService.createRefreshToken(user);
+        RefreshToken stored = saved.get(0);
+        when(refreshTokenRepository.findByTokenHashForUpdate(stored.getTokenHash())).thenReturn(stored);
+
+        // Act
+        AuthResponse response = refreshTokenService.refresh(token);
+
+        // Assert
+        assertNotNull(stored.getUsedAt());
+        assertEquals(2, saved.size());
+        assertEquals(stored.getFamilyId(), saved.get(1).getFamilyId());
+        assertNotEquals(token, response.getRefreshToken());
+        Claims claims = JwtProvider.parseClaims(response.getJwt());
+        assertEquals("test@example.com", claims.get("email"));
+        assertEquals("ROLE_USER", claims.get("authorities"));
+        assertNotNull(claims.getId());
+    }
+
+    /**
+     * Test for refresh: presenting a rotated token again revokes its whole family.
+     */
+    @Test
+    public void testRefresh_ReuseRevokesFamily() {
+        // Arrange
+        String token = refreshTokenService.createRefreshToken(user);
+        RefreshToken stored = saved.get(0);
+        stored.setUsedAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(stored.getTokenHash())).thenReturn(stored);
+
+        // Act & Assert
+        assertThrows(UserException.class, () -> refreshTokenService.refresh(token));
+        verify(refreshTokenRepository).revokeFamily(eq(stored.getFamilyId()), any());
+    }
+
+    /**
+     * Test for refresh: unknown, revoked and expired tokens are rejected.
+     */
+    @Test
+    public void testRefresh_InvalidTokensRejected() {
+        // Arrange
+        String token = refreshTokenService.createRefreshToken(user);
+        RefreshToken stored = saved.get(0);
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(null);
+
+        // Act & Assert: unknown
+        assertThrows(UserException.class, () -> refreshTokenService.refresh("unknown"));
+        assertThrows(UserException.class, () -> refreshTokenService.refresh(null));
+
+        // Act & Assert: revoked
+        when(refreshTokenRepository.findByTokenHashForUpdate(stored.getTokenHash())).thenReturn(stored);
+        stored.setRevokedAt(LocalDateTime.now());
+        assertThrows(UserException.class, () -> refreshTokenService.refresh(token));
+
+        // Act & Assert: expired
+        stored.setRevokedAt(null);
+        stored.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        assertThrows(UserException.class, () -> refreshTokenService.refresh(token));
+        assertNull(stored.getUsedAt());
+    }
+
+    /**
+     * Test for revoke: logging out revokes the token's family by its hash.
+     */
+    @Test
+    public void testRevoke_RevokesFamily() {
+        // Arrange
+        String token = refreshTokenService.createRefreshToken(user);
+        RefreshToken stored = saved.get(0);
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        when(refreshTokenRepository.findByTokenHash(hash.capture())).thenReturn(stored);
+
+        // Act
+        refreshTokenService.revoke(token);
+
+        // Assert
+        assertEquals(stored.getTokenHash(), hash.getValue());
+        verify(refreshTokenRepository).revokeFamily(eq(stored.getFamilyId()), any());
+    }
+}
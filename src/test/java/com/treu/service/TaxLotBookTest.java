@@ -0,0 +1,83 @@
+package com.treu.service;
+
+import com.treu.domain.CostBasisMethod;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaxLotBookTest {
+
+    // Builds a book holding 1 @ 100, 1 @ 200 and 2 @ 300
+    private TaxLotBook book(CostBasisMethod method) {
+        TaxLotBook book = new TaxLotBook(method);
+        book.buy(1, 100);
+        book.buy(1, 200);
+        book.buy(2, 300);
+        return book;
+    }
+
+    /**
+     * Test for sell: each method matches the same sell against different lots.
+     */
+    @Test
+    public void testSell_MatchesLotsByMethod() {
+        // Act & Assert: sell 1.5 out of 4 held (cost 900)
+        assertEquals(100 + 0.5 * 200, book(CostBasisMethod.FIFO).sell(1.5), 1e-9);
+        assertEquals(1.5 * 300, book(CostBasisMethod.LIFO).sell(1.5), 1e-9);
+        assertEquals(1.5 * 900 / 4, book(CostBasisMethod.AVERAGE).sell(1.5), 1e-9);
+    }
+
+    /**
+     * Test for sell: partially consumed lots keep their remainder and totals follow.
+     */
+    @Test
+    public void testSell_KeepsRemainders() {
+        // Arrange
+        TaxLotBook book = book(CostBasisMethod.FIFO);
+
+        // Act
+        book.sell(1.5);
+        double cost = book.sell(1.5);
+
+        // Assert
+        assertEquals(0.5 * 200 + 300, cost, 1e-9);
+        assertEquals(1, book.getQuantity(), 1e-9);
+        assertEquals(300, book.getAverageCost(), 1e-9);
+        assertEquals(1, book.getLotCount());
+    }
+
+    /**
+     * Test for buy: the ring buffer grows past its initial capacity while wrapped.
+     */
+    @Test
+    public void testBuy_GrowsWrappedBuffer() {
+        // Arrange: wrap the head around by consuming lots before filling up
+        TaxLotBook book = new TaxLotBook(CostBasisMethod.FIFO);
+        for (int i = 0; i < 5; i++) {
+            book.buy(1, 1);
+        }
+        book.sell(4);
+        for (int i = 1; i <= 20; i++) {
+            book.buy(1, i);
+        }
+
+        // Act
+        double cost = book.sell(3);
+
+        // Assert: the oldest three lots are consumed first
+        assertEquals(1 + 1 + 2, cost, 1e-9);
+        assertEquals(18, book.getLotCount());
+    }
+
+    /**
+     * Test for sell: selling more than is held is rejected.
+     */
+    @Test
+    public void testSell_Oversell() {
+        // Arrange
+        TaxLotBook book = book(CostBasisMethod.LIFO);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> book.sell(5));
+    }
+}
@@ -0,0 +1,78 @@
+package com.treu.service;
+
+import com.treu.model.TwoFactorOTP;
+import com.treu.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TwoFactorOtpServiceImplTest {
+
+    private TwoFactorOtpServiceImpl twoFactorOtpService;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        twoFactorOtpService = new TwoFactorOtpServiceImpl(new InMemoryEphemeralTokenStore(1000, 64, 5));
+        user = new User();
+        user.setId(1L);
+    }
+
+    /**
+     * Test for createTwoFactorOtp: the session can be found by ID and by user.
+     */
+    @Test
+    public void testCreateTwoFactorOtp_FindableByIdAndUser() {
+        // Act
+        TwoFactorOTP created = twoFactorOtpService.createTwoFactorOtp(user, "123456", "jwt");
+
+        // Assert
+        assertSame(created, twoFactorOtpService.findById(created.getId()));
+        assertSame(created, twoFactorOtpService.findByUser(1L));
+        assertTrue(twoFactorOtpService.verifyTwoFactorOtp(created, "123456"));
+    }
+
+    /**
+     * Test for createTwoFactorOtp: a new login invalidates the user's previous session.
+     */
+    @Test
+    public void testCreateTwoFactorOtp_ReplacesPreviousSession() {
+        // Arrange
+        TwoFactorOTP first = twoFactorOtpService.createTwoFactorOtp(user, "111111", "jwt1");
+
+        // Act
+        TwoFactorOTP second = twoFactorOtpService.createTwoFactorOtp(user, "222222", "jwt2");
+
+        // Assert
+        assertNull(twoFactorOtpService.findById(first.getId()));
+        assertFalse(twoFactorOtpService.verifyTwoFactorOtp(first, "111111"));
+        assertSame(second, twoFactorOtpService.findByUser(1L));
+    }
+
+    /**
+     * Test for deleteTwoFactorOtp: a consumed session cannot be verified again.
+     */
+    @Test
+    public void testDeleteTwoFactorOtp_PreventsReplay() {
+        // Arrange
+        TwoFactorOTP created = twoFactorOtpService.createTwoFactorOtp(user, "123456", "jwt");
+
+        // Act
+        twoFactorOtpService.deleteTwoFactorOtp(created);
+
+        // Assert
+        assertNull(twoFactorOtpService.findById(created.getId()));
+        assertNull(twoFactorOtpService.findByUser(1L));
+        assertFalse(twoFactorOtpService.verifyTwoFactorOtp(created, "123456"));
+    }
+
+    /**
+     * Test for verifyTwoFactorOtp: an unknown or expired session is rejected.
+     */
+    @Test
+    public void testVerifyTwoFactorOtp_NullSessionRejected() {
+        assertFalse(twoFactorOtpService.verifyTwoFactorOtp(null, "123456"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.treu.service;
+
+import com.treu.domain.VerificationType;
+import com.treu.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserProfileCacheTest {
+
+    private final UserProfileCache cache = new UserProfileCache();
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // Builds a user with two-factor settings
+    private User user(String email) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(email);
+        user.setPassword("encoded");
+        user.getTwoFactorAuth().setEnabled(true);
+        user.getTwoFactorAuth().setSendTo(VerificationType.EMAIL);
+        return user;
+    }
+
+    /**
+     * Test for get: the shared level hands out an independent entity per call.
+     */
+    @Test
+    public void testGet_ReturnsCopies() {
+        // Arrange
+        User user = user("a@example.com");
+        cache.put("a@example.com", user, cache.generation());
+
+        // Act
+        User first = cache.get("a@example.com");
+        first.getTwoFactorAuth().setEnabled(false);
+        User second = cache.get("a@example.com");
+
+        // Assert
+        assertNotSame(user, first);
+        assertEquals("encoded", first.getPassword());
+        assertTrue(second.getTwoFactorAuth().isEnabled());
+    }
+
+    /**
+     * Test for get: the entity rebuilt from the cached profile carries every column of the loaded user.
+     */
+    @Test
+    public void testGet_RebuildsEveryField() {
+        // Arrange
+        User user = user("a@example.com");
+        user.setFullName("Ada");
+        user.setMobile("555");
+        user.setVerified(true);
+        user.setPicture("ada.png");
+        cache.put("a@example.com", user, cache.generation());
+
+        // Act & Assert
+        assertEquals(user, cache.get("a@example.com"));
+    }
+
+    /**
+     * Test for get: within a request the same instance is returned.
+     */
+    @Test
+    public void testGet_SameInstanceWithinRequest() {
+        // Arrange
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        User user = user("a@example.com");
+        cache.put("a@example.com", user, cache.generation());
+
+        // Act & Assert
+        assertSame(user, cache.get("a@example.com"));
+        assertNull(cache.get("b@example.com"));
+    }
+
+    /**
+     * Test for put: a load overlapping an invalidation is not cached.
+     */
+    @Test
+    public void testPut_SkipsLoadsOverlappingInvalidation() {
+        // Arrange: the load starts, then the user is changed elsewhere
+        long generation = cache.generation();
+        cache.invalidate("a@example.com");
+
+        // Act
+        cache.put("a@example.com", user("a@example.com"), generation);
+
+        // Assert
+        assertNull(cache.get("a@example.com"));
+    }
+
+    /**
+     * Test for invalidate: both levels drop the user.
+     */
+    @Test
+    public void testInvalidate_DropsUser() {
+        // Arrange
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        cache.put("a@example.com", user("a@example.com"), cache.generation());
+
+        // Act
+        cache.invalidate("a@example.com");
+
+        // Assert
+        assertNull(cache.get("a@example.com"));
+    }
+}
@@ -3,6 +3,7 @@ package com.treu.service;
 import com.treu.config.JwtProvider;
 import com.treu.domain.VerificationType;
 import com.treu.exception.UserException;
+import com.treu.model.AuthenticatedUser;
 import com.treu.model.User;
 import com.treu.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +35,9 @@ public class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserProfileCache userProfileCache;
+
     // Inject mocks into the service being tested
     @InjectMocks
     private UserServiceImpl userService;
@@ -82,6 +86,26 @@ public class UserServiceImplTest {
         }
     }
 
+    /**
+     * Test for findUserProfileByJwt when the user is cached
+     * Verifies that a cached user is returned without querying the repository
+     */
+    @Test
+    void findUserProfileByJwt_Cached() throws UserException {
+        // Arrange
+        try (MockedStatic<JwtProvider> jwtProviderMock = mockStatic(JwtProvider.class)) {
+            jwtProviderMock.when(() -> JwtProvider.getEmailFromJwtToken(TEST_JWT)).thenReturn(TEST_EMAIL);
+            when(userProfileCache.get(TEST_EMAIL)).thenReturn(testUser);
+
+            // Act
+            User result = userService.findUserProfileByJwt(TEST_JWT);
+
+            // Assert
+            assertSame(testUser, result, "Cached user should be returned");
+            verifyNoInteractions(userRepository);
+        }
+    }
+
     /**
      * Test for findUserProfileByJwt when user does not exist
      * Verifies that the method throws UserException with correct message
@@ -107,6 +131,48 @@ public class UserServiceImplTest {
         }
     }
 
+    /**
+     * Test for findPrincipalByJwt when the token carries the principal
+     * Verifies that the principal is returned without loading the user
+     */
+    @Test
+    void findPrincipalByJwt_FromClaims() throws UserException {
+        // Arrange
+        AuthenticatedUser principal = AuthenticatedUser.of(testUser);
+        try (MockedStatic<JwtProvider> jwtProviderMock = mockStatic(JwtProvider.class)) {
+            jwtProviderMock.when(() -> JwtProvider.getPrincipalFromJwtToken(TEST_JWT)).thenReturn(principal);
+
+            // Act
+            AuthenticatedUser result = userService.findPrincipalByJwt(TEST_JWT);
+
+            // Assert
+            assertSame(principal, result);
+            verifyNoInteractions(userRepository, userProfileCache);
+        }
+    }
+
+    /**
+     * Test for findPrincipalByJwt when the token predates the principal claims
+     * Verifies that the principal is built from the user's profile
+     */
+    @Test
+    void findPrincipalByJwt_WithoutClaims_LoadsProfile() throws UserException {
+        // Arrange
+        try (MockedStatic<JwtProvider> jwtProviderMock = mockStatic(JwtProvider.class)) {
+            jwtProviderMock.when(() -> JwtProvider.getPrincipalFromJwtToken(TEST_JWT)).thenReturn(null);
+            jwtProviderMock.when(() -> JwtProvider.getEmailFromJwtToken(TEST_JWT)).thenReturn(TEST_EMAIL);
+            when(userProfileCache.get(TEST_EMAIL)).thenReturn(testUser);
+
+            // Act
+            AuthenticatedUser result = userService.findPrincipalByJwt(TEST_JWT);
+
+            // Assert
+            assertEquals(TEST_USER_ID, result.getUserId());
+            assertEquals(TEST_EMAIL, result.getEmail());
+            assertFalse(result.isAdmin());
+        }
+    }
+
     /**
      * Test for findUserByEmail when user exists
      * Verifies that the method returns the correct user for a given email
@@ -250,6 +316,8 @@ public class UserServiceImplTest {
         // Verify encoder and repository were called with correct arguments
         verify(passwordEncoder, times(1)).encode(newPassword);
         verify(userRepository, times(1)).save(testUser);
+        // Verify the cached profile was dropped
+        verify(userProfileCache, times(1)).invalidate(TEST_EMAIL);
     }
 
     /**
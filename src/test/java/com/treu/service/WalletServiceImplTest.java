@@ -1,8 +1,10 @@
 package com.treu.service;
 
 import com.treu.domain.OrderType;
+import com.treu.domain.WalletTransactionType;
 import com.treu.exception.WalletException;
 import com.treu.model.*;
+import com.treu.repository.UserRepository;
 import com.treu.repository.WalletRepository;
 import com.treu.repository.WalletTransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +15,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +35,9 @@ public class WalletServiceImplTest {
     @Mock
     private WalletTransactionRepository walletTransactionRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
     // Inject mocks into the service implementation
     @InjectMocks
     private WalletServiceImpl walletService;
@@ -98,6 +107,36 @@ public class WalletServiceImplTest {
         verify(walletRepository, times(1)).save(any(Wallet.class));
     }
 
+    @Test
+    public void testGetUserWalletById_WhenWalletExists() throws WalletException {
+        // Create an existing wallet for the user
+        Wallet existingWallet = new Wallet();
+        existingWallet.setUser(user);
+        when(walletRepository.findByUserId(1L)).thenReturn(existingWallet);
+
+        // Call the method under test with the user's ID only
+        Wallet result = walletService.getUserWallet(1L);
+
+        // Verify that the wallet is returned without loading the user
+        assertEquals(existingWallet, result);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testGetUserWalletById_WhenWalletDoesNotExist() throws WalletException {
+        // Simulate no wallet existing; the user is loaded to link the new one
+        when(walletRepository.findByUserId(1L)).thenReturn(null);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Call the method under test
+        Wallet result = walletService.getUserWallet(1L);
+
+        // Verify that a new wallet is created for the loaded user
+        assertEquals(user, result.getUser());
+        verify(walletRepository, times(1)).save(any(Wallet.class));
+    }
+
     @Test
     public void testFindWalletById_WhenWalletExists() throws WalletException {
         // Prepare a wallet with a specific ID
@@ -143,7 +182,7 @@ public class WalletServiceImplTest {
 
         // Expect an exception due to insufficient funds for the transfer
         WalletException exception = assertThrows(WalletException.class, () -> {
-            walletService.walletToWalletTransfer(sender, receiverWallet, 100L);
+            walletService.walletToWalletTransfer(sender, receiverWallet, 100L, "rent");
         });
         assertTrue(exception.getMessage().contains("Insufficient balance"));
         verify(walletRepository, times(1)).findByUserId(sender.getId());
@@ -167,7 +206,7 @@ public class WalletServiceImplTest {
         when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Execute the transfer of 100 units
-        Wallet updatedSenderWallet = walletService.walletToWalletTransfer(sender, receiverWallet, 100L);
+        Wallet updatedSenderWallet = walletService.walletToWalletTransfer(sender, receiverWallet, 100L, "rent");
 
         // Assert that sender's balance decreases and receiver's balance increases by 100
         assertEquals(BigDecimal.valueOf(100), updatedSenderWallet.getBalance());
@@ -175,6 +214,48 @@ public class WalletServiceImplTest {
         verify(walletRepository, times(2)).save(any(Wallet.class));
     }
 
+    @Test
+    public void testWalletToWalletTransfer_BooksBothLegs() throws WalletException {
+        // Both legs are booked, so each wallet's ledger sum moves with its balance
+        Wallet senderWallet = new Wallet();
+        senderWallet.setId(7L);
+        senderWallet.setBalance(BigDecimal.valueOf(200));
+        when(walletRepository.findByUserId(3L)).thenReturn(senderWallet);
+        Wallet receiverWallet = new Wallet();
+        receiverWallet.setId(8L);
+        receiverWallet.setBalance(BigDecimal.valueOf(50));
+        List<WalletTransaction> ledger = new ArrayList<>();
+        when(walletTransactionRepository.save(any(WalletTransaction.class))).thenAnswer(invocation -> {
+            ledger.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        // Transfer 100 units from wallet 7 to wallet 8
+        walletService.walletToWalletTransfer(3L, receiverWallet, 100L, "rent");
+
+        // Sender's ledger is down 100, receiver's up 100, each row naming the other wallet
+        Map<Long, Long> sums = ledger.stream().collect(Collectors.groupingBy(
+                row -> row.getWallet().getId(), Collectors.summingLong(WalletTransaction::getAmount)));
+        assertEquals(Map.of(7L, -100L, 8L, 100L), sums);
+        assertTrue(ledger.stream().allMatch(row -> row.getType() == WalletTransactionType.WALLET_TRANSFER
+                && "rent".equals(row.getPurpose())));
+        assertEquals("8", ledger.get(0).getTransferId());
+        assertEquals("7", ledger.get(1).getTransferId());
+    }
+
+    @Test
+    public void testWalletToWalletTransfer_RejectsNonPositiveAmount() {
+        // A negative amount would move money from the receiver to the sender
+        Wallet senderWallet = new Wallet();
+        senderWallet.setBalance(BigDecimal.valueOf(200));
+        when(walletRepository.findByUserId(3L)).thenReturn(senderWallet);
+
+        assertThrows(WalletException.class,
+                () -> walletService.walletToWalletTransfer(3L, new Wallet(), -100L, "rent"));
+        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletTransactionRepository, never()).save(any(WalletTransaction.class));
+    }
+
     @Test
     public void testPayOrderPayment_BuyOrder_InsufficientFunds() {
         // Setup for a BUY order with insufficient wallet funds
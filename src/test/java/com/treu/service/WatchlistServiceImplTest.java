@@ -0,0 +1,229 @@
+package com.treu.service;
+
+import com.treu.model.Coin;
+import com.treu.model.CoinQuote;
+import com.treu.repository.CoinRepository;
+import com.treu.repository.WatchlistRepository;
+import com.treu.response.WatchlistQuote;
+import com.treu.response.WatchlistView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for WatchlistServiceImpl
+ * Covers the set-based toggle, its cached coin IDs and the priced watchlist view
+ */
+@ExtendWith(MockitoExtension.class)
+public class WatchlistServiceImplTest {
+
+    @Mock
+    private WatchlistRepository watchlistRepository;
+
+    @Mock
+    private CoinRepository coinRepository;
+
+    @Mock
+    private PriceSnapshotService priceSnapshotService;
+
+    @InjectMocks
+    private WatchlistServiceImpl watchlistService;
+
+    private static final Long USER_ID = 1L;
+    private static final Long WATCHLIST_ID = 10L;
+
+    private Coin bitcoin;
+
+    @BeforeEach
+    void setUp() {
+        bitcoin = new Coin();
+        bitcoin.setId("bitcoin");
+        when(watchlistRepository.findIdByUserId(USER_ID)).thenReturn(WATCHLIST_ID);
+    }
+
+    /**
+     * Test for addItemToWatchlist toggling a coin on and off
+     * Verifies that each toggle is a single insert or delete and the IDs are loaded once
+     */
+    @Test
+    void addItemToWatchlist_TogglesWithOneStatementEach() throws Exception {
+        // Arrange
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(List.of("ethereum"));
+        when(watchlistRepository.removeCoin(WATCHLIST_ID, "bitcoin")).thenReturn(1);
+
+        // Act & Assert: first toggle adds
+        watchlistService.addItemToWatchlist(bitcoin, USER_ID);
+        verify(watchlistRepository).addCoin(WATCHLIST_ID, "bitcoin");
+        assertEquals(Set.of("ethereum", "bitcoin"), watchlistService.getWatchedCoinIds(USER_ID));
+
+        // Act & Assert: second toggle removes
+        watchlistService.addItemToWatchlist(bitcoin, USER_ID);
+        verify(watchlistRepository).removeCoin(WATCHLIST_ID, "bitcoin");
+        assertEquals(Set.of("ethereum"), watchlistService.getWatchedCoinIds(USER_ID));
+
+        // The watchlist and its coin IDs were read once; the watchlist entity was never loaded
+        verify(watchlistRepository, times(1)).findCoinIds(WATCHLIST_ID);
+        verify(watchlistRepository, never()).findByUserId(any());
+        verify(watchlistRepository, never()).save(any());
+    }
+
+    /**
+     * Test for addItemToWatchlist when the cache says absent but the row exists
+     * Verifies that the duplicate key turns the toggle into a delete
+     */
+    @Test
+    void addItemToWatchlist_StaleAbsent_RemovesInstead() throws Exception {
+        // Arrange
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(List.of());
+        when(watchlistRepository.addCoin(WATCHLIST_ID, "bitcoin"))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // Act
+        watchlistService.addItemToWatchlist(bitcoin, USER_ID);
+
+        // Assert
+        verify(watchlistRepository).removeCoin(WATCHLIST_ID, "bitcoin");
+        assertFalse(watchlistService.getWatchedCoinIds(USER_ID).contains("bitcoin"));
+    }
+
+    /**
+     * Test for addItemToWatchlist when the cache says present but the row is gone
+     * Verifies that a delete of no rows turns the toggle into an insert
+     */
+    @Test
+    void addItemToWatchlist_StalePresent_AddsInstead() throws Exception {
+        // Arrange
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(List.of("bitcoin"));
+        when(watchlistRepository.removeCoin(WATCHLIST_ID, "bitcoin")).thenReturn(0);
+
+        // Act
+        watchlistService.addItemToWatchlist(bitcoin, USER_ID);
+
+        // Assert
+        verify(watchlistRepository).addCoin(WATCHLIST_ID, "bitcoin");
+        assertTrue(watchlistService.getWatchedCoinIds(USER_ID).contains("bitcoin"));
+    }
+
+    /**
+     * Test for addItemToWatchlist when the statement fails
+     * Verifies that the cached entry is dropped and reloaded on next use
+     */
+    @Test
+    void addItemToWatchlist_Failure_EvictsCache() throws Exception {
+        // Arrange
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(List.of());
+        when(watchlistRepository.addCoin(WATCHLIST_ID, "bitcoin")).thenThrow(new IllegalStateException("db down"));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> watchlistService.addItemToWatchlist(bitcoin, USER_ID));
+        watchlistService.getWatchedCoinIds(USER_ID);
+
+        // Assert
+        verify(watchlistRepository, times(2)).findCoinIds(WATCHLIST_ID);
+    }
+
+    /**
+     * Test for getWatchlistView without a version
+     * Verifies that snapshot quotes and stored coins without a tick are joined into one sorted view
+     */
+    @Test
+    void getWatchlistView_Full_JoinsSnapshotAndStoredCoins() throws Exception {
+        // Arrange
+        Coin ethereum = new Coin();
+        ethereum.setId("ethereum");
+        ethereum.setCurrentPrice(3000);
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(List.of("ethereum", "bitcoin"));
+        when(priceSnapshotService.getVersion()).thenReturn(7L);
+        when(priceSnapshotService.getQuote("bitcoin")).thenReturn(quote("bitcoin", 60000, 5));
+        when(priceSnapshotService.getQuote("ethereum")).thenReturn(null);
+        when(coinRepository.findAllById(List.of("ethereum"))).thenReturn(List.of(ethereum));
+
+        // Act
+        WatchlistView view = watchlistService.getWatchlistView(USER_ID, null, null);
+
+        // Assert
+        assertTrue(view.isFull());
+        assertEquals(7L, view.getVersion());
+        assertEquals(List.of("bitcoin", "ethereum"), view.getCoinIds());
+        assertEquals(List.of(60000.0, 3000.0), view.getQuotes().stream().map(WatchlistQuote::getPrice).toList());
+    }
+
+    /**
+     * Test for getWatchlistView with the version and membership of an earlier view
+     * Verifies that only quotes stored after that version are sent and no query runs
+     */
+    @Test
+    void getWatchlistView_Incremental_SendsOnlyChangedQuotes() throws Exception {
+        // Arrange
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(List.of("bitcoin", "ethereum"));
+        when(priceSnapshotService.getVersion()).thenReturn(7L, 9L);
+        when(priceSnapshotService.getQuote("bitcoin")).thenReturn(quote("bitcoin", 60000, 5));
+        when(priceSnapshotService.getQuote("ethereum")).thenReturn(quote("ethereum", 3100, 9));
+        WatchlistView first = watchlistService.getWatchlistView(USER_ID, null, null);
+
+        // Act
+        WatchlistView update = watchlistService.getWatchlistView(USER_ID, first.getVersion(), first.getMembership());
+
+        // Assert
+        assertFalse(update.isFull());
+        assertEquals(9L, update.getVersion());
+        assertEquals(List.of("ethereum"), update.getQuotes().stream().map(WatchlistQuote::getId).toList());
+        verifyNoInteractions(coinRepository);
+    }
+
+    /**
+     * Test for getWatchlistView after the watchlist changed
+     * Verifies that a stale membership fingerprint gets a full view
+     */
+    @Test
+    void getWatchlistView_MembershipChanged_SendsFullView() throws Exception {
+        // Arrange
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(List.of("bitcoin"));
+        when(priceSnapshotService.getVersion()).thenReturn(7L);
+        when(priceSnapshotService.getQuote("bitcoin")).thenReturn(quote("bitcoin", 60000, 5));
+        int before = List.of("bitcoin", "ethereum").hashCode();
+
+        // Act
+        WatchlistView view = watchlistService.getWatchlistView(USER_ID, 6L, before);
+
+        // Assert
+        assertTrue(view.isFull());
+        assertEquals(1, view.getQuotes().size());
+    }
+
+    /**
+     * Test for getWatchlistView with a version ahead of the snapshot
+     * Verifies that a version the snapshot has not reached, e.g. from before a restart, gets a full view
+     */
+    @Test
+    void getWatchlistView_VersionAheadOfSnapshot_SendsFullView() throws Exception {
+        // Arrange
+        List<String> coinIds = List.of("bitcoin", "ethereum");
+        when(watchlistRepository.findCoinIds(WATCHLIST_ID)).thenReturn(coinIds);
+        when(priceSnapshotService.getVersion()).thenReturn(7L);
+        when(priceSnapshotService.getQuote("bitcoin")).thenReturn(quote("bitcoin", 60000, 5));
+        when(priceSnapshotService.getQuote("ethereum")).thenReturn(quote("ethereum", 3100, 6));
+
+        // Act
+        WatchlistView view = watchlistService.getWatchlistView(USER_ID, 500L, coinIds.hashCode());
+
+        // Assert
+        assertTrue(view.isFull());
+        assertEquals(2, view.getQuotes().size());
+    }
+
+    // Quote of a coin at a snapshot version
+    private static CoinQuote quote(String coinId, double price, long version) {
+        return new CoinQuote(coinId, coinId, coinId, null, price, 0, 0, 0, 0, 0, 0, version, 0);
+    }
+}
@@ -0,0 +1,203 @@
+package com.treu.service;
+
+import com.treu.domain.WithdrawalStatus;
+import com.treu.exception.WalletException;
+import com.treu.model.User;
+import com.treu.model.Wallet;
+import com.treu.model.WalletTransaction;
+import com.treu.model.Withdrawal;
+import com.treu.repository.WalletRepository;
+import com.treu.repository.WalletTransactionRepository;
+import com.treu.repository.WithdrawalRepository;
+import com.treu.response.WithdrawalPage;
+import com.treu.response.WithdrawalResult;
+import com.treu.response.WithdrawalStatusSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WithdrawalServiceImplTest {
+
+    // Mocks for dependencies
+    @Mock
+    private WithdrawalRepository withdrawalRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    // Inject mocks into the service implementation
+    @InjectMocks
+    private WithdrawalServiceImpl withdrawalService;
+
+    private User owner;
+
+    private Wallet ownerWallet;
+
+    @BeforeEach
+    public void setup() {
+        owner = new User();
+        owner.setId(1L);
+        ownerWallet = new Wallet(10L, owner, BigDecimal.valueOf(500));
+    }
+
+    /**
+     * Test for requestWithdrawal: an amount the balance does not cover is refused before anything is written.
+     */
+    @Test
+    public void testRequestWithdrawal_InsufficientBalance() throws WalletException {
+        // Arrange
+        when(walletService.getUserWallet(1L)).thenReturn(ownerWallet);
+        when(walletRepository.debitIfSufficient(10L, BigDecimal.valueOf(800))).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(WalletException.class, () -> withdrawalService.requestWithdrawal(800L, owner));
+        verify(withdrawalRepository, never()).save(any());
+        verify(walletTransactionRepository, never()).save(any());
+    }
+
+    /**
+     * Test for requestWithdrawal: reserves the amount and books a matching ledger debit.
+     */
+    @Test
+    public void testRequestWithdrawal_ReservesAndRecordsLedgerEntry() throws WalletException {
+        // Arrange
+        when(walletService.getUserWallet(1L)).thenReturn(ownerWallet);
+        when(walletRepository.debitIfSufficient(10L, BigDecimal.valueOf(200))).thenReturn(1);
+        when(withdrawalRepository.save(any(Withdrawal.class))).thenAnswer(invocation -> {
+            Withdrawal saved = invocation.getArgument(0);
+            saved.setId(77L);
+            return saved;
+        });
+
+        // Act
+        Withdrawal withdrawal = withdrawalService.requestWithdrawal(200L, owner);
+
+        // Assert
+        assertEquals(WithdrawalStatus.PENDING, withdrawal.getStatus());
+        ArgumentCaptor<WalletTransaction> entry = ArgumentCaptor.forClass(WalletTransaction.class);
+        verify(walletTransactionRepository).save(entry.capture());
+        assertEquals(-200L, entry.getValue().getAmount());
+        assertEquals("77", entry.getValue().getTransferId());
+        // The wallet is never written from a stale in-memory balance
+        verify(walletRepository, never()).save(any());
+    }
+
+    /**
+     * Test for proceedWithdrawals: a declined batch refunds each owner once and reports every requested id.
+     */
+    @Test
+    public void testProceedWithdrawals_DeclineRefundsOwners() throws WalletException {
+        // Arrange
+        Withdrawal first = withdrawal(1L, 100L, WithdrawalStatus.PENDING);
+        Withdrawal second = withdrawal(2L, 50L, WithdrawalStatus.PENDING);
+        Withdrawal settled = withdrawal(3L, 70L, WithdrawalStatus.SUCCESS);
+        when(withdrawalRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(first, second, settled));
+        when(walletRepository.findByUserIdIn(any())).thenReturn(List.of(ownerWallet));
+
+        // Act
+        List<WithdrawalResult> results = withdrawalService.proceedWithdrawals(List.of(1L, 2L, 3L, 4L), false);
+
+        // Assert
+        assertEquals(List.of(true, true, false, false), results.stream().map(WithdrawalResult::isApplied).toList());
+        assertEquals(WithdrawalStatus.SUCCESS, results.get(2).getStatus());
+        assertNull(results.get(3).getStatus());
+        assertEquals(WithdrawalStatus.DECLINE, first.getStatus());
+        assertEquals(WithdrawalStatus.SUCCESS, settled.getStatus());
+        // One credit of the total to the owner's wallet, one ledger entry per declined withdrawal
+        verify(walletRepository).credit(10L, BigDecimal.valueOf(150));
+        verify(walletTransactionRepository).saveAll(argThat(entries -> ((List<?>) entries).size() == 2));
+    }
+
+    /**
+     * Test for procedWithdrawal: a withdrawal that was already settled is not settled again.
+     */
+    @Test
+    public void testProcedWithdrawal_AlreadyProcessed() {
+        // Arrange
+        when(withdrawalRepository.findAllForUpdateByIdIn(any()))
+                .thenReturn(List.of(withdrawal(3L, 70L, WithdrawalStatus.DECLINE)));
+
+        // Act & Assert
+        assertThrows(Exception.class, () -> withdrawalService.procedWithdrawal(3L, false));
+        verify(walletRepository, never()).credit(anyLong(), any());
+    }
+
+    /**
+     * Test for getWithdrawalQueue: a full page ends with the cursor of its last item and the next page seeks after it.
+     */
+    @Test
+    public void testGetWithdrawalQueue_PagesByCursor() {
+        // Arrange: three pending withdrawals, two per page
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        List<Withdrawal> rows = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Withdrawal withdrawal = withdrawal(id, 10L * id, WithdrawalStatus.PENDING);
+            withdrawal.setDate(start.plusMinutes(id));
+            rows.add(withdrawal);
+        }
+        when(withdrawalRepository.findQueueFirstPage(WithdrawalStatus.PENDING, PageRequest.of(0, 3))).thenReturn(rows);
+        when(withdrawalRepository.findQueuePageAfter(WithdrawalStatus.PENDING, start.plusMinutes(2), 2L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(rows.get(2)));
+
+        // Act
+        WithdrawalPage first = withdrawalService.getWithdrawalQueue(WithdrawalStatus.PENDING, null, null, 2);
+        WithdrawalPage second = withdrawalService.getWithdrawalQueue(
+                WithdrawalStatus.PENDING, first.getNextAfterDate(), first.getNextAfterId(), 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), first.getItems().stream().map(Withdrawal::getId).toList());
+        assertEquals(List.of(3L), second.getItems().stream().map(Withdrawal::getId).toList());
+        assertNull(second.getNextAfterId());
+        verify(withdrawalRepository, never()).findAll();
+    }
+
+    /**
+     * Test for getWithdrawalSummary: maps the grouped rows computed by the database.
+     */
+    @Test
+    public void testGetWithdrawalSummary_MapsGroupedRows() {
+        // Arrange
+        when(withdrawalRepository.summarizeByStatus()).thenReturn(List.of(
+                new Object[]{WithdrawalStatus.PENDING, 4L, 900L},
+                new Object[]{WithdrawalStatus.DECLINE, 1L, 50L}));
+
+        // Act
+        List<WithdrawalStatusSummary> summary = withdrawalService.getWithdrawalSummary();
+
+        // Assert
+        assertEquals(List.of(
+                new WithdrawalStatusSummary(WithdrawalStatus.PENDING, 4, 900),
+                new WithdrawalStatusSummary(WithdrawalStatus.DECLINE, 1, 50)), summary);
+    }
+
+    // Withdrawal of the owner in the given state
+    private Withdrawal withdrawal(Long id, Long amount, WithdrawalStatus status) {
+        Withdrawal withdrawal = new Withdrawal();
+        withdrawal.setId(id);
+        withdrawal.setAmount(amount);
+        withdrawal.setStatus(status);
+        withdrawal.setUser(owner);
+        return withdrawal;
+    }
+}